@@ -0,0 +1,81 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.carrot2.clustering.Document;
+import org.carrot2.clustering.SampleDocumentData;
+import org.carrot2.language.LanguageComponents;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Input documents and language components shared by all benchmarks, parameterized by the corpus,
+ * the number of documents and the language.
+ *
+ * <p>Sample corpora ({@link SampleDocumentData}) have about 100 documents each; larger document
+ * counts repeat them. The synthetic corpus ({@link SyntheticCorpus}) generates as many distinct
+ * documents as requested.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkCorpus {
+  public static final String DATA_MINING = "data-mining";
+  public static final String DAWID = "dawid";
+  public static final String SYNTHETIC = "synthetic";
+
+  @Param({DATA_MINING, DAWID, SYNTHETIC})
+  public String corpus;
+
+  @Param({"100", "1000"})
+  public int documentCount;
+
+  @Param({"English"})
+  public String language;
+
+  /** Input documents. */
+  public List<Document> documents;
+
+  /** Language components for {@link #language}. */
+  public LanguageComponents languageComponents;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    languageComponents =
+        LanguageComponents.loader().limitToLanguages(language).load().language(language);
+
+    switch (corpus) {
+      case DATA_MINING:
+        documents = repeat(SampleDocumentData.DOCUMENTS_DATA_MINING, documentCount);
+        break;
+      case DAWID:
+        documents = repeat(SampleDocumentData.DOCUMENTS_DAWID, documentCount);
+        break;
+      case SYNTHETIC:
+        documents = new SyntheticCorpus(0xcafe, 5_000, 50).documents(documentCount);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown corpus: " + corpus);
+    }
+  }
+
+  private static List<Document> repeat(List<Document> documents, int count) {
+    final List<Document> result = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      result.add(documents.get(i % documents.size()));
+    }
+    return result;
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.BiConsumer;
+import org.carrot2.clustering.Document;
+
+/**
+ * Generates synthetic documents resembling search results: a short title and a longer snippet made
+ * of pseudo-words with Zipf-distributed frequencies. Each document is biased towards one of a
+ * number of topics (recurring multi-word phrases), so that phrase extraction and clustering have
+ * some structure to discover. The output is fully determined by the seed.
+ */
+public final class SyntheticCorpus {
+  private static final String[] SYLLABLES = {
+    "ka", "lo", "mi", "ra", "te", "su", "no", "vi", "da", "pe", "ro", "zu", "an", "el", "is", "or"
+  };
+
+  private final long seed;
+  private final String[] vocabulary;
+  private final double[] cumulativeFrequency;
+  private final String[][] topics;
+
+  public SyntheticCorpus(long seed, int vocabularySize, int topicCount) {
+    this.seed = seed;
+
+    final Random random = new Random(seed);
+    this.vocabulary = new String[vocabularySize];
+    for (int i = 0; i < vocabularySize; i++) {
+      // Frequent words are short, as in natural languages.
+      final int syllables = 1 + Math.min(4, i / 64 + random.nextInt(2));
+      final StringBuilder b = new StringBuilder();
+      for (int j = 0; j < syllables; j++) {
+        b.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+      }
+      vocabulary[i] = b.toString();
+    }
+
+    this.cumulativeFrequency = new double[vocabularySize];
+    double sum = 0;
+    for (int i = 0; i < vocabularySize; i++) {
+      sum += 1.0 / (i + 1);
+      cumulativeFrequency[i] = sum;
+    }
+    for (int i = 0; i < vocabularySize; i++) {
+      cumulativeFrequency[i] /= sum;
+    }
+
+    this.topics = new String[topicCount][];
+    for (int i = 0; i < topicCount; i++) {
+      // Topic words come from the less frequent part of the vocabulary.
+      topics[i] = new String[2 + random.nextInt(3)];
+      for (int j = 0; j < topics[i].length; j++) {
+        topics[i][j] = vocabulary[vocabularySize / 10 + random.nextInt(vocabularySize * 9 / 10)];
+      }
+    }
+  }
+
+  /** Generates <code>count</code> documents, always the same ones for the same arguments. */
+  public List<Document> documents(int count) {
+    final Random random = new Random(seed ^ count);
+    final List<Document> documents = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final String[] topic = topics[random.nextInt(topics.length)];
+      final String title = sentence(random, 3 + random.nextInt(6), topic, false);
+
+      final StringBuilder snippet = new StringBuilder();
+      for (int sentences = 1 + random.nextInt(3); sentences > 0; sentences--) {
+        if (snippet.length() > 0) {
+          snippet.append(' ');
+        }
+        snippet.append(sentence(random, 8 + random.nextInt(12), topic, true));
+      }
+
+      documents.add(new SyntheticDocument(title, snippet.toString()));
+    }
+    return documents;
+  }
+
+  private String sentence(Random random, int length, String[] topic, boolean period) {
+    final List<String> words = new ArrayList<>();
+    while (words.size() < length) {
+      if (random.nextInt(4) == 0) {
+        words.addAll(Arrays.asList(topic));
+      } else {
+        words.add(word(random));
+      }
+    }
+
+    final String first = words.get(0);
+    words.set(0, first.substring(0, 1).toUpperCase(Locale.ROOT) + first.substring(1));
+    return String.join(" ", words) + (period ? "." : "");
+  }
+
+  private String word(Random random) {
+    int index = Arrays.binarySearch(cumulativeFrequency, random.nextDouble());
+    if (index < 0) {
+      index = -index - 1;
+    }
+    return vocabulary[Math.min(index, vocabulary.length - 1)];
+  }
+
+  private static final class SyntheticDocument implements Document {
+    private final String title;
+    private final String snippet;
+
+    SyntheticDocument(String title, String snippet) {
+      this.title = title;
+      this.snippet = snippet;
+    }
+
+    @Override
+    public void visitFields(BiConsumer<String, String> fieldConsumer) {
+      fieldConsumer.accept("title", title);
+      fieldConsumer.accept("snippet", snippet);
+    }
+  }
+}
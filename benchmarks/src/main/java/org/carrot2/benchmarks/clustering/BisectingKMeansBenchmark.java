@@ -0,0 +1,66 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.benchmarks.clustering;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.carrot2.benchmarks.BenchmarkCorpus;
+import org.carrot2.clustering.Cluster;
+import org.carrot2.clustering.Document;
+import org.carrot2.clustering.kmeans.BisectingKMeansClusteringAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link BisectingKMeansClusteringAlgorithm} k-means splits on the full term-document
+ * matrix (without dimensionality reduction). With two clusters, the algorithm makes a single split
+ * of all documents, the first and largest one; the default cluster count adds the subsequent,
+ * smaller splits. Both include preprocessing, matrix building and labeling, which do not depend on
+ * the cluster count.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BisectingKMeansBenchmark {
+  /** An algorithm clustering the full term-document matrix. */
+  @State(Scope.Benchmark)
+  public static class Input {
+    @Param({"2", "25"})
+    public int clusterCount;
+
+    BisectingKMeansClusteringAlgorithm algorithm;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      algorithm = new BisectingKMeansClusteringAlgorithm();
+      algorithm.useDimensionalityReduction.set(false);
+      algorithm.partitionCount.set(2);
+      algorithm.clusterCount.set(clusterCount);
+    }
+  }
+
+  @Benchmark
+  public List<Cluster<Document>> cluster(BenchmarkCorpus corpus, Input input) {
+    return input.algorithm.cluster(corpus.documents.stream(), corpus.languageComponents);
+  }
+}
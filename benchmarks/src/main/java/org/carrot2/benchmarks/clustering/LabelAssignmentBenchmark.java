@@ -0,0 +1,96 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.benchmarks.clustering;
+
+import com.carrotsearch.hppc.IntIntHashMap;
+import java.util.concurrent.TimeUnit;
+import org.carrot2.attrs.AttrVisitor;
+import org.carrot2.benchmarks.BenchmarkCorpus;
+import org.carrot2.clustering.lingo.LabelAssigner;
+import org.carrot2.clustering.lingo.LingoClusteringAlgorithm;
+import org.carrot2.clustering.lingo.LingoProcessingContext;
+import org.carrot2.clustering.lingo.LingoStages;
+import org.carrot2.clustering.lingo.UniqueLabelAssigner;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link UniqueLabelAssigner}. The input matrices are captured from a regular Lingo
+ * run (up to label assignment) and copied for each invocation because the assigner modifies them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LabelAssignmentBenchmark {
+  /** Label assigner arguments captured during {@link LingoStages#buildLabels}. */
+  @State(Scope.Benchmark)
+  public static class CapturedInput implements LabelAssigner {
+    LingoProcessingContext context;
+    DoubleMatrix2D stemCos;
+    IntIntHashMap filteredRowToStemIndex;
+    DoubleMatrix2D phraseCos;
+
+    @Setup(Level.Trial)
+    public void setup(BenchmarkCorpus corpus) {
+      final LingoClusteringAlgorithm lingo = new LingoClusteringAlgorithm();
+      lingo.clusterBuilder.labelAssigner = this;
+      LingoStages.buildLabels(lingo, corpus.documents, corpus.languageComponents);
+    }
+
+    @Override
+    public void assignLabels(
+        LingoProcessingContext context,
+        DoubleMatrix2D stemCos,
+        IntIntHashMap filteredRowToStemIndex,
+        DoubleMatrix2D phraseCos) {
+      this.context = context;
+      this.stemCos = stemCos;
+      this.filteredRowToStemIndex = filteredRowToStemIndex;
+      this.phraseCos = phraseCos;
+    }
+
+    @Override
+    public void accept(AttrVisitor visitor) {}
+  }
+
+  /** Fresh copies of the captured matrices for each invocation. */
+  @State(Scope.Thread)
+  public static class Input {
+    DoubleMatrix2D stemCos;
+    DoubleMatrix2D phraseCos;
+
+    @Setup(Level.Invocation)
+    public void setup(CapturedInput captured) {
+      stemCos = captured.stemCos.copy();
+      phraseCos = captured.phraseCos != null ? captured.phraseCos.copy() : null;
+    }
+  }
+
+  @Benchmark
+  public LingoProcessingContext uniqueLabelAssigner(CapturedInput captured, Input input) {
+    new UniqueLabelAssigner()
+        .assignLabels(
+            captured.context, input.stemCos, captured.filteredRowToStemIndex, input.phraseCos);
+    return captured.context;
+  }
+}
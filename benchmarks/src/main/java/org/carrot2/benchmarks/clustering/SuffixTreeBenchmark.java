@@ -0,0 +1,70 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.benchmarks.clustering;
+
+import java.util.concurrent.TimeUnit;
+import org.carrot2.benchmarks.BenchmarkCorpus;
+import org.carrot2.clustering.stc.STCClusteringAlgorithm;
+import org.carrot2.clustering.stc.SuffixTreeInput;
+import org.carrot2.text.preprocessing.PreprocessingContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the generalized suffix tree construction in {@link STCClusteringAlgorithm}. The
+ * input sequence is built the same way as in the algorithm, for each invocation (the input holds
+ * the tree it builds).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuffixTreeBenchmark {
+  /** Documents preprocessed with the default STC pipeline, shared by all invocations. */
+  @State(Scope.Benchmark)
+  public static class Preprocessed {
+    PreprocessingContext context;
+
+    @Setup(Level.Trial)
+    public void setup(BenchmarkCorpus corpus) {
+      context =
+          new STCClusteringAlgorithm()
+              .preprocessing.preprocess(
+                  corpus.documents.stream(), null, corpus.languageComponents);
+    }
+  }
+
+  /** A fresh suffix tree input for each invocation. */
+  @State(Scope.Thread)
+  public static class Input {
+    SuffixTreeInput input;
+
+    @Setup(Level.Invocation)
+    public void setup(Preprocessed preprocessed) {
+      input = new SuffixTreeInput(preprocessed.context);
+    }
+  }
+
+  @Benchmark
+  public int suffixTree(Input input) {
+    return input.input.buildSuffixTree();
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.benchmarks.matrix;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.carrot2.math.mahout.function.Functions;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix2D;
+import org.carrot2.math.matrix.MatrixFactorization;
+import org.carrot2.math.matrix.NonnegativeMatrixFactorizationEDFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the dense matrix operations used by the NMF and k-means factorizations. The shapes
+ * correspond to a term-document matrix A factorized into U and V.
+ *
+ * <p>The scalar kernels are used by default. To measure the Vector API kernels (Java 17 or newer),
+ * add the incubating module to the forked JVMs:
+ *
+ * <pre>
+ * ./gradlew :benchmarks:jmh \
+ *   -Pjmh.args="DenseMatrixKernels -jvmArgsAppend --add-modules=jdk.incubator.vector"
+ * </pre>
+ *
+ * <p>Similarly, add <code>-Dcarrot2.matrix.threads=N</code> to measure multiplications split among
+ * N threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DenseMatrixKernelsBenchmark {
+  /** The number of terms (rows of A). */
+  @Param({"1000"})
+  public int terms;
+
+  /** The number of documents (columns of A). */
+  @Param({"500"})
+  public int documents;
+
+  /** The number of base vectors. */
+  @Param({"30"})
+  public int dimensions;
+
+  private DoubleMatrix2D A;
+  private DoubleMatrix2D U;
+  private DoubleMatrix2D V;
+  private DoubleMatrix2D UV;
+  private DoubleMatrix2D AV;
+  private DoubleMatrix2D VV;
+  private DoubleMatrix2D X;
+  private DoubleMatrix2D Y;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    final Random random = new Random(0xcafe);
+    A = new DenseDoubleMatrix2D(terms, documents);
+    for (int row = 0; row < terms; row++) {
+      for (int column = 0; column < documents; column++) {
+        if (random.nextInt(10) == 0) {
+          A.setQuick(row, column, random.nextDouble());
+        }
+      }
+    }
+    U = new DenseDoubleMatrix2D(terms, dimensions);
+    U.assign(value -> random.nextDouble());
+    V = new DenseDoubleMatrix2D(documents, dimensions);
+    V.assign(value -> random.nextDouble());
+    UV = new DenseDoubleMatrix2D(terms, documents);
+    AV = new DenseDoubleMatrix2D(terms, dimensions);
+    VV = new DenseDoubleMatrix2D(dimensions, dimensions);
+    X = new DenseDoubleMatrix2D(terms, documents);
+    X.assign(value -> random.nextDouble());
+    Y = new DenseDoubleMatrix2D(terms, documents).assign(1);
+  }
+
+  /** UV <- U * V', a product of two matrices with contiguous rows. */
+  @Benchmark
+  public DoubleMatrix2D multiplyTransposed() {
+    return U.zMult(V, UV, 1, 0, false, true);
+  }
+
+  /** AV <- A * V, a product of a term-document matrix and a factor. */
+  @Benchmark
+  public DoubleMatrix2D multiply() {
+    return A.zMult(V, AV, 1, 0, false, false);
+  }
+
+  /** VV <- V' * V, a Gram matrix of a factor. */
+  @Benchmark
+  public DoubleMatrix2D gram() {
+    return V.zMult(V, VV, 1, 0, true, false);
+  }
+
+  /** X <- X .* Y */
+  @Benchmark
+  public DoubleMatrix2D elementWiseMult() {
+    return X.assign(Y, Functions.MULT);
+  }
+
+  /** X <- X ./ Y */
+  @Benchmark
+  public DoubleMatrix2D elementWiseDiv() {
+    return X.assign(Y, Functions.DIV);
+  }
+
+  /** A complete NMF-ED factorization of A. */
+  @Benchmark
+  public MatrixFactorization factorize() {
+    final NonnegativeMatrixFactorizationEDFactory factory =
+        new NonnegativeMatrixFactorizationEDFactory();
+    factory.setK(dimensions);
+    return factory.factorize(A);
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.benchmarks.matrix;
+
+import java.util.concurrent.TimeUnit;
+import org.carrot2.benchmarks.BenchmarkCorpus;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+import org.carrot2.math.matrix.IterativeMatrixFactorizationFactory;
+import org.carrot2.math.matrix.KMeansMatrixFactorizationFactory;
+import org.carrot2.math.matrix.LocalNonnegativeMatrixFactorizationFactory;
+import org.carrot2.math.matrix.MatrixFactorization;
+import org.carrot2.math.matrix.MatrixFactorizationFactory;
+import org.carrot2.math.matrix.MatrixUtils;
+import org.carrot2.math.matrix.NonnegativeMatrixFactorizationEDFactory;
+import org.carrot2.math.matrix.NonnegativeMatrixFactorizationHALSFactory;
+import org.carrot2.math.matrix.NonnegativeMatrixFactorizationKLFactory;
+import org.carrot2.math.matrix.PartialSingularValueDecompositionFactory;
+import org.carrot2.math.matrix.RandomizedSingularValueDecompositionFactory;
+import org.carrot2.text.preprocessing.CompletePreprocessingPipeline;
+import org.carrot2.text.preprocessing.PreprocessingContext;
+import org.carrot2.text.vsm.TermDocumentMatrixBuilder;
+import org.carrot2.text.vsm.VectorSpaceModelContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of each {@link MatrixFactorizationFactory} applied to a term-document matrix, prepared
+ * the same way as in {@link org.carrot2.text.vsm.TermDocumentMatrixReducer}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatrixFactorizationBenchmark {
+  /** A column-normalized term-document matrix and a configured factorization factory. */
+  @State(Scope.Benchmark)
+  public static class Input {
+    @Param({"PartialSVD", "RandomizedSVD", "NMF-ED", "NMF-HALS", "NMF-KL", "LNMF", "KMeans"})
+    public String factory;
+
+    /** The number of base vectors. */
+    @Param({"15", "30"})
+    public int dimensions;
+
+    DoubleMatrix2D termDocumentMatrix;
+    MatrixFactorizationFactory factorizationFactory;
+
+    @Setup(Level.Trial)
+    public void setup(BenchmarkCorpus corpus) {
+      final PreprocessingContext context =
+          new CompletePreprocessingPipeline()
+              .preprocess(corpus.documents.stream(), null, corpus.languageComponents);
+      final VectorSpaceModelContext vsmContext = new VectorSpaceModelContext(context);
+      new TermDocumentMatrixBuilder().buildTermDocumentMatrix(vsmContext);
+      termDocumentMatrix = vsmContext.termDocumentMatrix;
+
+      switch (factory) {
+        case "PartialSVD":
+          final PartialSingularValueDecompositionFactory svd =
+              new PartialSingularValueDecompositionFactory();
+          svd.setK(dimensions);
+          factorizationFactory = svd;
+          break;
+        case "RandomizedSVD":
+          final RandomizedSingularValueDecompositionFactory randomizedSvd =
+              new RandomizedSingularValueDecompositionFactory();
+          randomizedSvd.setK(dimensions);
+          factorizationFactory = randomizedSvd;
+          break;
+        case "NMF-ED":
+          factorizationFactory = new NonnegativeMatrixFactorizationEDFactory();
+          break;
+        case "NMF-HALS":
+          factorizationFactory = new NonnegativeMatrixFactorizationHALSFactory();
+          break;
+        case "NMF-KL":
+          factorizationFactory = new NonnegativeMatrixFactorizationKLFactory();
+          break;
+        case "LNMF":
+          factorizationFactory = new LocalNonnegativeMatrixFactorizationFactory();
+          break;
+        case "KMeans":
+          factorizationFactory = new KMeansMatrixFactorizationFactory();
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown factory: " + factory);
+      }
+
+      if (factorizationFactory instanceof IterativeMatrixFactorizationFactory) {
+        ((IterativeMatrixFactorizationFactory) factorizationFactory)
+            .estimateIterationsNumber(dimensions, termDocumentMatrix);
+      }
+      MatrixUtils.normalizeColumnL2(termDocumentMatrix, null);
+    }
+  }
+
+  @Benchmark
+  public MatrixFactorization factorize(Input input) {
+    return input.factorizationFactory.factorize(input.termDocumentMatrix);
+  }
+}
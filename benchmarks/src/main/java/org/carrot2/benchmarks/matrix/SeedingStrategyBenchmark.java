@@ -0,0 +1,164 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.benchmarks.matrix;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.carrot2.benchmarks.BenchmarkCorpus;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+import org.carrot2.math.matrix.IterativeFactorizations;
+import org.carrot2.math.matrix.IterativeMatrixFactorization;
+import org.carrot2.math.matrix.IterativeMatrixFactorizationFactory;
+import org.carrot2.math.matrix.KMeansSeedingStrategyFactory;
+import org.carrot2.math.matrix.MatrixFactorization;
+import org.carrot2.math.matrix.MatrixUtils;
+import org.carrot2.math.matrix.NNDSVDSeedingStrategyFactory;
+import org.carrot2.math.matrix.NonnegativeMatrixFactorizationEDFactory;
+import org.carrot2.math.matrix.NonnegativeMatrixFactorizationKLFactory;
+import org.carrot2.math.matrix.RandomSeedingStrategyFactory;
+import org.carrot2.math.matrix.SeedingStrategyFactory;
+import org.carrot2.text.preprocessing.CompletePreprocessingPipeline;
+import org.carrot2.text.preprocessing.PreprocessingContext;
+import org.carrot2.text.vsm.TermDocumentMatrixBuilder;
+import org.carrot2.text.vsm.VectorSpaceModelContext;
+import org.carrot2.util.SuppressForbidden;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link SeedingStrategyFactory}s of the NMF factorizations. The target is the
+ * approximation error reached with random seeding after the number of iterations estimated for high
+ * factorization quality. Each seeding strategy is benchmarked with the number of iterations it
+ * needs to reach the target error, which is printed during setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SeedingStrategyBenchmark {
+  /** The limit of iterations when searching for the target error. */
+  private static final int MAX_ITERATIONS = 200;
+
+  /** A column-normalized term-document matrix and a configured factorization factory. */
+  @State(Scope.Benchmark)
+  public static class Input {
+    @Param({"NMF-ED", "NMF-KL"})
+    public String factory;
+
+    @Param({"Random", "KMeans", "NNDSVD", "NNDSVDa"})
+    public String seeding;
+
+    /** The number of base vectors. */
+    @Param({"30"})
+    public int dimensions;
+
+    DoubleMatrix2D termDocumentMatrix;
+    IterativeMatrixFactorizationFactory factorizationFactory;
+
+    @Setup(Level.Trial)
+    public void setup(BenchmarkCorpus corpus) {
+      final PreprocessingContext context =
+          new CompletePreprocessingPipeline()
+              .preprocess(corpus.documents.stream(), null, corpus.languageComponents);
+      final VectorSpaceModelContext vsmContext = new VectorSpaceModelContext(context);
+      new TermDocumentMatrixBuilder().buildTermDocumentMatrix(vsmContext);
+      termDocumentMatrix = vsmContext.termDocumentMatrix;
+
+      // The target error, reached with random seeding.
+      final IterativeMatrixFactorizationFactory reference = createFactory();
+      reference.estimateIterationsNumber(dimensions, termDocumentMatrix);
+      final int referenceIterations = reference.getMaxIterations();
+      MatrixUtils.normalizeColumnL2(termDocumentMatrix, null);
+      reference.setStopThreshold(0);
+      final double targetError =
+          ((IterativeMatrixFactorization) reference.factorize(termDocumentMatrix))
+              .getApproximationError();
+
+      // The number of iterations needed to reach the target error.
+      factorizationFactory = createFactory();
+      factorizationFactory.setK(dimensions);
+      factorizationFactory.setSeedingFactory(createSeedingFactory());
+      factorizationFactory.setMaxIterations(MAX_ITERATIONS);
+      factorizationFactory.setStopThreshold(0);
+      final double[] errors =
+          IterativeFactorizations.approximationErrors(
+              factorizationFactory.factorize(termDocumentMatrix));
+      int iterations = MAX_ITERATIONS;
+      for (int i = 0; i < errors.length; i++) {
+        if (errors[i] > 0 && errors[i] <= targetError) {
+          iterations = i;
+          break;
+        }
+      }
+      report(
+          String.format(
+              Locale.ROOT,
+              "%s, %s seeding: %d iterations to reach error %.4f (random seeding: %d).",
+              factory,
+              seeding,
+              iterations,
+              targetError,
+              referenceIterations));
+
+      factorizationFactory.setMaxIterations(iterations);
+      factorizationFactory.setStopThreshold(-1);
+    }
+
+    @SuppressForbidden("Legitimate sysout to console.")
+    private static void report(String message) {
+      System.out.println(message);
+    }
+
+    private IterativeMatrixFactorizationFactory createFactory() {
+      switch (factory) {
+        case "NMF-ED":
+          return new NonnegativeMatrixFactorizationEDFactory();
+        case "NMF-KL":
+          return new NonnegativeMatrixFactorizationKLFactory();
+        default:
+          throw new IllegalArgumentException("Unknown factory: " + factory);
+      }
+    }
+
+    private SeedingStrategyFactory createSeedingFactory() {
+      switch (seeding) {
+        case "Random":
+          return new RandomSeedingStrategyFactory(0);
+        case "KMeans":
+          return new KMeansSeedingStrategyFactory();
+        case "NNDSVD":
+          final NNDSVDSeedingStrategyFactory nndsvd = new NNDSVDSeedingStrategyFactory();
+          nndsvd.setFillZeros(false);
+          return nndsvd;
+        case "NNDSVDa":
+          return new NNDSVDSeedingStrategyFactory();
+        default:
+          throw new IllegalArgumentException("Unknown seeding: " + seeding);
+      }
+    }
+  }
+
+  @Benchmark
+  public MatrixFactorization factorize(Input input) {
+    return input.factorizationFactory.factorize(input.termDocumentMatrix);
+  }
+}
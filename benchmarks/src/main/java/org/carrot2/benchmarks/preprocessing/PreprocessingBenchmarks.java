@@ -0,0 +1,131 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.benchmarks.preprocessing;
+
+import static org.carrot2.text.preprocessing.PreprocessingStages.preprocessUpTo;
+
+import java.util.concurrent.TimeUnit;
+import org.carrot2.benchmarks.BenchmarkCorpus;
+import org.carrot2.text.preprocessing.CompletePreprocessingPipeline;
+import org.carrot2.text.preprocessing.LabelFilterProcessor;
+import org.carrot2.text.preprocessing.PreprocessingContext;
+import org.carrot2.text.preprocessing.PreprocessingStages;
+import org.carrot2.text.preprocessing.PreprocessingStages.Stage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of individual preprocessing stages of {@link CompletePreprocessingPipeline}. Each
+ * invocation gets a fresh context with all the preceding stages completed (stages borrow scratch
+ * buffers from the context, so contexts cannot be reused).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PreprocessingBenchmarks {
+  /** A fresh context for each invocation, see {@link PreprocessingStages#preprocessUpTo}. */
+  @State(Scope.Thread)
+  public static class CaseNormalizationInput {
+    @Param({"SORTING", "HASHING"})
+    public String mode;
+
+    PreprocessingContext context;
+
+    @Setup(Level.Invocation)
+    public void setup(BenchmarkCorpus corpus) {
+      context =
+          preprocessUpTo(corpus.documents, corpus.languageComponents, Stage.CASE_NORMALIZATION);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+      context.close();
+    }
+  }
+
+  /** A fresh context for each invocation, see {@link PreprocessingStages#preprocessUpTo}. */
+  @State(Scope.Thread)
+  public static class PhraseExtractionInput {
+    PreprocessingContext context;
+
+    @Setup(Level.Invocation)
+    public void setup(BenchmarkCorpus corpus) {
+      context =
+          preprocessUpTo(corpus.documents, corpus.languageComponents, Stage.PHRASE_EXTRACTION);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+      context.close();
+    }
+  }
+
+  /** A fresh context for each invocation, see {@link PreprocessingStages#preprocessUpTo}. */
+  @State(Scope.Thread)
+  public static class LabelFilteringInput {
+    PreprocessingContext context;
+
+    @Setup(Level.Invocation)
+    public void setup(BenchmarkCorpus corpus) {
+      context = preprocessUpTo(corpus.documents, corpus.languageComponents, Stage.LABEL_FILTERING);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+      context.close();
+    }
+  }
+
+  @Benchmark
+  public PreprocessingContext tokenization(BenchmarkCorpus corpus) {
+    try (PreprocessingContext context = new PreprocessingContext(corpus.languageComponents)) {
+      PreprocessingStages.tokenize(context, corpus.documents);
+      return context;
+    }
+  }
+
+  @Benchmark
+  public PreprocessingContext caseNormalization(CaseNormalizationInput input) {
+    PreprocessingStages.normalizeCase(input.context, input.mode, 1);
+    return input.context;
+  }
+
+  @Benchmark
+  public PreprocessingContext suffixSorting(PhraseExtractionInput input) {
+    PreprocessingStages.sortSuffixes(input.context);
+    return input.context;
+  }
+
+  @Benchmark
+  public PreprocessingContext phraseExtraction(PhraseExtractionInput input) {
+    PreprocessingStages.extractPhrases(input.context, 1);
+    return input.context;
+  }
+
+  @Benchmark
+  public PreprocessingContext labelFiltering(LabelFilteringInput input) {
+    new LabelFilterProcessor().process(input.context);
+    return input.context;
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.benchmarks.vsm;
+
+import java.util.concurrent.TimeUnit;
+import org.carrot2.benchmarks.BenchmarkCorpus;
+import org.carrot2.text.preprocessing.CompletePreprocessingPipeline;
+import org.carrot2.text.preprocessing.PreprocessingContext;
+import org.carrot2.text.vsm.TermDocumentMatrixBuilder;
+import org.carrot2.text.vsm.VectorSpaceModelContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Benchmarks of {@link TermDocumentMatrixBuilder}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TermDocumentMatrixBenchmark {
+  /** Fully preprocessed documents, shared by all invocations. */
+  @State(Scope.Benchmark)
+  public static class Input {
+    PreprocessingContext context;
+
+    @Setup(Level.Trial)
+    public void setup(BenchmarkCorpus corpus) {
+      context =
+          new CompletePreprocessingPipeline()
+              .preprocess(corpus.documents.stream(), null, corpus.languageComponents);
+    }
+  }
+
+  @Benchmark
+  public VectorSpaceModelContext termDocumentMatrix(Input input) {
+    final VectorSpaceModelContext vsmContext = new VectorSpaceModelContext(input.context);
+    new TermDocumentMatrixBuilder().buildTermDocumentMatrix(vsmContext);
+    return vsmContext;
+  }
+
+  @Benchmark
+  public VectorSpaceModelContext termDocumentAndTermPhraseMatrix(Input input) {
+    final VectorSpaceModelContext vsmContext = new VectorSpaceModelContext(input.context);
+    final TermDocumentMatrixBuilder builder = new TermDocumentMatrixBuilder();
+    builder.buildTermDocumentMatrix(vsmContext);
+    builder.buildTermPhraseMatrix(vsmContext);
+    return vsmContext;
+  }
+}
@@ -527,6 +527,52 @@ public final class ExtendedWhitespaceTokenizerImpl {
 		return zzStartRead;
 	}
 
+	/** A reader with no content, signals the end of input preloaded to the buffer. */
+	private static final java.io.Reader EOF_READER = new java.io.Reader() {
+		@Override
+		public int read(char [] cbuf, int off, int len) {
+			return -1;
+		}
+
+		@Override
+		public void close() {
+		}
+	};
+
+	/**
+	 * Resets the scanner to read the given range of <code>buffer</code>. The whole range is
+	 * loaded to the scanner's buffer at once, without going through a reader.
+	 */
+	final void yyreset(char [] buffer, int offset, int length) {
+		yyreserve(length);
+		System.arraycopy(buffer, offset, zzBuffer, 0, length);
+		zzEndRead = length;
+	}
+
+	/**
+	 * Resets the scanner to read the given character sequence. The whole sequence is loaded to the
+	 * scanner's buffer at once, without going through a reader.
+	 */
+	final void yyreset(CharSequence input) {
+		final int length = input.length();
+		yyreserve(length);
+		if (input instanceof String) {
+			((String) input).getChars(0, length, zzBuffer, 0);
+		} else {
+			for (int i = 0; i < length; i++) {
+				zzBuffer[i] = input.charAt(i);
+			}
+		}
+		zzEndRead = length;
+	}
+
+	private void yyreserve(int length) {
+		yyreset(EOF_READER);
+		if (zzBuffer.length < length) {
+			zzBuffer = new char[length];
+		}
+	}
+
 
   /**
    * Creates a new scanner
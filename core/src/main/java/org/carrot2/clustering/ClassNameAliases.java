@@ -23,8 +23,10 @@ import org.carrot2.language.EphemeralDictionaries;
 import org.carrot2.math.matrix.KMeansMatrixFactorizationFactory;
 import org.carrot2.math.matrix.LocalNonnegativeMatrixFactorizationFactory;
 import org.carrot2.math.matrix.NonnegativeMatrixFactorizationEDFactory;
+import org.carrot2.math.matrix.NonnegativeMatrixFactorizationHALSFactory;
 import org.carrot2.math.matrix.NonnegativeMatrixFactorizationKLFactory;
 import org.carrot2.math.matrix.PartialSingularValueDecompositionFactory;
+import org.carrot2.math.matrix.RandomizedSingularValueDecompositionFactory;
 import org.carrot2.text.preprocessing.BasicPreprocessingPipeline;
 import org.carrot2.text.preprocessing.CompletePreprocessingPipeline;
 import org.carrot2.text.preprocessing.DocumentAssigner;
@@ -102,6 +104,10 @@ public class ClassNameAliases implements AliasMapperFactory {
             "NonnegativeMatrixFactorizationEDFactory",
             NonnegativeMatrixFactorizationEDFactory.class,
             NonnegativeMatrixFactorizationEDFactory::new)
+        .alias(
+            "NonnegativeMatrixFactorizationHALSFactory",
+            NonnegativeMatrixFactorizationHALSFactory.class,
+            NonnegativeMatrixFactorizationHALSFactory::new)
         .alias(
             "NonnegativeMatrixFactorizationKLFactory",
             NonnegativeMatrixFactorizationKLFactory.class,
@@ -110,6 +116,10 @@ public class ClassNameAliases implements AliasMapperFactory {
             "PartialSingularValueDecompositionFactory",
             PartialSingularValueDecompositionFactory.class,
             PartialSingularValueDecompositionFactory::new)
+        .alias(
+            "RandomizedSingularValueDecompositionFactory",
+            RandomizedSingularValueDecompositionFactory.class,
+            RandomizedSingularValueDecompositionFactory::new)
         .alias("EphemeralDictionaries", EphemeralDictionaries.class, EphemeralDictionaries::new)
         .alias("DefaultDictionaryImpl", DefaultDictionaryImpl.class, DefaultDictionaryImpl::new);
   }
@@ -56,4 +56,24 @@ public interface ClusteringAlgorithm extends AcceptingVisitor {
    */
   <T extends Document> List<Cluster<T>> cluster(
       Stream<? extends T> documents, LanguageComponents languageComponents);
+
+  /**
+   * Cluster a set of documents, reporting the time and resources spent in subsequent processing
+   * stages to the provided listener. Algorithms that do not support instrumentation ignore the
+   * listener.
+   *
+   * @param documents A stream of {@link Document documents} for clustering.
+   * @param languageComponents {@link LanguageComponents} with a set of suppliers for the required
+   *     language-specific components.
+   * @param listener A listener receiving per-stage metrics.
+   * @param <T> Any subclass of {@link Document}. Clusters of objects of the same type are returned.
+   * @return A list of top-level clusters.
+   * @since 4.6.0
+   */
+  default <T extends Document> List<Cluster<T>> cluster(
+      Stream<? extends T> documents,
+      LanguageComponents languageComponents,
+      ClusteringListener listener) {
+    return cluster(documents, languageComponents);
+  }
 }
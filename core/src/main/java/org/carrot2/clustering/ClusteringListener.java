@@ -0,0 +1,53 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.clustering;
+
+import java.util.Map;
+import java.util.stream.Stream;
+import org.carrot2.language.LanguageComponents;
+
+/**
+ * Receives timing and size information about consecutive stages of a clustering algorithm (for
+ * example, tokenization, phrase extraction or matrix factorization). Pass an instance to {@link
+ * ClusteringAlgorithm#cluster(Stream, LanguageComponents, ClusteringListener)}.
+ *
+ * <p>Stage names and cardinality keys are algorithm-specific and meant for diagnostics, they are
+ * not a stable API. Listeners are invoked on the thread running the clustering.
+ *
+ * @since 4.6.0
+ */
+public interface ClusteringListener {
+  /** A listener that ignores all events. Algorithms skip instrumentation entirely for it. */
+  ClusteringListener NO_OP = new ClusteringListener() {};
+
+  /**
+   * Invoked after a processing stage has completed.
+   *
+   * @param stage Name of the stage.
+   * @param elapsedNanos Wall time spent in the stage, in nanoseconds.
+   * @param allocatedBytes Number of bytes allocated by the clustering thread during the stage or
+   *     <code>-1</code> if the JVM does not support per-thread allocation counters.
+   * @param cardinalities Sizes of key data structures after the stage (for example, the number of
+   *     tokens or matrix dimensions), in insertion order. Can be empty.
+   */
+  default void stageCompleted(
+      String stage, long elapsedNanos, long allocatedBytes, Map<String, Long> cardinalities) {}
+
+  /**
+   * Invoked when a processing stage is degraded to meet the algorithm's time budget (for example, a
+   * smaller matrix is built or fewer iterations are performed).
+   *
+   * @param stage Name of the degraded stage.
+   * @param parameter Name of the reduced parameter.
+   * @param value The value of the parameter actually used.
+   */
+  default void stageDegraded(String stage, String parameter, long value) {}
+}
@@ -26,4 +26,19 @@ public interface Document {
   // fragment-start{visitor-method}
   void visitFields(BiConsumer<String, String> fieldConsumer);
   // fragment-end{visitor-method}
+
+  /**
+   * Presents <code>fieldConsumer</code> with each field's name and its corresponding value, as
+   * {@link #visitFields(BiConsumer)} does. The value can be a view of the document's internal
+   * buffers (for example a {@link org.carrot2.util.MutableCharArray} range), so it is only valid
+   * until the consumer returns and is never modified by the consumer. Clustering algorithms use
+   * this method to tokenize field values without intermediate copies.
+   *
+   * <p>The default implementation delegates to {@link #visitFields(BiConsumer)}.
+   *
+   * @since 4.6.0
+   */
+  default void visitFieldSequences(BiConsumer<String, CharSequence> fieldConsumer) {
+    visitFields(fieldConsumer::accept);
+  }
 }
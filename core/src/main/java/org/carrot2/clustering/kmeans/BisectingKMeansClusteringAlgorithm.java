@@ -22,7 +22,9 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -34,9 +36,11 @@ import org.carrot2.attrs.AttrObject;
 import org.carrot2.attrs.AttrString;
 import org.carrot2.clustering.Cluster;
 import org.carrot2.clustering.ClusteringAlgorithm;
+import org.carrot2.clustering.ClusteringListener;
 import org.carrot2.clustering.Document;
 import org.carrot2.clustering.SharedInfrastructure;
 import org.carrot2.internal.clustering.ClusteringAlgorithmUtilities;
+import org.carrot2.internal.clustering.StageTimer;
 import org.carrot2.language.EphemeralDictionaries;
 import org.carrot2.language.LabelFilter;
 import org.carrot2.language.LanguageComponents;
@@ -48,6 +52,7 @@ import org.carrot2.math.mahout.matrix.DoubleMatrix1D;
 import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
 import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix1D;
 import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.DirectBufferPool;
 import org.carrot2.text.preprocessing.BasicPreprocessingPipeline;
 import org.carrot2.text.preprocessing.LabelFormatter;
 import org.carrot2.text.preprocessing.PreprocessingContext;
@@ -173,6 +178,14 @@ public class BisectingKMeansClusteringAlgorithm extends AttrComposite
   @Override
   public <T extends Document> List<Cluster<T>> cluster(
       Stream<? extends T> docStream, LanguageComponents languageComponents) {
+    return cluster(docStream, languageComponents, ClusteringListener.NO_OP);
+  }
+
+  @Override
+  public <T extends Document> List<Cluster<T>> cluster(
+      Stream<? extends T> docStream,
+      LanguageComponents languageComponents,
+      ClusteringListener listener) {
     List<T> documents = docStream.collect(Collectors.toList());
 
     // Apply ephemeral dictionaries.
@@ -182,7 +195,8 @@ public class BisectingKMeansClusteringAlgorithm extends AttrComposite
 
     // Preprocessing of documents
     final PreprocessingContext preprocessingContext =
-        preprocessing.preprocess(documents.stream(), queryHint.get(), languageComponents);
+        preprocessing.preprocess(documents.stream(), queryHint.get(), languageComponents, listener);
+    final StageTimer timer = StageTimer.start(listener);
 
     // Add trivial AllLabels so that we can reuse the common TD matrix builder
     final int[] stemsMfow = preprocessingContext.allStems.mostFrequentOriginalWordIndex;
@@ -201,78 +215,102 @@ public class BisectingKMeansClusteringAlgorithm extends AttrComposite
     // Further processing only if there are words to process
     ArrayList<Cluster<T>> clusters = new ArrayList<>();
     if (preprocessingContext.hasLabels()) {
-      // Term-document matrix building and reduction
-      final VectorSpaceModelContext vsmContext = new VectorSpaceModelContext(preprocessingContext);
-      final ReducedVectorSpaceModelContext reducedVsmContext =
-          new ReducedVectorSpaceModelContext(vsmContext);
-
-      matrixBuilder.buildTermDocumentMatrix(vsmContext);
-      matrixBuilder.buildTermPhraseMatrix(vsmContext);
-
-      // Prepare rowIndex -> stemIndex mapping for labeling
-      final IntIntHashMap rowToStemIndex = new IntIntHashMap();
-      for (IntIntCursor c : vsmContext.stemToRowIndex) {
-        rowToStemIndex.put(c.value, c.key);
-      }
+      // Large matrices are stored in pooled off-heap buffers, if enabled.
+      try (DirectBufferPool.Lease lease = DirectBufferPool.lease()) {
+        // Term-document matrix building and reduction
+        final VectorSpaceModelContext vsmContext =
+            new VectorSpaceModelContext(preprocessingContext);
+        final ReducedVectorSpaceModelContext reducedVsmContext =
+            new ReducedVectorSpaceModelContext(vsmContext);
+
+        matrixBuilder.buildTermDocumentMatrix(vsmContext);
+        matrixBuilder.buildTermPhraseMatrix(vsmContext);
+        timer.stage(
+            "termDocumentMatrix",
+            "rows",
+            vsmContext.termDocumentMatrix.rows(),
+            "columns",
+            vsmContext.termDocumentMatrix.columns());
+
+        // Prepare rowIndex -> stemIndex mapping for labeling
+        final IntIntHashMap rowToStemIndex = new IntIntHashMap();
+        for (IntIntCursor c : vsmContext.stemToRowIndex) {
+          rowToStemIndex.put(c.value, c.key);
+        }
 
-      final DoubleMatrix2D tdMatrix;
-      if (useDimensionalityReduction.get()
-          && clusterCount.get() * 2 < preprocessingContext.documentCount) {
-        matrixReducer.reduce(reducedVsmContext, clusterCount.get() * 2);
-        tdMatrix = reducedVsmContext.coefficientMatrix.viewDice();
-      } else {
-        tdMatrix = vsmContext.termDocumentMatrix;
-      }
+        final DoubleMatrix2D tdMatrix;
+        if (useDimensionalityReduction.get()
+            && clusterCount.get() * 2 < preprocessingContext.documentCount) {
+          matrixReducer.reduce(reducedVsmContext, clusterCount.get() * 2);
+          tdMatrix = reducedVsmContext.coefficientMatrix.viewDice();
+          final Map<String, Long> reductionCardinalities = new LinkedHashMap<>();
+          reductionCardinalities.put("rows", (long) tdMatrix.rows());
+          reductionCardinalities.put("columns", (long) tdMatrix.columns());
+          reductionCardinalities.put(
+              "iterations", (long) reducedVsmContext.factorizationIterations);
+          if (reducedVsmContext.factorizationError >= 0) {
+            reductionCardinalities.put("errorPpm", reducedVsmContext.factorizationErrorPpm());
+          }
+          timer.stage("matrixReduction", reductionCardinalities);
+        } else {
+          tdMatrix = vsmContext.termDocumentMatrix;
+        }
 
-      // Initial selection containing all columns, initial clustering
-      final IntArrayList columns = new IntArrayList(tdMatrix.columns());
-      for (int c = 0; c < tdMatrix.columns(); c++) {
-        columns.add(c);
-      }
-      final List<IntArrayList> rawClusters = new ArrayList<>();
-      rawClusters.addAll(split(partitionCount.get(), tdMatrix, columns, maxIterations.get()));
-      Collections.sort(rawClusters, BY_SIZE_DESCENDING);
-
-      int largestIndex = 0;
-      while (rawClusters.size() < clusterCount.get() && largestIndex < rawClusters.size()) {
-        // Find largest cluster to split
-        IntArrayList largest = rawClusters.get(largestIndex);
-        if (largest.size() <= partitionCount.get() * 2) {
-          // No cluster is large enough to produce a meaningful
-          // split (i.e. a split into subclusters with more than
-          // 1 member).
-          break;
+        // Initial selection containing all columns, initial clustering
+        final IntArrayList columns = new IntArrayList(tdMatrix.columns());
+        for (int c = 0; c < tdMatrix.columns(); c++) {
+          columns.add(c);
         }
+        final List<IntArrayList> rawClusters = new ArrayList<>();
+        rawClusters.addAll(split(partitionCount.get(), tdMatrix, columns, maxIterations.get()));
+        Collections.sort(rawClusters, BY_SIZE_DESCENDING);
+        int splits = 1;
+
+        int largestIndex = 0;
+        while (rawClusters.size() < clusterCount.get() && largestIndex < rawClusters.size()) {
+          // Find largest cluster to split
+          IntArrayList largest = rawClusters.get(largestIndex);
+          if (largest.size() <= partitionCount.get() * 2) {
+            // No cluster is large enough to produce a meaningful
+            // split (i.e. a split into subclusters with more than
+            // 1 member).
+            break;
+          }
 
-        final List<IntArrayList> split =
-            split(partitionCount.get(), tdMatrix, largest, maxIterations.get());
-        if (split.size() > 1) {
-          rawClusters.remove(largestIndex);
-          rawClusters.addAll(split);
-          Collections.sort(rawClusters, BY_SIZE_DESCENDING);
-          largestIndex = 0;
-        } else {
-          largestIndex++;
+          final List<IntArrayList> split =
+              split(partitionCount.get(), tdMatrix, largest, maxIterations.get());
+          splits++;
+          if (split.size() > 1) {
+            rawClusters.remove(largestIndex);
+            rawClusters.addAll(split);
+            Collections.sort(rawClusters, BY_SIZE_DESCENDING);
+            largestIndex = 0;
+          } else {
+            largestIndex++;
+          }
         }
-      }
 
-      LabelFormatter labelFormatter = languageComponents.get(LabelFormatter.class);
-      for (IntArrayList rawCluster : rawClusters) {
-        final Cluster<T> cluster = new Cluster<>();
-        if (rawCluster.size() > 1) {
-          getLabels(
-              cluster,
-              rawCluster,
-              vsmContext.termDocumentMatrix,
-              rowToStemIndex,
-              preprocessingContext.allStems.mostFrequentOriginalWordIndex,
-              preprocessingContext.allWords.image,
-              labelFormatter);
-          for (int j = 0; j < rawCluster.size(); j++) {
-            cluster.addDocument(documents.get(rawCluster.get(j)));
+        timer.stage("kMeans", "splits", splits, "clusters", rawClusters.size());
+
+        LabelFormatter labelFormatter = languageComponents.get(LabelFormatter.class);
+        for (IntArrayList rawCluster : rawClusters) {
+          final Cluster<T> cluster = new Cluster<>();
+          if (rawCluster.size() > 1) {
+            getLabels(
+                cluster,
+                rawCluster,
+                vsmContext.termDocumentMatrix,
+                rowToStemIndex,
+                preprocessingContext.allStems.mostFrequentOriginalWordIndex,
+                preprocessingContext.allWords.image,
+                labelFormatter);
+            for (int j = 0; j < rawCluster.size(); j++) {
+              cluster.addDocument(documents.get(rawCluster.get(j)));
+            }
+            clusters.add(cluster);
           }
-          clusters.add(cluster);
         }
+        timer.stage("clusterLabeling", "clusters", clusters.size());
       }
     }
 
@@ -166,7 +166,8 @@ public class ClusterBuilder extends AttrComposite {
     final int firstPhraseIndex = preprocessingContext.allLabels.firstPhraseIndex;
     DoubleMatrix2D phraseCos = null;
     if (phraseMatrix != null) {
-      // Build raw cosine similarities
+      // Build raw cosine similarities. The phrase matrix is sparse, so the product only visits
+      // the stems of each phrase.
       phraseCos = phraseMatrix.zMult(reducedTdMatrix, null, 1, 0, false, false);
 
       // Apply phrase weighting
@@ -242,38 +243,34 @@ public class ClusterBuilder extends AttrComposite {
     final double[] clusterLabelScore = context.clusterLabelScore;
 
     final double clusterMergingThreshold = this.clusterMergingThreshold.get();
-    final List<IntArrayList> mergedClusters =
-        GraphUtils.findCoherentSubgraphs(
-            clusterDocuments.length,
-            new GraphUtils.IArcPredicate() {
-              private BitSet temp = new BitSet();
-
-              public boolean isArcPresent(int clusterA, int clusterB) {
-                temp.clear();
-                int size;
-                BitSet setA = clusterDocuments[clusterA];
-                BitSet setB = clusterDocuments[clusterB];
-
-                // Suitable for flat clustering
-                // A small subgroup contained within a bigger group
-                // will give small overlap ratio. Big ratios will
-                // be produced only for balanced group sizes.
-                if (setA.cardinality() < setB.cardinality()) {
-                  // addAll == or
-                  // reiatinAll == and | intersect
-                  temp.or(setA);
-                  temp.intersect(setB);
-                  size = (int) setB.cardinality();
-                } else {
-                  temp.or(setB);
-                  temp.intersect(setA);
-                  size = (int) setA.cardinality();
-                }
-
-                return temp.cardinality() / (double) size >= clusterMergingThreshold;
-              }
-            },
-            true);
+    final long[] clusterSizes = new long[clusterDocuments.length];
+    for (int i = 0; i < clusterDocuments.length; i++) {
+      clusterSizes[i] = clusterDocuments[i].cardinality();
+    }
+
+    // Suitable for flat clustering
+    // A small subgroup contained within a bigger group
+    // will give small overlap ratio. Big ratios will
+    // be produced only for balanced group sizes.
+    final GraphUtils.IArcPredicate overlapPredicate =
+        (clusterA, clusterB) ->
+            BitSet.intersectionCount(clusterDocuments[clusterA], clusterDocuments[clusterB])
+                    / (double) Math.max(clusterSizes[clusterA], clusterSizes[clusterB])
+                >= clusterMergingThreshold;
+
+    final List<IntArrayList> mergedClusters;
+    if (clusterMergingThreshold > 0) {
+      // Only clusters sharing documents can overlap enough to be merged.
+      mergedClusters =
+          GraphUtils.findCoherentSubgraphsByNeighbors(
+              clusterDocuments.length,
+              sharedDocumentNeighbors(
+                  clusterDocuments, context.preprocessingContext.documentCount, overlapPredicate),
+              true);
+    } else {
+      mergedClusters =
+          GraphUtils.findCoherentSubgraphs(clusterDocuments.length, overlapPredicate, true);
+    }
 
     // For each merge group, choose the cluster with the highest score and
     // merge the rest to it
@@ -301,4 +298,50 @@ public class ClusterBuilder extends AttrComposite {
       }
     }
   }
+
+  /**
+   * Returns the neighbors of clusters in the graph defined by <code>arcPredicate</code>, checking
+   * only pairs of clusters that share at least one document. Clusters sharing documents are found
+   * in a document-to-cluster inverted index.
+   */
+  private static GraphUtils.INeighborEnumerator sharedDocumentNeighbors(
+      BitSet[] clusterDocuments, int documentCount, GraphUtils.IArcPredicate arcPredicate) {
+    // Clusters of document d are documentClusters[documentStart[d]..documentStart[d + 1]).
+    final int[] documentStart = new int[documentCount + 1];
+    for (BitSet documents : clusterDocuments) {
+      for (int d = documents.nextSetBit(0); d >= 0; d = documents.nextSetBit(d + 1)) {
+        documentStart[d + 1]++;
+      }
+    }
+    for (int d = 0; d < documentCount; d++) {
+      documentStart[d + 1] += documentStart[d];
+    }
+
+    final int[] documentClusters = new int[documentStart[documentCount]];
+    final int[] documentEnd = Arrays.copyOf(documentStart, documentCount);
+    for (int cluster = 0; cluster < clusterDocuments.length; cluster++) {
+      final BitSet documents = clusterDocuments[cluster];
+      for (int d = documents.nextSetBit(0); d >= 0; d = documents.nextSetBit(d + 1)) {
+        documentClusters[documentEnd[d]++] = cluster;
+      }
+    }
+
+    // The last cluster for which a cluster was checked, so that each pair is checked once.
+    final int[] checkedFor = new int[clusterDocuments.length];
+    Arrays.fill(checkedFor, -1);
+    return (cluster, neighbors) -> {
+      final BitSet documents = clusterDocuments[cluster];
+      for (int d = documents.nextSetBit(0); d >= 0; d = documents.nextSetBit(d + 1)) {
+        for (int i = documentStart[d]; i < documentStart[d + 1]; i++) {
+          final int other = documentClusters[i];
+          if (other != cluster && checkedFor[other] != cluster) {
+            checkedFor[other] = cluster;
+            if (arcPredicate.isArcPresent(cluster, other)) {
+              neighbors.add(other);
+            }
+          }
+        }
+      }
+    };
+  }
 }
@@ -0,0 +1,192 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.clustering.lingo;
+
+import java.util.function.IntBinaryOperator;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+
+/**
+ * Positive cells of a label--base vector matrix, from which whole rows and columns can be removed.
+ * {@link #findMax()} finds the largest cell in the remaining rows and columns, the first one in
+ * row-by-row order if there are ties.
+ *
+ * <p>Each column keeps a binary heap of its candidate rows, the columns are kept in a heap ordered
+ * by their best candidates. Removing a row or a column only marks it as removed, candidates in
+ * removed rows and columns are discarded when they reach the top of their heaps. Building the heaps
+ * takes time proportional to the size of the matrix, finding the maximum after a removal takes
+ * logarithmic time per discarded candidate.
+ */
+final class LabelCandidateQueue {
+  private final DoubleMatrix2D matrix;
+  private final boolean[] removedRows;
+  private final boolean[] removedColumns;
+
+  /** Candidate rows of each column. */
+  private final IntHeap[] columnCandidates;
+
+  /** Columns with candidates, ordered by their best candidates. */
+  private final IntHeap columns;
+
+  /** The row and column of the cell found by {@link #findMax()}. */
+  private int maxRow;
+
+  private int maxColumn;
+
+  LabelCandidateQueue(DoubleMatrix2D matrix) {
+    this.matrix = matrix;
+    this.removedRows = new boolean[matrix.rows()];
+    this.removedColumns = new boolean[matrix.columns()];
+    this.columnCandidates = new IntHeap[matrix.columns()];
+
+    final int[] columnsWithCandidates = new int[matrix.columns()];
+    int columnCount = 0;
+    for (int c = 0; c < matrix.columns(); c++) {
+      final int column = c;
+      final int[] rows = new int[matrix.rows()];
+      int rowCount = 0;
+      for (int r = 0; r < matrix.rows(); r++) {
+        if (matrix.getQuick(r, c) > 0) {
+          rows[rowCount++] = r;
+        }
+      }
+
+      if (rowCount > 0) {
+        columnCandidates[c] = new IntHeap(rows, rowCount, (a, b) -> compare(a, column, b, column));
+        columnsWithCandidates[columnCount++] = c;
+      }
+    }
+
+    this.columns =
+        new IntHeap(
+            columnsWithCandidates,
+            columnCount,
+            (a, b) -> compare(columnCandidates[a].top(), a, columnCandidates[b].top(), b));
+  }
+
+  /**
+   * Finds the largest positive cell in the rows and columns not removed so far.
+   *
+   * @return <code>false</code> if there are no positive cells left
+   */
+  boolean findMax() {
+    while (!columns.isEmpty()) {
+      final int column = columns.top();
+      final IntHeap candidates = columnCandidates[column];
+      if (removedColumns[column]) {
+        columns.pop();
+      } else if (removedRows[candidates.top()]) {
+        candidates.pop();
+        if (candidates.isEmpty()) {
+          columns.pop();
+        } else {
+          // The best candidate of the column got worse.
+          columns.updateTop();
+        }
+      } else {
+        maxRow = candidates.top();
+        maxColumn = column;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Returns the row of the cell found by {@link #findMax()}. */
+  int maxRow() {
+    return maxRow;
+  }
+
+  /** Returns the column of the cell found by {@link #findMax()}. */
+  int maxColumn() {
+    return maxColumn;
+  }
+
+  /** Returns the value of the cell found by {@link #findMax()}. */
+  double maxValue() {
+    return matrix.getQuick(maxRow, maxColumn);
+  }
+
+  void removeRow(int row) {
+    removedRows[row] = true;
+  }
+
+  void removeColumn(int column) {
+    removedColumns[column] = true;
+  }
+
+  /**
+   * Orders cells by decreasing values, then by rows and columns, so that the first cell is the
+   * first maximum found when scanning the matrix row by row.
+   */
+  private int compare(int rowA, int columnA, int rowB, int columnB) {
+    int result = Double.compare(matrix.getQuick(rowB, columnB), matrix.getQuick(rowA, columnA));
+    if (result == 0) {
+      result = Integer.compare(rowA, rowB);
+    }
+    if (result == 0) {
+      result = Integer.compare(columnA, columnB);
+    }
+    return result;
+  }
+
+  /** A binary heap of ints, with the smallest element according to a comparator on top. */
+  private static final class IntHeap {
+    private final int[] heap;
+    private final IntBinaryOperator comparator;
+    private int size;
+
+    IntHeap(int[] elements, int size, IntBinaryOperator comparator) {
+      this.heap = elements;
+      this.size = size;
+      this.comparator = comparator;
+      for (int i = size / 2 - 1; i >= 0; i--) {
+        siftDown(i);
+      }
+    }
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+
+    int top() {
+      return heap[0];
+    }
+
+    void pop() {
+      heap[0] = heap[--size];
+      siftDown(0);
+    }
+
+    /** Restores the heap order after the top element got larger. */
+    void updateTop() {
+      siftDown(0);
+    }
+
+    private void siftDown(int index) {
+      final int element = heap[index];
+      while (true) {
+        int child = 2 * index + 1;
+        if (child >= size) {
+          break;
+        }
+        if (child + 1 < size && comparator.applyAsInt(heap[child + 1], heap[child]) < 0) {
+          child++;
+        }
+        if (comparator.applyAsInt(heap[child], element) >= 0) {
+          break;
+        }
+        heap[index] = heap[child];
+        index = child;
+      }
+      heap[index] = element;
+    }
+  }
+}
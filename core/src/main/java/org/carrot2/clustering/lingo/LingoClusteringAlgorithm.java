@@ -14,8 +14,11 @@ import com.carrotsearch.hppc.BitSet;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.IntUnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.carrot2.attrs.AttrComposite;
@@ -25,15 +28,18 @@ import org.carrot2.attrs.AttrObject;
 import org.carrot2.attrs.AttrString;
 import org.carrot2.clustering.Cluster;
 import org.carrot2.clustering.ClusteringAlgorithm;
+import org.carrot2.clustering.ClusteringListener;
 import org.carrot2.clustering.Document;
 import org.carrot2.clustering.SharedInfrastructure;
 import org.carrot2.internal.clustering.ClusteringAlgorithmUtilities;
+import org.carrot2.internal.clustering.StageTimer;
 import org.carrot2.language.EphemeralDictionaries;
 import org.carrot2.language.LabelFilter;
 import org.carrot2.language.LanguageComponents;
 import org.carrot2.language.Stemmer;
 import org.carrot2.language.StopwordFilter;
 import org.carrot2.language.Tokenizer;
+import org.carrot2.math.mahout.matrix.impl.DirectBufferPool;
 import org.carrot2.text.preprocessing.CompletePreprocessingPipeline;
 import org.carrot2.text.preprocessing.LabelFormatter;
 import org.carrot2.text.preprocessing.PreprocessingContext;
@@ -50,6 +56,15 @@ import org.carrot2.text.vsm.VectorSpaceModelContext;
 public class LingoClusteringAlgorithm extends AttrComposite implements ClusteringAlgorithm {
   public static final String NAME = "Lingo";
 
+  /** The minimum number of label candidates left when degrading to meet the time budget. */
+  private static final int MIN_DEGRADED_LABEL_CANDIDATES = 100;
+
+  /** The minimum term-document matrix size when degrading to meet the time budget. */
+  private static final int MIN_DEGRADED_MATRIX_SIZE = 50 * 100;
+
+  /** The minimum number of base vectors when degrading to meet the time budget. */
+  private static final int MIN_DEGRADED_CLUSTER_COUNT = 5;
+
   private static final Set<Class<?>> REQUIRED_LANGUAGE_COMPONENTS =
       new HashSet<>(
           Arrays.asList(
@@ -79,6 +94,23 @@ public class LingoClusteringAlgorithm extends AttrComposite implements Clusterin
           "desiredClusterCount",
           AttrInteger.builder().label("Desired cluster count").min(2).max(100).defaultValue(30));
 
+  /**
+   * Time budget for clustering, in milliseconds. A stage that completes later than planned degrades
+   * the following stages in proportion to the remaining time. After preprocessing (planned for half
+   * of the budget), fewer label candidates are assigned to documents and a smaller term-document
+   * matrix is built. After term-document matrix building (60% of the budget), fewer base vectors
+   * are computed. Iterative matrix factorizations stop iterating once 90% of the budget has been
+   * used and cluster merging is skipped if matrix reduction completes later. The clustering is
+   * always completed, possibly after the budget. Degradations are reported to {@link
+   * ClusteringListener#stageDegraded}. Zero means no time budget.
+   *
+   * @since 4.6.0
+   */
+  public AttrInteger timeBudget =
+      attributes.register(
+          "timeBudget",
+          AttrInteger.builder().label("Time budget (milliseconds)").min(0).defaultValue(0));
+
   /** Configuration of the text preprocessing stage. */
   public CompletePreprocessingPipeline preprocessing;
 
@@ -155,6 +187,15 @@ public class LingoClusteringAlgorithm extends AttrComposite implements Clusterin
   @Override
   public <T extends Document> List<Cluster<T>> cluster(
       Stream<? extends T> docStream, LanguageComponents languageComponents) {
+    return cluster(docStream, languageComponents, ClusteringListener.NO_OP);
+  }
+
+  @Override
+  public <T extends Document> List<Cluster<T>> cluster(
+      Stream<? extends T> docStream,
+      LanguageComponents languageComponents,
+      ClusteringListener listener) {
+    final long startNanos = System.nanoTime();
     List<T> documents = docStream.collect(Collectors.toList());
 
     // Apply ephemeral dictionaries.
@@ -162,63 +203,134 @@ public class LingoClusteringAlgorithm extends AttrComposite implements Clusterin
       languageComponents = this.dictionaries.override(languageComponents);
     }
 
-    // Preprocessing of documents
+    // Preprocessing of documents. Label candidates are limited before document assignment if
+    // preprocessing has used too much of the time budget.
+    final TimeBudget budget =
+        timeBudget.get() > 0 ? new TimeBudget(startNanos, timeBudget.get()) : null;
+    final IntUnaryOperator labelCandidateLimit;
+    if (budget == null) {
+      labelCandidateLimit = IntUnaryOperator.identity();
+    } else {
+      labelCandidateLimit =
+          (labelCandidates) -> {
+            final double scale = budget.scale(System.nanoTime(), TimeBudget.PREPROCESSING_FRACTION);
+            return Math.max(MIN_DEGRADED_LABEL_CANDIDATES, (int) (labelCandidates * scale));
+          };
+    }
     final PreprocessingContext context =
-        preprocessing.preprocess(documents.stream(), queryHint.get(), languageComponents);
+        preprocessing.preprocess(
+            documents.stream(), queryHint.get(), languageComponents, listener, labelCandidateLimit);
+    final StageTimer timer = StageTimer.start(listener);
 
     // Further processing only if there are words to process
     List<Cluster<T>> clusters = new ArrayList<>();
     if (context.hasLabels()) {
-      // Term-document matrix building and reduction
-      final VectorSpaceModelContext vsmContext = new VectorSpaceModelContext(context);
-      final ReducedVectorSpaceModelContext reducedVsmContext =
-          new ReducedVectorSpaceModelContext(vsmContext);
-      LingoProcessingContext lingoContext = new LingoProcessingContext(reducedVsmContext);
-
-      TermDocumentMatrixBuilder matrixBuilder = this.matrixBuilder;
-      matrixBuilder.buildTermDocumentMatrix(vsmContext);
-      matrixBuilder.buildTermPhraseMatrix(vsmContext);
-
-      matrixReducer.reduce(
-          reducedVsmContext, computeClusterCount(desiredClusterCount.get(), documents.size()));
-
-      // Cluster label building
-      clusterBuilder.buildLabels(lingoContext, matrixBuilder.termWeighting);
-
-      // Document assignment
-      clusterBuilder.assignDocuments(lingoContext);
-
-      // Cluster merging
-      clusterBuilder.merge(lingoContext);
-
-      // Format final clusters
-      final LabelFormatter labelFormatter =
-          lingoContext.preprocessingContext.languageComponents.get(LabelFormatter.class);
-
-      final int[] clusterLabelIndex = lingoContext.clusterLabelFeatureIndex;
-      final BitSet[] clusterDocuments = lingoContext.clusterDocuments;
-      final double[] clusterLabelScore = lingoContext.clusterLabelScore;
-      for (int i = 0; i < clusterLabelIndex.length; i++) {
-        final Cluster<T> cluster = new Cluster<>();
-
-        final int labelFeature = clusterLabelIndex[i];
-        if (labelFeature < 0) {
-          // Cluster removed during merging
-          continue;
+      // Large matrices are stored in pooled off-heap buffers, if enabled.
+      try (DirectBufferPool.Lease lease = DirectBufferPool.lease()) {
+        // Term-document matrix building and reduction
+        final VectorSpaceModelContext vsmContext = new VectorSpaceModelContext(context);
+        final ReducedVectorSpaceModelContext reducedVsmContext =
+            new ReducedVectorSpaceModelContext(vsmContext);
+        LingoProcessingContext lingoContext = new LingoProcessingContext(reducedVsmContext);
+
+        // Degrade the following stages if preprocessing has used too much of the time budget
+        TermDocumentMatrixBuilder matrixBuilder = this.matrixBuilder;
+        int maximumMatrixSize = matrixBuilder.maximumMatrixSize.get();
+        if (budget != null) {
+          final double scale = budget.scale(System.nanoTime(), TimeBudget.PREPROCESSING_FRACTION);
+          final int matrixSize =
+              Math.max(MIN_DEGRADED_MATRIX_SIZE, (int) (maximumMatrixSize * scale));
+          if (matrixSize < maximumMatrixSize) {
+            maximumMatrixSize = matrixSize;
+            timer.degraded("termDocumentMatrix", "maximumMatrixSize", matrixSize);
+          }
         }
 
-        // Add label and score
-        cluster.addLabel(context.format(labelFormatter, labelFeature));
-        cluster.setScore(clusterLabelScore[i]);
-
-        // Add documents
-        final BitSet bs = clusterDocuments[i];
-        for (int bit = bs.nextSetBit(0); bit >= 0; bit = bs.nextSetBit(bit + 1)) {
-          cluster.addDocument(documents.get(bit));
+        matrixBuilder.buildTermDocumentMatrix(vsmContext, maximumMatrixSize);
+        matrixBuilder.buildTermPhraseMatrix(vsmContext);
+        timer.stage(
+            "termDocumentMatrix",
+            "rows",
+            vsmContext.termDocumentMatrix.rows(),
+            "columns",
+            vsmContext.termDocumentMatrix.columns());
+
+        // Fewer base vectors if matrix building has used too much of the time budget.
+        int clusterCount = computeClusterCount(desiredClusterCount.get(), documents.size());
+        if (budget != null) {
+          final double scale =
+              budget.scale(System.nanoTime(), TimeBudget.TERM_DOCUMENT_MATRIX_FRACTION);
+          final int degradedClusterCount =
+              Math.max(MIN_DEGRADED_CLUSTER_COUNT, (int) (clusterCount * scale));
+          if (degradedClusterCount < clusterCount) {
+            clusterCount = degradedClusterCount;
+            timer.degraded("matrixReduction", "clusterCount", clusterCount);
+          }
+          matrixReducer.reduce(reducedVsmContext, clusterCount, budget.factorizationDeadline());
+        } else {
+          matrixReducer.reduce(reducedVsmContext, clusterCount);
+        }
+        if (reducedVsmContext.factorizationStoppedAtDeadline) {
+          timer.degraded(
+              "matrixReduction", "iterations", reducedVsmContext.factorizationIterations);
+        }
+        final Map<String, Long> reductionCardinalities = new LinkedHashMap<>();
+        reductionCardinalities.put("rows", (long) reducedVsmContext.baseMatrix.rows());
+        reductionCardinalities.put("columns", (long) reducedVsmContext.baseMatrix.columns());
+        reductionCardinalities.put("iterations", (long) reducedVsmContext.factorizationIterations);
+        if (reducedVsmContext.factorizationError >= 0) {
+          reductionCardinalities.put("errorPpm", reducedVsmContext.factorizationErrorPpm());
+        }
+        timer.stage("matrixReduction", reductionCardinalities);
+        final long reductionEndNanos = System.nanoTime();
+
+        // Cluster label building
+        clusterBuilder.buildLabels(lingoContext, matrixBuilder.termWeighting);
+        timer.stage("labelBuilding", "clusters", lingoContext.clusterLabelFeatureIndex.length);
+
+        // Document assignment
+        clusterBuilder.assignDocuments(lingoContext);
+        timer.stage("clusterDocumentAssignment");
+
+        // Cluster merging, skipped if matrix reduction has used too much of the time budget
+        if (budget != null
+            && budget.scale(reductionEndNanos, TimeBudget.MATRIX_REDUCTION_FRACTION) < 1) {
+          timer.degraded("clusterMerging", "enabled", 0);
+        } else {
+          clusterBuilder.merge(lingoContext);
+          timer.stage("clusterMerging");
         }
 
-        // Add cluster
-        clusters.add(cluster);
+        // Format final clusters
+        final LabelFormatter labelFormatter =
+            lingoContext.preprocessingContext.languageComponents.get(LabelFormatter.class);
+
+        final int[] clusterLabelIndex = lingoContext.clusterLabelFeatureIndex;
+        final BitSet[] clusterDocuments = lingoContext.clusterDocuments;
+        final double[] clusterLabelScore = lingoContext.clusterLabelScore;
+        for (int i = 0; i < clusterLabelIndex.length; i++) {
+          final Cluster<T> cluster = new Cluster<>();
+
+          final int labelFeature = clusterLabelIndex[i];
+          if (labelFeature < 0) {
+            // Cluster removed during merging
+            continue;
+          }
+
+          // Add label and score
+          cluster.addLabel(context.format(labelFormatter, labelFeature));
+          cluster.setScore(clusterLabelScore[i]);
+
+          // Add documents
+          final BitSet bs = clusterDocuments[i];
+          for (int bit = bs.nextSetBit(0); bit >= 0; bit = bs.nextSetBit(bit + 1)) {
+            cluster.addDocument(documents.get(bit));
+          }
+
+          // Add cluster
+          clusters.add(cluster);
+        }
+        timer.stage("clusterFormatting", "clusters", clusters.size());
       }
     }
 
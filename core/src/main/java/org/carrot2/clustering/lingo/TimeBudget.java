@@ -0,0 +1,58 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.clustering.lingo;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time budget of a single clustering request, measured from the start of clustering. Each stage is
+ * expected to complete within a fraction of the budget. When a stage completes later, the cost of
+ * the following stages is reduced in proportion to how much of the budget is left.
+ */
+final class TimeBudget {
+  /** The fraction of the budget preprocessing can use without degrading the following stages. */
+  static final double PREPROCESSING_FRACTION = 0.5;
+
+  /** The fraction of the budget used by the end of term-document matrix building. */
+  static final double TERM_DOCUMENT_MATRIX_FRACTION = 0.6;
+
+  /**
+   * The fraction of the budget used by the end of matrix reduction. The rest is reserved for
+   * cluster labeling and merging.
+   */
+  static final double MATRIX_REDUCTION_FRACTION = 0.9;
+
+  private final long startNanos;
+  private final long budgetNanos;
+
+  TimeBudget(long startNanos, long budgetMillis) {
+    this.startNanos = startNanos;
+    this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+  }
+
+  /**
+   * Returns the scale (between 0 and 1) of the stages following a stage completed at <code>
+   * nowNanos</code>: 1 if at most <code>stageFraction</code> of the budget has been used, then
+   * decreasing linearly to 0 at the deadline.
+   */
+  double scale(long nowNanos, double stageFraction) {
+    final double used = (nowNanos - startNanos) / (double) budgetNanos;
+    return Math.max(0, Math.min(1, (1 - used) / (1 - stageFraction)));
+  }
+
+  /**
+   * Returns the value of {@link System#nanoTime()} after which matrix factorization should start no
+   * more iterations.
+   */
+  long factorizationDeadline() {
+    return startNanos + (long) (budgetNanos * MATRIX_REDUCTION_FRACTION);
+  }
+}
@@ -16,7 +16,6 @@ import com.carrotsearch.hppc.IntIntHashMap;
 import org.carrot2.attrs.AttrComposite;
 import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
 import org.carrot2.text.preprocessing.PreprocessingContext;
-import org.carrot2.util.Pair;
 
 /**
  * Assigns unique labels to each base vector using a greedy algorithm. For each base vector chooses
@@ -25,6 +24,10 @@ import org.carrot2.util.Pair;
  * This algorithm does not create duplicate cluster labels, which usually means that this assignment
  * method will create more clusters than {@link SimpleLabelAssigner}. This method is slightly slower
  * than {@link SimpleLabelAssigner}.
+ *
+ * <p>Candidate labels of all base vectors are kept in a {@link LabelCandidateQueue}, so each label
+ * is selected without scanning the whole label--base vector matrix. The input matrices are not
+ * modified.
  */
 public class UniqueLabelAssigner extends AttrComposite implements LabelAssigner {
   public void assignLabels(
@@ -39,36 +42,43 @@ public class UniqueLabelAssigner extends AttrComposite implements LabelAssigner
         preprocessingContext.allStems.mostFrequentOriginalWordIndex;
     final int desiredClusterCount = stemCos.columns();
 
+    final LabelCandidateQueue stemCandidates = new LabelCandidateQueue(stemCos);
+    final LabelCandidateQueue phraseCandidates =
+        phraseCos != null ? new LabelCandidateQueue(phraseCos) : null;
+
     final IntArrayList clusterLabelFeatureIndex = new IntArrayList(desiredClusterCount);
     final DoubleArrayList clusterLabelScore = new DoubleArrayList(desiredClusterCount);
     for (int label = 0; label < desiredClusterCount; label++) {
-      final Pair<Integer, Integer> stemMax = max(stemCos);
-      final Pair<Integer, Integer> phraseMax = max(phraseCos);
+      final boolean stemFound = stemCandidates.findMax();
+      final boolean phraseFound = phraseCandidates != null && phraseCandidates.findMax();
 
-      if (stemMax == null && phraseMax == null) {
+      if (!stemFound && !phraseFound) {
         break;
       }
 
-      double stemScore = stemMax != null ? stemCos.getQuick(stemMax.objectA, stemMax.objectB) : -1;
-      double phraseScore =
-          phraseMax != null ? phraseCos.getQuick(phraseMax.objectA, phraseMax.objectB) : -1;
+      double stemScore = stemFound ? stemCandidates.maxValue() : -1;
+      double phraseScore = phraseFound ? phraseCandidates.maxValue() : -1;
 
       if (phraseScore > stemScore) {
-        phraseCos.viewRow(phraseMax.objectA).assign(0);
-        phraseCos.viewColumn(phraseMax.objectB).assign(0);
-        stemCos.viewColumn(phraseMax.objectB).assign(0);
+        final int row = phraseCandidates.maxRow();
+        final int column = phraseCandidates.maxColumn();
+        phraseCandidates.removeRow(row);
+        phraseCandidates.removeColumn(column);
+        stemCandidates.removeColumn(column);
 
-        clusterLabelFeatureIndex.add(labelsFeatureIndex[phraseMax.objectA + firstPhraseIndex]);
+        clusterLabelFeatureIndex.add(labelsFeatureIndex[row + firstPhraseIndex]);
         clusterLabelScore.add(phraseScore);
       } else {
-        stemCos.viewRow(stemMax.objectA).assign(0);
-        stemCos.viewColumn(stemMax.objectB).assign(0);
-        if (phraseCos != null) {
-          phraseCos.viewColumn(stemMax.objectB).assign(0);
+        final int row = stemCandidates.maxRow();
+        final int column = stemCandidates.maxColumn();
+        stemCandidates.removeRow(row);
+        stemCandidates.removeColumn(column);
+        if (phraseCandidates != null) {
+          phraseCandidates.removeColumn(column);
         }
 
         clusterLabelFeatureIndex.add(
-            mostFrequentOriginalWordIndex[filteredRowToStemIndex.get(stemMax.objectA)]);
+            mostFrequentOriginalWordIndex[filteredRowToStemIndex.get(row)]);
         clusterLabelScore.add(stemScore);
       }
     }
@@ -76,31 +86,4 @@ public class UniqueLabelAssigner extends AttrComposite implements LabelAssigner
     context.clusterLabelFeatureIndex = clusterLabelFeatureIndex.toArray();
     context.clusterLabelScore = clusterLabelScore.toArray();
   }
-
-  private Pair<Integer, Integer> max(DoubleMatrix2D matrix) {
-    if (matrix == null) {
-      return null;
-    }
-
-    int row = 0;
-    int column = 0;
-    double value = 0;
-
-    for (int r = 0; r < matrix.rows(); r++) {
-      for (int c = 0; c < matrix.columns(); c++) {
-        final double currentValue = matrix.getQuick(r, c);
-        if (currentValue > value) {
-          value = currentValue;
-          row = r;
-          column = c;
-        }
-      }
-    }
-
-    if (value > 0) {
-      return new Pair<>(row, column);
-    } else {
-      return null;
-    }
-  }
 }
@@ -35,10 +35,12 @@ import org.carrot2.attrs.AttrObject;
 import org.carrot2.attrs.AttrString;
 import org.carrot2.clustering.Cluster;
 import org.carrot2.clustering.ClusteringAlgorithm;
+import org.carrot2.clustering.ClusteringListener;
 import org.carrot2.clustering.Document;
 import org.carrot2.clustering.SharedInfrastructure;
 import org.carrot2.clustering.stc.GeneralizedSuffixTree.SequenceBuilder;
 import org.carrot2.internal.clustering.ClusteringAlgorithmUtilities;
+import org.carrot2.internal.clustering.StageTimer;
 import org.carrot2.language.EphemeralDictionaries;
 import org.carrot2.language.LabelFilter;
 import org.carrot2.language.LanguageComponents;
@@ -292,6 +294,14 @@ public final class STCClusteringAlgorithm extends AttrComposite implements Clust
   @Override
   public <T extends Document> List<Cluster<T>> cluster(
       Stream<? extends T> docStream, LanguageComponents languageComponents) {
+    return cluster(docStream, languageComponents, ClusteringListener.NO_OP);
+  }
+
+  @Override
+  public <T extends Document> List<Cluster<T>> cluster(
+      Stream<? extends T> docStream,
+      LanguageComponents languageComponents,
+      ClusteringListener listener) {
     List<T> documents = docStream.collect(Collectors.toList());
     List<Cluster<T>> clusters = new ArrayList<>();
 
@@ -303,8 +313,10 @@ public final class STCClusteringAlgorithm extends AttrComposite implements Clust
     /*
      * Step 1. Preprocessing: tokenization, stop word marking and stemming (if available).
      */
-    context = preprocessing.preprocess(documents.stream(), queryHint.get(), languageComponents);
+    context =
+        preprocessing.preprocess(documents.stream(), queryHint.get(), languageComponents, listener);
     labelFormatter = context.languageComponents.get(LabelFormatter.class);
+    final StageTimer timer = StageTimer.start(listener);
 
     /*
      * Step 2: Create a generalized suffix tree from phrases in the input.
@@ -333,23 +345,27 @@ public final class STCClusteringAlgorithm extends AttrComposite implements Clust
       }
     }
     sb.buildSuffixTree();
+    timer.stage("suffixTree", "states", sb.stree.getStatesCount());
 
     /*
      * Step 3: Find "base" clusters by looking up frequently recurring phrases in the
      * generalized suffix tree.
      */
     List<ClusterCandidate> baseClusters = createBaseClusters(sb);
+    timer.stage("baseClusters", "clusters", baseClusters.size());
 
     /*
      * Step 4: Merge base clusters that overlap too much to form final clusters.
      */
     List<ClusterCandidate> mergedClusters = createMergedClusters(baseClusters);
+    timer.stage("clusterMerging", "clusters", mergedClusters.size());
 
     /*
      * Step 5: Create the junk (unassigned documents) cluster and create the final
      * set of clusters in Carrot2 format.
      */
     postProcessing(documents, mergedClusters, clusters);
+    timer.stage("clusterFormatting", "clusters", clusters.size());
 
     return SharedInfrastructure.reorderByWeightedScoreAndSize(clusters, this.scoreWeight.get());
   }
@@ -1038,7 +1054,7 @@ public final class STCClusteringAlgorithm extends AttrComposite implements Clust
 
         // If this word occurs in more than a given fraction of the input
         // collection don't count it.
-        final int docCount = context.allWords.tfByDocument[termIndex].length / 2;
+        final int docCount = context.allWords.tfByDocument.df(termIndex);
         if (docCount < lower || docCount > upper) {
           continue;
         }
@@ -0,0 +1,169 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.internal.clustering;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.carrot2.clustering.ClusteringListener;
+import org.carrot2.util.SuppressForbidden;
+
+/**
+ * Measures consecutive processing stages and reports them to a {@link ClusteringListener}. Each
+ * call to one of the <code>stage</code> methods reports the time and memory allocated since the
+ * previous call (or since the timer was created). The timer created for {@link
+ * ClusteringListener#NO_OP} does nothing.
+ */
+public final class StageTimer {
+  private static final StageTimer NO_OP = new StageTimer(null);
+
+  private final ClusteringListener listener;
+  private long startNanos;
+  private long startBytes;
+
+  private StageTimer(ClusteringListener listener) {
+    this.listener = listener;
+    restart();
+  }
+
+  /** Creates a timer reporting to the given listener, starts measuring the first stage. */
+  public static StageTimer start(ClusteringListener listener) {
+    if (listener == null || listener == ClusteringListener.NO_OP) {
+      return NO_OP;
+    }
+    return new StageTimer(listener);
+  }
+
+  /** Restarts measurements without reporting anything (to skip work that is not a stage). */
+  public void restart() {
+    if (listener != null) {
+      startNanos = System.nanoTime();
+      startBytes = AllocationCounter.currentThreadAllocatedBytes();
+    }
+  }
+
+  /** Reports a completed stage (without any cardinalities) and starts measuring the next one. */
+  public void stage(String stage) {
+    if (listener != null) {
+      report(stage, Collections.emptyMap());
+    }
+  }
+
+  /** Reports a completed stage with the given cardinalities and starts measuring the next one. */
+  public void stage(String stage, String key, long value) {
+    if (listener != null) {
+      final Map<String, Long> cardinalities = new LinkedHashMap<>();
+      cardinalities.put(key, value);
+      report(stage, cardinalities);
+    }
+  }
+
+  public void stage(String stage, String key1, long value1, String key2, long value2) {
+    if (listener != null) {
+      final Map<String, Long> cardinalities = new LinkedHashMap<>();
+      cardinalities.put(key1, value1);
+      cardinalities.put(key2, value2);
+      report(stage, cardinalities);
+    }
+  }
+
+  public void stage(
+      String stage,
+      String key1,
+      long value1,
+      String key2,
+      long value2,
+      String key3,
+      long value3) {
+    if (listener != null) {
+      final Map<String, Long> cardinalities = new LinkedHashMap<>();
+      cardinalities.put(key1, value1);
+      cardinalities.put(key2, value2);
+      cardinalities.put(key3, value3);
+      report(stage, cardinalities);
+    }
+  }
+
+  public void stage(
+      String stage,
+      String key1,
+      long value1,
+      String key2,
+      long value2,
+      String key3,
+      long value3,
+      String key4,
+      long value4) {
+    if (listener != null) {
+      final Map<String, Long> cardinalities = new LinkedHashMap<>();
+      cardinalities.put(key1, value1);
+      cardinalities.put(key2, value2);
+      cardinalities.put(key3, value3);
+      cardinalities.put(key4, value4);
+      report(stage, cardinalities);
+    }
+  }
+
+  /**
+   * Reports a completed stage with the given cardinalities (in the map's iteration order) and
+   * starts measuring the next one.
+   */
+  public void stage(String stage, Map<String, Long> cardinalities) {
+    if (listener != null) {
+      report(stage, new LinkedHashMap<>(cardinalities));
+    }
+  }
+
+  /** Reports a degradation of a stage, without affecting measurements. */
+  public void degraded(String stage, String parameter, long value) {
+    if (listener != null) {
+      listener.stageDegraded(stage, parameter, value);
+    }
+  }
+
+  private void report(String stage, Map<String, Long> cardinalities) {
+    final long elapsed = System.nanoTime() - startNanos;
+    final long bytes = AllocationCounter.currentThreadAllocatedBytes();
+    final long allocated = (bytes < 0 || startBytes < 0) ? -1 : bytes - startBytes;
+    listener.stageCompleted(stage, elapsed, allocated, Collections.unmodifiableMap(cardinalities));
+    restart();
+  }
+
+  /** Access to per-thread allocation counters, if the JVM provides them. */
+  @SuppressForbidden("Allocation counters are optional, checked at runtime.")
+  private static final class AllocationCounter {
+    private static final com.sun.management.ThreadMXBean threadBean = threadBean();
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+      try {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+          final com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+          if (sunBean.isThreadAllocatedMemorySupported()
+              && sunBean.isThreadAllocatedMemoryEnabled()) {
+            return sunBean;
+          }
+        }
+      } catch (LinkageError | SecurityException e) {
+        // Not available, ignore.
+      }
+      return null;
+    }
+
+    static long currentThreadAllocatedBytes() {
+      if (threadBean == null) {
+        return -1;
+      }
+      return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+  }
+}
@@ -12,6 +12,7 @@ package org.carrot2.language;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.Objects;
 import org.carrot2.util.MutableCharArray;
 
 /**
@@ -32,6 +33,30 @@ public final class ExtendedWhitespaceTokenizer implements Tokenizer {
     this.parser.yyreset(input);
   }
 
+  /**
+   * Reset this tokenizer to start parsing a range of the given array. The range is loaded to the
+   * parser's buffer at once, without a reader.
+   */
+  @Override
+  public void reset(char[] buffer, int offset, int length) {
+    Objects.checkFromIndexSize(offset, length, buffer.length);
+    this.parser.yyreset(buffer, offset, length);
+  }
+
+  /**
+   * Reset this tokenizer to start parsing the given sequence. The sequence is loaded to the
+   * parser's buffer at once, without a reader.
+   */
+  @Override
+  public void reset(CharSequence input) {
+    if (input instanceof MutableCharArray) {
+      final MutableCharArray chars = (MutableCharArray) input;
+      reset(chars.getBuffer(), chars.getStart(), chars.length());
+    } else {
+      this.parser.yyreset(input);
+    }
+  }
+
   @Override
   public short nextToken() throws IOException {
     final short result = (short) parser.getNextToken();
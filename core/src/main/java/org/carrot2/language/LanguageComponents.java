@@ -14,6 +14,7 @@ import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -21,10 +22,19 @@ import java.util.function.Supplier;
 public final class LanguageComponents {
   private final String language;
   private final Map<Class<?>, Supplier<?>> components;
+  private final AtomicReference<StemCache> stemCache;
 
   public LanguageComponents(String language, Map<Class<?>, Supplier<?>> suppliers) {
+    this(language, suppliers, new AtomicReference<>());
+  }
+
+  private LanguageComponents(
+      String language,
+      Map<Class<?>, Supplier<?>> suppliers,
+      AtomicReference<StemCache> stemCache) {
     this.language = language;
     this.components = suppliers;
+    this.stemCache = stemCache;
   }
 
   public String language() {
@@ -47,7 +57,11 @@ public final class LanguageComponents {
   public <T> LanguageComponents override(Class<T> clazz, Supplier<? extends T> supplier) {
     Map<Class<?>, Supplier<?>> clonedSuppliers = new LinkedHashMap<>(components);
     clonedSuppliers.put(clazz, supplier);
-    return new LanguageComponents(language, clonedSuppliers);
+    // Stems depend on the stemmer only, so the cache is kept unless the stemmer changes.
+    return new LanguageComponents(
+        language,
+        clonedSuppliers,
+        clazz == Stemmer.class ? new AtomicReference<>() : stemCache);
   }
 
   /**
@@ -64,6 +78,19 @@ public final class LanguageComponents {
     return override(clazz, modifier.apply(existingSupplier));
   }
 
+  /**
+   * Returns the {@link StemCache} shared by all users of this instance. The cache is created with
+   * the maximum size given on the first call and later calls share it regardless of the size they
+   * give, so that requests with different sizes do not evict each other's entries by resizing it.
+   * Instances returned from {@link #override} share the cache, unless they override the {@link
+   * Stemmer}.
+   *
+   * @since 4.6.0
+   */
+  public StemCache stemCache(int maxSize) {
+    return stemCache.updateAndGet((cache) -> cache != null ? cache : new StemCache(maxSize));
+  }
+
   public Set<Class<?>> components() {
     return components.keySet();
   }
@@ -0,0 +1,219 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.language;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import org.carrot2.util.MutableCharArray;
+
+/**
+ * A bounded, thread-safe cache of {@link Stemmer} results, keyed by (lowercased) word images. The
+ * cache is split into a number of independently locked segments, each evicting its least recently
+ * used entries once the segment's share of the maximum size is exceeded.
+ *
+ * <p>A single instance is shared by all threads using the same {@link LanguageComponents} (or
+ * instances overriding components other than the {@link Stemmer}), see {@link
+ * LanguageComponents#stemCache(int)}.
+ *
+ * @since 4.6.0
+ */
+public final class StemCache {
+  /** A marker for words the stemmer returned <code>null</code> for. */
+  private static final char[] NO_STEM = new char[0];
+
+  private static final int SEGMENTS = 16;
+
+  private final Segment[] segments;
+  private volatile int maxSize;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /** @param maxSize The maximum number of cached words, must be positive. */
+  public StemCache(int maxSize) {
+    checkMaxSize(maxSize);
+    this.maxSize = maxSize;
+    this.segments = new Segment[SEGMENTS];
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = new Segment(segmentSize(maxSize));
+    }
+  }
+
+  /**
+   * Returns the stem of <code>word</code>, computing it with <code>stemmer</code> if it's not
+   * cached yet.
+   *
+   * @param stemmer The stemmer to use on cache misses.
+   * @param word The word to stem. The buffer is not retained by the cache and can be reused by the
+   *     caller.
+   * @return The stem or <code>null</code> if the stemmer does not return any stem for the word. The
+   *     returned array must not be modified.
+   */
+  public char[] stem(Stemmer stemmer, MutableCharArray word) {
+    final Segment segment = segments[(mix(word.hashCode()) & 0x7fffffff) % segments.length];
+
+    char[] stem = segment.get(word);
+    if (stem != null) {
+      hits.increment();
+    } else {
+      misses.increment();
+      final CharSequence stemmed = stemmer.stem(word);
+      stem = (stemmed == null) ? NO_STEM : toCharArray(stemmed);
+      segment.put(word.clone(), stem);
+    }
+
+    return stem == NO_STEM ? null : stem;
+  }
+
+  /** @return The maximum number of cached words. */
+  public int maxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Changes the maximum number of cached words. Least recently used entries are evicted immediately
+   * if the cache currently holds more words than the new limit.
+   *
+   * @param maxSize The new maximum number of cached words, must be positive.
+   */
+  public void resize(int maxSize) {
+    checkMaxSize(maxSize);
+    this.maxSize = maxSize;
+    for (Segment segment : segments) {
+      segment.resize(segmentSize(maxSize));
+    }
+  }
+
+  /** @return The current number of cached words. */
+  public int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  /** @return The number of cache hits so far. */
+  public long hits() {
+    return hits.sum();
+  }
+
+  /** @return The number of cache misses so far. */
+  public long misses() {
+    return misses.sum();
+  }
+
+  /** Removes all cached entries and resets hit and miss counters. */
+  public void clear() {
+    for (Segment segment : segments) {
+      segment.clear();
+    }
+    hits.reset();
+    misses.reset();
+  }
+
+  private static void checkMaxSize(int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("Maximum cache size must be positive: " + maxSize);
+    }
+  }
+
+  private static int segmentSize(int maxSize) {
+    return (maxSize + SEGMENTS - 1) / SEGMENTS;
+  }
+
+  private static char[] toCharArray(CharSequence seq) {
+    final char[] chars = new char[seq.length()];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = seq.charAt(i);
+    }
+    return chars;
+  }
+
+  /** Spreads the bits of low-quality hash codes across segments. */
+  private static int mix(int h) {
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    return h;
+  }
+
+  /** A single LRU segment of the cache. */
+  private static final class Segment {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<MutableCharArray, char[]> entries;
+    private int maxSize;
+
+    Segment(int maxSize) {
+      this.maxSize = maxSize;
+      this.entries =
+          new LinkedHashMap<MutableCharArray, char[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<MutableCharArray, char[]> eldest) {
+              return size() > Segment.this.maxSize;
+            }
+          };
+    }
+
+    void resize(int maxSize) {
+      lock.lock();
+      try {
+        this.maxSize = maxSize;
+        final Iterator<MutableCharArray> eldestFirst = entries.keySet().iterator();
+        while (entries.size() > maxSize) {
+          eldestFirst.next();
+          eldestFirst.remove();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    char[] get(MutableCharArray key) {
+      lock.lock();
+      try {
+        return entries.get(key);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void put(MutableCharArray key, char[] value) {
+      lock.lock();
+      try {
+        entries.put(key, value);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    int size() {
+      lock.lock();
+      try {
+        return entries.size();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void clear() {
+      lock.lock();
+      try {
+        entries.clear();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
@@ -10,8 +10,10 @@
  */
 package org.carrot2.language;
 
+import java.io.CharArrayReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
 import org.carrot2.text.preprocessing.PreprocessingContext.AllWords;
 import org.carrot2.util.MutableCharArray;
 
@@ -93,6 +95,32 @@ public interface Tokenizer {
    */
   void reset(Reader reader) throws IOException;
 
+  /**
+   * Resets the tokenizer to process characters from a range of the given array. Implementations may
+   * read directly from the array, so the range must not be modified until the tokenizer is reset
+   * again. The default implementation wraps the range in a {@link Reader}.
+   *
+   * @param buffer the input to tokenize.
+   * @param offset index of the first character to tokenize.
+   * @param length the number of characters to tokenize.
+   * @since 4.6.0
+   */
+  default void reset(char[] buffer, int offset, int length) throws IOException {
+    reset(new CharArrayReader(buffer, offset, length));
+  }
+
+  /**
+   * Resets the tokenizer to process the given character sequence. Implementations may read directly
+   * from the sequence, so it must not be modified until the tokenizer is reset again. The default
+   * implementation wraps the sequence in a {@link Reader}.
+   *
+   * @param input the input to tokenize.
+   * @since 4.6.0
+   */
+  default void reset(CharSequence input) throws IOException {
+    reset(new StringReader(input.toString()));
+  }
+
   /**
    * Returns the next token from the input stream.
    *
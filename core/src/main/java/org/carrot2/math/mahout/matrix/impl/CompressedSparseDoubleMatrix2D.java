@@ -0,0 +1,535 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.mahout.matrix.impl;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.sorting.IndirectSort;
+import java.util.Arrays;
+import org.carrot2.math.mahout.function.DoubleFunction;
+import org.carrot2.math.mahout.function.Functions;
+import org.carrot2.math.mahout.function.IntIntDoubleFunction;
+import org.carrot2.math.mahout.function.Mult;
+import org.carrot2.math.mahout.matrix.DoubleMatrix1D;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+
+/**
+ * A sparse matrix with a fixed set of non-zero elements, stored in the compressed sparse row (CSR)
+ * layout: column indexes and values of all non-zero elements, row after row, and the offsets at
+ * which each row's elements start. Read as the transpose, the same arrays form the compressed
+ * sparse column (CSC) layout, so products with the transposed matrix need no conversion.
+ *
+ * <p>Values of the stored elements can be modified, but setting any other element to a non-zero
+ * value throws {@link UnsupportedOperationException}. Products with dense matrices and vectors
+ * ({@link #zMult}) only visit the stored elements.
+ *
+ * @since 4.6.0
+ */
+public final class CompressedSparseDoubleMatrix2D extends DoubleMatrix2D {
+  /** Start positions of each row's elements in {@link #columnIndexes}, plus the end position. */
+  final int[] rowOffsets;
+
+  /** Column indexes of the stored elements, increasing within each row. */
+  final int[] columnIndexes;
+
+  /** Values of the stored elements. */
+  final double[] values;
+
+  /** The number of columns of the stored matrix (views may have a different number). */
+  private final int storedColumns;
+
+  /**
+   * Creates a matrix from its compressed sparse row representation. Elements of row <code>i</code>
+   * occupy positions <code>rowOffsets[i]</code> (inclusive) to <code>rowOffsets[i + 1]</code>
+   * (exclusive) of <code>columnIndexes</code> and <code>values</code>. Elements within a row may
+   * come in any order, the arrays are sorted in place. The arrays are not copied.
+   */
+  public CompressedSparseDoubleMatrix2D(
+      int rows, int columns, int[] rowOffsets, int[] columnIndexes, double[] values) {
+    setUp(rows, columns);
+    if (rowOffsets.length != rows + 1
+        || rowOffsets[0] != 0
+        || columnIndexes.length < rowOffsets[rows]
+        || values.length < rowOffsets[rows]) {
+      throw new IllegalArgumentException("Inconsistent row offsets");
+    }
+
+    this.rowOffsets = rowOffsets;
+    this.columnIndexes = columnIndexes;
+    this.values = values;
+    this.storedColumns = columns;
+
+    for (int row = 0; row < rows; row++) {
+      sortRow(rowOffsets[row], rowOffsets[row + 1]);
+    }
+  }
+
+  public CompressedSparseDoubleMatrix2D(double[][] values) {
+    this(
+        values.length,
+        values.length == 0 ? 0 : values[0].length,
+        rowOffsets(values),
+        nonZeroColumns(values),
+        nonZeroValues(values));
+  }
+
+  /** Creates a matrix with the structure of <code>other</code> and the given values. */
+  private CompressedSparseDoubleMatrix2D(CompressedSparseDoubleMatrix2D other, double[] values) {
+    setUp(other.rows, other.columns);
+    this.rowOffsets = other.rowOffsets;
+    this.columnIndexes = other.columnIndexes;
+    this.values = values;
+    this.storedColumns = other.storedColumns;
+  }
+
+  /** Returns the row offsets of non-zero elements of a 2D array. */
+  private static int[] rowOffsets(double[][] values) {
+    final int[] rowOffsets = new int[values.length + 1];
+    for (int row = 0; row < values.length; row++) {
+      if (values[row].length != values[0].length) {
+        throw new IllegalArgumentException(
+            "Must have same number of columns in every row: columns=" + values[row].length);
+      }
+      rowOffsets[row + 1] = rowOffsets[row];
+      for (double value : values[row]) {
+        if (value != 0) {
+          rowOffsets[row + 1]++;
+        }
+      }
+    }
+    return rowOffsets;
+  }
+
+  /** Returns the column indexes of non-zero elements of a 2D array, row after row. */
+  private static int[] nonZeroColumns(double[][] values) {
+    final IntArrayList columns = new IntArrayList();
+    for (double[] row : values) {
+      for (int column = 0; column < row.length; column++) {
+        if (row[column] != 0) {
+          columns.add(column);
+        }
+      }
+    }
+    return columns.toArray();
+  }
+
+  /** Returns the non-zero elements of a 2D array, row after row. */
+  private static double[] nonZeroValues(double[][] values) {
+    final DoubleArrayList nonZeros = new DoubleArrayList();
+    for (double[] row : values) {
+      for (double value : row) {
+        if (value != 0) {
+          nonZeros.add(value);
+        }
+      }
+    }
+    return nonZeros.toArray();
+  }
+
+  /**
+   * @return <code>true</code> if this matrix is a view of another matrix. The stored elements
+   *     accessors ({@link #rowStart(int)} and others) are only meaningful for matrices that are not
+   *     views.
+   */
+  public boolean isView() {
+    return !isNoView;
+  }
+
+  /** @return The position of the first stored element of the given row. */
+  public int rowStart(int row) {
+    return rowOffsets[row];
+  }
+
+  /** @return The position right after the last stored element of the given row. */
+  public int rowEnd(int row) {
+    return rowOffsets[row + 1];
+  }
+
+  /** @return The column index of the stored element at the given position. */
+  public int columnIndex(int position) {
+    return columnIndexes[position];
+  }
+
+  /** @return The value of the stored element at the given position. */
+  public double value(int position) {
+    return values[position];
+  }
+
+  @Override
+  public DoubleMatrix2D assign(double value) {
+    if (this.isNoView && value == 0) {
+      Arrays.fill(values, 0, rowOffsets[rowOffsets.length - 1], 0);
+    } else {
+      super.assign(value);
+    }
+    return this;
+  }
+
+  @Override
+  public void assign(DoubleFunction function) {
+    if (this.isNoView && function instanceof Mult) {
+      final double multiplicator = ((Mult) function).getMultiplicator();
+      for (int i = rowOffsets[rowOffsets.length - 1]; --i >= 0; ) {
+        values[i] *= multiplicator;
+      }
+    } else {
+      super.assign(function);
+    }
+  }
+
+  @Override
+  public int cardinality() {
+    if (!this.isNoView) {
+      return super.cardinality();
+    }
+
+    int cardinality = 0;
+    for (int i = rowOffsets[rowOffsets.length - 1]; --i >= 0; ) {
+      if (values[i] != 0) {
+        cardinality++;
+      }
+    }
+    return cardinality;
+  }
+
+  @Override
+  public DoubleMatrix2D copy() {
+    if (!this.isNoView) {
+      return super.copy();
+    }
+    // The structure is immutable, only values need to be copied.
+    return new CompressedSparseDoubleMatrix2D(this, values.clone());
+  }
+
+  @Override
+  public void forEachNonZero(IntIntDoubleFunction function) {
+    if (!this.isNoView) {
+      super.forEachNonZero(function);
+      return;
+    }
+
+    for (int row = 0; row < rows; row++) {
+      for (int i = rowOffsets[row], max = rowOffsets[row + 1]; i < max; i++) {
+        final double value = values[i];
+        if (value != 0) {
+          final double r = function.apply(row, columnIndexes[i], value);
+          if (r != value) {
+            values[i] = r;
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public double getQuick(int row, int column) {
+    return getStored(rowZero + row * rowStride + columnZero + column * columnStride);
+  }
+
+  @Override
+  public void setQuick(int row, int column, double value) {
+    setStored(rowZero + row * rowStride + columnZero + column * columnStride, value);
+  }
+
+  /** Returns the element at the given offset of the (row-major) stored matrix. */
+  private double getStored(int offset) {
+    final int position = position(offset);
+    return position >= 0 ? values[position] : 0;
+  }
+
+  /** Sets the element at the given offset of the (row-major) stored matrix. */
+  private void setStored(int offset, double value) {
+    final int position = position(offset);
+    if (position >= 0) {
+      values[position] = value;
+    } else if (value != 0) {
+      throw new UnsupportedOperationException(
+          "Only the stored elements can be set to non-zero values, row: "
+              + offset / storedColumns
+              + ", column: "
+              + offset % storedColumns);
+    }
+  }
+
+  /** Returns the position of the stored element at the given offset or a negative value. */
+  private int position(int offset) {
+    final int row = offset / storedColumns;
+    final int column = offset - row * storedColumns;
+    return Arrays.binarySearch(columnIndexes, rowOffsets[row], rowOffsets[row + 1], column);
+  }
+
+  @Override
+  protected boolean haveSharedCellsRaw(DoubleMatrix2D other) {
+    if (other instanceof CompressedSparseDoubleMatrix2D) {
+      return this.values == ((CompressedSparseDoubleMatrix2D) other).values;
+    }
+    return false;
+  }
+
+  @Override
+  protected int index(int row, int column) {
+    return rowZero + row * rowStride + columnZero + column * columnStride;
+  }
+
+  @Override
+  public DoubleMatrix2D like(int rows, int columns) {
+    return new SparseDoubleMatrix2D(rows, columns);
+  }
+
+  @Override
+  public DoubleMatrix1D like1D(int size) {
+    return new SparseDoubleMatrix1D(size);
+  }
+
+  @Override
+  protected DoubleMatrix1D like1D(int size, final int offset, final int step) {
+    final DoubleMatrix1D view =
+        new WrapperDoubleMatrix1D(null) {
+          @Override
+          public double getQuick(int index) {
+            return getStored(offset + index * step);
+          }
+
+          @Override
+          public void setQuick(int index, double value) {
+            setStored(offset + index * step, value);
+          }
+
+          @Override
+          public DoubleMatrix1D like(int size) {
+            return new SparseDoubleMatrix1D(size);
+          }
+
+          @Override
+          public DoubleMatrix2D like2D(int rows, int columns) {
+            return new SparseDoubleMatrix2D(rows, columns);
+          }
+        };
+    view.setUp(size);
+    view.isNoView = false;
+    return view;
+  }
+
+  @Override
+  protected DoubleMatrix2D viewSelectionLike(final int[] rowOffsets, final int[] columnOffsets) {
+    final DoubleMatrix2D view =
+        new WrapperDoubleMatrix2D(this) {
+          @Override
+          public double getQuick(int row, int column) {
+            return getStored(rowOffsets[row] + columnOffsets[column]);
+          }
+
+          @Override
+          public void setQuick(int row, int column, double value) {
+            setStored(rowOffsets[row] + columnOffsets[column], value);
+          }
+        };
+    view.rows = rowOffsets.length;
+    view.columns = columnOffsets.length;
+    view.isNoView = false;
+    return view;
+  }
+
+  @Override
+  public DoubleMatrix1D zMult(
+      DoubleMatrix1D y, DoubleMatrix1D z, double alpha, double beta, boolean transposeA) {
+    final int m = transposeA ? columns : rows;
+    final int n = transposeA ? rows : columns;
+
+    final boolean ignore = z == null;
+    if (ignore) {
+      z = new DenseDoubleMatrix1D(m);
+    }
+
+    if (!(this.isNoView && y instanceof DenseDoubleMatrix1D && z instanceof DenseDoubleMatrix1D)) {
+      return super.zMult(y, z, alpha, beta, transposeA);
+    }
+
+    if (n != y.size() || m > z.size()) {
+      throw new IllegalArgumentException("Incompatible args");
+    }
+
+    if (!ignore) {
+      z.assign(Functions.mult(beta));
+    }
+
+    final DenseDoubleMatrix1D yy = (DenseDoubleMatrix1D) y;
+    final double[] yElements = yy.elements;
+    final int yStride = yy.stride;
+    final int yi = yy.index(0);
+
+    final DenseDoubleMatrix1D zz = (DenseDoubleMatrix1D) z;
+    final double[] zElements = zz.elements;
+    final int zStride = zz.stride;
+    final int zi = zz.index(0);
+
+    for (int row = 0; row < rows; row++) {
+      for (int i = rowOffsets[row], max = rowOffsets[row + 1]; i < max; i++) {
+        final double value = alpha * values[i];
+        final int column = columnIndexes[i];
+        if (transposeA) {
+          zElements[zi + zStride * column] += value * yElements[yi + yStride * row];
+        } else {
+          zElements[zi + zStride * row] += value * yElements[yi + yStride * column];
+        }
+      }
+    }
+    return z;
+  }
+
+  @Override
+  public DoubleMatrix2D zMult(
+      DoubleMatrix2D B,
+      DoubleMatrix2D C,
+      double alpha,
+      double beta,
+      boolean transposeA,
+      boolean transposeB) {
+    if (transposeB) {
+      B = B.viewDice();
+    }
+    final int m = transposeA ? columns : rows;
+    final int n = transposeA ? rows : columns;
+    final int p = B.columns;
+
+    final boolean ignore = C == null;
+    if (ignore) {
+      C = new DenseDoubleMatrix2D(m, p);
+    }
+
+    final boolean singlePrecision =
+        B instanceof DenseFloatMatrix2D && C instanceof DenseFloatMatrix2D;
+    if (!(this.isNoView
+        && (singlePrecision
+            || (B instanceof DenseDoubleMatrix2D && C instanceof DenseDoubleMatrix2D)))) {
+      return super.zMult(B, C, alpha, beta, transposeA, false);
+    }
+
+    if (B.rows != n) {
+      throw new IllegalArgumentException("Matrix2D inner dimensions must agree");
+    }
+    if (C.rows != m || C.columns != p) {
+      throw new IllegalArgumentException("Incompatible result matrix");
+    }
+    if (B == C) {
+      throw new IllegalArgumentException("Matrices must not be identical");
+    }
+
+    if (!ignore) {
+      C.assign(Functions.mult(beta));
+    }
+
+    if (singlePrecision) {
+      zMult((DenseFloatMatrix2D) B, (DenseFloatMatrix2D) C, alpha, transposeA);
+      return C;
+    }
+
+    final DenseDoubleMatrix2D BB = (DenseDoubleMatrix2D) B;
+    final double[] BElems = BB.elements;
+    final int rB = BB.rowStride;
+    final int cB = BB.columnStride;
+    final int zeroB = BB.index(0, 0);
+
+    final DenseDoubleMatrix2D CC = (DenseDoubleMatrix2D) C;
+    final double[] CElems = CC.elements;
+    final int rC = CC.rowStride;
+    final int cC = CC.columnStride;
+    final int zeroC = CC.index(0, 0);
+
+    // Each stored element a(row, column) adds a multiple of one row of B to one row of C:
+    // C(row, :) += a * B(column, :), or C(column, :) += a * B(row, :) for the transpose.
+    for (int row = 0; row < rows; row++) {
+      for (int i = rowOffsets[row], max = rowOffsets[row + 1]; i < max; i++) {
+        final double value = alpha * values[i];
+        final int column = columnIndexes[i];
+        int iB = zeroB + (transposeA ? row : column) * rB;
+        int iC = zeroC + (transposeA ? column : row) * rC;
+        for (int k = p; --k >= 0; ) {
+          CElems[iC] += value * BElems[iB];
+          iB += cB;
+          iC += cC;
+        }
+      }
+    }
+    return C;
+  }
+
+  /**
+   * Adds <code>alpha * A * B</code> (or <code>alpha * A' * B</code>) to <code>C</code>, the
+   * single-precision variant of the loop in {@link #zMult(DoubleMatrix2D, DoubleMatrix2D, double,
+   * double, boolean, boolean)}.
+   */
+  private void zMult(DenseFloatMatrix2D B, DenseFloatMatrix2D C, double alpha, boolean transposeA) {
+    final float[] BElems = B.elements;
+    final int rB = B.rowStride;
+    final int cB = B.columnStride;
+    final int zeroB = B.index(0, 0);
+
+    final float[] CElems = C.elements;
+    final int rC = C.rowStride;
+    final int cC = C.columnStride;
+    final int zeroC = C.index(0, 0);
+
+    final int p = B.columns;
+    for (int row = 0; row < rows; row++) {
+      for (int i = rowOffsets[row], max = rowOffsets[row + 1]; i < max; i++) {
+        final float value = (float) (alpha * values[i]);
+        final int column = columnIndexes[i];
+        int iB = zeroB + (transposeA ? row : column) * rB;
+        int iC = zeroC + (transposeA ? column : row) * rC;
+        for (int k = p; --k >= 0; ) {
+          CElems[iC] += value * BElems[iB];
+          iB += cB;
+          iC += cC;
+        }
+      }
+    }
+  }
+
+  @Override
+  public double zSum() {
+    if (!this.isNoView) {
+      return super.zSum();
+    }
+
+    double sum = 0;
+    for (int i = 0, max = rowOffsets[rowOffsets.length - 1]; i < max; i++) {
+      sum += values[i];
+    }
+    return sum;
+  }
+
+  /** Sorts elements in the given range by their column index. */
+  private void sortRow(int from, int to) {
+    boolean sorted = true;
+    for (int i = from + 1; i < to && sorted; i++) {
+      sorted = columnIndexes[i - 1] < columnIndexes[i];
+    }
+    if (sorted) {
+      return;
+    }
+
+    final int[] order =
+        IndirectSort.mergesort(
+            from, to - from, (a, b) -> Integer.compare(columnIndexes[a], columnIndexes[b]));
+    final int[] sortedColumns = new int[order.length];
+    final double[] sortedValues = new double[order.length];
+    for (int i = 0; i < order.length; i++) {
+      sortedColumns[i] = columnIndexes[order[i]];
+      sortedValues[i] = values[order[i]];
+      if (i > 0 && sortedColumns[i - 1] == sortedColumns[i]) {
+        throw new IllegalArgumentException("Duplicate column index: " + sortedColumns[i]);
+      }
+    }
+    System.arraycopy(sortedColumns, 0, columnIndexes, from, order.length);
+    System.arraycopy(sortedValues, 0, values, from, order.length);
+  }
+}
@@ -150,41 +150,19 @@ public class DenseDoubleMatrix1D extends DoubleMatrix1D {
     int otherIndex = other.index(0);
 
     // specialized for speed
+    DoubleKernels kernels = DoubleKernels.INSTANCE;
     if (function == Functions.MULT) { // x[i] = x[i] * y[i]
-      for (int k = size; --k >= 0; ) {
-        elems[index] *= otherElems[otherIndex];
-        index += s;
-        otherIndex += ys;
-      }
+      kernels.mult(size, elems, index, s, otherElems, otherIndex, ys);
     } else if (function == Functions.DIV) { // x[i] = x[i] / y[i]
-      for (int k = size; --k >= 0; ) {
-        elems[index] /= otherElems[otherIndex];
-        index += s;
-        otherIndex += ys;
-      }
-    } else if (function instanceof PlusMult) {
-      double multiplicator = ((PlusMult) function).getMultiplicator();
+      kernels.div(size, elems, index, s, otherElems, otherIndex, ys);
+    } else if (function instanceof PlusMult || function == Functions.PLUS) {
+      double multiplicator =
+          function == Functions.PLUS ? 1 : ((PlusMult) function).getMultiplicator();
       if (multiplicator == 0) { // x[i] = x[i] + 0*y[i]
         return this;
-      } else if (multiplicator == 1) { // x[i] = x[i] + y[i]
-        for (int k = size; --k >= 0; ) {
-          elems[index] += otherElems[otherIndex];
-          index += s;
-          otherIndex += ys;
-        }
-      } else if (multiplicator == -1) { // x[i] = x[i] - y[i]
-        for (int k = size; --k >= 0; ) {
-          elems[index] -= otherElems[otherIndex];
-          index += s;
-          otherIndex += ys;
-        }
-      } else { // the general case x[i] = x[i] + mult*y[i]
-        for (int k = size; --k >= 0; ) {
-          elems[index] += multiplicator * otherElems[otherIndex];
-          index += s;
-          otherIndex += ys;
-        }
       }
+      // x[i] = x[i] + mult*y[i]
+      kernels.plusMult(size, elems, index, s, otherElems, otherIndex, ys, multiplicator);
     } else { // the general case x[i] = f(x[i],y[i])
       for (int k = size; --k >= 0; ) {
         elems[index] = function.apply(elems[index], otherElems[otherIndex]);
@@ -190,61 +190,38 @@ public final class DenseDoubleMatrix2D extends DoubleMatrix2D {
     int otherIndex = other.index(0, 0);
     int index = index(0, 0);
 
+    int lines = rows;
+    int cells = columns;
+    if (this.isNoView && other.isNoView) {
+      // both matrices are contiguous, process all cells at once
+      lines = 1;
+      cells = rows * columns;
+    }
+
     // specialized for speed
+    DoubleKernels kernels = DoubleKernels.INSTANCE;
     if (function == Functions.MULT) { // x[i] = x[i] * y[i]
-      for (int row = rows; --row >= 0; ) {
-        for (int i = index, j = otherIndex, column = columns; --column >= 0; ) {
-          elems[i] *= otherElems[j];
-          i += cs;
-          j += ocs;
-        }
+      for (int row = lines; --row >= 0; ) {
+        kernels.mult(cells, elems, index, cs, otherElems, otherIndex, ocs);
         index += rs;
         otherIndex += ors;
       }
     } else if (function == Functions.DIV) { // x[i] = x[i] / y[i]
-      for (int row = rows; --row >= 0; ) {
-        for (int i = index, j = otherIndex, column = columns; --column >= 0; ) {
-          elems[i] /= otherElems[j];
-          i += cs;
-          j += ocs;
-        }
+      for (int row = lines; --row >= 0; ) {
+        kernels.div(cells, elems, index, cs, otherElems, otherIndex, ocs);
         index += rs;
         otherIndex += ors;
       }
-    } else if (function instanceof PlusMult) {
-      double multiplicator = ((PlusMult) function).getMultiplicator();
+    } else if (function instanceof PlusMult || function == Functions.PLUS) {
+      double multiplicator =
+          function == Functions.PLUS ? 1 : ((PlusMult) function).getMultiplicator();
       if (multiplicator == 0) { // x[i] = x[i] + 0*y[i]
         return this;
-      } else if (multiplicator == 1) { // x[i] = x[i] + y[i]
-        for (int row = rows; --row >= 0; ) {
-          for (int i = index, j = otherIndex, column = columns; --column >= 0; ) {
-            elems[i] += otherElems[j];
-            i += cs;
-            j += ocs;
-          }
-          index += rs;
-          otherIndex += ors;
-        }
-      } else if (multiplicator == -1) { // x[i] = x[i] - y[i]
-        for (int row = rows; --row >= 0; ) {
-          for (int i = index, j = otherIndex, column = columns; --column >= 0; ) {
-            elems[i] -= otherElems[j];
-            i += cs;
-            j += ocs;
-          }
-          index += rs;
-          otherIndex += ors;
-        }
-      } else { // the general case
-        for (int row = rows; --row >= 0; ) { // x[i] = x[i] + mult*y[i]
-          for (int i = index, j = otherIndex, column = columns; --column >= 0; ) {
-            elems[i] += multiplicator * otherElems[j];
-            i += cs;
-            j += ocs;
-          }
-          index += rs;
-          otherIndex += ors;
-        }
+      }
+      for (int row = lines; --row >= 0; ) { // x[i] = x[i] + mult*y[i]
+        kernels.plusMult(cells, elems, index, cs, otherElems, otherIndex, ocs, multiplicator);
+        index += rs;
+        otherIndex += ors;
       }
     } else { // the general case x[i] = f(x[i],y[i])
       for (int row = rows; --row >= 0; ) {
@@ -343,36 +320,21 @@ public final class DenseDoubleMatrix2D extends DoubleMatrix2D {
     if (AElems == null || yElems == null || zElems == null) {
       throw new IllegalStateException();
     }
-    int As = this.columnStride;
-    int ys = yy.stride;
-    int zs = zz.stride;
-
-    int indexA = index(0, 0);
-    int indexY = yy.index(0);
-    int indexZ = zz.index(0);
-
-    int cols = columns;
-    for (int row = rows; --row >= 0; ) {
-      double sum = 0;
-      // loop unrolled
-      int i = indexA - As;
-      int j = indexY - ys;
-      for (int k = cols % 4; --k >= 0; ) {
-        sum += AElems[i += As] * yElems[j += ys];
-      }
-      for (int k = cols / 4; --k >= 0; ) {
-        sum +=
-            AElems[i += As] * yElems[j += ys]
-                + AElems[i += As] * yElems[j += ys]
-                + AElems[i += As] * yElems[j += ys]
-                + AElems[i += As] * yElems[j += ys];
-      }
-
-      zElems[indexZ] = alpha * sum + beta * zElems[indexZ];
-      indexA += this.rowStride;
-      indexZ += zs;
-    }
-
+    DoubleKernels.INSTANCE.gemv(
+        rows,
+        columns,
+        alpha,
+        AElems,
+        index(0, 0),
+        this.rowStride,
+        this.columnStride,
+        yElems,
+        yy.index(0),
+        yy.stride,
+        beta,
+        zElems,
+        zz.index(0),
+        zz.stride);
     return z;
   }
 
@@ -388,7 +350,7 @@ public final class DenseDoubleMatrix2D extends DoubleMatrix2D {
     if (transposeA) {
       return viewDice().zMult(B, C, alpha, beta, false, transposeB);
     }
-    if (B instanceof SparseDoubleMatrix2D) {
+    if (B instanceof SparseDoubleMatrix2D || B instanceof CompressedSparseDoubleMatrix2D) {
       // exploit quick sparse mult
       // A*B = (B' * A')'
       if (C == null) {
@@ -408,6 +370,9 @@ public final class DenseDoubleMatrix2D extends DoubleMatrix2D {
     if (C == null) {
       C = new DenseDoubleMatrix2D(m, p);
     }
+    if (B instanceof DirectDoubleMatrix2D || C instanceof DirectDoubleMatrix2D) {
+      return DirectDoubleMatrix2D.zMultBlocked(this, B, C, alpha, beta);
+    }
     if (!(C instanceof DenseDoubleMatrix2D)) {
       return super.zMult(B, C, alpha, beta, transposeA, transposeB);
     }
@@ -430,90 +395,25 @@ public final class DenseDoubleMatrix2D extends DoubleMatrix2D {
       throw new IllegalStateException();
     }
 
-    int cA = this.columnStride;
-    int cB = BB.columnStride;
-    int cC = CC.columnStride;
-
-    int rA = this.rowStride;
-    int rB = BB.rowStride;
-    int rC = CC.rowStride;
-
-    /*
-    A is blocked to hide memory latency
-        xxxxxxx B
-        xxxxxxx
-        xxxxxxx
-    A
-    xxx     xxxxxxx C
-    xxx     xxxxxxx
-    ---     -------
-    xxx     xxxxxxx
-    xxx     xxxxxxx
-    ---     -------
-    xxx     xxxxxxx
-    */
-    int blockSize = 30000; // * 8 == Level 2 cache in bytes
-    // if (n+p == 0) return C;
-    // int m_optimal = (BLOCK_SIZE - n*p) / (n+p);
-    int mOptimal = (blockSize - n) / (n + 1);
-    if (mOptimal <= 0) {
-      mOptimal = 1;
-    }
-    int blocks = m / mOptimal;
-    if (m % mOptimal != 0) {
-      blocks++;
-    }
-    int rr = 0;
-    while (--blocks >= 0) {
-      int jB = BB.index(0, 0);
-      int indexA = index(rr, 0);
-      int jC = CC.index(rr, 0);
-      rr += mOptimal;
-      if (blocks == 0) {
-        mOptimal += m - rr;
-      }
-
-      for (int j = p; --j >= 0; ) {
-        int iA = indexA;
-        int iC = jC;
-        for (int i = mOptimal; --i >= 0; ) {
-          int kA = iA;
-          int kB = jB;
-
-          /*
-          // not unrolled:
-          for (int k = n; --k >= 0; ) {
-            //s += getQuick(i,k) * B.getQuick(k,j);
-            s += AElems[kA] * BElems[kB];
-            kB += rB;
-            kA += cA;
-          }
-          */
-
-          // loop unrolled
-          kA -= cA;
-          kB -= rB;
-
-          double s = 0;
-          for (int k = n % 4; --k >= 0; ) {
-            s += AElems[kA += cA] * BElems[kB += rB];
-          }
-          for (int k = n / 4; --k >= 0; ) {
-            s +=
-                AElems[kA += cA] * BElems[kB += rB]
-                    + AElems[kA += cA] * BElems[kB += rB]
-                    + AElems[kA += cA] * BElems[kB += rB]
-                    + AElems[kA += cA] * BElems[kB += rB];
-          }
-
-          CElems[iC] = alpha * s + beta * CElems[iC];
-          iA += rA;
-          iC += rC;
-        }
-        jB += cB;
-        jC += cC;
-      }
-    }
+    DoubleKernels.INSTANCE.parallelGemm(
+        DoubleKernels.THREADS,
+        m,
+        n,
+        p,
+        alpha,
+        AElems,
+        index(0, 0),
+        this.rowStride,
+        this.columnStride,
+        BElems,
+        BB.index(0, 0),
+        BB.rowStride,
+        BB.columnStride,
+        beta,
+        CElems,
+        CC.index(0, 0),
+        CC.rowStride,
+        CC.columnStride);
     return C;
   }
 
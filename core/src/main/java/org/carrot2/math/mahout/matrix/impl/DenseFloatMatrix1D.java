@@ -0,0 +1,145 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.mahout.matrix.impl;
+
+import org.carrot2.math.mahout.function.DoubleFunction;
+import org.carrot2.math.mahout.function.Mult;
+import org.carrot2.math.mahout.matrix.DoubleMatrix1D;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+
+/**
+ * A dense vector storing its cells in single precision. Values are rounded to the nearest <code>
+ * float</code> when set.
+ *
+ * @see DenseFloatMatrix2D
+ * @since 4.6.0
+ */
+public class DenseFloatMatrix1D extends DoubleMatrix1D {
+
+  protected final float[] elements;
+
+  public DenseFloatMatrix1D(double[] values) {
+    this(values.length);
+    assign(values);
+  }
+
+  public DenseFloatMatrix1D(int size) {
+    setUp(size);
+    this.elements = new float[size];
+  }
+
+  protected DenseFloatMatrix1D(int size, float[] elements, int zero, int stride) {
+    setUp(size, zero, stride);
+    this.elements = elements;
+    this.isNoView = false;
+  }
+
+  @Override
+  public void assign(double value) {
+    int index = index(0);
+    int s = this.stride;
+    float[] elems = this.elements;
+    float v = (float) value;
+    for (int i = size; --i >= 0; ) {
+      elems[index] = v;
+      index += s;
+    }
+  }
+
+  @Override
+  public void assign(DoubleFunction function) {
+    int s = stride;
+    int i = index(0);
+    float[] elems = this.elements;
+
+    // specialization for speed
+    if (function instanceof Mult) { // x[i] = mult*x[i]
+      float multiplicator = (float) ((Mult) function).getMultiplicator();
+      if (multiplicator == 1) {
+        return;
+      }
+      for (int k = size; --k >= 0; ) {
+        elems[i] *= multiplicator;
+        i += s;
+      }
+    } else { // the general case x[i] = f(x[i])
+      for (int k = size; --k >= 0; ) {
+        elems[i] = (float) function.apply(elems[i]);
+        i += s;
+      }
+    }
+  }
+
+  @Override
+  public double getQuick(int index) {
+    return elements[zero + index * stride];
+  }
+
+  @Override
+  protected boolean haveSharedCellsRaw(DoubleMatrix1D other) {
+    if (other instanceof DenseFloatMatrix1D) {
+      return this.elements == ((DenseFloatMatrix1D) other).elements;
+    }
+    return false;
+  }
+
+  @Override
+  protected int index(int rank) {
+    return zero + rank * stride;
+  }
+
+  @Override
+  public DoubleMatrix1D like(int size) {
+    return new DenseFloatMatrix1D(size);
+  }
+
+  @Override
+  public DoubleMatrix2D like2D(int rows, int columns) {
+    return new DenseFloatMatrix2D(rows, columns);
+  }
+
+  @Override
+  public void setQuick(int index, double value) {
+    elements[zero + index * stride] = (float) value;
+  }
+
+  @Override
+  protected DoubleMatrix1D viewSelectionLike(final int[] offsets) {
+    final DoubleMatrix1D view =
+        new WrapperDoubleMatrix1D(this) {
+          @Override
+          public double getQuick(int index) {
+            return elements[offsets[index]];
+          }
+
+          @Override
+          public void setQuick(int index, double value) {
+            elements[offsets[index]] = (float) value;
+          }
+        };
+    view.setUp(offsets.length);
+    view.isNoView = false;
+    return view;
+  }
+
+  @Override
+  public double zSum() {
+    int s = stride;
+    int i = index(0);
+    float[] elems = this.elements;
+    double sum = 0;
+    for (int k = size; --k >= 0; ) {
+      sum += elems[i];
+      i += s;
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,438 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.mahout.matrix.impl;
+
+import org.carrot2.math.mahout.function.DoubleDoubleFunction;
+import org.carrot2.math.mahout.function.DoubleFunction;
+import org.carrot2.math.mahout.function.Functions;
+import org.carrot2.math.mahout.function.Mult;
+import org.carrot2.math.mahout.function.PlusMult;
+import org.carrot2.math.mahout.matrix.DoubleMatrix1D;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+
+/**
+ * A dense matrix storing its cells in single precision, row by row, like {@link
+ * DenseDoubleMatrix2D}. Values are rounded to the nearest <code>float</code> when set, products of
+ * two single-precision matrices are also accumulated in single precision. The matrix takes half the
+ * memory of {@link DenseDoubleMatrix2D}.
+ *
+ * @since 4.6.0
+ */
+public final class DenseFloatMatrix2D extends DoubleMatrix2D {
+
+  final float[] elements;
+
+  public DenseFloatMatrix2D(double[][] values) {
+    this(values.length, values.length == 0 ? 0 : values[0].length);
+    assign(values);
+  }
+
+  public DenseFloatMatrix2D(int rows, int columns) {
+    setUp(rows, columns);
+    this.elements = new float[rows * columns];
+  }
+
+  @Override
+  public DoubleMatrix2D assign(double value) {
+    float[] elems = this.elements;
+    float v = (float) value;
+    int index = index(0, 0);
+    int cs = this.columnStride;
+    int rs = this.rowStride;
+    for (int row = rows; --row >= 0; ) {
+      for (int i = index, column = columns; --column >= 0; ) {
+        elems[i] = v;
+        i += cs;
+      }
+      index += rs;
+    }
+    return this;
+  }
+
+  @Override
+  public void assign(DoubleFunction function) {
+    float[] elems = this.elements;
+    int index = index(0, 0);
+    int cs = this.columnStride;
+    int rs = this.rowStride;
+
+    // specialization for speed
+    if (function instanceof Mult) { // x[i] = mult*x[i]
+      float multiplicator = (float) ((Mult) function).getMultiplicator();
+      if (multiplicator == 1) {
+        return;
+      }
+      if (multiplicator == 0) {
+        assign(0);
+        return;
+      }
+      for (int row = rows; --row >= 0; ) {
+        for (int i = index, column = columns; --column >= 0; ) {
+          elems[i] *= multiplicator;
+          i += cs;
+        }
+        index += rs;
+      }
+    } else { // the general case x[i] = f(x[i])
+      for (int row = rows; --row >= 0; ) {
+        for (int i = index, column = columns; --column >= 0; ) {
+          elems[i] = (float) function.apply(elems[i]);
+          i += cs;
+        }
+        index += rs;
+      }
+    }
+  }
+
+  @Override
+  public DoubleMatrix2D assign(DoubleMatrix2D source) {
+    // overriden for performance only
+    if (source instanceof DenseDoubleMatrix2D && this.isNoView && source.isNoView) {
+      checkShape(source);
+      double[] otherElems = ((DenseDoubleMatrix2D) source).elements;
+      for (int i = 0; i < elements.length; i++) {
+        elements[i] = (float) otherElems[i];
+      }
+      return this;
+    }
+    if (!(source instanceof DenseFloatMatrix2D)) {
+      return super.assign(source);
+    }
+    DenseFloatMatrix2D other = (DenseFloatMatrix2D) source;
+    if (other == this) {
+      return this;
+    }
+    checkShape(other);
+
+    if (this.isNoView && other.isNoView) { // quickest
+      System.arraycopy(other.elements, 0, this.elements, 0, this.elements.length);
+      return this;
+    }
+
+    if (haveSharedCells(other)) {
+      other = (DenseFloatMatrix2D) other.copy();
+    }
+
+    float[] elems = this.elements;
+    float[] otherElems = other.elements;
+    int cs = this.columnStride;
+    int ocs = other.columnStride;
+    int rs = this.rowStride;
+    int ors = other.rowStride;
+
+    int otherIndex = other.index(0, 0);
+    int index = index(0, 0);
+    for (int row = rows; --row >= 0; ) {
+      for (int i = index, j = otherIndex, column = columns; --column >= 0; ) {
+        elems[i] = otherElems[j];
+        i += cs;
+        j += ocs;
+      }
+      index += rs;
+      otherIndex += ors;
+    }
+    return this;
+  }
+
+  @Override
+  public DoubleMatrix2D assign(DoubleMatrix2D y, DoubleDoubleFunction function) {
+    // overriden for performance only
+    if (!(y instanceof DenseFloatMatrix2D)) {
+      return super.assign(y, function);
+    }
+    DenseFloatMatrix2D other = (DenseFloatMatrix2D) y;
+    checkShape(y);
+
+    float[] elems = this.elements;
+    float[] otherElems = other.elements;
+    int cs = this.columnStride;
+    int ocs = other.columnStride;
+    int rs = this.rowStride;
+    int ors = other.rowStride;
+
+    int otherIndex = other.index(0, 0);
+    int index = index(0, 0);
+
+    // specialized for speed
+    if (function == Functions.MULT) { // x[i] = x[i] * y[i]
+      for (int row = rows; --row >= 0; ) {
+        for (int i = index, j = otherIndex, column = columns; --column >= 0; ) {
+          elems[i] *= otherElems[j];
+          i += cs;
+          j += ocs;
+        }
+        index += rs;
+        otherIndex += ors;
+      }
+    } else if (function == Functions.DIV) { // x[i] = x[i] / y[i]
+      for (int row = rows; --row >= 0; ) {
+        for (int i = index, j = otherIndex, column = columns; --column >= 0; ) {
+          elems[i] /= otherElems[j];
+          i += cs;
+          j += ocs;
+        }
+        index += rs;
+        otherIndex += ors;
+      }
+    } else if (function instanceof PlusMult) {
+      float multiplicator = (float) ((PlusMult) function).getMultiplicator();
+      if (multiplicator == 0) { // x[i] = x[i] + 0*y[i]
+        return this;
+      }
+      for (int row = rows; --row >= 0; ) { // x[i] = x[i] + mult*y[i]
+        for (int i = index, j = otherIndex, column = columns; --column >= 0; ) {
+          elems[i] += multiplicator * otherElems[j];
+          i += cs;
+          j += ocs;
+        }
+        index += rs;
+        otherIndex += ors;
+      }
+    } else { // the general case x[i] = f(x[i],y[i])
+      for (int row = rows; --row >= 0; ) {
+        for (int i = index, j = otherIndex, column = columns; --column >= 0; ) {
+          elems[i] = (float) function.apply(elems[i], otherElems[j]);
+          i += cs;
+          j += ocs;
+        }
+        index += rs;
+        otherIndex += ors;
+      }
+    }
+    return this;
+  }
+
+  @Override
+  public double getQuick(int row, int column) {
+    return elements[rowZero + row * rowStride + columnZero + column * columnStride];
+  }
+
+  @Override
+  protected boolean haveSharedCellsRaw(DoubleMatrix2D other) {
+    if (other instanceof DenseFloatMatrix2D) {
+      return this.elements == ((DenseFloatMatrix2D) other).elements;
+    }
+    return false;
+  }
+
+  @Override
+  protected int index(int row, int column) {
+    return rowZero + row * rowStride + columnZero + column * columnStride;
+  }
+
+  @Override
+  public DoubleMatrix2D like(int rows, int columns) {
+    return new DenseFloatMatrix2D(rows, columns);
+  }
+
+  @Override
+  public DoubleMatrix1D like1D(int size) {
+    return new DenseFloatMatrix1D(size);
+  }
+
+  @Override
+  protected DoubleMatrix1D like1D(int size, int zero, int stride) {
+    return new DenseFloatMatrix1D(size, this.elements, zero, stride);
+  }
+
+  @Override
+  public void setQuick(int row, int column, double value) {
+    elements[rowZero + row * rowStride + columnZero + column * columnStride] = (float) value;
+  }
+
+  @Override
+  protected DoubleMatrix2D viewSelectionLike(final int[] rowOffsets, final int[] columnOffsets) {
+    final DoubleMatrix2D view =
+        new WrapperDoubleMatrix2D(this) {
+          @Override
+          public double getQuick(int row, int column) {
+            return elements[rowOffsets[row] + columnOffsets[column]];
+          }
+
+          @Override
+          public void setQuick(int row, int column, double value) {
+            elements[rowOffsets[row] + columnOffsets[column]] = (float) value;
+          }
+        };
+    view.rows = rowOffsets.length;
+    view.columns = columnOffsets.length;
+    view.isNoView = false;
+    return view;
+  }
+
+  @Override
+  public DoubleMatrix1D zMult(
+      DoubleMatrix1D y, DoubleMatrix1D z, double alpha, double beta, boolean transposeA) {
+    if (transposeA) {
+      return viewDice().zMult(y, z, alpha, beta, false);
+    }
+    if (z == null) {
+      z = new DenseFloatMatrix1D(this.rows);
+    }
+    if (!(y instanceof DenseFloatMatrix1D && z instanceof DenseFloatMatrix1D)) {
+      return super.zMult(y, z, alpha, beta, transposeA);
+    }
+
+    if (columns != y.size() || rows > z.size()) {
+      throw new IllegalArgumentException("Incompatible sizes");
+    }
+
+    DenseFloatMatrix1D yy = (DenseFloatMatrix1D) y;
+    DenseFloatMatrix1D zz = (DenseFloatMatrix1D) z;
+    float[] AElems = this.elements;
+    float[] yElems = yy.elements;
+    float[] zElems = zz.elements;
+    int As = this.columnStride;
+    int ys = yy.stride;
+    int zs = zz.stride;
+
+    int indexA = index(0, 0);
+    int indexY = yy.index(0);
+    int indexZ = zz.index(0);
+
+    for (int row = rows; --row >= 0; ) {
+      float sum = 0;
+      for (int i = indexA, j = indexY, k = columns; --k >= 0; ) {
+        sum += AElems[i] * yElems[j];
+        i += As;
+        j += ys;
+      }
+
+      zElems[indexZ] = (float) (alpha * sum + beta * zElems[indexZ]);
+      indexA += this.rowStride;
+      indexZ += zs;
+    }
+
+    return z;
+  }
+
+  @Override
+  public DoubleMatrix2D zMult(
+      DoubleMatrix2D B,
+      DoubleMatrix2D C,
+      double alpha,
+      double beta,
+      boolean transposeA,
+      boolean transposeB) {
+    // overriden for performance only
+    if (transposeA) {
+      return viewDice().zMult(B, C, alpha, beta, false, transposeB);
+    }
+    if (B instanceof SparseDoubleMatrix2D || B instanceof CompressedSparseDoubleMatrix2D) {
+      // exploit quick sparse mult
+      // A*B = (B' * A')'
+      if (C == null) {
+        return B.zMult(this, null, alpha, beta, !transposeB, true).viewDice();
+      } else {
+        B.zMult(this, C.viewDice(), alpha, beta, !transposeB, true);
+        return C;
+      }
+    }
+    if (transposeB) {
+      return this.zMult(B.viewDice(), C, alpha, beta, transposeA, false);
+    }
+
+    int m = rows;
+    int n = columns;
+    int p = B.columns;
+    if (C == null) {
+      C = new DenseFloatMatrix2D(m, p);
+    }
+    if (!(B instanceof DenseFloatMatrix2D && C instanceof DenseFloatMatrix2D)) {
+      return super.zMult(B, C, alpha, beta, transposeA, transposeB);
+    }
+    if (B.rows != n) {
+      throw new IllegalArgumentException("Matrix2D inner dimensions must agree");
+    }
+    if (C.rows != m || C.columns != p) {
+      throw new IllegalArgumentException("Incompatible result matrix");
+    }
+    if (this == C || B == C) {
+      throw new IllegalArgumentException("Matrices must not be identical");
+    }
+
+    DenseFloatMatrix2D BB = (DenseFloatMatrix2D) B;
+    DenseFloatMatrix2D CC = (DenseFloatMatrix2D) C;
+    float[] AElems = this.elements;
+    float[] BElems = BB.elements;
+    float[] CElems = CC.elements;
+
+    int cA = this.columnStride;
+    int cB = BB.columnStride;
+    int cC = CC.columnStride;
+
+    int rA = this.rowStride;
+    int rB = BB.rowStride;
+    int rC = CC.rowStride;
+
+    // A is blocked to hide memory latency, as in DenseDoubleMatrix2D. Twice as many
+    // single-precision rows fit in the same block.
+    int blockSize = 60000; // * 4 == Level 2 cache in bytes
+    int mOptimal = (blockSize - n) / (n + 1);
+    if (mOptimal <= 0) {
+      mOptimal = 1;
+    }
+    int blocks = m / mOptimal;
+    if (m % mOptimal != 0) {
+      blocks++;
+    }
+    int rr = 0;
+    while (--blocks >= 0) {
+      int jB = BB.index(0, 0);
+      int indexA = index(rr, 0);
+      int jC = CC.index(rr, 0);
+      rr += mOptimal;
+      if (blocks == 0) {
+        mOptimal += m - rr;
+      }
+
+      for (int j = p; --j >= 0; ) {
+        int iA = indexA;
+        int iC = jC;
+        for (int i = mOptimal; --i >= 0; ) {
+          int kA = iA;
+          int kB = jB;
+
+          float s = 0;
+          for (int k = n; --k >= 0; ) {
+            s += AElems[kA] * BElems[kB];
+            kA += cA;
+            kB += rB;
+          }
+
+          CElems[iC] = (float) (alpha * s + beta * CElems[iC]);
+          iA += rA;
+          iC += rC;
+        }
+        jB += cB;
+        jC += cC;
+      }
+    }
+    return C;
+  }
+
+  @Override
+  public double zSum() {
+    float[] elems = this.elements;
+    int index = index(0, 0);
+    int cs = this.columnStride;
+    int rs = this.rowStride;
+    double sum = 0;
+    for (int row = rows; --row >= 0; ) {
+      for (int i = index, column = columns; --column >= 0; ) {
+        sum += elems[i];
+        i += cs;
+      }
+      index += rs;
+    }
+    return sum;
+  }
+}
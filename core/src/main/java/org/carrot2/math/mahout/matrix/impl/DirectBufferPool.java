@@ -0,0 +1,167 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.mahout.matrix.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A pool of direct buffers for off-heap matrices ({@link DirectDoubleMatrix2D}), shared by all
+ * threads. Direct buffers are released only by the garbage collector and, once the JVM runs out of
+ * direct memory, allocating another one triggers a full collection. Buffers of this pool are
+ * therefore never released: a clustering call borrows them through a {@link Lease} and returns them
+ * to the pool, for reuse by later calls, when the lease is closed.
+ *
+ * <p>The pool allocates at most {@link #LIMIT_PROPERTY} bytes of buffers in total. Matrices that do
+ * not fit in the remaining space are stored on the heap.
+ *
+ * @since 4.6.0
+ */
+public final class DirectBufferPool {
+  /**
+   * The system property with the maximum total size, in bytes, of buffers allocated by the pool.
+   * Defaults to half of the maximum heap size (the JVM's default limit of direct memory is the
+   * maximum heap size). Set it below <code>-XX:MaxDirectMemorySize</code> if that option is used.
+   */
+  public static final String LIMIT_PROPERTY = "carrot2.matrix.offHeapLimit";
+
+  private static final DirectBufferPool INSTANCE =
+      new DirectBufferPool(Long.getLong(LIMIT_PROPERTY, Runtime.getRuntime().maxMemory() / 2));
+
+  /** The lease of the current thread, if any. */
+  private static final ThreadLocal<Lease> current = new ThreadLocal<>();
+
+  /** Zeros copied to reused buffers. */
+  private static final byte[] ZEROS = new byte[8192];
+
+  private final long limit;
+
+  /** The total size of buffers allocated by this pool. */
+  private long allocated;
+
+  /** Buffers not borrowed by any lease, by capacity. */
+  private final TreeMap<Integer, ArrayDeque<ByteBuffer>> idle = new TreeMap<>();
+
+  DirectBufferPool(long limit) {
+    this.limit = limit;
+  }
+
+  /**
+   * Opens a lease on the shared pool for the current thread. Off-heap matrices created on this
+   * thread until the lease is closed borrow their buffers from the pool, see {@link
+   * DirectDoubleMatrix2D#pooled(int, int)}. The matrices must not be used once the lease is closed.
+   */
+  public static Lease lease() {
+    return INSTANCE.open();
+  }
+
+  /**
+   * Borrows a zeroed buffer of at least <code>bytes</code> bytes from the lease of the current
+   * thread. Returns <code>null</code> if there is no lease or no buffer fits in the pool's limit.
+   */
+  static ByteBuffer borrow(int bytes) {
+    final Lease lease = current.get();
+    return lease == null ? null : lease.borrow(bytes);
+  }
+
+  Lease open() {
+    final Lease lease = new Lease(this, current.get());
+    current.set(lease);
+    return lease;
+  }
+
+  /** Returns the total size of buffers allocated by this pool. */
+  synchronized long allocated() {
+    return allocated;
+  }
+
+  /**
+   * Takes an idle buffer of at least <code>bytes</code> bytes, but no more than twice as large, or
+   * allocates a new one.
+   */
+  private synchronized ByteBuffer take(int bytes) {
+    final int maxCapacity = (int) Math.min(Integer.MAX_VALUE, 2L * bytes);
+    final Map.Entry<Integer, ArrayDeque<ByteBuffer>> fit = idle.ceilingEntry(bytes);
+    if (fit != null && fit.getKey() <= maxCapacity) {
+      final ByteBuffer buffer = fit.getValue().pop();
+      if (fit.getValue().isEmpty()) {
+        idle.remove(fit.getKey());
+      }
+      return zero(buffer, bytes);
+    }
+
+    if (allocated + bytes > limit) {
+      return null;
+    }
+    allocated += bytes;
+    return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+  }
+
+  private synchronized void give(ArrayList<ByteBuffer> buffers) {
+    for (ByteBuffer buffer : buffers) {
+      idle.computeIfAbsent(buffer.capacity(), (capacity) -> new ArrayDeque<>()).push(buffer);
+    }
+  }
+
+  private static ByteBuffer zero(ByteBuffer buffer, int bytes) {
+    final ByteBuffer view = buffer.duplicate();
+    view.clear();
+    view.limit(bytes);
+    while (view.hasRemaining()) {
+      view.put(ZEROS, 0, Math.min(ZEROS.length, view.remaining()));
+    }
+    return buffer;
+  }
+
+  /**
+   * Buffers borrowed by a single clustering call, returned to the pool on {@link #close()}. A lease
+   * is used by the thread that opened it.
+   */
+  public static final class Lease implements AutoCloseable {
+    private final DirectBufferPool pool;
+    private final Lease previous;
+    private final ArrayList<ByteBuffer> borrowed = new ArrayList<>();
+    private boolean closed;
+
+    private Lease(DirectBufferPool pool, Lease previous) {
+      this.pool = pool;
+      this.previous = previous;
+    }
+
+    ByteBuffer borrow(int bytes) {
+      final ByteBuffer buffer = pool.take(bytes);
+      if (buffer != null) {
+        borrowed.add(buffer);
+      }
+      return buffer;
+    }
+
+    /** Returns all borrowed buffers to the pool and restores the previous lease of the thread. */
+    @Override
+    public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      pool.give(borrowed);
+      borrowed.clear();
+      if (previous == null) {
+        current.remove();
+      } else {
+        current.set(previous);
+      }
+    }
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.mahout.matrix.impl;
+
+import java.nio.DoubleBuffer;
+import org.carrot2.math.mahout.matrix.DoubleMatrix1D;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+
+/** A row or column view of a {@link DirectDoubleMatrix2D}. */
+final class DirectDoubleMatrix1D extends DoubleMatrix1D {
+
+  private final DoubleBuffer elements;
+
+  DirectDoubleMatrix1D(int size, DoubleBuffer elements, int zero, int stride) {
+    setUp(size, zero, stride);
+    this.elements = elements;
+    this.isNoView = false;
+  }
+
+  @Override
+  public double getQuick(int index) {
+    return elements.get(zero + index * stride);
+  }
+
+  @Override
+  protected boolean haveSharedCellsRaw(DoubleMatrix1D other) {
+    if (other instanceof DirectDoubleMatrix1D) {
+      return this.elements == ((DirectDoubleMatrix1D) other).elements;
+    }
+    return false;
+  }
+
+  @Override
+  protected int index(int rank) {
+    return zero + rank * stride;
+  }
+
+  @Override
+  public DoubleMatrix1D like(int size) {
+    return new DenseDoubleMatrix1D(size);
+  }
+
+  @Override
+  public DoubleMatrix2D like2D(int rows, int columns) {
+    return new DenseDoubleMatrix2D(rows, columns);
+  }
+
+  @Override
+  public void setQuick(int index, double value) {
+    elements.put(zero + index * stride, value);
+  }
+
+  @Override
+  protected DoubleMatrix1D viewSelectionLike(final int[] offsets) {
+    final DoubleMatrix1D view =
+        new WrapperDoubleMatrix1D(this) {
+          @Override
+          public double getQuick(int index) {
+            return elements.get(offsets[index]);
+          }
+
+          @Override
+          public void setQuick(int index, double value) {
+            elements.put(offsets[index], value);
+          }
+        };
+    view.setUp(offsets.length);
+    view.isNoView = false;
+    return view;
+  }
+}
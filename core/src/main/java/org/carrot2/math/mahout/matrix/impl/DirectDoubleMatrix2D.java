@@ -0,0 +1,298 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.mahout.matrix.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import org.carrot2.math.mahout.function.DoubleFunction;
+import org.carrot2.math.mahout.function.Functions;
+import org.carrot2.math.mahout.matrix.DoubleMatrix1D;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+
+/**
+ * A dense matrix storing its cells off the Java heap, in a direct buffer, row by row, like {@link
+ * DenseDoubleMatrix2D}. A large matrix stored off heap does not need a large contiguous heap
+ * allocation, which is expensive for the garbage collector.
+ *
+ * <p>Matrices created with {@link #pooled(int, int)} borrow their buffers from a {@link
+ * DirectBufferPool.Lease}, so that buffers are reused by subsequent clustering calls. Buffers of
+ * matrices created with the constructors are released when the matrix and all its views are no
+ * longer reachable.
+ *
+ * <p>Products with other matrices are computed in blocks, copied to heap scratch matrices of at
+ * most {@link #BLOCK_CELLS} cells and multiplied by {@link DenseDoubleMatrix2D}.
+ *
+ * @since 4.6.0
+ */
+public final class DirectDoubleMatrix2D extends DoubleMatrix2D {
+  /** The number of cells in a heap block of a product (256kB). */
+  static final int BLOCK_CELLS = 1 << 15;
+
+  final DoubleBuffer elements;
+
+  public DirectDoubleMatrix2D(double[][] values) {
+    this(values.length, values.length == 0 ? 0 : values[0].length);
+    assign(values);
+  }
+
+  public DirectDoubleMatrix2D(int rows, int columns) {
+    this(rows, columns, ByteBuffer.allocateDirect(bytes(rows, columns)));
+  }
+
+  private DirectDoubleMatrix2D(int rows, int columns, ByteBuffer buffer) {
+    setUp(rows, columns);
+    final ByteBuffer cells = buffer.duplicate();
+    cells.clear();
+    cells.limit(bytes(rows, columns));
+    this.elements = cells.slice().order(ByteOrder.nativeOrder()).asDoubleBuffer();
+  }
+
+  /**
+   * Creates a matrix stored in a buffer borrowed from the {@link DirectBufferPool.Lease} of the
+   * current thread. If there is no lease or the pool has no space left, the matrix is stored on the
+   * heap, in a {@link DenseDoubleMatrix2D}.
+   */
+  public static DoubleMatrix2D pooled(int rows, int columns) {
+    final ByteBuffer buffer = DirectBufferPool.borrow(bytes(rows, columns));
+    if (buffer == null) {
+      return new DenseDoubleMatrix2D(rows, columns);
+    }
+    return new DirectDoubleMatrix2D(rows, columns, buffer);
+  }
+
+  private static int bytes(int rows, int columns) {
+    final long bytes = (long) rows * columns * Double.BYTES;
+    if (bytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Matrix too large: " + rows + "x" + columns);
+    }
+    return (int) bytes;
+  }
+
+  @Override
+  public DoubleMatrix2D assign(double value) {
+    DoubleBuffer elems = this.elements;
+    int index = index(0, 0);
+    int cs = this.columnStride;
+    int rs = this.rowStride;
+    for (int row = rows; --row >= 0; ) {
+      for (int i = index, column = columns; --column >= 0; ) {
+        elems.put(i, value);
+        i += cs;
+      }
+      index += rs;
+    }
+    return this;
+  }
+
+  @Override
+  public void assign(DoubleFunction function) {
+    // Cells are visited in the same order as in DenseDoubleMatrix2D, so that functions with state,
+    // such as random number generators, give the same results.
+    DoubleBuffer elems = this.elements;
+    int index = index(0, 0);
+    int cs = this.columnStride;
+    int rs = this.rowStride;
+    for (int row = rows; --row >= 0; ) {
+      for (int i = index, column = columns; --column >= 0; ) {
+        elems.put(i, function.apply(elems.get(i)));
+        i += cs;
+      }
+      index += rs;
+    }
+  }
+
+  @Override
+  public double getQuick(int row, int column) {
+    return elements.get(rowZero + row * rowStride + columnZero + column * columnStride);
+  }
+
+  @Override
+  protected boolean haveSharedCellsRaw(DoubleMatrix2D other) {
+    if (other instanceof DirectDoubleMatrix2D) {
+      return this.elements == ((DirectDoubleMatrix2D) other).elements;
+    }
+    return false;
+  }
+
+  @Override
+  protected int index(int row, int column) {
+    return rowZero + row * rowStride + columnZero + column * columnStride;
+  }
+
+  @Override
+  public DoubleMatrix2D like(int rows, int columns) {
+    return pooled(rows, columns);
+  }
+
+  @Override
+  public DoubleMatrix1D like1D(int size) {
+    return new DenseDoubleMatrix1D(size);
+  }
+
+  @Override
+  protected DoubleMatrix1D like1D(int size, int zero, int stride) {
+    return new DirectDoubleMatrix1D(size, this.elements, zero, stride);
+  }
+
+  @Override
+  public void setQuick(int row, int column, double value) {
+    elements.put(rowZero + row * rowStride + columnZero + column * columnStride, value);
+  }
+
+  @Override
+  protected DoubleMatrix2D viewSelectionLike(final int[] rowOffsets, final int[] columnOffsets) {
+    final DoubleMatrix2D view =
+        new WrapperDoubleMatrix2D(this) {
+          @Override
+          public double getQuick(int row, int column) {
+            return elements.get(rowOffsets[row] + columnOffsets[column]);
+          }
+
+          @Override
+          public void setQuick(int row, int column, double value) {
+            elements.put(rowOffsets[row] + columnOffsets[column], value);
+          }
+        };
+    view.rows = rowOffsets.length;
+    view.columns = columnOffsets.length;
+    view.isNoView = false;
+    return view;
+  }
+
+  @Override
+  public double zSum() {
+    DoubleBuffer elems = this.elements;
+    int index = index(0, 0);
+    int cs = this.columnStride;
+    int rs = this.rowStride;
+    double sum = 0;
+    for (int row = rows; --row >= 0; ) {
+      for (int i = index, column = columns; --column >= 0; ) {
+        sum += elems.get(i);
+        i += cs;
+      }
+      index += rs;
+    }
+    return sum;
+  }
+
+  @Override
+  public DoubleMatrix2D zMult(
+      DoubleMatrix2D B,
+      DoubleMatrix2D C,
+      double alpha,
+      double beta,
+      boolean transposeA,
+      boolean transposeB) {
+    // overriden for performance only
+    if (transposeA) {
+      return viewDice().zMult(B, C, alpha, beta, false, transposeB);
+    }
+    if (B instanceof SparseDoubleMatrix2D || B instanceof CompressedSparseDoubleMatrix2D) {
+      // exploit quick sparse mult
+      // A*B = (B' * A')'
+      if (C == null) {
+        return B.zMult(this, null, alpha, beta, !transposeB, true).viewDice();
+      } else {
+        B.zMult(this, C.viewDice(), alpha, beta, !transposeB, true);
+        return C;
+      }
+    }
+    if (transposeB) {
+      return this.zMult(B.viewDice(), C, alpha, beta, transposeA, false);
+    }
+
+    if (C == null) {
+      C = new DenseDoubleMatrix2D(rows, B.columns());
+    }
+    return zMultBlocked(this, B, C, alpha, beta);
+  }
+
+  /**
+   * Computes <code>C = alpha * A * B + beta * C</code>, with any of the matrices possibly stored
+   * off heap. The inner dimension is split into blocks of rows of B and the rows of A and C into
+   * blocks of rows. Blocks of matrices other than {@link DenseDoubleMatrix2D} are copied to heap
+   * scratch matrices, allocated once per product.
+   */
+  static DoubleMatrix2D zMultBlocked(
+      DoubleMatrix2D A, DoubleMatrix2D B, DoubleMatrix2D C, double alpha, double beta) {
+    int m = A.rows();
+    int n = A.columns();
+    int p = B.columns();
+    if (B.rows() != n) {
+      throw new IllegalArgumentException("Matrix2D inner dimensions must agree");
+    }
+    if (C.rows() != m || C.columns() != p) {
+      throw new IllegalArgumentException("Incompatible result matrix");
+    }
+    if (A == C || B == C) {
+      throw new IllegalArgumentException("Matrices must not be identical");
+    }
+    if (n == 0) {
+      if (beta == 0) {
+        C.assign(0);
+      } else {
+        C.assign(Functions.mult(beta));
+      }
+      return C;
+    }
+
+    int innerRows = Math.max(1, Math.min(n, BLOCK_CELLS / Math.max(1, p)));
+    int blockRows = Math.max(1, Math.min(m, BLOCK_CELLS / Math.max(innerRows, p)));
+    DoubleMatrix2D scratchA = onHeap(A) ? null : new DenseDoubleMatrix2D(blockRows, innerRows);
+    DoubleMatrix2D scratchB = onHeap(B) ? null : new DenseDoubleMatrix2D(innerRows, p);
+    DoubleMatrix2D scratchC = onHeap(C) ? null : new DenseDoubleMatrix2D(blockRows, p);
+
+    for (int inner = 0; inner < n; inner += innerRows) {
+      int innerSize = Math.min(innerRows, n - inner);
+      double blockBeta = inner == 0 ? beta : 1;
+      DoubleMatrix2D Bb = block(B, inner, 0, innerSize, p, scratchB);
+      for (int row = 0; row < m; row += blockRows) {
+        int height = Math.min(blockRows, m - row);
+        DoubleMatrix2D Ab = block(A, row, inner, height, innerSize, scratchA);
+        DoubleMatrix2D Cb = C.viewPart(row, 0, height, p);
+        if (scratchC == null) {
+          Ab.zMult(Bb, Cb, alpha, blockBeta, false, false);
+        } else {
+          DoubleMatrix2D scratch = scratchC.viewPart(0, 0, height, p);
+          if (blockBeta == 0) {
+            scratch.assign(0);
+          } else {
+            scratch.assign(Cb);
+          }
+          Ab.zMult(Bb, scratch, alpha, blockBeta, false, false);
+          Cb.assign(scratch);
+        }
+      }
+    }
+    return C;
+  }
+
+  private static boolean onHeap(DoubleMatrix2D matrix) {
+    return matrix instanceof DenseDoubleMatrix2D;
+  }
+
+  /** Returns a block of a matrix, copied to the scratch matrix unless it is <code>null</code>. */
+  private static DoubleMatrix2D block(
+      DoubleMatrix2D matrix,
+      int row,
+      int column,
+      int height,
+      int width,
+      DoubleMatrix2D scratch) {
+    DoubleMatrix2D block = matrix.viewPart(row, column, height, width);
+    if (scratch == null) {
+      return block;
+    }
+    return scratch.viewPart(0, 0, height, width).assign(block);
+  }
+}
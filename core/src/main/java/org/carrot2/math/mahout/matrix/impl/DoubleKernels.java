@@ -0,0 +1,347 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.mahout.matrix.impl;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Inner loops of dense double matrix operations, working directly on element arrays. Cells are
+ * addressed by the index of the first cell and strides, as in {@link DenseDoubleMatrix2D}.
+ *
+ * <p>This class contains scalar implementations. If the JVM runs with the incubating Vector API
+ * module ({@code --add-modules jdk.incubator.vector}), {@link #INSTANCE} is a SIMD implementation
+ * from the Java 17 part of the multi-release JAR ({@code src/main/java17}).
+ *
+ * <p>Large matrix multiplications can be split among threads, see {@link #THREADS_PROPERTY}.
+ */
+class DoubleKernels {
+  private static final String VECTOR_MODULE = "jdk.incubator.vector";
+  private static final String VECTOR_KERNELS =
+      DoubleKernels.class.getPackageName() + ".VectorDoubleKernels";
+
+  static final DoubleKernels INSTANCE = create();
+
+  /**
+   * The system property with the maximum number of threads used by a single matrix multiplication.
+   * The default is 1, no parallelism.
+   */
+  static final String THREADS_PROPERTY = "carrot2.matrix.threads";
+
+  /** The maximum number of threads used by a single matrix multiplication. */
+  static final int THREADS = Math.max(1, Integer.getInteger(THREADS_PROPERTY, 1));
+
+  /** Multiplications with fewer multiply-add operations are not split among threads. */
+  static final long PARALLEL_THRESHOLD = 1L << 21;
+
+  private static DoubleKernels create() {
+    final DoubleKernels vectorKernels = vectorKernels();
+    return vectorKernels != null ? vectorKernels : new DoubleKernels();
+  }
+
+  /** Returns <code>true</code> if the JVM runs with the incubating Vector API module. */
+  static boolean isVectorModulePresent() {
+    return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+  }
+
+  /**
+   * Returns a new instance of the SIMD kernels or <code>null</code> if the Vector API module or the
+   * Java 17 classes are not available.
+   */
+  static DoubleKernels vectorKernels() {
+    if (isVectorModulePresent()) {
+      try {
+        return (DoubleKernels)
+            Class.forName(VECTOR_KERNELS).getDeclaredConstructor().newInstance();
+      } catch (ReflectiveOperationException | LinkageError e) {
+        // Not running from the multi-release JAR, fall back to scalar kernels.
+      }
+    }
+    return null;
+  }
+
+  /** z = alpha * A * y + beta * z, where A has m rows and n columns. */
+  void gemv(
+      int m,
+      int n,
+      double alpha,
+      double[] a,
+      int aIndex,
+      int aRowStride,
+      int aColumnStride,
+      double[] y,
+      int yIndex,
+      int yStride,
+      double beta,
+      double[] z,
+      int zIndex,
+      int zStride) {
+    for (int row = m; --row >= 0; ) {
+      double sum = 0;
+      // loop unrolled
+      int i = aIndex - aColumnStride;
+      int j = yIndex - yStride;
+      for (int k = n % 4; --k >= 0; ) {
+        sum += a[i += aColumnStride] * y[j += yStride];
+      }
+      for (int k = n / 4; --k >= 0; ) {
+        sum +=
+            a[i += aColumnStride] * y[j += yStride]
+                + a[i += aColumnStride] * y[j += yStride]
+                + a[i += aColumnStride] * y[j += yStride]
+                + a[i += aColumnStride] * y[j += yStride];
+      }
+
+      z[zIndex] = alpha * sum + beta * z[zIndex];
+      aIndex += aRowStride;
+      zIndex += zStride;
+    }
+  }
+
+  /** C = alpha * A * B + beta * C, where A has m rows and n columns and B has p columns. */
+  void gemm(
+      int m,
+      int n,
+      int p,
+      double alpha,
+      double[] a,
+      int aIndex,
+      int aRowStride,
+      int aColumnStride,
+      double[] b,
+      int bIndex,
+      int bRowStride,
+      int bColumnStride,
+      double beta,
+      double[] c,
+      int cIndex,
+      int cRowStride,
+      int cColumnStride) {
+    /*
+    A is blocked to hide memory latency
+        xxxxxxx B
+        xxxxxxx
+        xxxxxxx
+    A
+    xxx     xxxxxxx C
+    xxx     xxxxxxx
+    ---     -------
+    xxx     xxxxxxx
+    xxx     xxxxxxx
+    ---     -------
+    xxx     xxxxxxx
+    */
+    int blockSize = 30000; // * 8 == Level 2 cache in bytes
+    // if (n+p == 0) return C;
+    // int m_optimal = (BLOCK_SIZE - n*p) / (n+p);
+    int mOptimal = (blockSize - n) / (n + 1);
+    if (mOptimal <= 0) {
+      mOptimal = 1;
+    }
+    int blocks = m / mOptimal;
+    if (m % mOptimal != 0) {
+      blocks++;
+    }
+    int rr = 0;
+    while (--blocks >= 0) {
+      int jB = bIndex;
+      int indexA = aIndex + rr * aRowStride;
+      int jC = cIndex + rr * cRowStride;
+      rr += mOptimal;
+      if (blocks == 0) {
+        mOptimal += m - rr;
+      }
+
+      for (int j = p; --j >= 0; ) {
+        int iA = indexA;
+        int iC = jC;
+        for (int i = mOptimal; --i >= 0; ) {
+          int kA = iA;
+          int kB = jB;
+
+          // loop unrolled
+          kA -= aColumnStride;
+          kB -= bRowStride;
+
+          double s = 0;
+          for (int k = n % 4; --k >= 0; ) {
+            s += a[kA += aColumnStride] * b[kB += bRowStride];
+          }
+          for (int k = n / 4; --k >= 0; ) {
+            s +=
+                a[kA += aColumnStride] * b[kB += bRowStride]
+                    + a[kA += aColumnStride] * b[kB += bRowStride]
+                    + a[kA += aColumnStride] * b[kB += bRowStride]
+                    + a[kA += aColumnStride] * b[kB += bRowStride];
+          }
+
+          c[iC] = alpha * s + beta * c[iC];
+          iA += aRowStride;
+          iC += cRowStride;
+        }
+        jB += bColumnStride;
+        jC += cColumnStride;
+      }
+    }
+  }
+
+  /**
+   * C = alpha * A * B + beta * C, like {@link #gemm}, with rows of C split into blocks multiplied
+   * concurrently in the {@link ForkJoinPool#commonPool()}. Multiplications with fewer than {@link
+   * #PARALLEL_THRESHOLD} multiply-add operations are not split. Each row of C is computed by a
+   * single task, in the same order as by a sequential multiplication, so the result does not depend
+   * on the number of threads.
+   */
+  void parallelGemm(
+      int threads,
+      int m,
+      int n,
+      int p,
+      double alpha,
+      double[] a,
+      int aIndex,
+      int aRowStride,
+      int aColumnStride,
+      double[] b,
+      int bIndex,
+      int bRowStride,
+      int bColumnStride,
+      double beta,
+      double[] c,
+      int cIndex,
+      int cRowStride,
+      int cColumnStride) {
+    final int blocks = Math.min(threads, m);
+    if (blocks <= 1 || (long) m * n * p < PARALLEL_THRESHOLD) {
+      gemm(
+          m,
+          n,
+          p,
+          alpha,
+          a,
+          aIndex,
+          aRowStride,
+          aColumnStride,
+          b,
+          bIndex,
+          bRowStride,
+          bColumnStride,
+          beta,
+          c,
+          cIndex,
+          cRowStride,
+          cColumnStride);
+      return;
+    }
+
+    // The first block is multiplied by the calling thread.
+    final int blockRows = (m + blocks - 1) / blocks;
+    final ForkJoinPool pool = ForkJoinPool.commonPool();
+    final ArrayList<ForkJoinTask<?>> tasks = new ArrayList<>();
+    for (int start = blockRows; start < m; start += blockRows) {
+      final int rows = Math.min(blockRows, m - start);
+      final int aStart = aIndex + start * aRowStride;
+      final int cStart = cIndex + start * cRowStride;
+      tasks.add(
+          pool.submit(
+              () ->
+                  gemm(
+                      rows,
+                      n,
+                      p,
+                      alpha,
+                      a,
+                      aStart,
+                      aRowStride,
+                      aColumnStride,
+                      b,
+                      bIndex,
+                      bRowStride,
+                      bColumnStride,
+                      beta,
+                      c,
+                      cStart,
+                      cRowStride,
+                      cColumnStride)));
+    }
+    gemm(
+        blockRows,
+        n,
+        p,
+        alpha,
+        a,
+        aIndex,
+        aRowStride,
+        aColumnStride,
+        b,
+        bIndex,
+        bRowStride,
+        bColumnStride,
+        beta,
+        c,
+        cIndex,
+        cRowStride,
+        cColumnStride);
+    for (ForkJoinTask<?> task : tasks) {
+      task.join();
+    }
+  }
+
+  /** x[i] = x[i] * y[i] for n cells. */
+  void mult(int n, double[] x, int xIndex, int xStride, double[] y, int yIndex, int yStride) {
+    for (int k = n; --k >= 0; ) {
+      x[xIndex] *= y[yIndex];
+      xIndex += xStride;
+      yIndex += yStride;
+    }
+  }
+
+  /** x[i] = x[i] / y[i] for n cells. */
+  void div(int n, double[] x, int xIndex, int xStride, double[] y, int yIndex, int yStride) {
+    for (int k = n; --k >= 0; ) {
+      x[xIndex] /= y[yIndex];
+      xIndex += xStride;
+      yIndex += yStride;
+    }
+  }
+
+  /** x[i] = x[i] + multiplicator * y[i] for n cells. */
+  void plusMult(
+      int n,
+      double[] x,
+      int xIndex,
+      int xStride,
+      double[] y,
+      int yIndex,
+      int yStride,
+      double multiplicator) {
+    if (multiplicator == 1) { // x[i] = x[i] + y[i]
+      for (int k = n; --k >= 0; ) {
+        x[xIndex] += y[yIndex];
+        xIndex += xStride;
+        yIndex += yStride;
+      }
+    } else if (multiplicator == -1) { // x[i] = x[i] - y[i]
+      for (int k = n; --k >= 0; ) {
+        x[xIndex] -= y[yIndex];
+        xIndex += xStride;
+        yIndex += yStride;
+      }
+    } else { // the general case x[i] = x[i] + mult*y[i]
+      for (int k = n; --k >= 0; ) {
+        x[xIndex] += multiplicator * y[yIndex];
+        xIndex += xStride;
+        yIndex += yStride;
+      }
+    }
+  }
+}
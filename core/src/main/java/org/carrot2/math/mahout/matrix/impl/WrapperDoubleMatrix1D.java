@@ -58,12 +58,12 @@ class WrapperDoubleMatrix1D extends DoubleMatrix1D {
         new WrapperDoubleMatrix1D(this) {
           @Override
           public double getQuick(int i) {
-            return content.get(index + i);
+            return getContent().get(index + i);
           }
 
           @Override
           public void setQuick(int i, double value) {
-            content.set(index + i, value);
+            getContent().set(index + i, value);
           }
         };
     view.size = width;
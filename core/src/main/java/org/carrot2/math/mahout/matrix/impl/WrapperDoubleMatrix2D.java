@@ -69,12 +69,12 @@ class WrapperDoubleMatrix2D extends DoubleMatrix2D {
     return new WrapperDoubleMatrix2D(WrapperDoubleMatrix2D.this) {
       @Override
       public double getQuick(int row, int column) {
-        return content.get(row, columns - 1 - column);
+        return getContent().get(row, columns - 1 - column);
       }
 
       @Override
       public void setQuick(int row, int column, double value) {
-        content.set(row, columns - 1 - column, value);
+        getContent().set(row, columns - 1 - column, value);
       }
     };
   }
@@ -85,12 +85,12 @@ class WrapperDoubleMatrix2D extends DoubleMatrix2D {
         new WrapperDoubleMatrix2D(this) {
           @Override
           public double getQuick(int row, int column) {
-            return content.get(column, row);
+            return getContent().get(column, row);
           }
 
           @Override
           public void setQuick(int row, int column, double value) {
-            content.set(column, row, value);
+            getContent().set(column, row, value);
           }
         };
     view.rows = columns;
@@ -105,12 +105,12 @@ class WrapperDoubleMatrix2D extends DoubleMatrix2D {
         new WrapperDoubleMatrix2D(this) {
           @Override
           public double getQuick(int i, int j) {
-            return content.get(row + i, column + j);
+            return getContent().get(row + i, column + j);
           }
 
           @Override
           public void setQuick(int i, int j, double value) {
-            content.set(row + i, column + j, value);
+            getContent().set(row + i, column + j, value);
           }
         };
     view.rows = height;
@@ -133,12 +133,12 @@ class WrapperDoubleMatrix2D extends DoubleMatrix2D {
     return new WrapperDoubleMatrix2D(WrapperDoubleMatrix2D.this) {
       @Override
       public double getQuick(int row, int column) {
-        return content.get(rows - 1 - row, column);
+        return getContent().get(rows - 1 - row, column);
       }
 
       @Override
       public void setQuick(int row, int column, double value) {
-        content.set(rows - 1 - row, column, value);
+        getContent().set(rows - 1 - row, column, value);
       }
     };
   }
@@ -168,12 +168,12 @@ class WrapperDoubleMatrix2D extends DoubleMatrix2D {
         new WrapperDoubleMatrix2D(this) {
           @Override
           public double getQuick(int i, int j) {
-            return content.get(rix[i], cix[j]);
+            return getContent().get(rix[i], cix[j]);
           }
 
           @Override
           public void setQuick(int i, int j, double value) {
-            content.set(rix[i], cix[j], value);
+            getContent().set(rix[i], cix[j], value);
           }
         };
     view.rows = rowIndexes.length;
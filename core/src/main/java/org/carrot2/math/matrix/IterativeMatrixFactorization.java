@@ -26,4 +26,14 @@ public interface IterativeMatrixFactorization extends MatrixFactorization {
    * @return the number of iterations the algorithm has completed
    */
   int getIterationsCompleted();
+
+  /**
+   * Returns <code>true</code> if the algorithm completed fewer iterations than it otherwise would,
+   * because its deadline has passed.
+   *
+   * @since 4.6.0
+   */
+  default boolean isStoppedAtDeadline() {
+    return false;
+  }
 }
@@ -13,6 +13,7 @@ package org.carrot2.math.matrix;
 import java.util.function.IntBinaryOperator;
 import org.carrot2.math.mahout.function.Functions;
 import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.DenseFloatMatrix2D;
 
 /** Base functionality for {@link IterativeMatrixFactorization}s. */
 abstract class IterativeMatrixFactorizationBase extends MatrixFactorizationBase
@@ -29,14 +30,34 @@ abstract class IterativeMatrixFactorizationBase extends MatrixFactorizationBase
 
   /**
    * If the percentage decrease in approximation error becomes smaller than <code>stopThreshold
-   * </code>, the algorithm will stop. Note: calculation of approximation error is quite costly.
-   * Setting the threshold to -1 turns off approximation error calculation and hence makes the
-   * algorithm do the maximum number of iterations.
+   * </code>, the algorithm will stop. Setting the threshold to -1 turns off approximation error
+   * calculation (unless {@link #earlyStopping} is enabled) and hence makes the algorithm do the
+   * maximum number of iterations.
    */
   protected double stopThreshold;
 
   protected static double DEFAULT_STOP_THRESHOLD = -1.0;
 
+  /**
+   * Stop when the decrease in approximation error becomes smaller than {@link
+   * #EARLY_STOPPING_RATIO} of the largest decrease in an iteration so far?
+   */
+  protected boolean earlyStopping;
+
+  protected static final boolean DEFAULT_EARLY_STOPPING = false;
+
+  /** The fraction of the largest decrease in approximation error that stops the algorithm */
+  protected static final double EARLY_STOPPING_RATIO = 0.01;
+
+  /** {@link System#nanoTime()} after which no more iterations are started */
+  protected long deadlineNanos;
+
+  /** Stop iterating at {@link #deadlineNanos}? */
+  protected boolean hasDeadline;
+
+  /** Did the last computation stop at the deadline? */
+  protected boolean stoppedAtDeadline;
+
   /** Seeding strategy */
   protected SeedingStrategy seedingStrategy;
 
@@ -47,12 +68,27 @@ abstract class IterativeMatrixFactorizationBase extends MatrixFactorizationBase
 
   protected static final boolean DEFAULT_ORDERED = false;
 
+  /** Store U, V and temporary matrices in single precision? */
+  protected boolean singlePrecision;
+
+  protected static final boolean DEFAULT_SINGLE_PRECISION = false;
+
   /** Current approximation error */
   protected double approximationError;
 
   /** Approximation errors during subsequent iterations */
   protected double[] approximationErrors;
 
+  /** The largest decrease in approximation error in one iteration */
+  private double maxApproximationErrorDecrease;
+
+  /** Squared Frobenius norm of A, computed with the first error in double precision */
+  private double squaredNormA;
+
+  /** Temporary matrices for the approximation error, allocated with the first error */
+  private DoubleMatrix2D errorUU;
+  private DoubleMatrix2D errorBlock;
+
   /** Iteration counter */
   protected int iterationsCompleted;
 
@@ -68,6 +104,8 @@ abstract class IterativeMatrixFactorizationBase extends MatrixFactorizationBase
     this.stopThreshold = DEFAULT_STOP_THRESHOLD;
     this.seedingStrategy = DEFAULT_SEEDING_STRATEGY;
     this.ordered = DEFAULT_ORDERED;
+    this.singlePrecision = DEFAULT_SINGLE_PRECISION;
+    this.earlyStopping = DEFAULT_EARLY_STOPPING;
     this.approximationErrors = null;
     this.approximationError = -1;
     this.iterationsCompleted = 0;
@@ -88,26 +126,126 @@ abstract class IterativeMatrixFactorizationBase extends MatrixFactorizationBase
   }
 
   /**
-   * @return true if the decrease in the approximation error is smaller than the <code>stopThreshold
-   *     </code>
+   * Returns <code>true</code> if no more iterations should be started because the deadline has
+   * passed. Call only if more iterations remain, so that {@link #isStoppedAtDeadline()} is only
+   * <code>true</code> if iterations were actually skipped.
+   */
+  protected boolean isDeadlineReached() {
+    if (hasDeadline && System.nanoTime() - deadlineNanos >= 0) {
+      stoppedAtDeadline = true;
+    }
+    return stoppedAtDeadline;
+  }
+
+  /** Returns <code>true</code> if the approximation error should be computed in iterations. */
+  protected boolean isApproximationErrorNeeded() {
+    return stopThreshold >= 0 || earlyStopping;
+  }
+
+  /**
+   * Updates the approximation error for the current U and V, computed directly from blocks of rows
+   * of <code>UV'</code>. This costs as much as one product <code>UV'</code>, so within iterations
+   * prefer {@link #updateApproximationError(DoubleMatrix2D, DoubleMatrix2D)} or {@link
+   * #updateApproximationError(double)} with products the update has already computed. Use this
+   * method for the seeded U and V or once after the last iteration.
+   *
+   * @return true if the algorithm should stop
    */
   protected boolean updateApproximationError() {
+    return updateApproximationError(computeApproximationError());
+  }
+
+  /**
+   * Updates the approximation error <code>||A - UV'||</code> for the current U and V, using the
+   * identity <code>||A - UV'||^2 = ||A||^2 - 2 tr(U'AV) + tr((U'U)(V'V))</code>, so that the
+   * product <code>UV'</code> is not computed.
+   *
+   * <p>In single precision, rounding errors of the identity could exceed the decrease in error
+   * between iterations, so the error is computed from blocks of rows of <code>UV'</code> instead.
+   *
+   * @param AV the product of A and the current V
+   * @param VV the product of V' and the current V
+   * @return true if the decrease in the approximation error is smaller than the <code>stopThreshold
+   *     </code> or, with {@link #earlyStopping}, than {@link #EARLY_STOPPING_RATIO} of the largest
+   *     decrease so far
+   */
+  protected boolean updateApproximationError(DoubleMatrix2D AV, DoubleMatrix2D VV) {
+    if (singlePrecision) {
+      return updateApproximationError(computeApproximationError());
+    }
+
+    if (errorUU == null) {
+      errorUU = createMatrix(k, k);
+      final double normA = MatrixUtils.frobeniusNorm(A);
+      squaredNormA = normA * normA;
+    }
+
+    // tr(U'AV) is the sum of elements of U .* AV
+    double traceUAV = 0;
+    for (int r = 0; r < U.rows(); r++) {
+      for (int c = 0; c < k; c++) {
+        traceUAV += U.getQuick(r, c) * AV.getQuick(r, c);
+      }
+    }
+
+    // U'U and V'V are symmetric, so tr((U'U)(V'V)) is the sum of elements of U'U .* V'V
+    U.zMult(U, errorUU, 1, 0, true, false);
+    double traceUUVV = 0;
+    for (int r = 0; r < k; r++) {
+      for (int c = 0; c < k; c++) {
+        traceUUVV += errorUU.getQuick(r, c) * VV.getQuick(r, c);
+      }
+    }
+
+    // Rounding errors could make the square slightly negative
+    return updateApproximationError(
+        Math.sqrt(Math.max(0, squaredNormA - 2 * traceUAV + traceUUVV)));
+  }
+
+  /** Computes <code>||A - UV'||</code> directly, from blocks of rows of <code>UV'</code>. */
+  private double computeApproximationError() {
+    if (errorBlock == null) {
+      errorBlock =
+          createMatrix(MultiplicativeUpdates.blockRows(A.rows(), A.columns()), A.columns());
+    }
+
+    double sum = 0;
+    for (int start = 0; start < A.rows(); start += errorBlock.rows()) {
+      final int rows = Math.min(errorBlock.rows(), A.rows() - start);
+      final DoubleMatrix2D UVb = errorBlock.viewPart(0, 0, rows, A.columns());
+      U.viewPart(start, 0, rows, k).zMult(V, UVb, 1, 0, false, true);
+      for (int r = 0; r < rows; r++) {
+        for (int c = 0; c < A.columns(); c++) {
+          final double difference = A.getQuick(start + r, c) - UVb.getQuick(r, c);
+          sum += difference * difference;
+        }
+      }
+    }
+    return Math.sqrt(sum);
+  }
+
+  /**
+   * Records the approximation error <code>||A - UV'||</code> of U and V after {@link
+   * #iterationsCompleted} iterations, computed by the caller, for example from the product <code>
+   * UV'</code> of the next update.
+   *
+   * @return true if the algorithm should stop
+   */
+  protected boolean updateApproximationError(double newApproximationError) {
     if (approximationErrors == null) {
       approximationErrors = new double[maxIterations + 1];
     }
-
-    // Approximation error
-    double newApproximationError =
-        MatrixUtils.frobeniusNorm(U.zMult(V, null, 1, 0, false, true).assign(A, Functions.MINUS));
     approximationErrors[iterationsCompleted] = newApproximationError;
 
-    if ((approximationError - newApproximationError) / approximationError < stopThreshold) {
-      approximationError = newApproximationError;
-      return true;
-    } else {
-      approximationError = newApproximationError;
-      return false;
+    final double decrease = approximationError - newApproximationError;
+    boolean stop = stopThreshold >= 0 && decrease / approximationError < stopThreshold;
+    // The first iteration's decrease, from the random seed, is not representative.
+    if (earlyStopping && iterationsCompleted > 1) {
+      stop |= decrease < EARLY_STOPPING_RATIO * maxApproximationErrorDecrease;
+      maxApproximationErrorDecrease = Math.max(maxApproximationErrorDecrease, decrease);
     }
+    approximationError = newApproximationError;
+    return stop;
   }
 
   /** Orders U and V matrices according to the 'activity' of base vectors. */
@@ -157,14 +295,49 @@ abstract class IterativeMatrixFactorizationBase extends MatrixFactorizationBase
    * Sets the algorithms <code>stopThreshold</code>. If the percentage decrease in approximation
    * error becomes smaller than <code>stopThreshold</code>, the algorithm will stop.
    *
-   * <p>Note: calculation of approximation error is quite costly. Setting the threshold to -1 turns
-   * off calculation of the approximation error and hence makes the algorithm do the maximum allowed
-   * number of iterations.
+   * <p>Setting the threshold to -1 turns off calculation of the approximation error (unless early
+   * stopping is enabled) and hence makes the algorithm do the maximum allowed number of iterations.
    */
   public void setStopThreshold(double stopThreshold) {
     this.stopThreshold = stopThreshold;
   }
 
+  /**
+   * Returns <code>true</code> when the algorithm stops early, when the decrease in approximation
+   * error becomes smaller than 1% of the largest decrease in an iteration so far.
+   *
+   * @since 4.6.0
+   */
+  public boolean isEarlyStopping() {
+    return earlyStopping;
+  }
+
+  /**
+   * Set to <code>true</code> to stop early, when the decrease in approximation error becomes
+   * smaller than 1% of the largest decrease in an iteration so far.
+   *
+   * @since 4.6.0
+   */
+  public void setEarlyStopping(boolean earlyStopping) {
+    this.earlyStopping = earlyStopping;
+  }
+
+  /**
+   * Sets the value of {@link System#nanoTime()} after which no more iterations are started. At
+   * least one iteration is always completed.
+   *
+   * @since 4.6.0
+   */
+  public void setDeadline(long deadlineNanos) {
+    this.deadlineNanos = deadlineNanos;
+    this.hasDeadline = true;
+  }
+
+  @Override
+  public boolean isStoppedAtDeadline() {
+    return stoppedAtDeadline;
+  }
+
   /** */
   public double getApproximationError() {
     return approximationError;
@@ -189,6 +362,36 @@ abstract class IterativeMatrixFactorizationBase extends MatrixFactorizationBase
     this.ordered = ordered;
   }
 
+  /**
+   * Returns <code>true</code> when U, V and temporary matrices are stored in single precision.
+   *
+   * @since 4.6.0
+   */
+  public boolean isSinglePrecision() {
+    return singlePrecision;
+  }
+
+  /**
+   * Set to <code>true</code> to store U, V and temporary matrices in single precision.
+   *
+   * @since 4.6.0
+   */
+  public void setSinglePrecision(boolean singlePrecision) {
+    this.singlePrecision = singlePrecision;
+  }
+
+  /**
+   * Creates a dense matrix of the configured precision. Large double-precision matrices are stored
+   * off heap, see {@link MatrixUtils#createDenseMatrix(int, int)}.
+   */
+  protected DoubleMatrix2D createMatrix(int rows, int columns) {
+    if (singlePrecision) {
+      return new DenseFloatMatrix2D(rows, columns);
+    } else {
+      return MatrixUtils.createDenseMatrix(rows, columns);
+    }
+  }
+
   /**
    * Returns column aggregates for a sorted factorization, and <code>null</code> for an unsorted
    * factorization.
@@ -10,14 +10,18 @@
  */
 package org.carrot2.math.matrix;
 
+import java.util.Arrays;
 import org.carrot2.math.mahout.function.Functions;
 import org.carrot2.math.mahout.function.Mult;
 import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
-import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.CompressedSparseDoubleMatrix2D;
 
 /**
  * Performs matrix factorization using the K-means clustering algorithm. This kind of factorization
  * is sometimes referred to as Concept Decomposition Factorization.
+ *
+ * <p>If A is a {@link CompressedSparseDoubleMatrix2D}, distances and centroids are computed from
+ * its non-zero elements only.
  */
 public class KMeansMatrixFactorization extends IterativeMatrixFactorizationBase {
   /**
@@ -34,53 +38,95 @@ public class KMeansMatrixFactorization extends IterativeMatrixFactorizationBase
     int n = A.columns();
 
     // Distances to centroids
-    DoubleMatrix2D D = new DenseDoubleMatrix2D(k, n);
+    DoubleMatrix2D D = createMatrix(k, n);
 
     // Object-cluster assignments
-    V = new DenseDoubleMatrix2D(n, k);
+    V = createMatrix(n, k);
 
     // Initialize the centroids with some document vectors
-    U = new DenseDoubleMatrix2D(A.rows(), k);
+    U = createMatrix(A.rows(), k);
     U.assign(A.viewPart(0, 0, A.rows(), k));
 
     int[] minIndices = new int[D.columns()];
     double[] minValues = new double[D.columns()];
+    int[] previousIndices = new int[D.columns()];
+
+    final CompressedSparseDoubleMatrix2D sparseA = MatrixUtils.asCompressedSparse(A);
+    final int[] counts = new int[k];
 
     for (iterationsCompleted = 0; iterationsCompleted < maxIterations; iterationsCompleted++) {
       // Calculate cosine distances
       U.zMult(A, D, 1, 0, true, false);
 
+      // For each object
+      MatrixUtils.maxInColumns(D, minIndices, minValues);
+
+      // Unchanged assignments would produce the same centroids in all remaining iterations.
+      if (iterationsCompleted > 0 && Arrays.equals(minIndices, previousIndices)) {
+        break;
+      }
+      System.arraycopy(minIndices, 0, previousIndices, 0, minIndices.length);
+
       V.assign(0);
       U.assign(0);
 
-      // For each object
-      MatrixUtils.maxInColumns(D, minIndices, minValues);
       for (int i = 0; i < minIndices.length; i++) {
         V.setQuick(i, minIndices[i], 1);
       }
 
       // Update centroids
-      for (int c = 0; c < V.columns(); c++) {
-        // Sum
-        int count = 0;
-        for (int d = 0; d < V.rows(); d++) {
-          if (V.getQuick(d, c) != 0) {
-            count++;
-            U.viewColumn(c).assign(A.viewColumn(d), Functions.PLUS);
+      if (sparseA != null) {
+        updateCentroids(sparseA, minIndices, counts);
+      } else {
+        for (int c = 0; c < V.columns(); c++) {
+          // Sum
+          int count = 0;
+          for (int d = 0; d < V.rows(); d++) {
+            if (V.getQuick(d, c) != 0) {
+              count++;
+              U.viewColumn(c).assign(A.viewColumn(d), Functions.PLUS);
+            }
           }
-        }
 
-        // Divide
-        if (count > 0) {
-          U.viewColumn(c).assign(Mult.div(count));
-        } else {
-          U.viewColumn(c).assign(0);
+          // Divide
+          if (count > 0) {
+            U.viewColumn(c).assign(Mult.div(count));
+          } else {
+            U.viewColumn(c).assign(0);
+          }
         }
       }
       MatrixUtils.normalizeColumnL2(U, null);
     }
   }
 
+  /**
+   * Sets columns of U to the means of columns of A assigned to each cluster, visiting the stored
+   * elements of A only. The elements are summed in the same order as for dense matrices, so the
+   * results are the same.
+   */
+  private void updateCentroids(
+      CompressedSparseDoubleMatrix2D sparseA, int[] assignments, int[] counts) {
+    // Sum
+    Arrays.fill(counts, 0);
+    for (int assignment : assignments) {
+      counts[assignment]++;
+    }
+    for (int r = 0; r < sparseA.rows(); r++) {
+      for (int i = sparseA.rowStart(r), max = sparseA.rowEnd(r); i < max; i++) {
+        final int c = assignments[sparseA.columnIndex(i)];
+        U.setQuick(r, c, U.getQuick(r, c) + sparseA.value(i));
+      }
+    }
+
+    // Divide
+    for (int c = 0; c < counts.length; c++) {
+      if (counts[c] > 0) {
+        U.viewColumn(c).assign(Mult.div(counts[c]));
+      }
+    }
+  }
+
   public String toString() {
     return "KMMF";
   }
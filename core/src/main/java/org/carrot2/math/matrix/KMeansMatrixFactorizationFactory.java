@@ -18,10 +18,11 @@ import org.carrot2.math.mahout.matrix.*;
  */
 public class KMeansMatrixFactorizationFactory extends IterativeMatrixFactorizationFactory {
   public MatrixFactorization factorize(DoubleMatrix2D A) {
-    KMeansMatrixFactorization factorization = new KMeansMatrixFactorization(A);
+    KMeansMatrixFactorization factorization = new KMeansMatrixFactorization(input(A));
     factorization.setK(k);
     factorization.setMaxIterations(maxIterations);
     factorization.setStopThreshold(stopThreshold);
+    factorization.setSinglePrecision(singlePrecision.get());
 
     factorization.compute();
 
@@ -11,6 +11,7 @@
 package org.carrot2.math.matrix;
 
 import org.carrot2.math.mahout.matrix.*;
+import org.carrot2.math.mahout.matrix.impl.DenseFloatMatrix2D;
 
 /** Matrix seeding based on the k-means algorithms. */
 public class KMeansSeedingStrategy implements SeedingStrategy {
@@ -37,6 +38,7 @@ public class KMeansSeedingStrategy implements SeedingStrategy {
     KMeansMatrixFactorization kMeansMatrixFactorization = new KMeansMatrixFactorization(A);
     kMeansMatrixFactorization.setK(U.columns());
     kMeansMatrixFactorization.setMaxIterations(maxIterations);
+    kMeansMatrixFactorization.setSinglePrecision(U instanceof DenseFloatMatrix2D);
     kMeansMatrixFactorization.compute();
 
     U.assign(kMeansMatrixFactorization.getU());
@@ -14,7 +14,6 @@ import org.carrot2.math.mahout.function.DoubleDoubleFunction;
 import org.carrot2.math.mahout.function.DoubleFunction;
 import org.carrot2.math.mahout.function.Functions;
 import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
-import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix2D;
 
 /**
  * Performs matrix factorization using the Local Non-negative Matrix Factorization algorithm with
@@ -55,16 +54,17 @@ public class LocalNonnegativeMatrixFactorization extends IterativeMatrixFactoriz
     double eps = 1e-9;
 
     // Seed U and V with initial values
-    U = new DenseDoubleMatrix2D(A.rows(), k);
-    V = new DenseDoubleMatrix2D(A.columns(), k);
+    U = createMatrix(A.rows(), k);
+    V = createMatrix(A.columns(), k);
     seedingStrategy.seed(A, U, V);
 
     // Temporary matrices
-    DoubleMatrix2D Aeps = A.copy();
+    // A + eps is dense, also for sparse A.
+    DoubleMatrix2D Aeps = createMatrix(A.rows(), A.columns()).assign(A);
     Aeps.assign(Functions.plus(eps));
-    DoubleMatrix2D UV = new DenseDoubleMatrix2D(A.rows(), A.columns());
-    DoubleMatrix2D VT = new DenseDoubleMatrix2D(A.columns(), k);
-    DoubleMatrix2D UT = new DenseDoubleMatrix2D(A.rows(), k);
+    DoubleMatrix2D UV = createMatrix(A.rows(), A.columns());
+    DoubleMatrix2D VT = createMatrix(A.columns(), k);
+    DoubleMatrix2D UT = createMatrix(A.rows(), k);
     double[] work = new double[U.columns()];
 
     // Colt functions
@@ -72,13 +72,16 @@ public class LocalNonnegativeMatrixFactorization extends IterativeMatrixFactoriz
     DoubleDoubleFunction sqrtMult = Functions.chain(Functions.SQRT, Functions.MULT);
     DoubleFunction plusEps = Functions.plus(eps);
 
-    if (stopThreshold >= 0) {
-      updateApproximationError();
-    }
-
     for (int i = 0; i < maxIterations; i++) {
       // Update V
       U.zMult(V, UV, 1, 0, false, true); // UV <- U*V'
+
+      // The error of the previous iteration's U and V is computed from UV', so a decision to
+      // stop takes effect after this iteration.
+      final boolean stop =
+          isApproximationErrorNeeded()
+              && updateApproximationError(frobeniusDistance(Aeps, eps, UV));
+
       UV.assign(plusEps); // UV <- UV + eps
       UV.assign(Aeps, invDiv); // UV <- Aeps ./ UV
       UV.zMult(U, VT, 1, 0, true, false); // VT <- UV' * U
@@ -94,18 +97,40 @@ public class LocalNonnegativeMatrixFactorization extends IterativeMatrixFactoriz
       MatrixUtils.normalizeColumnL1(U, work);
 
       iterationsCompleted++;
-      if (stopThreshold >= 0) {
-        if (updateApproximationError()) {
-          break;
-        }
+      if (stop) {
+        break;
+      }
+
+      if (i + 1 < maxIterations && isDeadlineReached()) {
+        break;
       }
     }
 
+    // The error of the final U and V costs one more product UV'.
+    if (isApproximationErrorNeeded()) {
+      updateApproximationError();
+    }
+
     if (ordered) {
       order();
     }
   }
 
+  /**
+   * Returns <code>||A - UV'||</code>, where UV holds the product <code>UV'</code>. Elements of A
+   * are read from the dense <code>Aeps = A + eps</code>.
+   */
+  private static double frobeniusDistance(DoubleMatrix2D Aeps, double eps, DoubleMatrix2D UV) {
+    double sum = 0;
+    for (int r = 0; r < Aeps.rows(); r++) {
+      for (int c = 0; c < Aeps.columns(); c++) {
+        final double difference = Aeps.getQuick(r, c) - eps - UV.getQuick(r, c);
+        sum += difference * difference;
+      }
+    }
+    return Math.sqrt(sum);
+  }
+
   public String toString() {
     return "LNMF-" + seedingStrategy.toString();
   }
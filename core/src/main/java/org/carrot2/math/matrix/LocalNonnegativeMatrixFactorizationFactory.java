@@ -19,10 +19,16 @@ import org.carrot2.math.mahout.matrix.*;
 public class LocalNonnegativeMatrixFactorizationFactory
     extends IterativeMatrixFactorizationFactory {
   public MatrixFactorization factorize(DoubleMatrix2D A) {
-    LocalNonnegativeMatrixFactorization factorization = new LocalNonnegativeMatrixFactorization(A);
+    LocalNonnegativeMatrixFactorization factorization =
+        new LocalNonnegativeMatrixFactorization(input(A));
     factorization.setK(k);
     factorization.setMaxIterations(maxIterations);
     factorization.setStopThreshold(stopThreshold);
+    factorization.setEarlyStopping(earlyStopping.get());
+    if (hasDeadline) {
+      factorization.setDeadline(deadlineNanos);
+    }
+    factorization.setSinglePrecision(singlePrecision.get());
     factorization.setSeedingStrategy(createSeedingStrategy());
     factorization.setOrdered(ordered);
     factorization.compute();
@@ -17,9 +17,47 @@ import org.carrot2.math.mahout.function.DoubleFunction;
 import org.carrot2.math.mahout.function.Functions;
 import org.carrot2.math.mahout.function.IntIntDoubleFunction;
 import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.CompressedSparseDoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.DenseFloatMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.DirectBufferPool;
+import org.carrot2.math.mahout.matrix.impl.DirectDoubleMatrix2D;
 
 /** A set of <code>DoubleMatrix2D</code> shorthands and utility methods. */
 public class MatrixUtils {
+  /**
+   * The system property with the size, in bytes, from which {@link #createDenseMatrix(int, int)}
+   * stores matrices off the Java heap. Defaults to {@link Long#MAX_VALUE}, so off-heap storage is
+   * disabled and all matrices are stored on the heap.
+   *
+   * @since 4.6.0
+   */
+  public static final String OFF_HEAP_THRESHOLD_PROPERTY = "carrot2.matrix.offHeapThreshold";
+
+  /** The size of a matrix, in bytes, from which it is stored off the Java heap. */
+  static final long OFF_HEAP_THRESHOLD = Long.getLong(OFF_HEAP_THRESHOLD_PROPERTY, Long.MAX_VALUE);
+
+  /**
+   * Creates a dense, double-precision matrix. Matrices of at least {@link
+   * #OFF_HEAP_THRESHOLD_PROPERTY} bytes are stored off the Java heap, in a {@link
+   * DirectDoubleMatrix2D} borrowed from the current {@link DirectBufferPool.Lease}, if there is one
+   * and its pool has space left. Other matrices are stored in a {@link DenseDoubleMatrix2D}.
+   *
+   * @since 4.6.0
+   */
+  public static DoubleMatrix2D createDenseMatrix(int rows, int columns) {
+    return createDenseMatrix(rows, columns, OFF_HEAP_THRESHOLD);
+  }
+
+  /** Creates a dense matrix, stored off heap if it takes at least <code>threshold</code> bytes. */
+  static DoubleMatrix2D createDenseMatrix(int rows, int columns, long threshold) {
+    if ((long) rows * columns * Double.BYTES >= threshold) {
+      return DirectDoubleMatrix2D.pooled(rows, columns);
+    } else {
+      return new DenseDoubleMatrix2D(rows, columns);
+    }
+  }
+
   /**
    * Normalizes column vectors of matrix <code>A</code> so that their L2 norm (Euclidean distance)
    * is equal to 1.0.
@@ -34,6 +72,11 @@ public class MatrixUtils {
   public static DoubleMatrix2D normalizeColumnL2(DoubleMatrix2D A, double[] work) {
     work = prepareWork(A, work);
 
+    final CompressedSparseDoubleMatrix2D sparseA = asCompressedSparse(A);
+    if (sparseA != null) {
+      return normalizeColumnL2(sparseA, work);
+    }
+
     // Calculate the L2 norm for each column
     for (int r = 0; r < A.rows(); r++) {
       for (int c = 0; c < A.columns(); c++) {
@@ -52,6 +95,49 @@ public class MatrixUtils {
     return A;
   }
 
+  /** Normalizes columns of a compressed sparse matrix, visiting the stored elements only. */
+  private static DoubleMatrix2D normalizeColumnL2(
+      CompressedSparseDoubleMatrix2D A, double[] work) {
+    for (int r = 0; r < A.rows(); r++) {
+      for (int i = A.rowStart(r), max = A.rowEnd(r); i < max; i++) {
+        work[A.columnIndex(i)] += A.value(i) * A.value(i);
+      }
+    }
+
+    for (int c = 0; c < A.columns(); c++) {
+      work[c] = Math.sqrt(work[c]);
+    }
+
+    A.forEachNonZero(
+        (row, column, value) -> work[column] != 0 ? value / work[column] : value);
+    return A;
+  }
+
+  /**
+   * Returns <code>A</code> if it is a {@link CompressedSparseDoubleMatrix2D} (not a view), whose
+   * stored elements can be accessed directly, <code>null</code> otherwise.
+   */
+  static CompressedSparseDoubleMatrix2D asCompressedSparse(DoubleMatrix2D A) {
+    if (A instanceof CompressedSparseDoubleMatrix2D
+        && !((CompressedSparseDoubleMatrix2D) A).isView()) {
+      return (CompressedSparseDoubleMatrix2D) A;
+    }
+    return null;
+  }
+
+  /**
+   * Returns a single-precision copy of a dense matrix <code>A</code>. Single-precision and
+   * compressed sparse matrices are returned as they are.
+   *
+   * @since 4.6.0
+   */
+  public static DoubleMatrix2D toSinglePrecision(DoubleMatrix2D A) {
+    if (A instanceof DenseFloatMatrix2D || A instanceof CompressedSparseDoubleMatrix2D) {
+      return A;
+    }
+    return new DenseFloatMatrix2D(A.rows(), A.columns()).assign(A);
+  }
+
   /**
    * Normalizes column vectors of a sparse matrix <code>A</code> so that their L2 norm (Euclidean
    * distance) is equal to 1.0.
@@ -337,12 +423,24 @@ public class MatrixUtils {
   }
 
   /**
-   * Calculates the Frobenius norm of a matrix.
+   * Calculates the Frobenius norm of a matrix. Only the stored elements of a {@link
+   * CompressedSparseDoubleMatrix2D} are visited.
    *
    * @see <a href="http://en.wikipedia.org/wiki/Matrix_norm#Frobenius_norm">Frobenius norm</a>
    */
   public static double frobeniusNorm(DoubleMatrix2D matrix) {
-    return Math.sqrt(matrix.aggregate(Functions.PLUS, Functions.SQUARE));
+    final CompressedSparseDoubleMatrix2D sparse = asCompressedSparse(matrix);
+    if (sparse == null) {
+      return Math.sqrt(matrix.aggregate(Functions.PLUS, Functions.SQUARE));
+    }
+
+    double sum = 0;
+    for (int r = 0; r < sparse.rows(); r++) {
+      for (int i = sparse.rowStart(r), max = sparse.rowEnd(r); i < max; i++) {
+        sum += sparse.value(i) * sparse.value(i);
+      }
+    }
+    return Math.sqrt(sum);
   }
 
   /**
@@ -0,0 +1,160 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.matrix;
+
+import org.carrot2.math.mahout.function.Functions;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.CompressedSparseDoubleMatrix2D;
+
+/**
+ * Fused multiplicative update steps of the non-negative matrix factorizations. Rows are processed
+ * in blocks of about {@link #BLOCK_CELLS} cells, so that intermediate products stay in the CPU
+ * cache. Adding epsilon, dividing and multiplying are done in one pass over each block. Scratch
+ * matrices are allocated by the caller and reused in all iterations.
+ */
+final class MultiplicativeUpdates {
+  /** The number of cells in a block (256kB in double precision). */
+  static final int BLOCK_CELLS = 1 << 15;
+
+  private MultiplicativeUpdates() {}
+
+  /**
+   * Returns the number of rows in a block of a matrix with the given number of rows and columns.
+   */
+  static int blockRows(int rows, int columns) {
+    return Math.max(1, Math.min(rows, BLOCK_CELLS / Math.max(1, columns)));
+  }
+
+  /**
+   * Euclidean distance update: <code>X &lt;- X .* (N + eps) ./ (X * T + eps)</code>.
+   *
+   * @param block scratch matrix with the same number of columns as X
+   */
+  static void updateED(
+      DoubleMatrix2D X, DoubleMatrix2D N, DoubleMatrix2D T, double eps, DoubleMatrix2D block) {
+    final int k = X.columns();
+    for (int start = 0; start < X.rows(); start += block.rows()) {
+      final int rows = Math.min(block.rows(), X.rows() - start);
+      final DoubleMatrix2D Xb = X.viewPart(start, 0, rows, k);
+      final DoubleMatrix2D D = block.viewPart(0, 0, rows, k);
+      Xb.zMult(T, D, 1, 0, false, false); // D <- Xb * T
+
+      for (int r = 0; r < rows; r++) {
+        final int row = start + r;
+        for (int c = 0; c < k; c++) {
+          final double ratio = (N.getQuick(row, c) + eps) / (block.getQuick(r, c) + eps);
+          X.setQuick(row, c, X.getQuick(row, c) * ratio);
+        }
+      }
+    }
+  }
+
+  /**
+   * Kullback-Leibler divergence update of V: <code>V &lt;- V .* (((A + eps) ./ (U * V' + eps))' *
+   * U)</code>.
+   *
+   * @param sparseA A as a compressed sparse matrix or <code>null</code> if A is dense
+   * @param VT scratch matrix of the size of V
+   * @param block scratch matrix with the same number of columns as A
+   * @return <code>||A - UV'||^2</code> for V before the update, a by-product of <code>UV'</code>
+   */
+  static double updateKLV(
+      DoubleMatrix2D A,
+      CompressedSparseDoubleMatrix2D sparseA,
+      DoubleMatrix2D U,
+      DoubleMatrix2D V,
+      double eps,
+      DoubleMatrix2D VT,
+      DoubleMatrix2D block) {
+    VT.assign(0);
+    double squaredError = 0;
+    for (int start = 0; start < A.rows(); start += block.rows()) {
+      final int rows = Math.min(block.rows(), A.rows() - start);
+      final DoubleMatrix2D Ub = U.viewPart(start, 0, rows, U.columns());
+      final DoubleMatrix2D R = block.viewPart(0, 0, rows, A.columns());
+      squaredError += ratio(A, sparseA, start, Ub, V, eps, R);
+      R.zMult(Ub, VT, 1, 1, true, false); // VT <- VT + R' * Ub
+    }
+    V.assign(VT, Functions.MULT);
+    return squaredError;
+  }
+
+  /**
+   * Kullback-Leibler divergence update of U: <code>U &lt;- U .* (((A + eps) ./ (U * V' + eps)) *
+   * V)</code>.
+   *
+   * @param sparseA A as a compressed sparse matrix or <code>null</code> if A is dense
+   * @param UT scratch matrix with the same number of columns as U and rows as the block
+   * @param block scratch matrix with the same number of columns as A
+   */
+  static void updateKLU(
+      DoubleMatrix2D A,
+      CompressedSparseDoubleMatrix2D sparseA,
+      DoubleMatrix2D U,
+      DoubleMatrix2D V,
+      double eps,
+      DoubleMatrix2D UT,
+      DoubleMatrix2D block) {
+    for (int start = 0; start < A.rows(); start += block.rows()) {
+      final int rows = Math.min(block.rows(), A.rows() - start);
+      final DoubleMatrix2D Ub = U.viewPart(start, 0, rows, U.columns());
+      final DoubleMatrix2D R = block.viewPart(0, 0, rows, A.columns());
+      final DoubleMatrix2D UTb = UT.viewPart(0, 0, rows, U.columns());
+      ratio(A, sparseA, start, Ub, V, eps, R);
+      R.zMult(V, UTb, 1, 0, false, false); // UTb <- R * V
+      Ub.assign(UTb, Functions.MULT); // Ub <- Ub .* UTb
+    }
+  }
+
+  /**
+   * Computes <code>R &lt;- (Ab + eps) ./ (Ub * V' + eps)</code>, where <code>Ab</code> are the rows
+   * of A corresponding to the rows of <code>Ub</code>. If <code>sparseA</code> is not <code>
+   * null</code>, only its stored elements are visited.
+   *
+   * @return the squared Frobenius norm of <code>Ab - Ub * V'</code>
+   */
+  private static double ratio(
+      DoubleMatrix2D A,
+      CompressedSparseDoubleMatrix2D sparseA,
+      int start,
+      DoubleMatrix2D Ub,
+      DoubleMatrix2D V,
+      double eps,
+      DoubleMatrix2D R) {
+    Ub.zMult(V, R, 1, 0, false, true); // R <- Ub * V'
+
+    final int columns = R.columns();
+    double squaredError = 0;
+    for (int r = 0; r < R.rows(); r++) {
+      if (sparseA != null) {
+        int i = sparseA.rowStart(start + r);
+        final int max = sparseA.rowEnd(start + r);
+        for (int c = 0; c < columns; c++) {
+          double a = 0;
+          if (i < max && sparseA.columnIndex(i) == c) {
+            a = sparseA.value(i++);
+          }
+          final double uv = R.getQuick(r, c);
+          squaredError += (a - uv) * (a - uv);
+          R.setQuick(r, c, (a + eps) / (uv + eps));
+        }
+      } else {
+        for (int c = 0; c < columns; c++) {
+          final double a = A.getQuick(start + r, c);
+          final double uv = R.getQuick(r, c);
+          squaredError += (a - uv) * (a - uv);
+          R.setQuick(r, c, (a + eps) / (uv + eps));
+        }
+      }
+    }
+    return squaredError;
+  }
+}
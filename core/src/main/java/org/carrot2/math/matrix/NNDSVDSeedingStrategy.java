@@ -0,0 +1,101 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.matrix;
+
+import org.carrot2.math.mahout.matrix.DoubleMatrix1D;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+
+/**
+ * Matrix seeding based on the Nonnegative Double Singular Value Decomposition (C. Boutsidis, E.
+ * Gallopoulos, <i>SVD based initialization: A head start for nonnegative matrix factorization</i>).
+ * Each base vector is seeded with the dominant non-negative part of a singular vector pair of the
+ * input matrix, computed with {@link RandomizedSingularValueDecomposition}. The seeding is
+ * deterministic.
+ *
+ * <p>Elements of U and V seeded with zeros are never changed by multiplicative updates. The NNDSVDa
+ * variant replaces them with the average element of the input matrix.
+ */
+public class NNDSVDSeedingStrategy implements SeedingStrategy {
+  /** Replace zeros with the average element of the input matrix (NNDSVDa)? */
+  private final boolean fillZeros;
+
+  /** Creates the NNDSVDa seeding strategy. */
+  public NNDSVDSeedingStrategy() {
+    this(true);
+  }
+
+  /**
+   * Creates the NNDSVD seeding strategy.
+   *
+   * @param fillZeros if <code>true</code>, zeros are replaced with the average element of the input
+   *     matrix (NNDSVDa)
+   */
+  public NNDSVDSeedingStrategy(boolean fillZeros) {
+    this.fillZeros = fillZeros;
+  }
+
+  public void seed(DoubleMatrix2D A, DoubleMatrix2D U, DoubleMatrix2D V) {
+    final int k = U.columns();
+    final RandomizedSingularValueDecomposition svd = new RandomizedSingularValueDecomposition(A);
+    svd.setK(k);
+    svd.compute();
+    final double[] S = svd.getSingularValues();
+
+    U.assign(0);
+    V.assign(0);
+    for (int c = 0; c < Math.min(k, S.length); c++) {
+      final DoubleMatrix1D u = svd.getU().viewColumn(c);
+      final DoubleMatrix1D v = svd.getV().viewColumn(c);
+
+      // The dominant of the positive and the negative sections of u * v'
+      final double uPositive = norm(u, 1);
+      final double vPositive = norm(v, 1);
+      final double uNegative = norm(u, -1);
+      final double vNegative = norm(v, -1);
+      final double positive = uPositive * vPositive;
+      final double negative = uNegative * vNegative;
+      if (positive == 0 && negative == 0) {
+        continue;
+      }
+
+      final double sign = positive >= negative ? 1 : -1;
+      final double scale = Math.sqrt(S[c] * Math.max(positive, negative));
+      final double uScale = scale / (positive >= negative ? uPositive : uNegative);
+      final double vScale = scale / (positive >= negative ? vPositive : vNegative);
+      for (int r = 0; r < U.rows(); r++) {
+        U.setQuick(r, c, Math.max(0, sign * u.getQuick(r)) * uScale);
+      }
+      for (int r = 0; r < V.rows(); r++) {
+        V.setQuick(r, c, Math.max(0, sign * v.getQuick(r)) * vScale);
+      }
+    }
+
+    if (fillZeros) {
+      final double average = A.zSum() / ((double) A.rows() * A.columns());
+      U.assign(value -> value == 0 ? average : value);
+      V.assign(value -> value == 0 ? average : value);
+    }
+  }
+
+  /** Returns the Euclidean norm of the positive (sign 1) or negative (sign -1) part of a vector. */
+  private static double norm(DoubleMatrix1D vector, double sign) {
+    double sum = 0;
+    for (int i = 0; i < vector.size(); i++) {
+      final double value = Math.max(0, sign * vector.getQuick(i));
+      sum += value * value;
+    }
+    return Math.sqrt(sum);
+  }
+
+  public String toString() {
+    return fillZeros ? "NNDSVDa" : "NNDSVD";
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.matrix;
+
+/** Seeding based on the Nonnegative Double Singular Value Decomposition. */
+public class NNDSVDSeedingStrategyFactory implements SeedingStrategyFactory {
+  /** By default, zeros are replaced with the average element of the input matrix (NNDSVDa) */
+  private static boolean DEFAULT_FILL_ZEROS = true;
+
+  /** Replace zeros with the average element of the input matrix */
+  private boolean fillZeros = DEFAULT_FILL_ZEROS;
+
+  public SeedingStrategy createSeedingStrategy() {
+    NNDSVDSeedingStrategy seeding = new NNDSVDSeedingStrategy(fillZeros);
+
+    return seeding;
+  }
+
+  /**
+   * Returns <code>true</code> if zeros are replaced with the average element of the input matrix
+   * (NNDSVDa).
+   */
+  public boolean getFillZeros() {
+    return fillZeros;
+  }
+
+  /**
+   * Set to <code>true</code> to replace zeros with the average element of the input matrix
+   * (NNDSVDa). Zeros are never changed by multiplicative updates of the NMF factorizations.
+   */
+  public void setFillZeros(boolean fillZeros) {
+    this.fillZeros = fillZeros;
+  }
+
+  public String toString() {
+    return fillZeros ? "NNDSVDa" : "NNDSVD";
+  }
+}
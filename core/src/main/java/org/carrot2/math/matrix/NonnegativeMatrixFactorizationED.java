@@ -10,14 +10,15 @@
  */
 package org.carrot2.math.matrix;
 
-import org.carrot2.math.mahout.function.DoubleFunction;
-import org.carrot2.math.mahout.function.Functions;
 import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
-import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.CompressedSparseDoubleMatrix2D;
 
 /**
  * Performs matrix factorization using the Non-negative Matrix Factorization algorithm with
  * minimization of Euclidean Distance between A and UV' and multiplicative updating.
+ *
+ * <p>If A is a {@link CompressedSparseDoubleMatrix2D}, products with A only visit its non-zero
+ * elements.
  */
 public class NonnegativeMatrixFactorizationED extends IterativeMatrixFactorizationBase {
   /**
@@ -51,47 +52,44 @@ public class NonnegativeMatrixFactorizationED extends IterativeMatrixFactorizati
     double eps = 1e-9;
 
     // Seed U and V with initial values
-    U = new DenseDoubleMatrix2D(A.rows(), k);
-    V = new DenseDoubleMatrix2D(A.columns(), k);
+    U = createMatrix(A.rows(), k);
+    V = createMatrix(A.columns(), k);
     seedingStrategy.seed(A, U, V);
 
-    // Temporary matrices
-    DoubleMatrix2D T = new DenseDoubleMatrix2D(k, k);
-    DoubleMatrix2D UT1 = new DenseDoubleMatrix2D(A.rows(), k);
-    DoubleMatrix2D UT2 = new DenseDoubleMatrix2D(A.rows(), k);
-    DoubleMatrix2D VT1 = new DenseDoubleMatrix2D(A.columns(), k);
-    DoubleMatrix2D VT2 = new DenseDoubleMatrix2D(A.columns(), k);
-    DoubleFunction plusEps = Functions.plus(eps);
+    // Temporary matrices, reused in all iterations. Numerators of U and V updates share one
+    // matrix, denominators are computed in blocks of rows.
+    DoubleMatrix2D T = createMatrix(k, k);
+    DoubleMatrix2D N = createMatrix(Math.max(A.rows(), A.columns()), k);
+    DoubleMatrix2D UN = N.viewPart(0, 0, A.rows(), k);
+    DoubleMatrix2D VN = N.viewPart(0, 0, A.columns(), k);
+    DoubleMatrix2D block = createMatrix(MultiplicativeUpdates.blockRows(N.rows(), k), k);
 
-    if (stopThreshold >= 0) {
+    if (isApproximationErrorNeeded()) {
       updateApproximationError();
     }
 
     for (int i = 0; i < maxIterations; i++) {
       // Update V
       U.zMult(U, T, 1, 0, true, false); // T <- U'U
-      A.zMult(U, VT1, 1, 0, true, false); // VT1 <- A'U
-      V.zMult(T, VT2, 1, 0, false, false); // VT2 <- VT
-      VT1.assign(plusEps);
-      VT2.assign(plusEps);
-      VT1.assign(VT2, Functions.DIV); // VT1 <- VT1 ./ VT2
-      V.assign(VT1, Functions.MULT); // V <- V .* VT1
+      A.zMult(U, VN, 1, 0, true, false); // VN <- A'U
+      MultiplicativeUpdates.updateED(V, VN, T, eps, block); // V <- V .* (VN + eps) ./ (VT + eps)
 
       // Update U
       V.zMult(V, T, 1, 0, true, false); // T <- V'V
-      A.zMult(V, UT1, 1, 0, false, false); // UT1 <- AV
-      U.zMult(T, UT2, 1, 0, false, false); // UT2 <- UT
-      UT1.assign(plusEps);
-      UT2.assign(plusEps);
-      UT1.assign(UT2, Functions.DIV); // UT1 <- UT1 ./ UT2
-      U.assign(UT1, Functions.MULT); // U <- U .* UT1
+      A.zMult(V, UN, 1, 0, false, false); // UN <- AV
+      MultiplicativeUpdates.updateED(U, UN, T, eps, block); // U <- U .* (UN + eps) ./ (UT + eps)
 
       iterationsCompleted++;
-      if (stopThreshold >= 0) {
-        if (updateApproximationError()) {
+      if (isApproximationErrorNeeded()) {
+        // UN and T still hold AV and V'V for the current V.
+        if (updateApproximationError(UN, T)) {
           break;
         }
       }
+
+      if (i + 1 < maxIterations && isDeadlineReached()) {
+        break;
+      }
     }
 
     if (ordered) {
@@ -18,10 +18,15 @@ import org.carrot2.math.mahout.matrix.*;
  */
 public class NonnegativeMatrixFactorizationEDFactory extends IterativeMatrixFactorizationFactory {
   public MatrixFactorization factorize(DoubleMatrix2D A) {
-    NonnegativeMatrixFactorizationED factorization = new NonnegativeMatrixFactorizationED(A);
+    NonnegativeMatrixFactorizationED factorization = new NonnegativeMatrixFactorizationED(input(A));
     factorization.setK(k);
     factorization.setMaxIterations(maxIterations);
     factorization.setStopThreshold(stopThreshold);
+    factorization.setEarlyStopping(earlyStopping.get());
+    if (hasDeadline) {
+      factorization.setDeadline(deadlineNanos);
+    }
+    factorization.setSinglePrecision(singlePrecision.get());
     factorization.setSeedingStrategy(createSeedingStrategy());
     factorization.setOrdered(ordered);
 
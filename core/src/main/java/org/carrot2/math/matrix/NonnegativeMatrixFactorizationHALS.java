@@ -0,0 +1,127 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.matrix;
+
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.CompressedSparseDoubleMatrix2D;
+
+/**
+ * Performs matrix factorization using the Non-negative Matrix Factorization algorithm with
+ * minimization of Euclidean Distance between A and UV' and hierarchical alternating least squares
+ * (HALS) updating. Each iteration solves the least squares problem for one column of V and U at a
+ * time, which takes far fewer iterations than multiplicative updating to reach the same
+ * approximation error at about the same cost per iteration.
+ *
+ * <p>If A is a {@link CompressedSparseDoubleMatrix2D}, products with A only visit its non-zero
+ * elements.
+ *
+ * @since 4.6.0
+ */
+public class NonnegativeMatrixFactorizationHALS extends IterativeMatrixFactorizationBase {
+  /**
+   * Creates the NonnegativeMatrixFactorizationHALS object for matrix A. Before accessing results,
+   * perform computations by calling the {@link #compute()}method.
+   *
+   * @param A matrix to be factorized
+   */
+  public NonnegativeMatrixFactorizationHALS(DoubleMatrix2D A) {
+    super(A);
+  }
+
+  public void compute() {
+    // Prototype Matlab code for the NMF-HALS
+    //
+    // for iter = 1:maxiter
+    // AU = A'*U; UU = U'*U;
+    // for j = 1:k % update V
+    // V(:,j) = max(eps, V(:,j) + (AU(:,j) - V*UU(:,j)) / UU(j,j));
+    // end
+    // AV = A*V; VV = V'*V;
+    // for j = 1:k % update U
+    // U(:,j) = max(eps, U(:,j) + (AV(:,j) - U*VV(:,j)) / VV(j,j));
+    // end
+    // C(1, iter) = norm((A-U*V'), 'fro'); % approximation quality
+    // end
+
+    double eps = 1e-9;
+
+    // Seed U and V with initial values
+    U = createMatrix(A.rows(), k);
+    V = createMatrix(A.columns(), k);
+    seedingStrategy.seed(A, U, V);
+
+    // Temporary matrices, reused in all iterations. Products of A with U and V share one matrix.
+    DoubleMatrix2D T = createMatrix(k, k);
+    DoubleMatrix2D N = createMatrix(Math.max(A.rows(), A.columns()), k);
+    DoubleMatrix2D UN = N.viewPart(0, 0, A.rows(), k);
+    DoubleMatrix2D VN = N.viewPart(0, 0, A.columns(), k);
+
+    if (isApproximationErrorNeeded()) {
+      updateApproximationError();
+    }
+
+    for (int i = 0; i < maxIterations; i++) {
+      // Update V
+      U.zMult(U, T, 1, 0, true, false); // T <- U'U
+      A.zMult(U, VN, 1, 0, true, false); // VN <- A'U
+      update(V, VN, T, eps);
+
+      // Update U
+      V.zMult(V, T, 1, 0, true, false); // T <- V'V
+      A.zMult(V, UN, 1, 0, false, false); // UN <- AV
+      update(U, UN, T, eps);
+
+      iterationsCompleted++;
+      if (isApproximationErrorNeeded()) {
+        // UN and T still hold AV and V'V for the current V.
+        if (updateApproximationError(UN, T)) {
+          break;
+        }
+      }
+
+      if (i + 1 < maxIterations && isDeadlineReached()) {
+        break;
+      }
+    }
+
+    if (ordered) {
+      order();
+    }
+  }
+
+  /**
+   * Updates columns of X in turn: <code>X(:,j) &lt;- max(eps, X(:,j) + (N(:,j) - X * T(:,j)) /
+   * T(j,j))</code>. The update of a row of X only depends on that row, so rows are processed one by
+   * one, with the columns updated earlier in the row already in place.
+   */
+  private static void update(DoubleMatrix2D X, DoubleMatrix2D N, DoubleMatrix2D T, double eps) {
+    final int k = X.columns();
+    for (int row = 0; row < X.rows(); row++) {
+      for (int c = 0; c < k; c++) {
+        final double diagonal = T.getQuick(c, c);
+        if (diagonal <= 0) {
+          continue;
+        }
+
+        double product = 0;
+        for (int l = 0; l < k; l++) {
+          product += X.getQuick(row, l) * T.getQuick(l, c);
+        }
+        final double value = X.getQuick(row, c) + (N.getQuick(row, c) - product) / diagonal;
+        X.setQuick(row, c, Math.max(eps, value));
+      }
+    }
+  }
+
+  public String toString() {
+    return "NMF-HALS-" + seedingStrategy.toString();
+  }
+}
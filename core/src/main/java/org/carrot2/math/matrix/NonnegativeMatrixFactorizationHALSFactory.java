@@ -0,0 +1,41 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.matrix;
+
+import org.carrot2.math.mahout.matrix.*;
+
+/**
+ * Performs matrix factorization using the Non-negative Matrix Factorization algorithm with
+ * minimization of Euclidean Distance between A and UV' and hierarchical alternating least squares
+ * updating.
+ *
+ * @since 4.6.0
+ */
+public class NonnegativeMatrixFactorizationHALSFactory extends IterativeMatrixFactorizationFactory {
+  public MatrixFactorization factorize(DoubleMatrix2D A) {
+    NonnegativeMatrixFactorizationHALS factorization =
+        new NonnegativeMatrixFactorizationHALS(input(A));
+    factorization.setK(k);
+    factorization.setMaxIterations(maxIterations);
+    factorization.setStopThreshold(stopThreshold);
+    factorization.setEarlyStopping(earlyStopping.get());
+    if (hasDeadline) {
+      factorization.setDeadline(deadlineNanos);
+    }
+    factorization.setSinglePrecision(singlePrecision.get());
+    factorization.setSeedingStrategy(createSeedingStrategy());
+    factorization.setOrdered(ordered);
+
+    factorization.compute();
+
+    return factorization;
+  }
+}
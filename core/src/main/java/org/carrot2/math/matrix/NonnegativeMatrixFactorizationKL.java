@@ -10,15 +10,15 @@
  */
 package org.carrot2.math.matrix;
 
-import org.carrot2.math.mahout.function.DoubleDoubleFunction;
-import org.carrot2.math.mahout.function.DoubleFunction;
-import org.carrot2.math.mahout.function.Functions;
 import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
-import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.CompressedSparseDoubleMatrix2D;
 
 /**
  * Performs matrix factorization using the Non-negative Matrix Factorization by minimization of
  * Kullback-Leibler divergence between A and UV' and multiplicative updating.
+ *
+ * <p>The m x n matrices A + eps and UV' are computed in blocks of rows and are never stored in
+ * full. If A is a {@link CompressedSparseDoubleMatrix2D}, it is not copied or densified.
  */
 public class NonnegativeMatrixFactorizationKL extends IterativeMatrixFactorizationBase {
   /**
@@ -56,49 +56,46 @@ public class NonnegativeMatrixFactorizationKL extends IterativeMatrixFactorizati
     double eps = 1e-9;
 
     // Seed U and V with initial values
-    U = new DenseDoubleMatrix2D(m, k);
-    V = new DenseDoubleMatrix2D(n, k);
+    U = createMatrix(m, k);
+    V = createMatrix(n, k);
     seedingStrategy.seed(A, U, V);
 
-    // Temporary matrices
-    DoubleMatrix2D Aeps = A.copy();
-    Aeps.assign(Functions.plus(eps));
-    DoubleMatrix2D UV = new DenseDoubleMatrix2D(m, n);
-    DoubleMatrix2D VT = new DenseDoubleMatrix2D(n, k);
-    DoubleMatrix2D UT = new DenseDoubleMatrix2D(m, k);
+    // Temporary matrices, reused in all iterations. A + eps and UV' are computed in blocks of
+    // rows, neither of them is stored in full.
+    final CompressedSparseDoubleMatrix2D sparseA = MatrixUtils.asCompressedSparse(A);
+    DoubleMatrix2D block = createMatrix(MultiplicativeUpdates.blockRows(m, n), n);
+    DoubleMatrix2D UT = createMatrix(block.rows(), k);
+    DoubleMatrix2D VT = createMatrix(n, k);
     double[] work = new double[U.columns()];
 
-    // Colt functions
-    DoubleDoubleFunction invDiv = Functions.swapArgs(Functions.DIV);
-    DoubleFunction plusEps = Functions.plus(eps);
-
-    if (stopThreshold >= 0) {
-      updateApproximationError();
-    }
-
     for (int i = 0; i < maxIterations; i++) {
-      // Update V
-      U.zMult(V, UV, 1, 0, false, true); // UV <- U*V'
-      UV.assign(plusEps); // UV <- UV + eps
-      UV.assign(Aeps, invDiv); // UV <- Aeps ./ UV
-      UV.zMult(U, VT, 1, 0, true, false); // VT <- UV' * U
-      V.assign(VT, Functions.MULT); // V <- V .* VT
+      // V <- V .* (((A + eps) ./ (U*V' + eps))' * U)
+      final double squaredError =
+          MultiplicativeUpdates.updateKLV(A, sparseA, U, V, eps, VT, block);
+
+      // The error of the previous iteration's U and V is a by-product of the V update, so a
+      // decision to stop takes effect after this iteration.
+      final boolean stop =
+          isApproximationErrorNeeded() && updateApproximationError(Math.sqrt(squaredError));
 
-      // Update U
-      U.zMult(V, UV, 1, 0, false, true); // UV <- U*V'
-      UV.assign(plusEps); // UV <- UV + eps
-      UV.assign(Aeps, invDiv); // UV <- Aeps ./ UV
-      UV.zMult(V, UT, 1, 0, false, false); // UT <- UV * V
-      U.assign(UT, Functions.MULT); // U <- U .* UT
+      // U <- U .* (((A + eps) ./ (U*V' + eps)) * V)
+      MultiplicativeUpdates.updateKLU(A, sparseA, U, V, eps, UT, block);
 
       MatrixUtils.normalizeColumnL1(U, work);
 
       iterationsCompleted++;
-      if (stopThreshold >= 0) {
-        if (updateApproximationError()) {
-          break;
-        }
+      if (stop) {
+        break;
       }
+
+      if (i + 1 < maxIterations && isDeadlineReached()) {
+        break;
+      }
+    }
+
+    // The error of the final U and V costs one more product UV'.
+    if (isApproximationErrorNeeded()) {
+      updateApproximationError();
     }
 
     if (ordered) {
@@ -27,7 +27,7 @@ public class PartialSingularValueDecomposition extends MatrixFactorizationBase
   protected static final int DEFAULT_K = -1;
 
   /** Singular values */
-  private double[] S;
+  protected double[] S;
 
   /**
    * Computes a partial SVD of a matrix. Before accessing results, perform computations by calling
@@ -63,7 +63,7 @@ public class PartialSingularValueDecomposition extends MatrixFactorizationBase
     }
   }
 
-  private static DenseDoubleMatrix2D toColtMatrix(Matrix m) {
+  static DenseDoubleMatrix2D toColtMatrix(Matrix m) {
     DenseDoubleMatrix2D result = new DenseDoubleMatrix2D(m.rowSize(), m.columnSize());
     for (int r = 0; r < result.rows(); r++) {
       for (int c = 0; c < result.columns(); c++) {
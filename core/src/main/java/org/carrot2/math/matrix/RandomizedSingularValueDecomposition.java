@@ -0,0 +1,153 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.matrix;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.carrot2.math.mahout.DenseMatrix;
+import org.carrot2.math.mahout.SingularValueDecomposition;
+import org.carrot2.math.mahout.function.Functions;
+import org.carrot2.math.mahout.matrix.DoubleMatrix1D;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix2D;
+
+/**
+ * Computes the first <i>k</i> singular values and vectors of a matrix using the randomized range
+ * finder with subspace iterations (N. Halko, P. G. Martinsson, J. A. Tropp, <i>Finding structure
+ * with randomness: Probabilistic algorithms for constructing approximate matrix
+ * decompositions</i>). The input matrix is only multiplied by thin matrices, the exact SVD is
+ * computed for a matrix with <i>k</i> + oversampling columns. If that is not smaller than the input
+ * matrix, the exact SVD of the input matrix is computed instead.
+ */
+public class RandomizedSingularValueDecomposition extends PartialSingularValueDecomposition {
+  /** The number of additional random vectors sampling the range of the matrix */
+  protected int oversampling;
+
+  /** The default oversampling */
+  protected static final int DEFAULT_OVERSAMPLING = 10;
+
+  /** The number of subspace (power) iterations */
+  protected int powerIterations;
+
+  /** The default number of subspace iterations */
+  protected static final int DEFAULT_POWER_ITERATIONS = 2;
+
+  /** The seed of random vectors */
+  protected long seed;
+
+  /** The default seed of random vectors */
+  protected static final long DEFAULT_SEED = 0;
+
+  /**
+   * Computes a truncated SVD of a matrix. Before accessing results, perform computations by calling
+   * the {@link #compute()} method.
+   *
+   * @param A matrix to be factorized
+   */
+  public RandomizedSingularValueDecomposition(DoubleMatrix2D A) {
+    super(A);
+
+    this.oversampling = DEFAULT_OVERSAMPLING;
+    this.powerIterations = DEFAULT_POWER_ITERATIONS;
+    this.seed = DEFAULT_SEED;
+  }
+
+  @Override
+  public void compute() {
+    final int m = A.rows();
+    final int n = A.columns();
+    final int l = k + oversampling;
+    if (k <= 0 || l >= Math.min(m, n)) {
+      super.compute();
+      return;
+    }
+
+    // Q <- orthonormal basis of A * Omega, where Omega is a random n x l matrix
+    final Random random = new Random(seed);
+    final DoubleMatrix2D omega = new DenseDoubleMatrix2D(n, l);
+    omega.assign(value -> random.nextGaussian());
+    final DoubleMatrix2D Q = A.zMult(omega, new DenseDoubleMatrix2D(m, l), 1, 0, false, false);
+    orthonormalize(Q);
+
+    // Subspace iterations amplify the leading singular values
+    final DoubleMatrix2D Z = new DenseDoubleMatrix2D(n, l);
+    for (int i = 0; i < powerIterations; i++) {
+      A.zMult(Q, Z, 1, 0, true, false);
+      orthonormalize(Z);
+      A.zMult(Z, Q, 1, 0, false, false);
+      orthonormalize(Q);
+    }
+
+    // A ~ Q * B, where B' = A' * Q = W * S * X', so A ~ (Q * X) * S * W'
+    A.zMult(Q, Z, 1, 0, true, false);
+    final SingularValueDecomposition svd =
+        new SingularValueDecomposition(new DenseMatrix(Z.toArray()));
+    final DoubleMatrix2D X = toColtMatrix(svd.getV()).viewPart(0, 0, l, k);
+    U = Q.zMult(X, null, 1, 0, false, false);
+    V = toColtMatrix(svd.getU()).viewPart(0, 0, n, k);
+    S = Arrays.copyOf(svd.getSingularValues(), k);
+  }
+
+  /**
+   * Orthonormalizes columns of a matrix in place using the modified Gram-Schmidt process, repeated
+   * twice for numerical stability. Columns (nearly) linearly dependent on the previous ones are set
+   * to zero.
+   */
+  private static void orthonormalize(DoubleMatrix2D Q) {
+    for (int j = 0; j < Q.columns(); j++) {
+      final DoubleMatrix1D column = Q.viewColumn(j);
+      final double norm = Math.sqrt(column.zDotProduct(column));
+      for (int pass = 0; pass < 2; pass++) {
+        for (int i = 0; i < j; i++) {
+          final DoubleMatrix1D previous = Q.viewColumn(i);
+          column.assign(previous, Functions.plusMult(-previous.zDotProduct(column)));
+        }
+      }
+
+      final double orthogonalNorm = Math.sqrt(column.zDotProduct(column));
+      column.assign(Functions.mult(orthogonalNorm > norm * 1e-10 ? 1 / orthogonalNorm : 0));
+    }
+  }
+
+  public String toString() {
+    return "RSVD";
+  }
+
+  /** Sets the number of additional random vectors sampling the range of the matrix. */
+  public void setOversampling(int oversampling) {
+    this.oversampling = oversampling;
+  }
+
+  /** Returns the number of additional random vectors sampling the range of the matrix. */
+  public int getOversampling() {
+    return oversampling;
+  }
+
+  /** Sets the number of subspace (power) iterations. */
+  public void setPowerIterations(int powerIterations) {
+    this.powerIterations = powerIterations;
+  }
+
+  /** Returns the number of subspace (power) iterations. */
+  public int getPowerIterations() {
+    return powerIterations;
+  }
+
+  /** Sets the seed of random vectors. */
+  public void setSeed(long seed) {
+    this.seed = seed;
+  }
+
+  /** Returns the seed of random vectors. */
+  public long getSeed() {
+    return seed;
+  }
+}
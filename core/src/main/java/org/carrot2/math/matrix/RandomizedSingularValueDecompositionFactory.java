@@ -0,0 +1,62 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.matrix;
+
+import org.carrot2.attrs.AttrInteger;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+
+/**
+ * Performs matrix factorization using the randomized truncated Singular Value Decomposition
+ * algorithm. See {@link RandomizedSingularValueDecomposition}.
+ *
+ * @since 4.6.0
+ */
+public class RandomizedSingularValueDecompositionFactory
+    extends PartialSingularValueDecompositionFactory {
+  /**
+   * The number of random vectors sampling the range of the matrix in addition to the number of base
+   * vectors. Higher values improve the accuracy at the cost of longer computations.
+   */
+  public final AttrInteger oversampling =
+      attributes.register(
+          "oversampling",
+          AttrInteger.builder()
+              .min(0)
+              .max(100)
+              .label("Oversampling")
+              .defaultValue(RandomizedSingularValueDecomposition.DEFAULT_OVERSAMPLING));
+
+  /**
+   * The number of subspace (power) iterations. Higher values improve the accuracy for matrices with
+   * slowly decaying singular values at the cost of longer computations.
+   */
+  public final AttrInteger powerIterations =
+      attributes.register(
+          "powerIterations",
+          AttrInteger.builder()
+              .min(0)
+              .max(10)
+              .label("Subspace iterations")
+              .defaultValue(RandomizedSingularValueDecomposition.DEFAULT_POWER_ITERATIONS));
+
+  @Override
+  public MatrixFactorization factorize(DoubleMatrix2D A) {
+    RandomizedSingularValueDecomposition randomizedSingularValueDecomposition =
+        new RandomizedSingularValueDecomposition(A);
+
+    randomizedSingularValueDecomposition.setK(k);
+    randomizedSingularValueDecomposition.setOversampling(oversampling.get());
+    randomizedSingularValueDecomposition.setPowerIterations(powerIterations.get());
+    randomizedSingularValueDecomposition.compute();
+
+    return randomizedSingularValueDecomposition;
+  }
+}
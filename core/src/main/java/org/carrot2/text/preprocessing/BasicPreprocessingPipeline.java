@@ -10,10 +10,13 @@
  */
 package org.carrot2.text.preprocessing;
 
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Stream;
 import org.carrot2.attrs.AttrComposite;
 import org.carrot2.attrs.AttrInteger;
+import org.carrot2.clustering.ClusteringListener;
 import org.carrot2.clustering.Document;
+import org.carrot2.internal.clustering.StageTimer;
 import org.carrot2.language.LanguageComponents;
 
 /**
@@ -41,6 +44,36 @@ public class BasicPreprocessingPipeline extends AttrComposite implements Context
               .label("Word document frequency threshold")
               .defaultValue(1));
 
+  /**
+   * Maximum number of chunks input documents are split into for tokenization. If larger than 1,
+   * contiguous chunks of documents are tokenized as separate tasks on the {@link
+   * ForkJoinPool#commonPool()}, so the actual number of threads is bounded by the common pool's
+   * parallelism. The result is identical to sequential tokenization.
+   */
+  public final AttrInteger tokenizerChunks =
+      attributes.register(
+          "tokenizerChunks",
+          AttrInteger.builder()
+              .min(1)
+              .max(256)
+              .label("Number of document tokenization chunks")
+              .defaultValue(1));
+
+  /**
+   * Maximum number of words in the stem cache shared by all requests for the same language
+   * components. Stemmer results are cached by lowercased word image, so that the same vocabulary is
+   * not stemmed again on every request. The cache is sized by the first request that uses it. Zero
+   * disables the cache.
+   */
+  public final AttrInteger stemCacheSize =
+      attributes.register(
+          "stemCacheSize",
+          AttrInteger.builder()
+              .min(0)
+              .max(10_000_000)
+              .label("Stem cache size")
+              .defaultValue(0));
+
   /** Case normalizer used by the algorithm. */
   protected final CaseNormalizer caseNormalizer = new CaseNormalizer();
 
@@ -59,11 +92,34 @@ public class BasicPreprocessingPipeline extends AttrComposite implements Context
    */
   public PreprocessingContext preprocess(
       Stream<? extends Document> documents, String query, LanguageComponents langModel) {
+    return preprocess(documents, query, langModel, ClusteringListener.NO_OP);
+  }
+
+  /**
+   * Performs preprocessing on the provided list of documents, reporting individual preprocessing
+   * stages to the provided listener.
+   */
+  @Override
+  public PreprocessingContext preprocess(
+      Stream<? extends Document> documents,
+      String query,
+      LanguageComponents langModel,
+      ClusteringListener listener) {
+    final StageTimer timer = StageTimer.start(listener);
     try (PreprocessingContext context = new PreprocessingContext(langModel)) {
-      tokenizer.tokenize(context, documents);
+      tokenizer.tokenize(context, documents, tokenizerChunks.get());
+      timer.stage(
+          "tokenization",
+          "documents",
+          context.documentCount,
+          "tokens",
+          context.allTokens.image.length);
       caseNormalizer.normalize(context, wordDfThreshold.get());
-      stemming.stem(context, query);
+      timer.stage("caseNormalization", "words", context.allWords.image.length);
+      stemming.stem(context, query, stemCacheSize.get());
+      timer.stage("stemming", "stems", context.allStems.image.length);
       stopListMarker.mark(context);
+      timer.stage("stopWordMarking");
       return context;
     }
   }
@@ -12,13 +12,14 @@ package org.carrot2.text.preprocessing;
 
 import com.carrotsearch.hppc.*;
 import com.carrotsearch.hppc.sorting.IndirectSort;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import org.carrot2.language.Tokenizer;
 import org.carrot2.text.preprocessing.PreprocessingContext.AllTokens;
 import org.carrot2.text.preprocessing.PreprocessingContext.AllWords;
 import org.carrot2.util.CharArrayComparators;
+import org.carrot2.util.MutableCharArray;
 
 /**
  * Performs case normalization and calculates a number of frequency statistics for words. The aim of
@@ -36,32 +37,68 @@ import org.carrot2.util.CharArrayComparators;
  *   <li>{@link AllWords#tfByDocument}
  * </ul>
  *
+ * <p>Case variants can be grouped in one of two ways (see {@link Mode}), both produce identical
+ * results.
+ *
  * <p>This class requires that {@link InputTokenizer} be invoked first.
  */
 final class CaseNormalizer {
+  /** Ways of grouping case variants of token images. */
+  enum Mode {
+    /** Sorts all token positions by their images so that case variants are next to each other. */
+    SORTING,
+
+    /**
+     * Aggregates statistics of each unique (interned) token image in a single pass over tokens,
+     * then groups unique images by their case-folded keys in a hash map. Only the distinct words
+     * and their variants are sorted, to keep the order of words the same as in {@link #SORTING}.
+     */
+    HASHING
+  }
+
+  private final Mode mode;
+
+  CaseNormalizer() {
+    this(Mode.HASHING);
+  }
+
+  CaseNormalizer(Mode mode) {
+    this.mode = mode;
+  }
+
   /** Performs normalization and saves the results to the <code>context</code>. */
   public void normalize(PreprocessingContext context, int dfThreshold) {
+    if (mode == Mode.HASHING) {
+      normalizeByHashing(context, dfThreshold);
+    } else {
+      normalizeBySorting(context, dfThreshold);
+    }
+  }
+
+  private void normalizeBySorting(PreprocessingContext context, int dfThreshold) {
     // Local references to already existing arrays
     final char[][] tokenImages = context.allTokens.image;
+    final int[] tokenImageIds = context.allTokens.imageId;
     final short[] tokenTypesArray = context.allTokens.type;
     final int[] documentIndexesArray = context.allTokens.documentIndex;
     final byte[] tokensFieldIndex = context.allTokens.fieldIndex;
     final int tokenCount = tokenImages.length;
 
-    // Sort token images
+    // Sort token images (grouping equal images by their ids)
+    final PreprocessingArena arena = context.arena();
     final int[] tokenImagesOrder =
-        IndirectSort.mergesort(
-            tokenImages,
-            0,
-            tokenImages.length,
-            CharArrayComparators.NORMALIZING_CHAR_ARRAY_COMPARATOR);
+        ImageIdSort.order(
+            tokenImageIds,
+            context.internedImages(),
+            CharArrayComparators.NORMALIZING_CHAR_ARRAY_COMPARATOR,
+            arena);
 
     // Create holders for new arrays
-    final List<char[]> normalizedWordImages = new ArrayList<>();
-    final IntArrayList normalizedWordTf = new IntArrayList();
-    final List<int[]> wordTfByDocumentList = new ArrayList<>();
-    final ByteArrayList fieldIndexList = new ByteArrayList();
-    final ShortArrayList types = new ShortArrayList();
+    final List<char[]> normalizedWordImages = arena.list();
+    final IntArrayList normalizedWordTf = arena.intList();
+    final TfByDocument.Builder wordTfByDocument = TfByDocument.builder(arena);
+    final ByteArrayList fieldIndexList = arena.byteList();
+    final ShortArrayList types = arena.shortList();
 
     final int[] wordIndexes = new int[tokenCount];
     Arrays.fill(wordIndexes, -1);
@@ -77,7 +114,7 @@ final class CaseNormalizer {
     final BitSet fieldIndices = new BitSet(context.allFields.name.length);
 
     // A stack for pushing information about the term's documents.
-    final IntStack wordDocuments = new IntStack();
+    final IntStack wordDocuments = arena.intStack();
 
     if (documentIndexesArray[tokenImagesOrder[0]] >= 0) {
       wordDocuments.push(documentIndexesArray[tokenImagesOrder[0]]);
@@ -107,9 +144,9 @@ final class CaseNormalizer {
 
       fieldIndices.set(tokensFieldIndex[tokenImagesOrder[i]]);
 
-      // Now check if image case is changing
+      // Now check if image case is changing (images are interned, equal images have equal ids)
       final boolean sameCase =
-          CharArrayComparators.FAST_CHAR_ARRAY_COMPARATOR.compare(image, nextImage) == 0;
+          tokenImageIds[tokenImagesOrder[i]] == tokenImageIds[tokenImagesOrder[i + 1]];
       if (sameCase) {
         // Case has not changed, just increase counters
         tf++;
@@ -147,7 +184,7 @@ final class CaseNormalizer {
           final int[] sparseEncoding = SparseArray.toSparseEncoding(wordDocuments);
           final int df = (sparseEncoding.length >> 1);
           if (df >= dfThreshold) {
-            wordTfByDocumentList.add(sparseEncoding);
+            wordTfByDocument.add(sparseEncoding);
 
             // Add the word to the word list
             normalizedWordImages.add(tokenImages[maxTfVariantIndex]);
@@ -181,12 +218,242 @@ final class CaseNormalizer {
 
     context.allWords.image = normalizedWordImages.toArray(new char[normalizedWordImages.size()][]);
     context.allWords.tf = normalizedWordTf.toArray();
-    context.allWords.tfByDocument =
-        wordTfByDocumentList.toArray(new int[wordTfByDocumentList.size()][]);
+    context.allWords.tfByDocument = wordTfByDocument.build();
+    context.allWords.fieldIndices = fieldIndexList.toArray();
+    context.allWords.type = types.toArray();
+  }
+
+  private void normalizeByHashing(PreprocessingContext context, int dfThreshold) {
+    // Local references to already existing arrays
+    final char[][] tokenImages = context.allTokens.image;
+    final int[] tokenImageIds = context.allTokens.imageId;
+    final short[] tokenTypesArray = context.allTokens.type;
+    final int[] documentIndexesArray = context.allTokens.documentIndex;
+    final byte[] tokensFieldIndex = context.allTokens.fieldIndex;
+    final int tokenCount = tokenImages.length;
+    final List<char[]> imagesById = context.internedImages();
+    final int imageCount = imagesById.size();
+    final PreprocessingArena arena = context.arena();
+
+    // Aggregate frequencies, first and last positions and fields of each token image.
+    final int[] imageTf = zeroed(arena.intBuffer(imageCount), imageCount);
+    final int[] firstPosition = arena.intBuffer(imageCount);
+    final int[] lastPosition = arena.intBuffer(imageCount);
+    final byte[] imageFields = new byte[imageCount];
+    int indexedCount = 0;
+    for (int i = 0; i < tokenCount; i++) {
+      final int id = tokenImageIds[i];
+      if (id < 0 || isNotIndexed(tokenTypesArray[i])) {
+        continue;
+      }
+
+      if (imageTf[id]++ == 0) {
+        firstPosition[id] = i;
+      }
+      lastPosition[id] = i;
+      // Only the first 8 fields are recorded, as in AllWords#fieldIndices.
+      if (tokensFieldIndex[i] < Byte.SIZE) {
+        imageFields[id] |= (byte) (1 << tokensFieldIndex[i]);
+      }
+      indexedCount++;
+    }
+
+    // Positions of each image's tokens, in the order of tokens. Once filled, the positions of
+    // image id are at indices from positionEnd[id] - imageTf[id] to positionEnd[id] (exclusive).
+    final int[] positionEnd = prefixSums(imageTf, arena.intBuffer(imageCount), imageCount);
+    final int[] positions = arena.intBuffer(indexedCount);
+    for (int i = 0; i < tokenCount; i++) {
+      final int id = tokenImageIds[i];
+      if (id >= 0 && !isNotIndexed(tokenTypesArray[i])) {
+        positions[positionEnd[id]++] = i;
+      }
+    }
+
+    // Group images by their case-folded keys, each group becomes a word.
+    final ObjectIntHashMap<MutableCharArray> groups = new ObjectIntHashMap<>();
+    final IntArrayList groupFirstImage = arena.intList();
+    final int[] imageGroup = arena.intBuffer(imageCount);
+    final MutableCharArray key = new MutableCharArray();
+    char[] buffer = arena.charBuffer(64);
+    for (int id = 0; id < imageCount; id++) {
+      if (imageTf[id] == 0) {
+        continue;
+      }
+
+      final char[] image = imagesById.get(id);
+      if (buffer.length < image.length * 2) buffer = arena.charBuffer(image.length * 2);
+      key.reset(buffer, 0, toCaseFolded(image, buffer));
+
+      final int index = groups.indexOf(key);
+      if (groups.indexExists(index)) {
+        imageGroup[id] = groups.indexGet(index);
+      } else {
+        final char[] keyCopy = Arrays.copyOf(buffer, key.length());
+        imageGroup[id] = groupFirstImage.size();
+        groups.indexInsert(index, new MutableCharArray(keyCopy), imageGroup[id]);
+        groupFirstImage.add(id);
+      }
+    }
+
+    // Images of each group, laid out in the same way as positions of images.
+    final int groupCount = groupFirstImage.size();
+    final int[] groupSize = zeroed(arena.intBuffer(groupCount), groupCount);
+    for (int id = 0; id < imageCount; id++) {
+      if (imageTf[id] > 0) {
+        groupSize[imageGroup[id]]++;
+      }
+    }
+    final int[] variantEnd = prefixSums(groupSize, arena.intBuffer(groupCount), groupCount);
+    final int[] variants = arena.intBuffer(imageCount);
+    for (int id = 0; id < imageCount; id++) {
+      if (imageTf[id] > 0) {
+        variants[variantEnd[imageGroup[id]]++] = id;
+      }
+    }
+
+    // Order words (and case variants within each word) as the sorting mode would.
+    final Comparator<char[]> comparator = CharArrayComparators.NORMALIZING_CHAR_ARRAY_COMPARATOR;
+    final int[] groupOrder =
+        IndirectSort.mergesort(
+            0,
+            groupCount,
+            (a, b) ->
+                comparator.compare(
+                    imagesById.get(groupFirstImage.get(a)),
+                    imagesById.get(groupFirstImage.get(b))));
+
+    // Create holders for new arrays
+    final List<char[]> normalizedWordImages = arena.list();
+    final IntArrayList normalizedWordTf = arena.intList();
+    final TfByDocument.Builder wordTfByDocument = TfByDocument.builder(arena);
+    final ByteArrayList fieldIndexList = arena.byteList();
+    final ShortArrayList types = arena.shortList();
+    final IntStack wordDocuments = arena.intStack();
+
+    final int[] wordIndexes = new int[tokenCount];
+    Arrays.fill(wordIndexes, -1);
+
+    for (int group : groupOrder) {
+      final int from = variantEnd[group] - groupSize[group];
+      final int to = variantEnd[group];
+      sortVariants(variants, from, to, imagesById, comparator);
+
+      // Select the most frequent variant with exactly the same counters as the sorting mode: the
+      // running count of a variant that is not more frequent than the best one so far carries
+      // over to the next variant.
+      int totalTf = 0;
+      byte fieldIndices = 0;
+      int tf = imageTf[variants[from]];
+      int maxTf = 1;
+      int maxTfVariantIndex = firstPosition[variants[from]];
+      for (int v = from; v < to; v++) {
+        final int id = variants[v];
+        totalTf += imageTf[id];
+        fieldIndices |= imageFields[id];
+        if (maxTf < tf) {
+          maxTf = tf;
+          maxTfVariantIndex = lastPosition[id];
+          tf = 0;
+        } else {
+          tf--;
+        }
+        if (v + 1 < to) {
+          tf += imageTf[variants[v + 1]];
+        }
+      }
+
+      // The number of tokens is an upper bound on the number of documents, check it first.
+      if (totalTf < dfThreshold) {
+        continue;
+      }
+
+      wordDocuments.clear();
+      for (int v = from; v < to; v++) {
+        final int id = variants[v];
+        for (int j = positionEnd[id] - imageTf[id]; j < positionEnd[id]; j++) {
+          wordDocuments.push(documentIndexesArray[positions[j]]);
+        }
+      }
+
+      final int[] sparseEncoding = SparseArray.toSparseEncoding(wordDocuments);
+      if ((sparseEncoding.length >> 1) < dfThreshold) {
+        continue;
+      }
+
+      wordTfByDocument.add(sparseEncoding);
+      normalizedWordImages.add(tokenImages[maxTfVariantIndex]);
+      types.add(tokenTypesArray[maxTfVariantIndex]);
+      normalizedWordTf.add(totalTf);
+      fieldIndexList.add(fieldIndices);
+
+      final int wordIndex = normalizedWordImages.size() - 1;
+      for (int v = from; v < to; v++) {
+        final int id = variants[v];
+        for (int j = positionEnd[id] - imageTf[id]; j < positionEnd[id]; j++) {
+          wordIndexes[positions[j]] = wordIndex;
+        }
+      }
+    }
+
+    // Mapping from allTokens
+    context.allTokens.wordIndex = wordIndexes;
+
+    context.allWords.image = normalizedWordImages.toArray(new char[normalizedWordImages.size()][]);
+    context.allWords.tf = normalizedWordTf.toArray();
+    context.allWords.tfByDocument = wordTfByDocument.build();
     context.allWords.fieldIndices = fieldIndexList.toArray();
     context.allWords.type = types.toArray();
   }
 
+  /**
+   * Writes the case-folded image to the buffer (which must be twice as long as the image) and
+   * returns the folded length. Images equal according to {@link
+   * CharArrayComparators#CASE_INSENSITIVE_CHAR_ARRAY_COMPARATOR} have equal folded images.
+   */
+  private static int toCaseFolded(char[] image, char[] buffer) {
+    int length = 0;
+    for (int i = 0; i < image.length; ) {
+      final int codePoint = Character.codePointAt(image, i);
+      length += Character.toChars(Character.toLowerCase(codePoint), buffer, length);
+      i += Character.charCount(codePoint);
+    }
+    return length;
+  }
+
+  /** Sorts a (typically very short) range of image ids using the comparator on their images. */
+  private static void sortVariants(
+      int[] ids, int from, int to, List<char[]> imagesById, Comparator<char[]> comparator) {
+    for (int i = from + 1; i < to; i++) {
+      final int id = ids[i];
+      final char[] image = imagesById.get(id);
+      int j = i - 1;
+      while (j >= from && comparator.compare(imagesById.get(ids[j]), image) > 0) {
+        ids[j + 1] = ids[j];
+        j--;
+      }
+      ids[j + 1] = id;
+    }
+  }
+
+  /** Sets the first <code>length</code> elements of the buffer to zero. */
+  private static int[] zeroed(int[] buffer, int length) {
+    Arrays.fill(buffer, 0, length, 0);
+    return buffer;
+  }
+
+  /**
+   * Stores exclusive prefix sums of the first <code>length</code> counts in the buffer: the start
+   * of each range in an array partitioned by these counts.
+   */
+  private static int[] prefixSums(int[] counts, int[] buffer, int length) {
+    int sum = 0;
+    for (int i = 0; i < length; i++) {
+      buffer[i] = sum;
+      sum += counts[i];
+    }
+    return buffer;
+  }
+
   /** Initializes the counters for the a token image. */
   private void resetForNewTokenImage(
       final int[] documentIndexesArray,
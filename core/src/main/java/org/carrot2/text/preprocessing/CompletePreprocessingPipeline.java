@@ -10,11 +10,15 @@
  */
 package org.carrot2.text.preprocessing;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntUnaryOperator;
 import java.util.stream.Stream;
 import org.carrot2.attrs.AttrComposite;
 import org.carrot2.attrs.AttrInteger;
 import org.carrot2.attrs.AttrObject;
+import org.carrot2.clustering.ClusteringListener;
 import org.carrot2.clustering.Document;
+import org.carrot2.internal.clustering.StageTimer;
 import org.carrot2.language.LanguageComponents;
 
 /**
@@ -58,6 +62,51 @@ public class CompletePreprocessingPipeline extends AttrComposite implements Cont
               .label("Phrase document frequency threshold")
               .defaultValue(1));
 
+  /**
+   * Maximum number of chunks input documents are split into for tokenization. If larger than 1,
+   * contiguous chunks of documents are tokenized as separate tasks on the {@link
+   * ForkJoinPool#commonPool()}, so the actual number of threads is bounded by the common pool's
+   * parallelism. The result is identical to sequential tokenization.
+   */
+  public final AttrInteger tokenizerChunks =
+      attributes.register(
+          "tokenizerChunks",
+          AttrInteger.builder()
+              .min(1)
+              .max(256)
+              .label("Number of document tokenization chunks")
+              .defaultValue(1));
+
+  /**
+   * Maximum number of words in the stem cache shared by all requests for the same language
+   * components. Stemmer results are cached by lowercased word image, so that the same vocabulary is
+   * not stemmed again on every request. The cache is sized by the first request that uses it. Zero
+   * disables the cache.
+   */
+  public final AttrInteger stemCacheSize =
+      attributes.register(
+          "stemCacheSize",
+          AttrInteger.builder()
+              .min(0)
+              .max(10_000_000)
+              .label("Stem cache size")
+              .defaultValue(0));
+
+  /**
+   * Maximum number of cluster label candidates (words and phrases) passed on after label filtering.
+   * If more candidates pass the filters, only those with the highest document frequency, multiplied
+   * by the number of words, are kept. This puts an upper bound on the cost of document assignment
+   * and label scoring for large inputs. Zero means no limit.
+   */
+  public final AttrInteger maxLabelCandidates =
+      attributes.register(
+          "maxLabelCandidates",
+          AttrInteger.builder()
+              .min(0)
+              .max(10_000_000)
+              .label("Maximum number of label candidates")
+              .defaultValue(0));
+
   /** Label filtering is a composite of individual filters. */
   public LabelFilterProcessor labelFilters = new LabelFilterProcessor();
 
@@ -96,14 +145,59 @@ public class CompletePreprocessingPipeline extends AttrComposite implements Cont
 
   public PreprocessingContext preprocess(
       Stream<? extends Document> documents, String query, LanguageComponents langModel) {
+    return preprocess(documents, query, langModel, ClusteringListener.NO_OP);
+  }
+
+  @Override
+  public PreprocessingContext preprocess(
+      Stream<? extends Document> documents,
+      String query,
+      LanguageComponents langModel,
+      ClusteringListener listener) {
+    return preprocess(documents, query, langModel, listener, IntUnaryOperator.identity());
+  }
+
+  /**
+   * Performs preprocessing with an additional limit on the number of label candidates, applied
+   * after label filtering and before {@link DocumentAssigner}. Reductions are reported to {@link
+   * ClusteringListener#stageDegraded}.
+   *
+   * @param labelCandidateLimit Returns the maximum number of label candidates, given the number of
+   *     candidates that passed label filtering.
+   * @since 4.6.0
+   */
+  public PreprocessingContext preprocess(
+      Stream<? extends Document> documents,
+      String query,
+      LanguageComponents langModel,
+      ClusteringListener listener,
+      IntUnaryOperator labelCandidateLimit) {
+    final StageTimer timer = StageTimer.start(listener);
     try (PreprocessingContext context = new PreprocessingContext(langModel)) {
-      tokenizer.tokenize(context, documents);
+      tokenizer.tokenize(context, documents, tokenizerChunks.get());
+      timer.stage(
+          "tokenization",
+          "documents",
+          context.documentCount,
+          "tokens",
+          context.allTokens.image.length);
       caseNormalizer.normalize(context, wordDfThreshold.get());
-      stemming.stem(context, query);
+      timer.stage("caseNormalization", "words", context.allWords.image.length);
+      stemming.stem(context, query, stemCacheSize.get());
+      timer.stage("stemming", "stems", context.allStems.image.length);
       stopListMarker.mark(context);
+      timer.stage("stopWordMarking");
       new PhraseExtractor(phraseDfThreshold.get()).extractPhrases(context);
-      labelFilters.process(context);
+      timer.stage("phraseExtraction", "phrases", context.allPhrases.tf.length);
+      labelFilters.process(context, maxLabelCandidates.get());
+      timer.stage("labelFiltering", "labels", context.allLabels.featureIndex.length);
+      final int labelCandidates =
+          labelCandidateLimit.applyAsInt(context.allLabels.featureIndex.length);
+      if (LabelFilterProcessor.limitLabelCandidates(context, labelCandidates)) {
+        timer.degraded("labelFiltering", "labelCandidates", labelCandidates);
+      }
       documentAssigner.assign(context);
+      timer.stage("labelDocumentAssignment");
       return context;
     }
   }
@@ -11,6 +11,7 @@
 package org.carrot2.text.preprocessing;
 
 import java.util.stream.Stream;
+import org.carrot2.clustering.ClusteringListener;
 import org.carrot2.clustering.Document;
 import org.carrot2.language.LanguageComponents;
 
@@ -18,4 +19,18 @@ import org.carrot2.language.LanguageComponents;
 public interface ContextPreprocessor {
   PreprocessingContext preprocess(
       Stream<? extends Document> documents, String query, LanguageComponents langModel);
+
+  /**
+   * Performs preprocessing, reporting individual preprocessing stages to the provided listener. The
+   * default implementation does not report anything.
+   *
+   * @since 4.6.0
+   */
+  default PreprocessingContext preprocess(
+      Stream<? extends Document> documents,
+      String query,
+      LanguageComponents langModel,
+      ClusteringListener listener) {
+    return preprocess(documents, query, langModel);
+  }
 }
@@ -60,10 +60,10 @@ public class DocumentAssigner extends AttrComposite {
   /** Assigns document to label candidates. */
   void assign(PreprocessingContext context) {
     final int[] labelsFeatureIndex = context.allLabels.featureIndex;
-    final int[][] stemsTfByDocument = context.allStems.tfByDocument;
+    final TfByDocument stemsTfByDocument = context.allStems.tfByDocument;
     final int[] wordsStemIndex = context.allWords.stemIndex;
     final short[] wordsTypes = context.allWords.type;
-    final int[][] phrasesTfByDocument = context.allPhrases.tfByDocument;
+    final TfByDocument phrasesTfByDocument = context.allPhrases.tfByDocument;
     final int[][] phrasesWordIndices = context.allPhrases.wordIndices;
     final int wordCount = wordsStemIndex.length;
     final int documentCount = context.documentCount;
@@ -75,11 +75,11 @@ public class DocumentAssigner extends AttrComposite {
 
       final int featureIndex = labelsFeatureIndex[i];
       if (featureIndex < wordCount) {
-        addTfByDocumentToBitSet(documentIndices, stemsTfByDocument[wordsStemIndex[featureIndex]]);
+        addTfByDocumentToBitSet(documentIndices, stemsTfByDocument, wordsStemIndex[featureIndex]);
       } else {
         final int phraseIndex = featureIndex - wordCount;
         if (exactPhraseAssignment.get()) {
-          addTfByDocumentToBitSet(documentIndices, phrasesTfByDocument[phraseIndex]);
+          addTfByDocumentToBitSet(documentIndices, phrasesTfByDocument, phraseIndex);
         } else {
           final int[] wordIndices = phrasesWordIndices[phraseIndex];
           boolean firstAdded = false;
@@ -89,11 +89,11 @@ public class DocumentAssigner extends AttrComposite {
             if (!TokenTypeUtils.isCommon(wordsTypes[wordIndex])) {
               if (!firstAdded) {
                 addTfByDocumentToBitSet(
-                    documentIndices, stemsTfByDocument[wordsStemIndex[wordIndex]]);
+                    documentIndices, stemsTfByDocument, wordsStemIndex[wordIndex]);
                 firstAdded = true;
               } else {
                 final BitSet temp = new BitSet(documentCount);
-                addTfByDocumentToBitSet(temp, stemsTfByDocument[wordsStemIndex[wordIndex]]);
+                addTfByDocumentToBitSet(temp, stemsTfByDocument, wordsStemIndex[wordIndex]);
                 documentIndices.and(temp);
               }
             }
@@ -125,9 +125,9 @@ public class DocumentAssigner extends AttrComposite {
   }
 
   private static void addTfByDocumentToBitSet(
-      final BitSet documentIndices, final int[] tfByDocument) {
-    for (int j = 0; j < tfByDocument.length / 2; j++) {
-      documentIndices.set(tfByDocument[j * 2]);
+      final BitSet documentIndices, final TfByDocument tfByDocument, final int index) {
+    for (int j = tfByDocument.start(index), max = tfByDocument.end(index); j < max; j += 2) {
+      documentIndices.set(tfByDocument.document(j));
     }
   }
 }
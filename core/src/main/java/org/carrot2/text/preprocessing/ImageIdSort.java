@@ -0,0 +1,75 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.text.preprocessing;
+
+import com.carrotsearch.hppc.sorting.IndirectSort;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Orders positions holding dictionary-encoded images (see {@link
+ * PreprocessingContext#internId(org.carrot2.util.MutableCharArray)}). Only the distinct images are
+ * compared, positions are then grouped by image id using a counting sort.
+ *
+ * <p>The result is identical to a stable comparison sort of the positions' images, provided the
+ * comparator returns 0 only for equal images and orders <code>null</code> images last.
+ */
+final class ImageIdSort {
+  private ImageIdSort() {}
+
+  /**
+   * Returns the order of positions in <code>ids</code>. Negative ids stand for <code>null</code>
+   * images, these positions come last.
+   */
+  static int[] order(
+      int[] ids, List<char[]> imagesById, Comparator<char[]> comparator, PreprocessingArena arena) {
+    final int nullBucket = imagesById.size();
+    final int[] counts = arena.intBuffer(nullBucket + 1);
+    Arrays.fill(counts, 0, nullBucket + 1, 0);
+    for (int id : ids) {
+      counts[id < 0 ? nullBucket : id]++;
+    }
+
+    int distinctCount = 0;
+    final int[] distinct = arena.intBuffer(nullBucket);
+    for (int id = 0; id < nullBucket; id++) {
+      if (counts[id] > 0) {
+        distinct[distinctCount++] = id;
+      }
+    }
+
+    final int[] distinctOrder =
+        IndirectSort.mergesort(
+            0,
+            distinctCount,
+            (a, b) ->
+                comparator.compare(imagesById.get(distinct[a]), imagesById.get(distinct[b])));
+
+    // Turn counts into start positions of each bucket, in the order of images.
+    final int[] starts = counts;
+    int position = 0;
+    for (int k : distinctOrder) {
+      final int id = distinct[k];
+      final int count = counts[id];
+      starts[id] = position;
+      position += count;
+    }
+    starts[nullBucket] = position;
+
+    final int[] order = new int[ids.length];
+    for (int i = 0; i < ids.length; i++) {
+      final int id = ids[i];
+      order[starts[id < 0 ? nullBucket : id]++] = i;
+    }
+    return order;
+  }
+}
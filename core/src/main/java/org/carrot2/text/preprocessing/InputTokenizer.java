@@ -12,12 +12,16 @@ package org.carrot2.text.preprocessing;
 
 import com.carrotsearch.hppc.ByteArrayList;
 import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.ObjectIntHashMap;
 import com.carrotsearch.hppc.ShortArrayList;
 import com.carrotsearch.hppc.cursors.IntCursor;
 import java.io.IOException;
-import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.carrot2.clustering.Document;
 import org.carrot2.language.Tokenizer;
@@ -25,7 +29,6 @@ import org.carrot2.text.preprocessing.PreprocessingContext.AllFields;
 import org.carrot2.text.preprocessing.PreprocessingContext.AllTokens;
 import org.carrot2.util.CharArrayUtils;
 import org.carrot2.util.MutableCharArray;
-import org.carrot2.util.StringUtils;
 
 /**
  * Performs tokenization of documents.
@@ -34,138 +37,297 @@ import org.carrot2.util.StringUtils;
  *
  * <ul>
  *   <li>{@link AllTokens#image}
+ *   <li>{@link AllTokens#imageId}
  *   <li>{@link AllTokens#documentIndex}
  *   <li>{@link AllTokens#fieldIndex}
  *   <li>{@link AllTokens#type}
  * </ul>
+ *
+ * <p>Documents can be split into chunks tokenized concurrently (see {@link
+ * #tokenize(PreprocessingContext, Stream, int)}), in which case each chunk uses its own {@link
+ * Tokenizer} instance and a local token interning table. The results are identical to sequential
+ * tokenization.
  */
 final class InputTokenizer {
-  /** Token images. */
-  private ArrayList<char[]> images;
-
-  /** An array of token types. */
-  private ShortArrayList tokenTypes;
-
-  /** An array of document indexes. */
-  private IntArrayList documentIndices;
+  /** Performs tokenization and saves the results to the <code>context</code>. */
+  public void tokenize(PreprocessingContext context, Stream<? extends Document> docStream) {
+    tokenize(context, docStream, 1);
+  }
 
   /**
-   * An array of field indexes.
-   *
-   * @see AllFields
+   * Performs tokenization and saves the results to the <code>context</code>. If <code>chunks
+   * </code> is larger than 1, documents are split into (at most) that many contiguous chunks,
+   * submitted as tasks to the {@link ForkJoinPool#commonPool()} and then concatenated in document
+   * order. The actual parallelism is bounded by the common pool's parallelism.
    */
-  private ByteArrayList fieldIndices;
-
-  private static class FieldValue {
-    String field;
-    String value;
-
-    public FieldValue(String fieldName, String fieldValue) {
-      this.field = fieldName;
-      this.value = fieldValue;
+  public void tokenize(
+      PreprocessingContext context, Stream<? extends Document> docStream, int chunks) {
+    if (chunks > 1) {
+      tokenizeInChunks(context, docStream, chunks);
+    } else {
+      tokenizeSequentially(context, docStream);
     }
   }
 
-  /** Performs tokenization and saves the results to the <code>context</code>. */
-  public void tokenize(PreprocessingContext context, Stream<? extends Document> docStream) {
-    images = new ArrayList<>();
-    tokenTypes = new ShortArrayList();
-    documentIndices = new IntArrayList();
-    fieldIndices = new ByteArrayList();
+  private void tokenizeSequentially(
+      PreprocessingContext context, Stream<? extends Document> docStream) {
+    final PreprocessingArena arena = context.arena();
+    final TokenSequence tokens =
+        new TokenSequence(arena.intList(), arena.shortList(), arena.intList(), arena.byteList()) {
+          @Override
+          int intern(MutableCharArray image) {
+            return context.internId(image);
+          }
+        };
 
     final Tokenizer ts = context.languageComponents.get(Tokenizer.class);
+    IntCursor docCount = new IntCursor();
+    docStream.forEachOrdered((doc) -> tokens.addDocument(ts, doc, docCount.value++));
+    tokens.add(-1, (byte) -1, -1, Tokenizer.TF_TERMINATOR);
+
+    // Save results in the PreprocessingContext
+    context.documentCount = docCount.value;
+    context.allTokens.documentIndex = tokens.documentIndices.toArray();
+    context.allTokens.fieldIndex = tokens.fieldIndices.toArray();
+    saveImages(context, tokens.imageIds.toArray());
+    context.allTokens.type = tokens.tokenTypes.toArray();
+    context.allFields.name = tokens.fieldNames.toArray(new String[0]);
+  }
+
+  private void tokenizeInChunks(
+      PreprocessingContext context, Stream<? extends Document> docStream, int chunks) {
+    final List<? extends Document> documents = docStream.collect(Collectors.toList());
+    final int chunkCount = Math.max(1, Math.min(chunks, documents.size()));
+    final int chunkSize = (documents.size() + chunkCount - 1) / chunkCount;
+
+    final ForkJoinPool pool = ForkJoinPool.commonPool();
+    final ArrayList<ForkJoinTask<DocumentChunk>> tasks = new ArrayList<>();
+    for (int from = 0; from < documents.size(); from += chunkSize) {
+      final DocumentChunk chunk =
+          new DocumentChunk(documents, from, Math.min(documents.size(), from + chunkSize));
+      tasks.add(pool.submit(() -> chunk.tokenize(context.languageComponents.get(Tokenizer.class))));
+    }
+
+    // Concatenate the results, remapping chunk-local field indexes and token images.
+    int tokenCount = 1;
+    final ArrayList<DocumentChunk> tokenized = new ArrayList<>(tasks.size());
+    for (ForkJoinTask<DocumentChunk> task : tasks) {
+      final DocumentChunk chunk = task.join();
+      tokenized.add(chunk);
+      tokenCount += chunk.tokenTypes.size();
+    }
+
+    final int[] documentIndex = new int[tokenCount];
+    final byte[] fieldIndex = new byte[tokenCount];
+    final int[] imageId = new int[tokenCount];
+    final short[] type = new short[tokenCount];
+
+    final HashMap<String, Integer> fieldIndexes = new HashMap<>();
     final MutableCharArray wrapper = new MutableCharArray(CharArrayUtils.EMPTY_ARRAY);
+    int offset = 0;
+    for (DocumentChunk chunk : tokenized) {
+      final byte[] fieldRemap = new byte[chunk.fieldNames.size()];
+      for (int i = 0; i < fieldRemap.length; i++) {
+        final int globalIndex =
+            fieldIndexes.computeIfAbsent(chunk.fieldNames.get(i), (k) -> fieldIndexes.size());
+        if (globalIndex > Byte.MAX_VALUE) {
+          throw new RuntimeException("Too many fields (>" + globalIndex + ")");
+        }
+        fieldRemap[i] = (byte) globalIndex;
+      }
 
-    HashMap<String, Integer> fieldIndexes = new HashMap<>();
-    ArrayList<FieldValue> fields = new ArrayList<>();
+      final int[] imageRemap = new int[chunk.images.size()];
+      for (int i = 0; i < imageRemap.length; i++) {
+        wrapper.reset(chunk.images.get(i));
+        imageRemap[i] = context.internId(wrapper);
+      }
 
-    IntCursor docCount = new IntCursor();
-    docStream.forEachOrdered(
-        (doc) -> {
-          int documentIndex = docCount.value;
-          if (documentIndex > 0) {
-            addDocumentSeparator();
-          }
+      final int size = chunk.tokenTypes.size();
+      System.arraycopy(chunk.documentIndices.buffer, 0, documentIndex, offset, size);
+      System.arraycopy(chunk.tokenTypes.buffer, 0, type, offset, size);
+      final byte[] localFieldIndex = chunk.fieldIndices.buffer;
+      final int[] localImage = chunk.imageIds.buffer;
+      for (int i = 0; i < size; i++) {
+        fieldIndex[offset + i] = localFieldIndex[i] < 0 ? -1 : fieldRemap[localFieldIndex[i]];
+        imageId[offset + i] = localImage[i] < 0 ? -1 : imageRemap[localImage[i]];
+      }
+      offset += size;
+    }
+
+    // The terminator.
+    documentIndex[offset] = -1;
+    fieldIndex[offset] = -1;
+    imageId[offset] = -1;
+    type[offset] = Tokenizer.TF_TERMINATOR;
+
+    String[] fieldNames = new String[fieldIndexes.size()];
+    fieldIndexes.forEach((field, index) -> fieldNames[index] = field);
+
+    context.documentCount = documents.size();
+    context.allTokens.documentIndex = documentIndex;
+    context.allTokens.fieldIndex = fieldIndex;
+    saveImages(context, imageId);
+    context.allTokens.type = type;
+    context.allFields.name = fieldNames;
+  }
 
-          fields.clear();
-          doc.visitFields(
-              (fieldName, fieldValue) -> {
-                if (!StringUtils.isNullOrEmpty(fieldValue)) {
-                  fields.add(new FieldValue(fieldName, fieldValue));
-                }
-              });
+  /**
+   * Tokens of a sequence of documents. Field indexes are local to the sequence, token image ids are
+   * assigned by {@link #intern(MutableCharArray)}.
+   */
+  private abstract static class TokenSequence {
+    /** Token image ids, see {@link #intern(MutableCharArray)}. */
+    final IntArrayList imageIds;
+
+    /** An array of token types. */
+    final ShortArrayList tokenTypes;
+
+    /** An array of document indexes. */
+    final IntArrayList documentIndices;
+
+    /**
+     * An array of field indexes.
+     *
+     * @see AllFields
+     */
+    final ByteArrayList fieldIndices;
+
+    /** Field names, in the order of their first appearance. */
+    final ArrayList<String> fieldNames = new ArrayList<>();
+
+    private final HashMap<String, Integer> fieldIndexes = new HashMap<>();
+    private final MutableCharArray wrapper = new MutableCharArray(CharArrayUtils.EMPTY_ARRAY);
+    private boolean hadTokens;
+
+    TokenSequence(
+        IntArrayList imageIds,
+        ShortArrayList tokenTypes,
+        IntArrayList documentIndices,
+        ByteArrayList fieldIndices) {
+      this.imageIds = imageIds;
+      this.tokenTypes = tokenTypes;
+      this.documentIndices = documentIndices;
+      this.fieldIndices = fieldIndices;
+    }
+
+    /** Returns the id of the given token image, which may be reused once this method returns. */
+    abstract int intern(MutableCharArray image);
+
+    /** Adds the tokens of all fields of a document, preceded by a document separator. */
+    final void addDocument(Tokenizer ts, Document doc, int documentIndex) {
+      if (documentIndex > 0) {
+        add(-1, (byte) -1, -1, Tokenizer.TF_SEPARATOR_DOCUMENT);
+      }
+
+      // Tokenize field values as they are visited, they may be views of the document's buffers.
+      hadTokens = false;
+      doc.visitFieldSequences(
+          (fieldName, fieldValue) -> {
+            if (isNullOrEmpty(fieldValue)) {
+              return;
+            }
 
-          boolean hadTokens = false;
-          for (FieldValue fv : fields) {
             final int fieldIndex =
-                fieldIndexes.computeIfAbsent(fv.field, (k) -> fieldIndexes.size());
+                fieldIndexes.computeIfAbsent(
+                    fieldName,
+                    (k) -> {
+                      fieldNames.add(k);
+                      return fieldIndexes.size();
+                    });
             if (fieldIndex > Byte.MAX_VALUE) {
               throw new RuntimeException("Too many fields (>" + fieldIndex + ")");
             }
-            final String fieldValue = fv.value;
-
-            if (!StringUtils.isNullOrEmpty(fieldValue)) {
-              try {
-                short tokenType;
-
-                ts.reset(new StringReader(fieldValue));
-                if ((tokenType = ts.nextToken()) != Tokenizer.TT_EOF) {
-                  if (hadTokens) addFieldSeparator(documentIndex);
-                  do {
-                    ts.setTermBuffer(wrapper);
-                    add(documentIndex, (byte) fieldIndex, context.intern(wrapper), tokenType);
-                  } while ((tokenType = ts.nextToken()) != Tokenizer.TT_EOF);
-                  hadTokens = true;
-                }
-              } catch (IOException e) {
-                throw new RuntimeException(e);
+
+            try {
+              short tokenType;
+
+              ts.reset(fieldValue);
+              if ((tokenType = ts.nextToken()) != Tokenizer.TT_EOF) {
+                if (hadTokens) add(documentIndex, (byte) -1, -1, Tokenizer.TF_SEPARATOR_FIELD);
+                do {
+                  ts.setTermBuffer(wrapper);
+                  add(documentIndex, (byte) fieldIndex, intern(wrapper), tokenType);
+                } while ((tokenType = ts.nextToken()) != Tokenizer.TT_EOF);
+                hadTokens = true;
               }
+            } catch (IOException e) {
+              throw new RuntimeException(e);
             }
-          }
+          });
+    }
 
-          docCount.value++;
-        });
+    /**
+     * Adds custom token code to the sequence. May be used to add separator constants (with image id
+     * equal to <code>-1</code>).
+     */
+    final void add(int documentIndex, byte fieldIndex, int imageId, short tokenTypeCode) {
+      documentIndices.add(documentIndex);
+      fieldIndices.add(fieldIndex);
+      imageIds.add(imageId);
+      tokenTypes.add(tokenTypeCode);
+    }
+  }
 
-    addTerminator();
+  /**
+   * Tokens of a contiguous range of documents. Field indexes and token images are local to the
+   * chunk and are remapped once all chunks are tokenized.
+   */
+  private static final class DocumentChunk extends TokenSequence {
+    private final List<? extends Document> documents;
+    private final int from;
+    private final int to;
 
-    String[] fieldNames = new String[fieldIndexes.size()];
-    fieldIndexes.forEach((field, index) -> fieldNames[index] = field);
+    /** Local token interning table, maps token images to indexes in {@link #images}. */
+    private final ObjectIntHashMap<MutableCharArray> internTable = new ObjectIntHashMap<>();
 
-    // Save results in the PreprocessingContext
-    context.documentCount = docCount.value;
-    context.allTokens.documentIndex = documentIndices.toArray();
-    context.allTokens.fieldIndex = fieldIndices.toArray();
-    context.allTokens.image = images.toArray(new char[images.size()][]);
-    context.allTokens.type = tokenTypes.toArray();
-    context.allFields.name = fieldNames;
+    /** Unique token images of this chunk. */
+    final ArrayList<char[]> images = new ArrayList<>();
 
-    // Clean up
-    images = null;
-    fieldIndices = null;
-    tokenTypes = null;
-    documentIndices = null;
-  }
+    DocumentChunk(List<? extends Document> documents, int from, int to) {
+      super(new IntArrayList(), new ShortArrayList(), new IntArrayList(), new ByteArrayList());
+      this.documents = documents;
+      this.from = from;
+      this.to = to;
+    }
 
-  /** Adds a special terminating token required at the very end of all documents. */
-  void addTerminator() {
-    add(-1, (byte) -1, null, Tokenizer.TF_TERMINATOR);
-  }
+    DocumentChunk tokenize(Tokenizer ts) {
+      for (int documentIndex = from; documentIndex < to; documentIndex++) {
+        addDocument(ts, documents.get(documentIndex), documentIndex);
+      }
+      return this;
+    }
 
-  /** Adds a document separator to the lists. */
-  void addDocumentSeparator() {
-    add(-1, (byte) -1, null, Tokenizer.TF_SEPARATOR_DOCUMENT);
+    @Override
+    int intern(MutableCharArray chs) {
+      int index = internTable.indexOf(chs);
+      if (internTable.indexExists(index)) {
+        return internTable.indexGet(index);
+      } else {
+        final char[] tokenImage = new char[chs.length()];
+        System.arraycopy(chs.getBuffer(), chs.getStart(), tokenImage, 0, chs.length());
+        final int imageIndex = images.size();
+        images.add(tokenImage);
+        internTable.indexInsert(index, new MutableCharArray(tokenImage), imageIndex);
+        return imageIndex;
+      }
+    }
   }
 
-  /** Adds a field separator to the lists. */
-  void addFieldSeparator(int documentIndex) {
-    add(documentIndex, (byte) -1, null, Tokenizer.TF_SEPARATOR_FIELD);
+  /** Saves token image ids and the interned token images they resolve to. */
+  private static void saveImages(PreprocessingContext context, int[] imageId) {
+    final List<char[]> imagesById = context.internedImages();
+    final char[][] image = new char[imageId.length][];
+    for (int i = 0; i < imageId.length; i++) {
+      if (imageId[i] >= 0) {
+        image[i] = imagesById.get(imageId[i]);
+      }
+    }
+
+    context.allTokens.image = image;
+    context.allTokens.imageId = imageId;
   }
 
-  /** Adds custom token code to the sequence. May be used to add separator constants. */
-  void add(int documentIndex, byte fieldIndex, char[] image, short tokenTypeCode) {
-    documentIndices.add(documentIndex);
-    fieldIndices.add(fieldIndex);
-    images.add(image);
-    tokenTypes.add(tokenTypeCode);
+  private static boolean isNullOrEmpty(CharSequence fieldValue) {
+    return fieldValue == null || fieldValue.length() == 0;
   }
 }
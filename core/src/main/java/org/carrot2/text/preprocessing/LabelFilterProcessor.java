@@ -10,8 +10,10 @@
  */
 package org.carrot2.text.preprocessing;
 
+import com.carrotsearch.hppc.BitSet;
 import com.carrotsearch.hppc.IntArrayList;
 import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
 import java.util.stream.Stream;
 import org.carrot2.attrs.AttrComposite;
 import org.carrot2.attrs.AttrObject;
@@ -137,6 +139,17 @@ public class LabelFilterProcessor extends AttrComposite {
 
   /** Processes all filters declared as fields of this class. */
   public void process(PreprocessingContext context) {
+    process(context, 0);
+  }
+
+  /**
+   * Processes all filters declared as fields of this class, then keeps at most <code>
+   * maxLabelCandidates</code> of the accepted words and phrases, with the highest pre-scores (see
+   * {@link #selectTopCandidates}).
+   *
+   * @param maxLabelCandidates the maximum number of label candidates, zero for no limit
+   */
+  public void process(PreprocessingContext context, int maxLabelCandidates) {
     final int wordCount = context.allWords.image.length;
     final boolean[] acceptedStems = new boolean[context.allStems.image.length];
     final boolean[] acceptedPhrases = new boolean[context.allPhrases.tf.length];
@@ -174,10 +187,127 @@ public class LabelFilterProcessor extends AttrComposite {
       }
     }
 
-    context.allLabels.featureIndex = acceptedFeatures.toArray();
+    int[] featureIndex = acceptedFeatures.toArray();
+    if (maxLabelCandidates > 0 && featureIndex.length > maxLabelCandidates) {
+      final int[] selected = selectTopCandidates(context, featureIndex, maxLabelCandidates);
+      for (int i = 0; i < selected.length; i++) {
+        selected[i] = featureIndex[selected[i]];
+      }
+      featureIndex = selected;
+    }
+
+    context.allLabels.featureIndex = featureIndex;
     updateFirstPhraseIndex(context);
   }
 
+  /**
+   * Keeps at most <code>maxLabelCandidates</code> labels in {@link AllLabels}, selected like in
+   * {@link #process(PreprocessingContext, int)}. Can be invoked after {@link DocumentAssigner}, the
+   * document indices of the remaining labels are kept.
+   *
+   * @return <code>true</code> if any labels were removed
+   * @since 4.6.0
+   */
+  public static boolean limitLabelCandidates(PreprocessingContext context, int maxLabelCandidates) {
+    final AllLabels allLabels = context.allLabels;
+    final int[] featureIndex = allLabels.featureIndex;
+    if (featureIndex.length <= maxLabelCandidates) {
+      return false;
+    }
+
+    final int[] selected = selectTopCandidates(context, featureIndex, maxLabelCandidates);
+    final int[] newFeatureIndex = new int[selected.length];
+    for (int i = 0; i < selected.length; i++) {
+      newFeatureIndex[i] = featureIndex[selected[i]];
+    }
+    if (allLabels.documentIndices != null) {
+      final BitSet[] newDocumentIndices = new BitSet[selected.length];
+      for (int i = 0; i < selected.length; i++) {
+        newDocumentIndices[i] = allLabels.documentIndices[selected[i]];
+      }
+      allLabels.documentIndices = newDocumentIndices;
+    }
+    allLabels.featureIndex = newFeatureIndex;
+    updateFirstPhraseIndex(context);
+    return true;
+  }
+
+  /**
+   * Returns the positions of <code>max</code> features with the highest pre-scores, in their
+   * original order. The pre-score of a word or phrase is its document frequency multiplied by the
+   * number of words, so that phrases can compete with the (always more frequent) words they consist
+   * of. Ties are broken by the term frequency, then by the original order. The best features are
+   * selected with a bounded heap, in <code>O(n log max)</code> time.
+   */
+  static int[] selectTopCandidates(PreprocessingContext context, int[] featureIndex, int max) {
+    final int wordCount = context.allWords.image.length;
+    final int[] wordsStemIndex = context.allWords.stemIndex;
+    final long[] scores = new long[featureIndex.length];
+    final int[] tfs = new int[featureIndex.length];
+    for (int i = 0; i < featureIndex.length; i++) {
+      final int feature = featureIndex[i];
+      if (feature < wordCount) {
+        final int stemIndex = wordsStemIndex[feature];
+        scores[i] = context.allStems.tfByDocument.df(stemIndex);
+        tfs[i] = context.allStems.tf[stemIndex];
+      } else {
+        final int phraseIndex = feature - wordCount;
+        scores[i] =
+            (long) context.allPhrases.tfByDocument.df(phraseIndex)
+                * context.allPhrases.wordIndices[phraseIndex].length;
+        tfs[i] = context.allPhrases.tf[phraseIndex];
+      }
+    }
+
+    // Positive if candidate a is worse than candidate b.
+    final IntBinaryOperator worse =
+        (a, b) -> {
+          int result = Long.compare(scores[b], scores[a]);
+          if (result == 0) {
+            result = Integer.compare(tfs[b], tfs[a]);
+          }
+          if (result == 0) {
+            result = Integer.compare(a, b);
+          }
+          return result;
+        };
+
+    // A heap of the best candidates so far, with the worst of them on top.
+    final int[] heap = new int[max];
+    int size = 0;
+    for (int candidate = 0; candidate < featureIndex.length; candidate++) {
+      if (size < max) {
+        int index = size++;
+        while (index > 0 && worse.applyAsInt(candidate, heap[(index - 1) / 2]) > 0) {
+          heap[index] = heap[(index - 1) / 2];
+          index = (index - 1) / 2;
+        }
+        heap[index] = candidate;
+      } else if (worse.applyAsInt(heap[0], candidate) > 0) {
+        int index = 0;
+        while (true) {
+          int child = 2 * index + 1;
+          if (child >= size) {
+            break;
+          }
+          if (child + 1 < size && worse.applyAsInt(heap[child + 1], heap[child]) > 0) {
+            child++;
+          }
+          if (worse.applyAsInt(candidate, heap[child]) >= 0) {
+            break;
+          }
+          heap[index] = heap[child];
+          index = child;
+        }
+        heap[index] = candidate;
+      }
+    }
+
+    // Restore the original order of the selected features.
+    Arrays.sort(heap, 0, size);
+    return size == heap.length ? heap : Arrays.copyOf(heap, size);
+  }
+
   static void updateFirstPhraseIndex(PreprocessingContext context) {
     final int wordCount = context.allWords.image.length;
     final int[] labelsFeatureIndex = context.allLabels.featureIndex;
@@ -12,11 +12,13 @@ package org.carrot2.text.preprocessing;
 
 import com.carrotsearch.hppc.ByteArrayList;
 import com.carrotsearch.hppc.IntArrayList;
-import com.carrotsearch.hppc.sorting.IndirectSort;
+import com.carrotsearch.hppc.IntIntHashMap;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Locale;
 import java.util.Set;
+import org.carrot2.language.LanguageComponents;
+import org.carrot2.language.StemCache;
 import org.carrot2.language.Stemmer;
 import org.carrot2.language.Tokenizer;
 import org.carrot2.text.preprocessing.PreprocessingContext.AllStems;
@@ -44,49 +46,74 @@ import org.carrot2.util.MutableCharArray;
 final class LanguageModelStemmer {
   /** Performs stemming and saves the results to the <code>context</code>. */
   public void stem(PreprocessingContext context, String queryHint) {
+    stem(context, queryHint, 0);
+  }
+
+  /**
+   * Performs stemming and saves the results to the <code>context</code>. If <code>stemCacheSize
+   * </code> is positive, stems are looked up in (and added to) the {@link StemCache} shared by all
+   * users of the context's {@link LanguageComponents}, created with that size if it does not exist
+   * yet.
+   */
+  public void stem(PreprocessingContext context, String queryHint, int stemCacheSize) {
     final Stemmer stemmer = context.languageComponents.get(Stemmer.class);
+    final StemCache stemCache =
+        stemCacheSize > 0 ? context.languageComponents.stemCache(stemCacheSize) : null;
 
     final char[][] wordImages = context.allWords.image;
     final char[][] stemImages = new char[wordImages.length][];
+    final int[] stemIds = new int[wordImages.length];
 
+    final PreprocessingArena arena = context.arena();
     final MutableCharArray mutableCharArray = new MutableCharArray(CharArrayUtils.EMPTY_ARRAY);
-    char[] buffer = new char[128];
+    char[] buffer = arena.charBuffer(128);
 
     for (int i = 0; i < wordImages.length; i++) {
       final char[] word = wordImages[i];
-      if (buffer.length < word.length) buffer = new char[word.length];
+      if (buffer.length < word.length) buffer = arena.charBuffer(word.length);
 
-      final boolean different = CharArrayUtils.toLowerCase(word, buffer);
+      CharArrayUtils.toLowerCase(word, buffer);
 
       mutableCharArray.reset(buffer, 0, word.length);
-      final CharSequence stemmed = stemmer.stem(mutableCharArray);
-      if (stemmed != null) {
-        mutableCharArray.reset(stemmed);
-        stemImages[i] = context.intern(mutableCharArray);
+      if (stemCache != null) {
+        // Cached stems are read-only, the wrapper is reset to the buffer on the next iteration.
+        final char[] stem = stemCache.stem(stemmer, mutableCharArray);
+        if (stem != null) {
+          mutableCharArray.reset(stem);
+        }
       } else {
-        // We need to put the original word here, otherwise, we wouldn't be able
-        // to compute frequencies for stems.
-        if (different) stemImages[i] = context.intern(mutableCharArray);
-        else stemImages[i] = word;
+        final CharSequence stem = stemmer.stem(mutableCharArray);
+        if (stem != null) {
+          mutableCharArray.reset(stem);
+        }
       }
+
+      // If not stemmed, we need to put the (lower case) original word here, otherwise, we
+      // wouldn't be able to compute frequencies for stems. Words already in lower case are
+      // interned token images, so interning returns the word itself.
+      stemIds[i] = context.internId(mutableCharArray);
+      stemImages[i] = context.internedImages().get(stemIds[i]);
     }
 
-    addStemStatistics(context, stemImages, prepareQueryWords(queryHint, stemmer));
+    addStemStatistics(context, stemImages, stemIds, prepareQueryWords(queryHint, stemmer));
   }
 
   /** Adds frequency statistics to the stems. */
   private void addStemStatistics(
-      PreprocessingContext context, char[][] wordStemImages, Set<MutableCharArray> queryStems) {
+      PreprocessingContext context,
+      char[][] wordStemImages,
+      int[] wordStemIds,
+      Set<MutableCharArray> queryStems) {
     final int[] stemImagesOrder =
-        IndirectSort.mergesort(
-            wordStemImages,
-            0,
-            wordStemImages.length,
-            CharArrayComparators.FAST_CHAR_ARRAY_COMPARATOR);
+        ImageIdSort.order(
+            wordStemIds,
+            context.internedImages(),
+            CharArrayComparators.FAST_CHAR_ARRAY_COMPARATOR,
+            context.arena());
 
     // Local array references
     final int[] wordTfArray = context.allWords.tf;
-    final int[][] wordTfByDocumentArray = context.allWords.tfByDocument;
+    final TfByDocument wordTfByDocument = context.allWords.tfByDocument;
     final byte[] wordsFieldIndices = context.allWords.fieldIndices;
     final short[] wordsType = context.allWords.type;
 
@@ -99,7 +126,7 @@ final class LanguageModelStemmer {
       context.allStems.image = new char[0][];
       context.allStems.mostFrequentOriginalWordIndex = new int[0];
       context.allStems.tf = new int[0];
-      context.allStems.tfByDocument = new int[0][];
+      context.allStems.tfByDocument = TfByDocument.EMPTY;
       context.allStems.fieldIndices = new byte[0];
 
       context.allWords.stemIndex = new int[context.allWords.image.length];
@@ -107,11 +134,15 @@ final class LanguageModelStemmer {
     }
 
     // Lists to accommodate the results
-    final ArrayList<char[]> stemImages = new ArrayList<>(allWordsCount);
-    final IntArrayList stemTf = new IntArrayList(allWordsCount);
-    final IntArrayList stemMostFrequentWordIndexes = new IntArrayList(allWordsCount);
-    final ArrayList<int[]> stemTfByDocumentList = new ArrayList<>(allWordsCount);
-    final ByteArrayList fieldIndexList = new ByteArrayList();
+    final PreprocessingArena arena = context.arena();
+    final ArrayList<char[]> stemImages = arena.list();
+    final IntArrayList stemTf = arena.intList();
+    final IntArrayList stemMostFrequentWordIndexes = arena.intList();
+    final TfByDocument.Builder stemTfByDocument = TfByDocument.builder(arena);
+    final ByteArrayList fieldIndexList = arena.byteList();
+    stemImages.ensureCapacity(allWordsCount);
+    stemTf.ensureCapacity(allWordsCount);
+    stemMostFrequentWordIndexes.ensureCapacity(allWordsCount);
 
     // Counters
     int totalTf = wordTfArray[stemImagesOrder[0]];
@@ -119,10 +150,10 @@ final class LanguageModelStemmer {
     int mostFrequentWordIndex = stemImagesOrder[0];
     int stemIndex = 0;
 
-    // A list of document-term-frequency pairs, by document, for all words with identical stems.
-    final ArrayList<int[]> stemTfsByDocument = new ArrayList<>();
+    // Indices of all words with identical stems, their document-term-frequency pairs are merged.
+    final IntArrayList stemWords = arena.intList();
 
-    stemTfsByDocument.add(wordTfByDocumentArray[stemImagesOrder[0]]);
+    stemWords.add(stemImagesOrder[0]);
     byte fieldIndices = 0;
     fieldIndices |= wordsFieldIndices[0];
 
@@ -135,20 +166,18 @@ final class LanguageModelStemmer {
       final int orderIndex = stemImagesOrder[i];
       final char[] stem = wordStemImages[orderIndex];
       final int nextInOrderIndex = stemImagesOrder[i + 1];
-      final char[] nextStem = wordStemImages[nextInOrderIndex];
 
       stemIndexesArray[orderIndex] = stemIndex;
       if (inQuery) {
         wordsType[orderIndex] |= Tokenizer.TF_QUERY_WORD;
       }
 
-      // Now check if token image is changing
-      final boolean sameStem =
-          CharArrayComparators.FAST_CHAR_ARRAY_COMPARATOR.compare(stem, nextStem) == 0;
+      // Now check if token image is changing (stems are interned, equal stems have equal ids)
+      final boolean sameStem = wordStemIds[orderIndex] == wordStemIds[nextInOrderIndex];
 
       if (sameStem) {
         totalTf += wordTfArray[nextInOrderIndex];
-        stemTfsByDocument.add(wordTfByDocumentArray[nextInOrderIndex]);
+        stemWords.add(nextInOrderIndex);
         fieldIndices |= wordsFieldIndices[nextInOrderIndex];
         if (mostFrequentWordFrequency < wordTfArray[nextInOrderIndex]) {
           mostFrequentWordFrequency = wordTfArray[nextInOrderIndex];
@@ -158,7 +187,7 @@ final class LanguageModelStemmer {
         stemImages.add(stem);
         stemTf.add(totalTf);
         stemMostFrequentWordIndexes.add(mostFrequentWordIndex);
-        storeTfByDocument(stemTfByDocumentList, stemTfsByDocument);
+        storeTfByDocument(stemTfByDocument, wordTfByDocument, stemWords);
         fieldIndexList.add(fieldIndices);
 
         stemIndex++;
@@ -168,8 +197,8 @@ final class LanguageModelStemmer {
         fieldIndices = 0;
         fieldIndices |= wordsFieldIndices[nextInOrderIndex];
 
-        stemTfsByDocument.clear();
-        stemTfsByDocument.add(wordTfByDocumentArray[nextInOrderIndex]);
+        stemWords.clear();
+        stemWords.add(nextInOrderIndex);
 
         buffer.reset(wordStemImages[nextInOrderIndex]);
         inQuery = queryStems.contains(buffer);
@@ -181,7 +210,7 @@ final class LanguageModelStemmer {
     stemTf.add(totalTf);
     stemMostFrequentWordIndexes.add(mostFrequentWordIndex);
     stemIndexesArray[stemImagesOrder[stemImagesOrder.length - 1]] = stemIndex;
-    storeTfByDocument(stemTfByDocumentList, stemTfsByDocument);
+    storeTfByDocument(stemTfByDocument, wordTfByDocument, stemWords);
     fieldIndexList.add(fieldIndices);
     if (inQuery) {
       wordsType[stemImagesOrder[stemImagesOrder.length - 1]] |= Tokenizer.TF_QUERY_WORD;
@@ -191,24 +220,34 @@ final class LanguageModelStemmer {
     context.allStems.image = stemImages.toArray(new char[stemImages.size()][]);
     context.allStems.mostFrequentOriginalWordIndex = stemMostFrequentWordIndexes.toArray();
     context.allStems.tf = stemTf.toArray();
-    context.allStems.tfByDocument =
-        stemTfByDocumentList.toArray(new int[stemTfByDocumentList.size()][]);
+    context.allStems.tfByDocument = stemTfByDocument.build();
     context.allStems.fieldIndices = fieldIndexList.toArray();
 
     // References in allWords
     context.allWords.stemIndex = stemIndexesArray;
   }
 
-  /** */
-  private void storeTfByDocument(ArrayList<int[]> target, ArrayList<int[]> source) {
-    assert source.size() > 0 : "Empty source document list?";
+  /** Appends the merged document-term-frequency pairs of the given words to the target. */
+  private void storeTfByDocument(
+      TfByDocument.Builder target, TfByDocument wordTfByDocument, IntArrayList words) {
+    assert words.size() > 0 : "Empty source document list?";
 
-    if (source.size() == 1) {
-      // Just copy the reference over if a single list is available.
-      target.add(source.get(0));
+    if (words.size() == 1) {
+      // Just copy the pairs over if a single word is available.
+      target.add(wordTfByDocument, words.get(0));
     } else {
       // Merge sparse representations if more than one.
-      target.add(SparseArray.mergeSparseArrays(source));
+      final IntIntHashMap merged = new IntIntHashMap();
+      for (int i = 0; i < words.size(); i++) {
+        final int word = words.get(i);
+        for (int j = wordTfByDocument.start(word), max = wordTfByDocument.end(word);
+            j < max;
+            j += 2) {
+          final int tf = wordTfByDocument.tf(j);
+          merged.putOrAdd(wordTfByDocument.document(j), tf, tf);
+        }
+      }
+      target.add(merged);
     }
   }
 
@@ -13,12 +13,10 @@ package org.carrot2.text.preprocessing;
 import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.hppc.IntIntHashMap;
 import com.carrotsearch.hppc.cursors.IntIntCursor;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import org.carrot2.text.preprocessing.PreprocessingContext.AllPhrases;
 import org.carrot2.text.preprocessing.PreprocessingContext.AllTokens;
-import org.carrot2.util.IntMapUtils;
 
 /**
  * Extracts frequent phrases from the provided document. A frequent phrase is a sequence of words
@@ -71,11 +69,12 @@ public class PhraseExtractor {
     final int[] stemIndexes = context.allWords.stemIndex;
 
     // Find all subphrases
-    List<Substring> rcs = discoverRcs(suffixArray, lcpArray, documentIndexArray);
+    final PreprocessingArena arena = context.arena();
+    List<Substring> rcs = discoverRcs(suffixArray, lcpArray, documentIndexArray, arena.list());
 
-    List<int[]> phraseWordIndexes = new ArrayList<>();
-    IntArrayList phraseTf = new IntArrayList();
-    List<int[]> phraseTfByDocumentList = new ArrayList<>();
+    List<int[]> phraseWordIndexes = arena.list();
+    IntArrayList phraseTf = arena.intList();
+    TfByDocument.Builder phraseTfByDocuments = TfByDocument.builder(arena);
 
     if (rcs.size() > 0) {
       // Determine most frequent originals and create the final phrase
@@ -107,7 +106,7 @@ public class PhraseExtractor {
           }
           phraseWordIndexes.add(wordIndexes);
           phraseTf.add(totalPhraseTf);
-          phraseTfByDocumentList.add(IntMapUtils.flatten(phraseTfByDocument));
+          phraseTfByDocuments.add(phraseTfByDocument);
 
           totalPhraseTf = nextSubstring.frequency;
           mostFrequentOriginal = nextSubstring;
@@ -124,18 +123,21 @@ public class PhraseExtractor {
       }
       phraseWordIndexes.add(wordIndexes);
       phraseTf.add(totalPhraseTf);
-      phraseTfByDocumentList.add(IntMapUtils.flatten(phraseTfByDocument));
+      phraseTfByDocuments.add(phraseTfByDocument);
     }
 
     // Store the results to allPhrases
     context.allPhrases.wordIndices = phraseWordIndexes.toArray(new int[phraseWordIndexes.size()][]);
     context.allPhrases.tf = phraseTf.toArray();
-    context.allPhrases.tfByDocument =
-        phraseTfByDocumentList.toArray(new int[phraseTfByDocumentList.size()][]);
+    context.allPhrases.tfByDocument = phraseTfByDocuments.build();
   }
 
-  /** Discovers Right Complete Substrings in the given LCP Suffix Array. */
-  private List<Substring> discoverRcs(int[] suffixArray, int[] lcpArray, int[] documentIndexArray) {
+  /**
+   * Discovers Right Complete Substrings in the given LCP Suffix Array and adds them to <code>
+   * result</code>.
+   */
+  private List<Substring> discoverRcs(
+      int[] suffixArray, int[] lcpArray, int[] documentIndexArray, List<Substring> result) {
     Substring[] rcsStack;
     int sp;
 
@@ -145,7 +147,6 @@ public class PhraseExtractor {
 
     i = 1;
 
-    final List<Substring> result = new ArrayList<>();
     while (i < lcpArray.length - 1) {
       final int currentSuffixIndex = suffixArray[i];
       final int currentDocumentIndex = documentIndexArray[currentSuffixIndex];
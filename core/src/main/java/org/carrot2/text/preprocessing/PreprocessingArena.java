@@ -0,0 +1,269 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.text.preprocessing;
+
+import com.carrotsearch.hppc.ByteArrayList;
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntStack;
+import com.carrotsearch.hppc.ObjectIntHashMap;
+import com.carrotsearch.hppc.ShortArrayList;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import org.carrot2.util.MutableCharArray;
+
+/**
+ * A set of reusable scratch buffers for preprocessing stages. Stages borrow temporary lists and
+ * arrays from {@link PreprocessingContext#arena()}; everything borrowed is handed back (and
+ * cleared) when the arena is released, on {@link PreprocessingContext#close()}.
+ *
+ * <p>Pooling arenas between contexts is opt-in, see {@link #LIMIT_PROPERTY}. If enabled, a released
+ * arena is kept by its thread and reused by the next context created on that thread, so subsequent
+ * requests reuse the already grown buffers instead of allocating them from scratch. An arena whose
+ * last context used more elements than the limit is discarded, so that idle threads do not hold
+ * large buffers.
+ *
+ * <p>Borrowed buffers must not escape the stage that borrowed them: anything stored in the context
+ * must be a copy (for example, {@link IntArrayList#toArray()}).
+ *
+ * <p>This class is not thread-safe, an arena is used by one thread at a time.
+ */
+final class PreprocessingArena {
+  /**
+   * The system property with the maximum total number of elements of buffers (list elements, array
+   * elements and interned tokens) an arena may have used to be kept by its thread for reuse.
+   * Defaults to <code>0</code>: arenas are not kept and every context allocates its own buffers.
+   */
+  static final String LIMIT_PROPERTY = "carrot2.preprocessing.arenaLimit";
+
+  private static final long LIMIT = Long.getLong(LIMIT_PROPERTY, 0);
+
+  /** An idle arena for each thread, only set if pooling is enabled. */
+  private static final ThreadLocal<PreprocessingArena> idle = new ThreadLocal<>();
+
+  /** The limit of elements for keeping this arena after release, <code>0</code> if not pooled. */
+  private final long limit;
+
+  private final ObjectIntHashMap<MutableCharArray> tokenIds = new ObjectIntHashMap<>();
+  private final ArrayList<char[]> tokenImages = new ArrayList<>();
+
+  private final Pool<IntArrayList> intLists =
+      new Pool<>(IntArrayList::new, IntArrayList::size, IntArrayList::clear);
+  private final Pool<IntStack> intStacks =
+      new Pool<>(IntStack::new, IntStack::size, IntStack::clear);
+  private final Pool<ShortArrayList> shortLists =
+      new Pool<>(ShortArrayList::new, ShortArrayList::size, ShortArrayList::clear);
+  private final Pool<ByteArrayList> byteLists =
+      new Pool<>(ByteArrayList::new, ByteArrayList::size, ByteArrayList::clear);
+  private final Pool<ArrayList<Object>> objectLists =
+      new Pool<>(ArrayList::new, ArrayList::size, ArrayList::clear);
+
+  private final ArrayList<int[]> freeIntBuffers = new ArrayList<>();
+  private final ArrayList<int[]> borrowedIntBuffers = new ArrayList<>();
+
+  private final ArrayList<char[]> freeCharBuffers = new ArrayList<>();
+  private final ArrayList<char[]> borrowedCharBuffers = new ArrayList<>();
+
+  /** Creates an arena that is not pooled. */
+  PreprocessingArena() {
+    this(0);
+  }
+
+  private PreprocessingArena(long limit) {
+    this.limit = limit;
+  }
+
+  /** Returns an arena pooled according to {@link #LIMIT_PROPERTY}, see {@link #acquire(long)}. */
+  static PreprocessingArena acquire() {
+    return acquire(LIMIT);
+  }
+
+  /**
+   * Returns the idle arena of the current thread or a new arena if there is no idle arena (for
+   * example, if another context is open on the same thread). The thread does not hold the arena
+   * until it is released.
+   *
+   * @param limit the maximum number of elements used by the arena for it to be kept after release
+   *     or <code>0</code> to disable pooling
+   */
+  static PreprocessingArena acquire(long limit) {
+    if (limit <= 0) {
+      return new PreprocessingArena();
+    }
+
+    PreprocessingArena arena = idle.get();
+    if (arena != null) {
+      idle.remove();
+    } else {
+      arena = new PreprocessingArena(limit);
+    }
+    return arena;
+  }
+
+  /**
+   * Clears all buffers borrowed from this arena. If the arena is pooled and used no more elements
+   * than its limit, it is kept for reuse on the current thread.
+   */
+  void release() {
+    long used = tokenIds.size() + tokenImages.size();
+    tokenIds.clear();
+    tokenImages.clear();
+
+    used += intLists.release();
+    used += intStacks.release();
+    used += shortLists.release();
+    used += byteLists.release();
+    used += objectLists.release();
+
+    used += releaseBuffers(borrowedIntBuffers, freeIntBuffers, b -> b.length);
+    used += releaseBuffers(borrowedCharBuffers, freeCharBuffers, b -> b.length);
+
+    if (limit > 0 && used <= limit && idle.get() == null) {
+      idle.set(this);
+    }
+  }
+
+  /**
+   * Token interning cache, maps images to their ids, see {@link
+   * PreprocessingContext#intern(MutableCharArray)}.
+   */
+  ObjectIntHashMap<MutableCharArray> tokenIds() {
+    return tokenIds;
+  }
+
+  /** Interned token images, indexed by their ids. */
+  ArrayList<char[]> tokenImages() {
+    return tokenImages;
+  }
+
+  /** Borrows an empty {@link IntArrayList}. */
+  IntArrayList intList() {
+    return intLists.borrow();
+  }
+
+  /** Borrows an empty {@link IntStack}. */
+  IntStack intStack() {
+    return intStacks.borrow();
+  }
+
+  /** Borrows an empty {@link ShortArrayList}. */
+  ShortArrayList shortList() {
+    return shortLists.borrow();
+  }
+
+  /** Borrows an empty {@link ByteArrayList}. */
+  ByteArrayList byteList() {
+    return byteLists.borrow();
+  }
+
+  /** Borrows an empty {@link ArrayList}. */
+  @SuppressWarnings("unchecked")
+  <T> ArrayList<T> list() {
+    return (ArrayList<T>) (ArrayList<?>) objectLists.borrow();
+  }
+
+  /**
+   * Borrows an <code>int[]</code> buffer of at least <code>minLength</code> elements. The buffer
+   * may be longer than requested and its content is undefined.
+   */
+  int[] intBuffer(int minLength) {
+    int[] buffer = null;
+    for (int i = freeIntBuffers.size(); --i >= 0; ) {
+      if (freeIntBuffers.get(i).length >= minLength) {
+        buffer = freeIntBuffers.remove(i);
+        break;
+      }
+    }
+    if (buffer == null) {
+      buffer = new int[minLength];
+    }
+    borrowedIntBuffers.add(buffer);
+    return buffer;
+  }
+
+  /**
+   * Borrows a <code>char[]</code> buffer of at least <code>minLength</code> elements. The buffer
+   * may be longer than requested and its content is undefined.
+   */
+  char[] charBuffer(int minLength) {
+    char[] buffer = null;
+    for (int i = freeCharBuffers.size(); --i >= 0; ) {
+      if (freeCharBuffers.get(i).length >= minLength) {
+        buffer = freeCharBuffers.remove(i);
+        break;
+      }
+    }
+    if (buffer == null) {
+      buffer = new char[minLength];
+    }
+    borrowedCharBuffers.add(buffer);
+    return buffer;
+  }
+
+  /**
+   * Makes buffers borrowed since the last release free. Free buffers not borrowed since then are
+   * dropped, so that only buffers used by the last context are retained.
+   *
+   * @return the total length of the borrowed buffers
+   */
+  private static <T> long releaseBuffers(
+      ArrayList<T> borrowed, ArrayList<T> free, ToIntFunction<T> length) {
+    long used = 0;
+    free.clear();
+    for (T buffer : borrowed) {
+      used += length.applyAsInt(buffer);
+      free.add(buffer);
+    }
+    borrowed.clear();
+    return used;
+  }
+
+  /** A pool of reusable collections of a single type. */
+  private static final class Pool<T> {
+    private final Supplier<T> factory;
+    private final ToIntFunction<T> size;
+    private final Consumer<T> clear;
+
+    private final ArrayList<T> free = new ArrayList<>();
+    private final ArrayList<T> borrowed = new ArrayList<>();
+
+    Pool(Supplier<T> factory, ToIntFunction<T> size, Consumer<T> clear) {
+      this.factory = factory;
+      this.size = size;
+      this.clear = clear;
+    }
+
+    T borrow() {
+      final T value = free.isEmpty() ? factory.get() : free.remove(free.size() - 1);
+      borrowed.add(value);
+      return value;
+    }
+
+    /**
+     * Clears and frees collections borrowed since the last release, drops the ones not borrowed
+     * since then.
+     *
+     * @return the total size of the borrowed collections before they were cleared
+     */
+    long release() {
+      long used = 0;
+      free.clear();
+      for (T value : borrowed) {
+        used += size.applyAsInt(value);
+        clear.accept(value);
+        free.add(value);
+      }
+      borrowed.clear();
+      return used;
+    }
+  }
+}
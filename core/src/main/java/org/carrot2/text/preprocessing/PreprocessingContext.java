@@ -13,7 +13,9 @@ package org.carrot2.text.preprocessing;
 import com.carrotsearch.hppc.*;
 import java.io.Closeable;
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import org.carrot2.language.LanguageComponents;
 import org.carrot2.language.Stemmer;
 import org.carrot2.language.TokenTypeUtils;
@@ -39,16 +41,29 @@ public final class PreprocessingContext implements Closeable {
 
   /**
    * Token interning cache. Token images are interned to save memory and allow reference
-   * comparisons.
+   * comparisons. Each interned image has an integer id, its index in {@link #internedImages}.
    */
-  private ObjectHashSet<MutableCharArray> tokenCache = new ObjectHashSet<>();
+  private ObjectIntHashMap<MutableCharArray> tokenIds;
+
+  /** Interned token images, indexed by their ids. */
+  private ArrayList<char[]> internedImages;
+
+  /** Reusable scratch buffers for preprocessing stages, <code>null</code> once closed. */
+  private PreprocessingArena arena;
 
   /**
    * Creates a preprocessing context for the provided <code>documents</code> and with the provided
    * <code>languageModel</code>.
    */
   public PreprocessingContext(LanguageComponents languageComponents) {
+    this(languageComponents, PreprocessingArena.acquire());
+  }
+
+  PreprocessingContext(LanguageComponents languageComponents, PreprocessingArena arena) {
     this.languageComponents = languageComponents;
+    this.arena = arena;
+    this.tokenIds = arena.tokenIds();
+    this.internedImages = arena.tokenImages();
   }
 
   /**
@@ -69,6 +84,17 @@ public final class PreprocessingContext implements Closeable {
      */
     public char[][] image;
 
+    /**
+     * Dictionary-encoded token image: the id of the token's interned image. Tokens with equal
+     * images have equal ids. Equal to <code>-1</code> on positions where {@link #image} is <code>
+     * null</code>.
+     *
+     * <p>This array is produced by {@link InputTokenizer}.
+     *
+     * @since 4.6.0
+     */
+    public int[] imageId;
+
     /**
      * Token's {@link Tokenizer} bit flags.
      *
@@ -284,17 +310,17 @@ public final class PreprocessingContext implements Closeable {
     public int[] tf;
 
     /**
-     * Term Frequency of the word for each document. The length of this array is equal to the number
-     * of documents this word appeared in (Document Frequency) multiplied by 2. Elements at even
-     * indices contain document indices pointing to documents, elements at odd indices contain the
-     * frequency of the word in the document. For example, an array with 4 values: <code>
-     * [2, 15, 138, 7]</code> means that the word appeared 15 times in document at index 2 and 7
-     * times in document at index 138.
+     * Term Frequency of the word for each document, as pairs of document index and the frequency of
+     * the word in that document. The number of pairs for each word is equal to the number of
+     * documents this word appeared in (Document Frequency). For example, pairs <code>
+     * [2, 15, 138, 7]</code> mean that the word appeared 15 times in document at index 2 and 7
+     * times in document at index 138. See {@link TfByDocument#get(int)} for access to individual
+     * words in this flat encoding.
      *
-     * <p>This array is produced by {@link CaseNormalizer}. The order of documents in this array is
-     * not defined.
+     * <p>This structure is produced by {@link CaseNormalizer}. The order of documents for each word
+     * is not defined.
      */
-    public int[][] tfByDocument;
+    public TfByDocument tfByDocument;
 
     /**
      * A pointer to the {@link AllStems} arrays for this word.
@@ -344,7 +370,7 @@ public final class PreprocessingContext implements Closeable {
             image[i] == null ? "<null>" : new String(image[i]),
             type[i],
             tf[i],
-            SparseArray.sparseToString(tfByDocument[i]));
+            tfByDocument.toString(i));
 
         t.append(Arrays.toString(toFieldIndexes(fieldIndices[i])).replace(" ", ""));
 
@@ -397,13 +423,13 @@ public final class PreprocessingContext implements Closeable {
     public int[] tf;
 
     /**
-     * Term frequency of the stem for each document. For the encoding of this array, see {@link
+     * Term frequency of the stem for each document. For the encoding of this structure, see {@link
      * AllWords#tfByDocument}.
      *
-     * <p>This array is produced by {@link LanguageModelStemmer}. The order of documents in this
-     * array is not defined.
+     * <p>This structure is produced by {@link LanguageModelStemmer}. The order of documents for
+     * each stem is not defined.
      */
-    public int[][] tfByDocument;
+    public TfByDocument tfByDocument;
 
     /**
      * A bit-packed index of all fields in which this word appears at least once. Indexes
@@ -442,7 +468,7 @@ public final class PreprocessingContext implements Closeable {
             mostFrequentOriginalWordIndex[i],
             new String(allWords.image[mostFrequentOriginalWordIndex[i]]),
             tf[i],
-            SparseArray.sparseToString(tfByDocument[i]),
+            tfByDocument.toString(i),
             Arrays.toString(toFieldIndexes(fieldIndices[i])).replace(" ", ""));
         t.nextRow();
       }
@@ -479,13 +505,13 @@ public final class PreprocessingContext implements Closeable {
     public int[] tf;
 
     /**
-     * Term frequency of the phrase for each document. The encoding of this array is similar to
+     * Term frequency of the phrase for each document. The encoding of this structure is similar to
      * {@link AllWords#tfByDocument}: consecutive pairs of: document index, frequency.
      *
-     * <p>This array is produced by {@link PhraseExtractor}. The order of documents in this array is
-     * not defined.
+     * <p>This structure is produced by {@link PhraseExtractor}. The order of documents for each
+     * phrase is not defined.
      */
-    public int[][] tfByDocument;
+    public TfByDocument tfByDocument;
 
     /** For debugging purposes. */
     @Override
@@ -511,7 +537,7 @@ public final class PreprocessingContext implements Closeable {
             Arrays.toString(wordIndices[i]).replace(" ", ""),
             getPhrase(i),
             tf[i],
-            SparseArray.sparseToString(tfByDocument[i]));
+            tfByDocument.toString(i));
         t.nextRow();
       }
 
@@ -698,19 +724,49 @@ public final class PreprocessingContext implements Closeable {
    * release temporary data structures.
    */
   public void close() {
-    this.tokenCache = null;
+    this.tokenIds = null;
+    this.internedImages = null;
+    if (arena != null) {
+      arena.release();
+      arena = null;
+    }
+  }
+
+  /**
+   * Returns the scratch buffer arena of this context. Buffers borrowed from the arena are reclaimed
+   * when the context is closed. If the context is already closed, a new, non-pooled arena is
+   * returned.
+   */
+  PreprocessingArena arena() {
+    return arena != null ? arena : new PreprocessingArena();
   }
 
   /** Return a unique char buffer representing a given character sequence. */
   public char[] intern(MutableCharArray chs) {
-    int index = tokenCache.indexOf(chs);
-    if (tokenCache.indexExists(index)) {
-      return tokenCache.indexGet(index).getBuffer();
+    return internedImages.get(internId(chs));
+  }
+
+  /**
+   * Interns a given character sequence (see {@link #intern(MutableCharArray)}) and returns the id
+   * of its unique char buffer. Ids are consecutive integers starting at 0, assigned in the order of
+   * first interning.
+   */
+  int internId(MutableCharArray chs) {
+    int index = tokenIds.indexOf(chs);
+    if (tokenIds.indexExists(index)) {
+      return tokenIds.indexGet(index);
     } else {
       final char[] tokenImage = new char[chs.length()];
       System.arraycopy(chs.getBuffer(), chs.getStart(), tokenImage, 0, chs.length());
-      tokenCache.add(new MutableCharArray(tokenImage));
-      return tokenImage;
+      final int id = internedImages.size();
+      internedImages.add(tokenImage);
+      tokenIds.indexInsert(index, new MutableCharArray(tokenImage), id);
+      return id;
     }
   }
+
+  /** Returns all images interned so far, indexed by their ids. */
+  List<char[]> internedImages() {
+    return internedImages;
+  }
 }
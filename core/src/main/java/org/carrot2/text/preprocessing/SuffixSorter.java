@@ -11,10 +11,17 @@
 package org.carrot2.text.preprocessing;
 
 import com.carrotsearch.hppc.sorting.IndirectSort;
+import java.util.Arrays;
 import java.util.function.IntBinaryOperator;
 
 /**
- * A simple suffix sorting utility based on the generic sorting routines from {@link IndirectSort}.
+ * Suffix sorting utility for token sequences. The suffix array is built in linear time with the
+ * SA-IS algorithm (Nong, Zhang, Chan: <i>Two Efficient Algorithms for Linear Time Suffix Array
+ * Construction</i>) over an integer alphabet of word indices and separators. The LCP array is then
+ * computed in linear time using Kasai's algorithm.
+ *
+ * <p>A comparison-based implementation built on top of {@link IndirectSort} is retained for
+ * reference and testing purposes, see {@link #suffixSortByComparison(PreprocessingContext)}.
  */
 final class SuffixSorter {
   /** An int comparator that enables suffix sorting. */
@@ -46,32 +53,124 @@ final class SuffixSorter {
 
   /** Performs suffix sorting and saves the results to the <code>context</code>. */
   void suffixSort(PreprocessingContext context) {
-    /*
-     * Create a temporary array based on word indices with -1 values replaced with
-     * unique negative values. This will ensure that the phrases discovered based on
-     * the sorted/lcp array will not cross sentence/field boundaries. At some point we
-     * may want to make it an option. In this case, we'll need to review Substring and
-     * SubstringComparator for possible array index out of bounds.
-     */
-    final int[] intCodes = new int[context.allTokens.wordIndex.length];
-    System.arraycopy(context.allTokens.wordIndex, 0, intCodes, 0, intCodes.length);
+    final int[] intCodes = toIntCodes(context.allTokens.wordIndex);
+    final int[] suffixOrder = suffixOrder(intCodes);
+    context.allTokens.suffixOrder = suffixOrder;
+    context.allTokens.lcp =
+        calculateLcp(intCodes, suffixOrder, context.arena().intBuffer(intCodes.length));
+  }
+
+  /**
+   * Performs suffix sorting using generic comparison-based sorting. The results are identical to
+   * {@link #suffixSort(PreprocessingContext)}, only the time complexity is worse.
+   */
+  void suffixSortByComparison(PreprocessingContext context) {
+    final int[] intCodes = toIntCodes(context.allTokens.wordIndex);
+    final int[] suffixOrder =
+        IndirectSort.mergesort(0, intCodes.length, new SuffixComparator(intCodes));
+    context.allTokens.suffixOrder = suffixOrder;
+    context.allTokens.lcp = calculateLcpNaive(intCodes, suffixOrder);
+  }
+
+  /**
+   * Create a temporary array based on word indices with -1 values replaced with unique negative
+   * values. This will ensure that the phrases discovered based on the sorted/lcp array will not
+   * cross sentence/field boundaries. At some point we may want to make it an option. In this case,
+   * we'll need to review Substring and SubstringComparator for possible array index out of bounds.
+   */
+  static int[] toIntCodes(int[] wordIndex) {
+    final int[] intCodes = new int[wordIndex.length];
+    System.arraycopy(wordIndex, 0, intCodes, 0, intCodes.length);
     int currentSeparatorCode = -1;
     for (int i = 0; i < intCodes.length; i++) {
       if (intCodes[i] < 0) {
         intCodes[i] = currentSeparatorCode--;
       }
     }
+    return intCodes;
+  }
 
-    // Create suffix order
-    int[] suffixOrder = IndirectSort.mergesort(0, intCodes.length, new SuffixComparator(intCodes));
-    context.allTokens.suffixOrder = suffixOrder;
+  /**
+   * Computes the suffix order of the provided int codes (as returned from {@link
+   * #toIntCodes(int[])}). Suffixes are ordered by descending codes, so suffixes starting with a
+   * separator come at the end of the array.
+   */
+  static int[] suffixOrder(int[] intCodes) {
+    final int n = intCodes.length;
+
+    /*
+     * Shift the codes so that the most negative separator (the terminator) becomes zero. The
+     * alphabet is then [0, separators + words) and the ascending order of shifted codes is the
+     * reverse of the order we need. Because every suffix ends with a unique separator, no suffix
+     * is a proper prefix of another one and reversing the ascending suffix array yields the
+     * descending one.
+     */
+    int separators = 0;
+    int maxCode = 0;
+    for (int i = 0; i < n; i++) {
+      if (intCodes[i] < 0) {
+        separators++;
+      } else {
+        maxCode = Math.max(maxCode, intCodes[i]);
+      }
+    }
 
-    // Add LCPs
-    context.allTokens.lcp = calculateLcp(intCodes, suffixOrder);
+    final int[] shifted = new int[n];
+    for (int i = 0; i < n; i++) {
+      shifted[i] = intCodes[i] + separators;
+    }
+
+    final int[] sa = sais(shifted, maxCode + separators);
+    for (int i = 0, j = n - 1; i < j; i++, j--) {
+      final int tmp = sa[i];
+      sa[i] = sa[j];
+      sa[j] = tmp;
+    }
+    return sa;
+  }
+
+  /**
+   * Calculates the Longest Common Prefix values for each token in linear time using Kasai's
+   * algorithm.
+   */
+  static int[] calculateLcp(int[] intCodes, int[] suffixOrder) {
+    return calculateLcp(intCodes, suffixOrder, new int[intCodes.length]);
+  }
+
+  /**
+   * Same as {@link #calculateLcp(int[], int[])} but uses the provided scratch buffer (of at least
+   * <code>intCodes.length</code> elements) for the inverse suffix array.
+   */
+  static int[] calculateLcp(int[] intCodes, int[] suffixOrder, int[] rank) {
+    final int n = intCodes.length;
+    final int[] lcpArray = new int[n];
+    for (int i = 0; i < n; i++) {
+      rank[suffixOrder[i]] = i;
+    }
+
+    int h = 0;
+    for (int i = 0; i < n; i++) {
+      final int r = rank[i];
+      if (r == 0) {
+        h = 0;
+        continue;
+      }
+
+      final int j = suffixOrder[r - 1];
+      while (i + h < n && j + h < n && intCodes[i + h] == intCodes[j + h]) {
+        h++;
+      }
+      lcpArray[r] = h;
+      if (h > 0) {
+        h--;
+      }
+    }
+
+    return lcpArray;
   }
 
   /** Calculates the Longest Common Prefix values for each token. */
-  private int[] calculateLcp(int[] intCodes, int[] suffixOrder) {
+  static int[] calculateLcpNaive(int[] intCodes, int[] suffixOrder) {
     // LCP array
     int[] lcpArray = new int[intCodes.length];
 
@@ -86,4 +185,147 @@ final class SuffixSorter {
 
     return lcpArray;
   }
+
+  /**
+   * Builds the suffix array of <code>s</code> using the SA-IS induced sorting algorithm. All values
+   * of <code>s</code> must be within <code>[0, upper]</code>.
+   */
+  static int[] sais(int[] s, int upper) {
+    final int n = s.length;
+    switch (n) {
+      case 0:
+        return new int[0];
+      case 1:
+        return new int[] {0};
+      case 2:
+        return s[0] < s[1] ? new int[] {0, 1} : new int[] {1, 0};
+      default:
+        break;
+    }
+
+    // Classify suffixes into S-type (true) and L-type (false).
+    final boolean[] ls = new boolean[n];
+    for (int i = n - 2; i >= 0; i--) {
+      ls[i] = (s[i] == s[i + 1]) ? ls[i + 1] : (s[i] < s[i + 1]);
+    }
+
+    // Bucket boundaries: sumL[c] is the start of bucket c, sumS[c] is the start of its S-part.
+    final int[] sumL = new int[upper + 1];
+    final int[] sumS = new int[upper + 1];
+    for (int i = 0; i < n; i++) {
+      if (!ls[i]) {
+        sumS[s[i]]++;
+      } else {
+        // S-type characters are never the largest symbol, no range check needed.
+        sumL[s[i] + 1]++;
+      }
+    }
+    for (int i = 0; i <= upper; i++) {
+      sumS[i] += sumL[i];
+      if (i < upper) {
+        sumL[i + 1] += sumS[i];
+      }
+    }
+
+    // Leftmost S-type (LMS) positions.
+    final int[] lmsMap = new int[n + 1];
+    Arrays.fill(lmsMap, -1);
+    int m = 0;
+    for (int i = 1; i < n; i++) {
+      if (!ls[i - 1] && ls[i]) {
+        lmsMap[i] = m++;
+      }
+    }
+    final int[] lms = new int[m];
+    for (int i = 1, k = 0; i < n; i++) {
+      if (!ls[i - 1] && ls[i]) {
+        lms[k++] = i;
+      }
+    }
+
+    final int[] sa = new int[n];
+    final int[] buf = new int[upper + 1];
+    induce(s, ls, sumL, sumS, lms, m, sa, buf);
+
+    if (m > 0) {
+      // Collect sorted LMS substrings and name them.
+      final int[] sortedLms = new int[m];
+      for (int i = 0, k = 0; i < n; i++) {
+        if (lmsMap[sa[i]] != -1) {
+          sortedLms[k++] = sa[i];
+        }
+      }
+
+      final int[] recS = new int[m];
+      int recUpper = 0;
+      recS[lmsMap[sortedLms[0]]] = 0;
+      for (int i = 1; i < m; i++) {
+        int l = sortedLms[i - 1];
+        int r = sortedLms[i];
+        final int endL = (lmsMap[l] + 1 < m) ? lms[lmsMap[l] + 1] : n;
+        final int endR = (lmsMap[r] + 1 < m) ? lms[lmsMap[r] + 1] : n;
+        boolean same = true;
+        if (endL - l != endR - r) {
+          same = false;
+        } else {
+          while (l < endL) {
+            if (s[l] != s[r]) {
+              break;
+            }
+            l++;
+            r++;
+          }
+          if (l == n || s[l] != s[r]) {
+            same = false;
+          }
+        }
+        if (!same) {
+          recUpper++;
+        }
+        recS[lmsMap[sortedLms[i]]] = recUpper;
+      }
+
+      // Sort the reduced problem recursively and induce the final order from it.
+      final int[] recSa = sais(recS, recUpper);
+      for (int i = 0; i < m; i++) {
+        sortedLms[i] = lms[recSa[i]];
+      }
+      induce(s, ls, sumL, sumS, sortedLms, m, sa, buf);
+    }
+
+    return sa;
+  }
+
+  /** Induced sorting of L-type and S-type suffixes from the provided LMS positions. */
+  private static void induce(
+      int[] s, boolean[] ls, int[] sumL, int[] sumS, int[] lms, int m, int[] sa, int[] buf) {
+    final int n = s.length;
+    Arrays.fill(sa, -1);
+
+    System.arraycopy(sumS, 0, buf, 0, buf.length);
+    for (int i = 0; i < m; i++) {
+      final int d = lms[i];
+      if (d == n) {
+        continue;
+      }
+      sa[buf[s[d]]++] = d;
+    }
+
+    System.arraycopy(sumL, 0, buf, 0, buf.length);
+    sa[buf[s[n - 1]]++] = n - 1;
+    for (int i = 0; i < n; i++) {
+      final int v = sa[i];
+      if (v >= 1 && !ls[v - 1]) {
+        sa[buf[s[v - 1]]++] = v - 1;
+      }
+    }
+
+    System.arraycopy(sumL, 0, buf, 0, buf.length);
+    for (int i = n - 1; i >= 0; i--) {
+      final int v = sa[i];
+      if (v >= 1 && ls[v - 1]) {
+        sa[--buf[s[v - 1] + 1]] = v - 1;
+      }
+    }
+  }
 }
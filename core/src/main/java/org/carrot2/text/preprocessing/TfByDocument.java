@@ -0,0 +1,166 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.text.preprocessing;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntIntHashMap;
+import com.carrotsearch.hppc.cursors.IntIntCursor;
+import java.util.Arrays;
+
+/**
+ * Term frequencies by document for a number of features (words, stems or phrases), packed in a
+ * compressed sparse row layout: a single array of interleaved document index and frequency pairs
+ * for all features and an array of offsets at which each feature's pairs start.
+ *
+ * <p>Pairs of feature <code>i</code> occupy positions <code>start(i)</code> (inclusive) to <code>
+ * end(i)</code> (exclusive), in steps of 2. A typical iteration looks like this:
+ *
+ * <pre>
+ * for (int j = tfByDocument.start(i), max = tfByDocument.end(i); j &lt; max; j += 2) {
+ *   int document = tfByDocument.document(j);
+ *   int tf = tfByDocument.tf(j);
+ * }
+ * </pre>
+ *
+ * The order of documents within each feature is not defined.
+ *
+ * @since 4.6.0
+ */
+public final class TfByDocument {
+  /** An instance with no features. */
+  public static final TfByDocument EMPTY = new TfByDocument(new int[1], new int[0]);
+
+  /** Start positions of each feature's pairs in {@link #pairs}, plus the end position. */
+  private final int[] offsets;
+
+  /** Interleaved document index and frequency pairs. */
+  private final int[] pairs;
+
+  private TfByDocument(int[] offsets, int[] pairs) {
+    this.offsets = offsets;
+    this.pairs = pairs;
+  }
+
+  /** @return The number of features. */
+  public int size() {
+    return offsets.length - 1;
+  }
+
+  /** @return The number of documents the feature at <code>index</code> appeared in. */
+  public int df(int index) {
+    return (offsets[index + 1] - offsets[index]) >> 1;
+  }
+
+  /** @return The position of the first pair of the feature at <code>index</code>. */
+  public int start(int index) {
+    return offsets[index];
+  }
+
+  /** @return The position right after the last pair of the feature at <code>index</code>. */
+  public int end(int index) {
+    return offsets[index + 1];
+  }
+
+  /** @return The document index of the pair at the given position. */
+  public int document(int position) {
+    return pairs[position];
+  }
+
+  /** @return The term frequency of the pair at the given position. */
+  public int tf(int position) {
+    return pairs[position + 1];
+  }
+
+  /**
+   * Returns a copy of the pairs of the feature at <code>index</code>, in the flat encoding used by
+   * earlier versions: consecutive pairs of document index and frequency.
+   */
+  public int[] get(int index) {
+    return Arrays.copyOfRange(pairs, offsets[index], offsets[index + 1]);
+  }
+
+  /** Returns a copy of all features in the flat encoding, see {@link #get(int)}. */
+  public int[][] toArrays() {
+    final int[][] arrays = new int[size()][];
+    for (int i = 0; i < arrays.length; i++) {
+      arrays[i] = get(i);
+    }
+    return arrays;
+  }
+
+  /** Packs features given in the flat encoding, see {@link #get(int)}. */
+  public static TfByDocument fromArrays(int[][] arrays) {
+    final Builder builder = new Builder(new IntArrayList(), new IntArrayList());
+    for (int[] array : arrays) {
+      builder.add(array);
+    }
+    return builder.build();
+  }
+
+  /** Converts the pairs of the feature at <code>index</code> to a string, for debugging. */
+  public String toString(int index) {
+    StringBuilder b = new StringBuilder();
+    int windowSize = 5 * 2;
+    final int from = offsets[index];
+    final int to = offsets[index + 1];
+    for (int j = from, max = Math.min(from + windowSize, to); j < max; j += 2) {
+      b.append(pairs[j]).append("=>").append(pairs[j + 1]);
+      b.append(",");
+    }
+    if (to - from > windowSize) b.append("...");
+    return b.toString();
+  }
+
+  /** Creates a builder using the arena's lists as temporary buffers. */
+  static Builder builder(PreprocessingArena arena) {
+    return new Builder(arena.intList(), arena.intList());
+  }
+
+  /** Appends features one by one, in the order of their indices. */
+  static final class Builder {
+    private final IntArrayList offsets;
+    private final IntArrayList pairs;
+
+    private Builder(IntArrayList offsets, IntArrayList pairs) {
+      this.offsets = offsets;
+      this.pairs = pairs;
+      offsets.add(0);
+    }
+
+    /** Appends a feature with pairs given in the flat encoding. */
+    Builder add(int[] flat) {
+      pairs.add(flat, 0, flat.length);
+      offsets.add(pairs.size());
+      return this;
+    }
+
+    /** Appends a feature with the pairs of a feature of another instance. */
+    Builder add(TfByDocument source, int index) {
+      pairs.add(source.pairs, source.start(index), source.end(index) - source.start(index));
+      offsets.add(pairs.size());
+      return this;
+    }
+
+    /** Appends a feature with pairs from a document index to frequency map. */
+    Builder add(IntIntHashMap tfByDocument) {
+      pairs.ensureCapacity(pairs.size() + tfByDocument.size() * 2);
+      for (IntIntCursor c : tfByDocument) {
+        pairs.add(c.key, c.value);
+      }
+      offsets.add(pairs.size());
+      return this;
+    }
+
+    TfByDocument build() {
+      return new TfByDocument(offsets.toArray(), pairs.toArray());
+    }
+  }
+}
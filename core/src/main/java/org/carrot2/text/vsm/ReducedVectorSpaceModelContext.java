@@ -27,7 +27,30 @@ public class ReducedVectorSpaceModelContext {
   /** Coefficient vectors of the reduced term document matrix */
   public DoubleMatrix2D coefficientMatrix;
 
+  /**
+   * Number of iterations completed by the factorization or <code>-1</code> if the factorization is
+   * not iterative (or has not been performed).
+   */
+  public int factorizationIterations = -1;
+
+  /**
+   * Relative approximation error of the factorization, <code>||A - UV'|| / ||A||</code>, or <code>
+   * -1</code> if the factorization did not compute it.
+   */
+  public double factorizationError = -1;
+
+  /**
+   * <code>true</code> if the factorization completed fewer iterations than it otherwise would,
+   * because its deadline has passed.
+   */
+  public boolean factorizationStoppedAtDeadline;
+
   public ReducedVectorSpaceModelContext(VectorSpaceModelContext vectorSpaceModelContext) {
     this.vsmContext = vectorSpaceModelContext;
   }
+
+  /** Returns {@link #factorizationError} in parts per million or <code>-1</code>. */
+  public long factorizationErrorPpm() {
+    return factorizationError < 0 ? -1 : Math.round(factorizationError * 1_000_000);
+  }
 }
@@ -15,6 +15,7 @@ import com.carrotsearch.hppc.IntIntHashMap;
 import com.carrotsearch.hppc.sorting.IndirectSort;
 import java.util.Arrays;
 import java.util.function.IntToDoubleFunction;
+import org.carrot2.attrs.AttrBoolean;
 import org.carrot2.attrs.AttrComposite;
 import org.carrot2.attrs.AttrDouble;
 import org.carrot2.attrs.AttrInteger;
@@ -22,11 +23,12 @@ import org.carrot2.attrs.AttrObject;
 import org.carrot2.attrs.AttrStringArray;
 import org.carrot2.language.TokenTypeUtils;
 import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.CompressedSparseDoubleMatrix2D;
 import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix2D;
-import org.carrot2.math.mahout.matrix.impl.SparseDoubleMatrix2D;
 import org.carrot2.math.matrix.MatrixUtils;
 import org.carrot2.text.preprocessing.PreprocessingContext;
 import org.carrot2.text.preprocessing.PreprocessingContext.AllFields;
+import org.carrot2.text.preprocessing.TfByDocument;
 
 /** Builds a term document matrix based on the provided {@link PreprocessingContext}. */
 public class TermDocumentMatrixBuilder extends AttrComposite {
@@ -61,6 +63,18 @@ public class TermDocumentMatrixBuilder extends AttrComposite {
               .min(50 * 100)
               .defaultValue(250 * 150));
 
+  /**
+   * Stores the term-document matrix in a compressed sparse form. Term-document matrices are usually
+   * very sparse, so the sparse form takes a fraction of the memory of the dense one and {@link
+   * #maximumMatrixSize} can be raised accordingly. The NMF-ED, NMF-KL and k-means factorizations
+   * only visit non-zero elements of sparse matrices, other factorizations may be slower than with
+   * dense matrices.
+   */
+  public final AttrBoolean sparseMatrix =
+      attributes.register(
+          "sparseMatrix",
+          AttrBoolean.builder().label("Sparse term-document matrix").defaultValue(false));
+
   /**
    * Maximum document frequency allowed for words as a fraction of all documents. Words with
    * document frequency larger than {@link #maxWordDf} will be ignored. For example, when {@link
@@ -102,11 +116,21 @@ public class TermDocumentMatrixBuilder extends AttrComposite {
    * in there.
    */
   public void buildTermDocumentMatrix(VectorSpaceModelContext vsmContext) {
+    buildTermDocumentMatrix(vsmContext, maximumMatrixSize.get());
+  }
+
+  /**
+   * Builds a term-document matrix with at most <code>maximumMatrixSize</code> elements, instead of
+   * the value of the {@link #maximumMatrixSize} attribute.
+   *
+   * @since 4.6.0
+   */
+  public void buildTermDocumentMatrix(VectorSpaceModelContext vsmContext, int maximumMatrixSize) {
     final PreprocessingContext preprocessingContext = vsmContext.preprocessingContext;
 
     final int documentCount = preprocessingContext.documentCount;
     final int[] stemsTf = preprocessingContext.allStems.tf;
-    final int[][] stemsTfByDocument = preprocessingContext.allStems.tfByDocument;
+    final TfByDocument stemsTfByDocument = preprocessingContext.allStems.tfByDocument;
     final byte[] stemsFieldIndices = preprocessingContext.allStems.fieldIndices;
 
     if (documentCount == 0) {
@@ -149,7 +173,7 @@ public class TermDocumentMatrixBuilder extends AttrComposite {
       final int stemIndex = stemsToInclude[i];
       double weight =
           termWeighting.calculateTermWeight(
-              stemsTf[stemIndex], stemsTfByDocument[stemIndex].length / 2, documentCount);
+              stemsTf[stemIndex], stemsTfByDocument.df(stemIndex), documentCount);
       stemsWeight[i] = weight * fieldIndexToBoost.applyAsDouble(stemsFieldIndices[stemIndex]);
     }
     final int[] stemWeightOrder =
@@ -157,23 +181,46 @@ public class TermDocumentMatrixBuilder extends AttrComposite {
             0, stemsWeight.length, (a, b) -> Double.compare(stemsWeight[b], stemsWeight[a]));
 
     // Calculate the number of terms we can include to fulfill the max matrix size
-    final int maxRows = maximumMatrixSize.get() / documentCount;
-    final DoubleMatrix2D tdMatrix =
-        new DenseDoubleMatrix2D(Math.min(maxRows, stemsToInclude.length), documentCount);
+    final int maxRows = maximumMatrixSize / documentCount;
+    final int rows = Math.min(maxRows, stemsToInclude.length);
+
+    // Collect non-zero elements, row by row
+    final int[] rowOffsets = new int[rows + 1];
+    for (int i = 0; i < rows; i++) {
+      rowOffsets[i + 1] = rowOffsets[i] + stemsTfByDocument.df(stemsToInclude[stemWeightOrder[i]]);
+    }
+    final int[] columnIndexes = new int[rowOffsets[rows]];
+    final double[] values = new double[rowOffsets[rows]];
 
-    for (int i = 0; i < stemWeightOrder.length && i < maxRows; i++) {
+    for (int i = 0, k = 0; i < rows; i++) {
       final int stemIndex = stemsToInclude[stemWeightOrder[i]];
-      final int[] tfByDocument = stemsTfByDocument[stemIndex];
-      final int df = tfByDocument.length / 2;
+      final int df = stemsTfByDocument.df(stemIndex);
       final byte fieldIndices = stemsFieldIndices[stemIndex];
 
       double fieldWeight = fieldIndexToBoost.applyAsDouble(fieldIndices);
-      for (int j = 0; j < df; j++) {
+      for (int j = stemsTfByDocument.start(stemIndex), max = stemsTfByDocument.end(stemIndex);
+          j < max;
+          j += 2, k++) {
         double weight =
-            termWeighting.calculateTermWeight(tfByDocument[j * 2 + 1], df, documentCount);
+            termWeighting.calculateTermWeight(stemsTfByDocument.tf(j), df, documentCount);
 
         weight *= fieldWeight;
-        tdMatrix.set(i, tfByDocument[j * 2], weight);
+        columnIndexes[k] = stemsTfByDocument.document(j);
+        values[k] = weight;
+      }
+    }
+
+    final DoubleMatrix2D tdMatrix;
+    if (sparseMatrix.get()) {
+      tdMatrix =
+          new CompressedSparseDoubleMatrix2D(
+              rows, documentCount, rowOffsets, columnIndexes, values);
+    } else {
+      tdMatrix = MatrixUtils.createDenseMatrix(rows, documentCount);
+      for (int i = 0; i < rows; i++) {
+        for (int k = rowOffsets[i]; k < rowOffsets[i + 1]; k++) {
+          tdMatrix.set(i, columnIndexes[k], values[k]);
+        }
       }
     }
 
@@ -214,11 +261,21 @@ public class TermDocumentMatrixBuilder extends AttrComposite {
         phraseFeatureIndices[featureIndex] = labelsFeatureIndex[featureIndex + firstPhraseIndex];
       }
 
-      final DoubleMatrix2D phraseMatrix =
+      final CompressedSparseDoubleMatrix2D phraseMatrix =
           TermDocumentMatrixBuilder.buildAlignedMatrix(
               context, phraseFeatureIndices, termWeighting);
-      MatrixUtils.normalizeColumnL2(phraseMatrix, null);
-      context.termPhraseMatrix = phraseMatrix.viewDice();
+
+      // Normalize the phrase vectors (rows) to unit L2 length.
+      final double[] norms = new double[phraseMatrix.rows()];
+      for (int row = 0; row < norms.length; row++) {
+        for (int i = phraseMatrix.rowStart(row); i < phraseMatrix.rowEnd(row); i++) {
+          norms[row] += phraseMatrix.value(i) * phraseMatrix.value(i);
+        }
+        norms[row] = Math.sqrt(norms[row]);
+      }
+      phraseMatrix.forEachNonZero(
+          (row, column, value) -> norms[row] != 0 ? value / norms[row] : value);
+      context.termPhraseMatrix = phraseMatrix;
     }
   }
 
@@ -233,7 +290,7 @@ public class TermDocumentMatrixBuilder extends AttrComposite {
     final int[][] phrasesWordIndices = context.allPhrases.wordIndices;
     final int wordCount = wordsStemIndex.length;
 
-    final int[][] stemsTfByDocument = context.allStems.tfByDocument;
+    final TfByDocument stemsTfByDocument = context.allStems.tfByDocument;
     int documentCount = context.documentCount;
     final BitSet requiredStemIndices = new BitSet(labelsFeatureIndex.length);
 
@@ -272,63 +329,78 @@ public class TermDocumentMatrixBuilder extends AttrComposite {
   private void addStemIndex(
       final int[] wordsStemIndex,
       int documentCount,
-      int[][] stemsTfByDocument,
+      TfByDocument stemsTfByDocument,
       final BitSet requiredStemIndices,
       final int featureIndex,
       double maxWordDf) {
     final int stemIndex = wordsStemIndex[featureIndex];
-    final int df = stemsTfByDocument[stemIndex].length / 2;
+    final int df = stemsTfByDocument.df(stemIndex);
     if (((double) df / documentCount) <= maxWordDf) {
       requiredStemIndices.set(stemIndex);
     }
   }
 
   /**
-   * Builds a sparse term-document-like matrix for the provided matrixWordIndices in the same term
-   * space as the original term-document matrix.
+   * Builds a sparse matrix with one row for each of the provided features, in the same term space
+   * as the original term-document matrix: column indices are row indices of the term-document
+   * matrix. Each row only stores the stems of the feature's words, so the size of the matrix is
+   * proportional to the total length of the features.
    */
-  static DoubleMatrix2D buildAlignedMatrix(
+  static CompressedSparseDoubleMatrix2D buildAlignedMatrix(
       VectorSpaceModelContext vsmContext, int[] featureIndex, TermWeighting termWeighting) {
     final IntIntHashMap stemToRowIndex = vsmContext.stemToRowIndex;
-    if (featureIndex.length == 0) {
-      return new DenseDoubleMatrix2D(stemToRowIndex.size(), 0);
-    }
-
-    final DoubleMatrix2D phraseMatrix =
-        new SparseDoubleMatrix2D(stemToRowIndex.size(), featureIndex.length);
-
     final PreprocessingContext preprocessingContext = vsmContext.preprocessingContext;
     final int[] wordsStemIndex = preprocessingContext.allWords.stemIndex;
     final int[] stemsTf = preprocessingContext.allStems.tf;
-    final int[][] stemsTfByDocument = preprocessingContext.allStems.tfByDocument;
+    final TfByDocument stemsTfByDocument = preprocessingContext.allStems.tfByDocument;
     final int[][] phrasesWordIndices = preprocessingContext.allPhrases.wordIndices;
     final int documentCount = preprocessingContext.documentCount;
     final int wordCount = wordsStemIndex.length;
 
+    final int[][] featureWordIndices = new int[featureIndex.length][];
+    final int[] rowOffsets = new int[featureIndex.length + 1];
     for (int i = 0; i < featureIndex.length; i++) {
       final int feature = featureIndex[i];
-      final int[] wordIndices;
       if (feature < wordCount) {
-        wordIndices = new int[] {feature};
+        featureWordIndices[i] = new int[] {feature};
       } else {
-        wordIndices = phrasesWordIndices[feature - wordCount];
+        featureWordIndices[i] = phrasesWordIndices[feature - wordCount];
       }
+      rowOffsets[i + 1] = rowOffsets[i] + featureWordIndices[i].length;
+    }
 
+    final int[] columnIndexes = new int[rowOffsets[featureIndex.length]];
+    final double[] values = new double[columnIndexes.length];
+    int k = 0;
+    for (int i = 0; i < featureIndex.length; i++) {
+      final int rowStart = k;
+      final int[] wordIndices = featureWordIndices[i];
       for (int wordIndex = 0; wordIndex < wordIndices.length; wordIndex++) {
         final int stemIndex = wordsStemIndex[wordIndices[wordIndex]];
         final int index = stemToRowIndex.indexOf(stemIndex);
         if (stemToRowIndex.indexExists(index)) {
           final int rowIndex = stemToRowIndex.indexGet(index);
 
-          double weight =
-              termWeighting.calculateTermWeight(
-                  stemsTf[stemIndex], stemsTfByDocument[stemIndex].length / 2, documentCount);
+          // A stem repeated in a phrase is stored once.
+          boolean repeated = false;
+          for (int j = rowStart; j < k && !repeated; j++) {
+            repeated = columnIndexes[j] == rowIndex;
+          }
 
-          phraseMatrix.setQuick(rowIndex, i, weight);
+          if (!repeated) {
+            columnIndexes[k] = rowIndex;
+            values[k] =
+                termWeighting.calculateTermWeight(
+                    stemsTf[stemIndex], stemsTfByDocument.df(stemIndex), documentCount);
+            k++;
+          }
         }
       }
+      rowOffsets[i] = rowStart;
     }
+    rowOffsets[featureIndex.length] = k;
 
-    return phraseMatrix;
+    return new CompressedSparseDoubleMatrix2D(
+        featureIndex.length, stemToRowIndex.size(), rowOffsets, columnIndexes, values);
   }
 }
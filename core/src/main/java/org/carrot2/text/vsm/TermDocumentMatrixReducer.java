@@ -14,11 +14,13 @@ import org.carrot2.attrs.AttrComposite;
 import org.carrot2.attrs.AttrObject;
 import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
 import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix2D;
+import org.carrot2.math.matrix.IterativeMatrixFactorization;
 import org.carrot2.math.matrix.IterativeMatrixFactorizationFactory;
 import org.carrot2.math.matrix.MatrixFactorization;
 import org.carrot2.math.matrix.MatrixFactorizationFactory;
 import org.carrot2.math.matrix.MatrixUtils;
 import org.carrot2.math.matrix.NonnegativeMatrixFactorizationEDFactory;
+import org.carrot2.math.matrix.RandomizedSingularValueDecompositionFactory;
 
 /** Reduces the dimensionality of a term-document matrix using a matrix factorization algorithm. */
 public class TermDocumentMatrixReducer extends AttrComposite {
@@ -39,6 +41,25 @@ public class TermDocumentMatrixReducer extends AttrComposite {
 
   /** Performs the reduction. */
   public void reduce(ReducedVectorSpaceModelContext context, int dimensions) {
+    reduce(context, dimensions, false, 0);
+  }
+
+  /**
+   * Performs the reduction. Iterative factorizations start no more iterations after the given value
+   * of {@link System#nanoTime()}, see {@link
+   * ReducedVectorSpaceModelContext#factorizationStoppedAtDeadline}.
+   *
+   * @since 4.6.0
+   */
+  public void reduce(ReducedVectorSpaceModelContext context, int dimensions, long deadlineNanos) {
+    reduce(context, dimensions, true, deadlineNanos);
+  }
+
+  private void reduce(
+      ReducedVectorSpaceModelContext context,
+      int dimensions,
+      boolean hasDeadline,
+      long deadlineNanos) {
     final VectorSpaceModelContext vsmContext = context.vsmContext;
     if (vsmContext.termDocumentMatrix.columns() == 0 || vsmContext.termDocumentMatrix.rows() == 0) {
       context.baseMatrix =
@@ -47,18 +68,51 @@ public class TermDocumentMatrixReducer extends AttrComposite {
       return;
     }
 
+    boolean singlePrecision = false;
     if (factorizationFactory instanceof IterativeMatrixFactorizationFactory) {
-      ((IterativeMatrixFactorizationFactory) factorizationFactory)
-          .estimateIterationsNumber(dimensions, vsmContext.termDocumentMatrix);
+      final IterativeMatrixFactorizationFactory iterativeFactory =
+          (IterativeMatrixFactorizationFactory) factorizationFactory;
+      iterativeFactory.estimateIterationsNumber(dimensions, vsmContext.termDocumentMatrix);
+      singlePrecision = iterativeFactory.singlePrecision.get();
+      if (hasDeadline) {
+        iterativeFactory.setDeadline(deadlineNanos);
+      } else {
+        iterativeFactory.clearDeadline();
+      }
+    } else if (factorizationFactory instanceof RandomizedSingularValueDecompositionFactory) {
+      // Compute only the base vectors we need.
+      ((RandomizedSingularValueDecompositionFactory) factorizationFactory).setK(dimensions);
     }
 
+    // In single precision, the converted matrix replaces the double-precision one, so that only
+    // one copy is kept during factorization. The norm is computed before the conversion.
     MatrixUtils.normalizeColumnL2(vsmContext.termDocumentMatrix, null);
+    final double norm = MatrixUtils.frobeniusNorm(vsmContext.termDocumentMatrix);
+    if (singlePrecision) {
+      vsmContext.termDocumentMatrix = MatrixUtils.toSinglePrecision(vsmContext.termDocumentMatrix);
+    }
     final MatrixFactorization factorization =
         factorizationFactory.factorize(vsmContext.termDocumentMatrix);
-    context.baseMatrix = factorization.getU();
-    context.coefficientMatrix = factorization.getV();
-    context.baseMatrix = trim(factorizationFactory, factorization.getU(), dimensions);
-    context.coefficientMatrix = trim(factorizationFactory, factorization.getV(), dimensions);
+    DoubleMatrix2D U = factorization.getU();
+    DoubleMatrix2D V = factorization.getV();
+    if (singlePrecision) {
+      // U and V are small, further processing is faster in double precision.
+      U = new DenseDoubleMatrix2D(U.rows(), U.columns()).assign(U);
+      V = new DenseDoubleMatrix2D(V.rows(), V.columns()).assign(V);
+    }
+    context.baseMatrix = trim(factorizationFactory, U, dimensions);
+    context.coefficientMatrix = trim(factorizationFactory, V, dimensions);
+    if (factorization instanceof IterativeMatrixFactorization) {
+      final IterativeMatrixFactorization iterativeFactorization =
+          (IterativeMatrixFactorization) factorization;
+      context.factorizationIterations = iterativeFactorization.getIterationsCompleted();
+      context.factorizationStoppedAtDeadline = iterativeFactorization.isStoppedAtDeadline();
+      final double error = iterativeFactorization.getApproximationError();
+      context.factorizationError = -1;
+      if (error >= 0 && norm > 0) {
+        context.factorizationError = error / norm;
+      }
+    }
   }
 
   private final DoubleMatrix2D trim(
@@ -27,14 +27,18 @@ public class VectorSpaceModelContext {
    * #stemToRowIndex}.
    *
    * <p>This matrix is produced by {@link
-   * TermDocumentMatrixBuilder#buildTermDocumentMatrix(VectorSpaceModelContext)}.
+   * TermDocumentMatrixBuilder#buildTermDocumentMatrix(VectorSpaceModelContext)}. {@link
+   * TermDocumentMatrixReducer} normalizes its columns and, for single-precision factorizations,
+   * replaces a dense matrix with its single-precision copy.
    */
   public DoubleMatrix2D termDocumentMatrix;
 
   /**
-   * Term-document-like matrix for phrases from {@link AllLabels}. If there are no phrases in {@link
-   * AllLabels}, phrase matrix is <code>null</code>. For mapping between rows of this matrix and
-   * {@link AllStems}, see {@link #stemToRowIndex}.
+   * Term-document-like matrix for phrases from {@link AllLabels}, with one row for each phrase and
+   * columns corresponding to rows of {@link #termDocumentMatrix}. If there are no phrases in {@link
+   * AllLabels}, phrase matrix is <code>null</code>. For mapping between columns of this matrix and
+   * {@link AllStems}, see {@link #stemToRowIndex}. The matrix is sparse, only the stems of each
+   * phrase are stored.
    *
    * <p>This matrix is produced by {@link
    * TermDocumentMatrixBuilder#buildTermPhraseMatrix(VectorSpaceModelContext)}.
@@ -0,0 +1,258 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.mahout.matrix.impl;
+
+import java.util.Arrays;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernels based on the incubating Java Vector API. Cells must be contiguous (unit stride) in
+ * the dimension processed by the vector loops, other layouts use the scalar kernels.
+ *
+ * <p>Element-wise kernels give the same results as the scalar ones. Matrix multiplications sum
+ * products in a different order, so their results may differ in the last bits.
+ */
+final class VectorDoubleKernels extends DoubleKernels {
+  private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+  @Override
+  void gemv(
+      int m,
+      int n,
+      double alpha,
+      double[] a,
+      int aIndex,
+      int aRowStride,
+      int aColumnStride,
+      double[] y,
+      int yIndex,
+      int yStride,
+      double beta,
+      double[] z,
+      int zIndex,
+      int zStride) {
+    if (aColumnStride != 1 || yStride != 1) {
+      super.gemv(
+          m,
+          n,
+          alpha,
+          a,
+          aIndex,
+          aRowStride,
+          aColumnStride,
+          y,
+          yIndex,
+          yStride,
+          beta,
+          z,
+          zIndex,
+          zStride);
+      return;
+    }
+
+    for (int row = m; --row >= 0; ) {
+      z[zIndex] = alpha * dot(n, a, aIndex, y, yIndex) + beta * z[zIndex];
+      aIndex += aRowStride;
+      zIndex += zStride;
+    }
+  }
+
+  @Override
+  void gemm(
+      int m,
+      int n,
+      int p,
+      double alpha,
+      double[] a,
+      int aIndex,
+      int aRowStride,
+      int aColumnStride,
+      double[] b,
+      int bIndex,
+      int bRowStride,
+      int bColumnStride,
+      double beta,
+      double[] c,
+      int cIndex,
+      int cRowStride,
+      int cColumnStride) {
+    if (aColumnStride == 1 && bRowStride == 1) {
+      // Rows of A and columns of B are contiguous: C[i,j] is a dot product.
+      for (int i = 0; i < m; i++) {
+        final int iA = aIndex + i * aRowStride;
+        int iB = bIndex;
+        int iC = cIndex + i * cRowStride;
+        for (int j = p; --j >= 0; ) {
+          c[iC] = alpha * dot(n, a, iA, b, iB) + beta * c[iC];
+          iB += bColumnStride;
+          iC += cColumnStride;
+        }
+      }
+    } else if (bColumnStride == 1 && cColumnStride == 1) {
+      // Rows of B and C are contiguous: C[i,:] = beta * C[i,:] + sum(alpha * A[i,k] * B[k,:]).
+      for (int i = 0; i < m; i++) {
+        final int iC = cIndex + i * cRowStride;
+        scale(p, c, iC, beta);
+        int iA = aIndex + i * aRowStride;
+        int iB = bIndex;
+        for (int k = n; --k >= 0; ) {
+          axpy(p, alpha * a[iA], b, iB, c, iC);
+          iA += aColumnStride;
+          iB += bRowStride;
+        }
+      }
+    } else {
+      super.gemm(
+          m,
+          n,
+          p,
+          alpha,
+          a,
+          aIndex,
+          aRowStride,
+          aColumnStride,
+          b,
+          bIndex,
+          bRowStride,
+          bColumnStride,
+          beta,
+          c,
+          cIndex,
+          cRowStride,
+          cColumnStride);
+    }
+  }
+
+  @Override
+  void mult(int n, double[] x, int xIndex, int xStride, double[] y, int yIndex, int yStride) {
+    if (xStride != 1 || yStride != 1) {
+      super.mult(n, x, xIndex, xStride, y, yIndex, yStride);
+      return;
+    }
+
+    final int bound = SPECIES.loopBound(n);
+    int i = 0;
+    for (; i < bound; i += SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES, x, xIndex + i)
+          .mul(DoubleVector.fromArray(SPECIES, y, yIndex + i))
+          .intoArray(x, xIndex + i);
+    }
+    for (; i < n; i++) {
+      x[xIndex + i] *= y[yIndex + i];
+    }
+  }
+
+  @Override
+  void div(int n, double[] x, int xIndex, int xStride, double[] y, int yIndex, int yStride) {
+    if (xStride != 1 || yStride != 1) {
+      super.div(n, x, xIndex, xStride, y, yIndex, yStride);
+      return;
+    }
+
+    final int bound = SPECIES.loopBound(n);
+    int i = 0;
+    for (; i < bound; i += SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES, x, xIndex + i)
+          .div(DoubleVector.fromArray(SPECIES, y, yIndex + i))
+          .intoArray(x, xIndex + i);
+    }
+    for (; i < n; i++) {
+      x[xIndex + i] /= y[yIndex + i];
+    }
+  }
+
+  @Override
+  void plusMult(
+      int n,
+      double[] x,
+      int xIndex,
+      int xStride,
+      double[] y,
+      int yIndex,
+      int yStride,
+      double multiplicator) {
+    if (xStride != 1 || yStride != 1) {
+      super.plusMult(n, x, xIndex, xStride, y, yIndex, yStride, multiplicator);
+      return;
+    }
+
+    final int bound = SPECIES.loopBound(n);
+    int i = 0;
+    if (multiplicator == 1) { // x[i] = x[i] + y[i]
+      for (; i < bound; i += SPECIES.length()) {
+        DoubleVector.fromArray(SPECIES, x, xIndex + i)
+            .add(DoubleVector.fromArray(SPECIES, y, yIndex + i))
+            .intoArray(x, xIndex + i);
+      }
+    } else if (multiplicator == -1) { // x[i] = x[i] - y[i]
+      for (; i < bound; i += SPECIES.length()) {
+        DoubleVector.fromArray(SPECIES, x, xIndex + i)
+            .sub(DoubleVector.fromArray(SPECIES, y, yIndex + i))
+            .intoArray(x, xIndex + i);
+      }
+    } else { // the general case x[i] = x[i] + mult*y[i], not fused to match scalar results
+      for (; i < bound; i += SPECIES.length()) {
+        DoubleVector.fromArray(SPECIES, x, xIndex + i)
+            .add(DoubleVector.fromArray(SPECIES, y, yIndex + i).mul(multiplicator))
+            .intoArray(x, xIndex + i);
+      }
+    }
+    super.plusMult(n - i, x, xIndex + i, 1, y, yIndex + i, 1, multiplicator);
+  }
+
+  /** Returns the dot product of n contiguous cells of x and y. */
+  private static double dot(int n, double[] x, int xIndex, double[] y, int yIndex) {
+    final int bound = SPECIES.loopBound(n);
+    int i = 0;
+    DoubleVector sum = DoubleVector.zero(SPECIES);
+    for (; i < bound; i += SPECIES.length()) {
+      sum =
+          DoubleVector.fromArray(SPECIES, x, xIndex + i)
+              .fma(DoubleVector.fromArray(SPECIES, y, yIndex + i), sum);
+    }
+    double s = sum.reduceLanes(VectorOperators.ADD);
+    for (; i < n; i++) {
+      s += x[xIndex + i] * y[yIndex + i];
+    }
+    return s;
+  }
+
+  /** y[i] = y[i] + a * x[i] for n contiguous cells. */
+  private static void axpy(int n, double a, double[] x, int xIndex, double[] y, int yIndex) {
+    final int bound = SPECIES.loopBound(n);
+    int i = 0;
+    final DoubleVector av = DoubleVector.broadcast(SPECIES, a);
+    for (; i < bound; i += SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES, x, xIndex + i)
+          .fma(av, DoubleVector.fromArray(SPECIES, y, yIndex + i))
+          .intoArray(y, yIndex + i);
+    }
+    for (; i < n; i++) {
+      y[yIndex + i] += a * x[xIndex + i];
+    }
+  }
+
+  /** x[i] = a * x[i] for n contiguous cells, x[i] = 0 if a is 0. */
+  private static void scale(int n, double[] x, int xIndex, double a) {
+    if (a == 0) {
+      Arrays.fill(x, xIndex, xIndex + n, 0);
+      return;
+    }
+    if (a == 1) {
+      return;
+    }
+    for (int i = 0; i < n; i++) {
+      x[xIndex + i] *= a;
+    }
+  }
+}
@@ -170,6 +170,35 @@ public abstract class ClusteringAlgorithmTestBase<E extends ClusteringAlgorithm
     }
   }
 
+  @Test
+  public void testClusteringListenerReceivesStages() {
+    final LanguageComponents english = CachedLangComponents.loadCached("English");
+    final List<String> stages = new ArrayList<>();
+    final ClusteringListener listener =
+        new ClusteringListener() {
+          @Override
+          public void stageCompleted(
+              String stage,
+              long elapsedNanos,
+              long allocatedBytes,
+              Map<String, Long> cardinalities) {
+            assertThat(elapsedNanos).isGreaterThanOrEqualTo(0);
+            assertThat(allocatedBytes).isGreaterThanOrEqualTo(-1);
+            cardinalities.values().forEach(v -> assertThat(v).isGreaterThanOrEqualTo(0L));
+            stages.add(stage);
+          }
+        };
+
+    List<Cluster<Document>> expected =
+        algorithm().cluster(SampleDocumentData.DOCUMENTS_DATA_MINING.stream(), english);
+    List<Cluster<Document>> actual =
+        algorithm().cluster(SampleDocumentData.DOCUMENTS_DATA_MINING.stream(), english, listener);
+
+    assertThat(actual).containsExactlyElementsOf(expected);
+    assertThat(stages).startsWith("tokenization");
+    assertThat(new HashSet<>(stages)).hasSize(stages.size());
+  }
+
   @Test
   public void testAttrGetAndSet() {
     AcceptingVisitor algorithm = algorithm();
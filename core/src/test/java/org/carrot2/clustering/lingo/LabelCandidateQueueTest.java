@@ -0,0 +1,94 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.clustering.lingo;
+
+import org.assertj.core.api.Assertions;
+import org.carrot2.TestBase;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix2D;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link LabelCandidateQueue}, compared with scanning the whole matrix after zeroing
+ * the removed rows and columns.
+ */
+public class LabelCandidateQueueTest extends TestBase {
+  @Test
+  public void testEmptyMatrix() {
+    Assertions.assertThat(new LabelCandidateQueue(new DenseDoubleMatrix2D(0, 0)).findMax())
+        .isFalse();
+    Assertions.assertThat(new LabelCandidateQueue(new DenseDoubleMatrix2D(3, 2)).findMax())
+        .isFalse();
+  }
+
+  @Test
+  public void testRandomRemovals() {
+    final int rows = randomIntBetween(1, 20);
+    final int columns = randomIntBetween(1, 20);
+
+    // Few distinct values, so that there are many ties.
+    final DoubleMatrix2D matrix = new DenseDoubleMatrix2D(rows, columns);
+    for (int r = 0; r < rows; r++) {
+      for (int c = 0; c < columns; c++) {
+        matrix.setQuick(r, c, randomIntBetween(-2, 4) / 4.0);
+      }
+    }
+
+    final DoubleMatrix2D zeroed = matrix.copy();
+    final LabelCandidateQueue queue = new LabelCandidateQueue(matrix);
+    while (true) {
+      final int[] expected = max(zeroed);
+      final boolean found = queue.findMax();
+      if (expected == null) {
+        Assertions.assertThat(found).isFalse();
+        break;
+      }
+
+      Assertions.assertThat(found).isTrue();
+      Assertions.assertThat(queue.maxRow()).isEqualTo(expected[0]);
+      Assertions.assertThat(queue.maxColumn()).isEqualTo(expected[1]);
+      Assertions.assertThat(queue.maxValue()).isEqualTo(zeroed.getQuick(expected[0], expected[1]));
+
+      // Remove a random row or column, then the row or the column of the maximum.
+      if (randomBoolean()) {
+        final int row = randomIntBetween(0, rows - 1);
+        queue.removeRow(row);
+        zeroed.viewRow(row).assign(0);
+      } else {
+        final int column = randomIntBetween(0, columns - 1);
+        queue.removeColumn(column);
+        zeroed.viewColumn(column).assign(0);
+      }
+      if (randomBoolean()) {
+        queue.removeRow(expected[0]);
+        zeroed.viewRow(expected[0]).assign(0);
+      } else {
+        queue.removeColumn(expected[1]);
+        zeroed.viewColumn(expected[1]).assign(0);
+      }
+    }
+  }
+
+  /** Returns the first largest positive element in row-by-row order or null if there is none. */
+  private static int[] max(DoubleMatrix2D matrix) {
+    int[] max = null;
+    double value = 0;
+    for (int r = 0; r < matrix.rows(); r++) {
+      for (int c = 0; c < matrix.columns(); c++) {
+        if (matrix.getQuick(r, c) > value) {
+          value = matrix.getQuick(r, c);
+          max = new int[] {r, c};
+        }
+      }
+    }
+    return max;
+  }
+}
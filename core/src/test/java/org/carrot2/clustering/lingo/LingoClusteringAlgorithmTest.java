@@ -11,15 +11,20 @@
 package org.carrot2.clustering.lingo;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
 import org.carrot2.AwaitsFix;
 import org.carrot2.attrs.AliasMapper;
 import org.carrot2.attrs.Attrs;
 import org.carrot2.clustering.CachedLangComponents;
 import org.carrot2.clustering.Cluster;
 import org.carrot2.clustering.ClusteringAlgorithmTestBase;
+import org.carrot2.clustering.ClusteringListener;
 import org.carrot2.clustering.Document;
 import org.carrot2.clustering.SampleDocumentData;
 import org.carrot2.clustering.TestDocument;
@@ -193,6 +198,70 @@ public class LingoClusteringAlgorithmTest
     Assertions.assertThat(clusterLabels(clusters)).containsOnly("bar", "foo");
   }
 
+  @Test
+  public void testTimeBudgetScale() {
+    final TimeBudget budget = new TimeBudget(1_000, 100);
+    final long millis = TimeUnit.MILLISECONDS.toNanos(1);
+    final double preprocessing = TimeBudget.PREPROCESSING_FRACTION;
+    Assertions.assertThat(budget.scale(1_000, preprocessing)).isEqualTo(1);
+    Assertions.assertThat(budget.scale(1_000 + 50 * millis, preprocessing)).isEqualTo(1);
+    Assertions.assertThat(budget.scale(1_000 + 75 * millis, preprocessing))
+        .isCloseTo(0.5, Offset.offset(1e-9));
+    Assertions.assertThat(budget.scale(1_000 + 100 * millis, preprocessing)).isEqualTo(0);
+    Assertions.assertThat(budget.scale(1_000 + 200 * millis, preprocessing)).isEqualTo(0);
+    final double reduction = TimeBudget.MATRIX_REDUCTION_FRACTION;
+    Assertions.assertThat(budget.scale(1_000 + 90 * millis, reduction)).isEqualTo(1);
+    Assertions.assertThat(budget.scale(1_000 + 95 * millis, reduction))
+        .isCloseTo(0.5, Offset.offset(1e-9));
+    Assertions.assertThat(budget.factorizationDeadline()).isEqualTo(1_000 + 90 * millis);
+  }
+
+  @Test
+  public void testTimeBudgetExceededInPreprocessing() {
+    final Map<String, Long> degradations = new LinkedHashMap<>();
+    final ClusteringListener listener =
+        new ClusteringListener() {
+          @Override
+          public void stageCompleted(
+              String stage,
+              long elapsedNanos,
+              long allocatedBytes,
+              Map<String, Long> cardinalities) {
+            if (stage.equals("labelFiltering")) {
+              // Use up the whole budget in preprocessing.
+              try {
+                Thread.sleep(100);
+              } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+              }
+            }
+          }
+
+          @Override
+          public void stageDegraded(String stage, String parameter, long value) {
+            degradations.put(stage + "." + parameter, value);
+          }
+        };
+
+    final LingoClusteringAlgorithm algorithm = algorithm();
+    algorithm.timeBudget.set(50);
+    final List<Cluster<Document>> clusters =
+        algorithm.cluster(
+            SampleDocumentData.DOCUMENTS_DATA_MINING.stream(),
+            CachedLangComponents.loadCached("English"),
+            listener);
+
+    Assertions.assertThat(clusters).isNotEmpty();
+    Assertions.assertThat(degradations)
+        .isEqualTo(
+            Map.of(
+                "labelFiltering.labelCandidates", 100L,
+                "termDocumentMatrix.maximumMatrixSize", 5000L,
+                "matrixReduction.clusterCount", 5L,
+                "matrixReduction.iterations", 1L,
+                "clusterMerging.enabled", 0L));
+  }
+
   // TODO: CARROT-1195 (clustering not deterministic)
   @AwaitsFix("https://issues.carrot2.org/browse/CARROT-1195")
   @Override
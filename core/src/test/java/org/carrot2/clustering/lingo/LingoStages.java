@@ -0,0 +1,49 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.clustering.lingo;
+
+import java.util.List;
+import org.carrot2.clustering.Document;
+import org.carrot2.language.LanguageComponents;
+import org.carrot2.text.preprocessing.PreprocessingContext;
+import org.carrot2.text.vsm.ReducedVectorSpaceModelContext;
+import org.carrot2.text.vsm.VectorSpaceModelContext;
+
+/** Runs the stages of {@link LingoClusteringAlgorithm}, for benchmarks outside of this package. */
+public final class LingoStages {
+  private LingoStages() {}
+
+  /**
+   * Runs all stages up to and including cluster label building (with the algorithm's {@link
+   * ClusterBuilder#labelAssigner}), the same way as {@link LingoClusteringAlgorithm#cluster}.
+   */
+  public static void buildLabels(
+      LingoClusteringAlgorithm lingo,
+      List<? extends Document> documents,
+      LanguageComponents languageComponents) {
+    final PreprocessingContext preprocessingContext =
+        lingo.preprocessing.preprocess(documents.stream(), null, languageComponents);
+
+    final VectorSpaceModelContext vsmContext = new VectorSpaceModelContext(preprocessingContext);
+    final ReducedVectorSpaceModelContext reducedVsmContext =
+        new ReducedVectorSpaceModelContext(vsmContext);
+    final LingoProcessingContext lingoContext = new LingoProcessingContext(reducedVsmContext);
+
+    lingo.matrixBuilder.buildTermDocumentMatrix(vsmContext);
+    lingo.matrixBuilder.buildTermPhraseMatrix(vsmContext);
+    lingo.matrixReducer.reduce(
+        reducedVsmContext,
+        LingoClusteringAlgorithm.computeClusterCount(
+            lingo.desiredClusterCount.get(), documents.size()));
+
+    lingo.clusterBuilder.buildLabels(lingoContext, lingo.matrixBuilder.termWeighting);
+  }
+}
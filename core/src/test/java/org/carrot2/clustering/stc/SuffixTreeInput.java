@@ -0,0 +1,51 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.clustering.stc;
+
+import org.carrot2.language.Tokenizer;
+import org.carrot2.text.preprocessing.PreprocessingContext;
+
+/**
+ * The generalized suffix tree input of {@link STCClusteringAlgorithm}, for benchmarks outside of
+ * this package.
+ */
+public final class SuffixTreeInput {
+  private final GeneralizedSuffixTree.SequenceBuilder sb =
+      new GeneralizedSuffixTree.SequenceBuilder();
+
+  /** Builds the input sequence from preprocessed documents, the same way as the algorithm. */
+  public SuffixTreeInput(PreprocessingContext context) {
+    final int[] tokenIndex = context.allTokens.wordIndex;
+    final short[] tokenType = context.allTokens.type;
+    for (int i = 0; i < tokenIndex.length; i++) {
+      if (tokenIndex[i] == -1) {
+        if ((tokenType[i] & (Tokenizer.TF_SEPARATOR_DOCUMENT | Tokenizer.TF_TERMINATOR)) != 0) {
+          sb.endDocument();
+        }
+        continue;
+      }
+
+      final int s = i;
+      while (tokenIndex[i + 1] != -1) i++;
+      sb.addPhrase(tokenIndex, s, 1 + i - s);
+    }
+  }
+
+  /**
+   * Builds the suffix tree (once per instance).
+   *
+   * @return The number of states of the tree.
+   */
+  public int buildSuffixTree() {
+    sb.buildSuffixTree();
+    return sb.stree.getStatesCount();
+  }
+}
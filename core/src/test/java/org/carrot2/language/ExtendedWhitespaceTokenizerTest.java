@@ -10,6 +10,10 @@
  */
 package org.carrot2.language;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import org.assertj.core.api.Assertions;
 import org.junit.Test;
 
 /** Test {@link ExtendedWhitespaceTokenizer}. */
@@ -180,4 +184,34 @@ public class ExtendedWhitespaceTokenizerTest extends TokenizerTestBase {
 
     assertEqualTokens(test, tokens);
   }
+
+  @Test
+  public void testArrayInputNotModified() throws IOException {
+    final Tokenizer tokenizer = createTokenStream();
+    final char[] input = "first input".toCharArray();
+    tokenizer.reset(input, 0, input.length);
+    while (tokenizer.nextToken() != Tokenizer.TT_EOF) {
+      // Consume.
+    }
+
+    // Neither tokenizing the array nor switching back to a reader can modify the array.
+    tokenizer.reset(new StringReader("another, longer input"));
+    while (tokenizer.nextToken() != Tokenizer.TT_EOF) {
+      // Consume.
+    }
+
+    Assertions.assertThat(new String(input)).isEqualTo("first input");
+  }
+
+  @Test
+  public void testInputLargerThanScannerBuffer() {
+    final StringBuilder sb = new StringBuilder();
+    final ArrayList<TokenImage> tokens = new ArrayList<>();
+    for (int i = 0; sb.length() < 50_000; i++) {
+      sb.append("term").append(i).append(' ');
+      tokens.add(new TokenImage("term" + i, Tokenizer.TT_TERM));
+    }
+
+    assertEqualTokens(sb.toString(), tokens.toArray(new TokenImage[0]));
+  }
 }
@@ -0,0 +1,190 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.language;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.carrotsearch.randomizedtesting.annotations.ThreadLeakLingering;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.carrot2.TestBase;
+import org.carrot2.clustering.CachedLangComponents;
+import org.carrot2.util.MutableCharArray;
+import org.junit.Test;
+
+public class StemCacheTest extends TestBase {
+  @Test
+  public void testHitsAndMisses() {
+    final AtomicInteger calls = new AtomicInteger();
+    final Stemmer stemmer =
+        (word) -> {
+          calls.incrementAndGet();
+          return word.toString().endsWith("s")
+              ? word.subSequence(0, word.length() - 1).toString()
+              : null;
+        };
+
+    final StemCache cache = new StemCache(100);
+    final MutableCharArray word = new MutableCharArray("cats");
+    assertThat(new String(cache.stem(stemmer, word))).isEqualTo("cat");
+    assertThat(new String(cache.stem(stemmer, word))).isEqualTo("cat");
+
+    word.reset("dog");
+    assertThat(cache.stem(stemmer, word)).isNull();
+    assertThat(cache.stem(stemmer, word)).isNull();
+
+    assertThat(calls.get()).isEqualTo(2);
+    assertThat(cache.hits()).isEqualTo(2);
+    assertThat(cache.misses()).isEqualTo(2);
+    assertThat(cache.size()).isEqualTo(2);
+
+    cache.clear();
+    assertThat(cache.size()).isEqualTo(0);
+    assertThat(cache.hits()).isEqualTo(0);
+  }
+
+  @Test
+  public void testKeyBufferNotRetained() {
+    final StemCache cache = new StemCache(10);
+    final Stemmer stemmer = (word) -> word.subSequence(0, 1);
+
+    final char[] buffer = "abc".toCharArray();
+    final MutableCharArray word = new MutableCharArray(buffer);
+    cache.stem(stemmer, word);
+    buffer[0] = 'x';
+
+    word.reset("abc");
+    assertThat(new String(cache.stem(stemmer, word))).isEqualTo("a");
+    assertThat(cache.hits()).isEqualTo(1);
+  }
+
+  @Test
+  public void testSizeBounded() {
+    final int maxSize = randomIntBetween(1, 200);
+    final StemCache cache = new StemCache(maxSize);
+    final Stemmer stemmer = (word) -> word;
+
+    final MutableCharArray word = new MutableCharArray();
+    for (int i = 0; i < maxSize * 10; i++) {
+      word.reset("word" + i);
+      assertThat(new String(cache.stem(stemmer, word))).isEqualTo("word" + i);
+    }
+
+    // Each segment evicts independently, the total may exceed the bound by the rounding slack.
+    assertThat(cache.size()).isLessThanOrEqualTo(maxSize + 16);
+    assertThat(cache.misses()).isEqualTo(maxSize * 10);
+  }
+
+  @Test
+  @ThreadLeakLingering(linger = 5000)
+  public void testConcurrentUseConsistentWithStemmer() throws Exception {
+    final LanguageComponents english = CachedLangComponents.loadCached("English");
+    final StemCache cache = new StemCache(randomIntBetween(10, 1000));
+    final String[] words = new String[2000];
+    for (int i = 0; i < words.length; i++) {
+      words[i] = randomAsciiLettersOfLengthBetween(1, 10).toLowerCase(Locale.ROOT);
+    }
+
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  final Stemmer cached = english.get(Stemmer.class);
+                  final Stemmer reference = english.get(Stemmer.class);
+                  final MutableCharArray word = new MutableCharArray();
+                  for (int i = 0; i < words.length * 5; i++) {
+                    final String w = words[(i * 31) % words.length];
+                    word.reset(w);
+                    final char[] stem = cache.stem(cached, word);
+                    final CharSequence expected = reference.stem(w);
+                    if (expected == null) {
+                      assertThat(stem).isNull();
+                    } else {
+                      assertThat(new String(stem)).isEqualTo(expected.toString());
+                    }
+                  }
+                  return null;
+                }));
+      }
+      for (Future<?> f : futures) {
+        f.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertThat(cache.hits() + cache.misses()).isEqualTo(4L * words.length * 5);
+  }
+
+  @Test
+  public void testResize() {
+    final StemCache cache = new StemCache(1000);
+    final Stemmer stemmer = (word) -> word;
+
+    final MutableCharArray word = new MutableCharArray();
+    for (int i = 0; i < 1000; i++) {
+      word.reset("word" + i);
+      cache.stem(stemmer, word);
+    }
+    assertThat(cache.size()).isGreaterThan(100 + 16);
+
+    cache.resize(100);
+    assertThat(cache.maxSize()).isEqualTo(100);
+    assertThat(cache.size()).isLessThanOrEqualTo(100 + 16);
+
+    // The most recently used words survive.
+    word.reset("word999");
+    cache.stem(stemmer, word);
+    assertThat(cache.hits()).isEqualTo(1);
+  }
+
+  @Test
+  public void testSharedThroughLanguageComponents() throws IOException {
+    // A fresh instance, so that the stem cache is created here.
+    final LanguageComponents english =
+        LanguageComponents.loader().limitToLanguages("English").load().language("English");
+    final StemCache cache = english.stemCache(100);
+    assertThat(english.stemCache(100)).isSameAs(cache);
+    assertThat(english.stemCache(200)).isSameAs(cache);
+    assertThat(english.stemCache(50)).isSameAs(cache);
+    assertThat(cache.maxSize()).isEqualTo(100);
+
+    final LanguageComponents overridden =
+        english.override(Stemmer.class, () -> (Stemmer) (word) -> null);
+    assertThat(overridden.stemCache(100)).isNotSameAs(english.stemCache(100));
+  }
+
+  @Test
+  public void testSharedThroughEphemeralDictionaries() {
+    final LanguageComponents english = CachedLangComponents.loadCached("English");
+
+    final DefaultDictionaryImpl wordFilter = new DefaultDictionaryImpl();
+    wordFilter.exact.set("word");
+    final DefaultDictionaryImpl labelFilter = new DefaultDictionaryImpl();
+    labelFilter.exact.set("label");
+    final EphemeralDictionaries dictionaries = new EphemeralDictionaries();
+    dictionaries.wordFilters.set(List.of(wordFilter));
+    dictionaries.labelFilters.set(List.of(labelFilter));
+
+    final LanguageComponents overridden = dictionaries.override(english);
+    assertThat(overridden).isNotSameAs(english);
+    assertThat(overridden.stemCache(100)).isSameAs(english.stemCache(100));
+  }
+}
@@ -52,26 +52,42 @@ abstract class TokenizerTestBase extends TestBase {
     }
   }
 
-  /** Compare expected and produced token sequences. */
+  /**
+   * Compare expected and produced token sequences. The input is passed to the tokenizer as a
+   * reader, a character sequence and a range of a larger array.
+   */
   protected void assertEqualTokens(String testString, TokenImage[] expectedTokens) {
     try {
       final Tokenizer tokenStream = createTokenStream();
       tokenStream.reset(new StringReader(testString));
+      Assertions.assertThat(tokens(tokenStream)).containsExactly(expectedTokens);
 
-      final ArrayList<TokenImage> tokens = new ArrayList<>();
-      short token;
-      MutableCharArray buffer = new MutableCharArray();
-      while ((token = tokenStream.nextToken()) >= 0) {
-        tokenStream.setTermBuffer(buffer);
-        tokens.add(new TokenImage(buffer.toString(), token));
-      }
+      tokenStream.reset(testString);
+      Assertions.assertThat(tokens(tokenStream)).containsExactly(expectedTokens);
+
+      final String padding = randomAsciiLettersOfLengthBetween(0, 5);
+      final char[] padded = (padding + " " + testString + " " + padding).toCharArray();
+      tokenStream.reset(padded, padding.length() + 1, testString.length());
+      Assertions.assertThat(tokens(tokenStream)).containsExactly(expectedTokens);
 
-      Assertions.assertThat(tokens).containsExactly(expectedTokens);
+      tokenStream.reset(new MutableCharArray(padded, padding.length() + 1, testString.length()));
+      Assertions.assertThat(tokens(tokenStream)).containsExactly(expectedTokens);
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
   }
 
+  private static ArrayList<TokenImage> tokens(Tokenizer tokenStream) throws IOException {
+    final ArrayList<TokenImage> tokens = new ArrayList<>();
+    short token;
+    MutableCharArray buffer = new MutableCharArray();
+    while ((token = tokenStream.nextToken()) >= 0) {
+      tokenStream.setTermBuffer(buffer);
+      tokens.add(new TokenImage(buffer.toString(), token));
+    }
+    return tokens;
+  }
+
   protected TokenImage term(String image) {
     return new TokenImage(image, Tokenizer.TT_TERM);
   }
@@ -0,0 +1,79 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.mahout.matrix.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.carrot2.TestBase;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+import org.junit.Test;
+
+/** Test cases for {@link DirectBufferPool}. */
+public class DirectBufferPoolTest extends TestBase {
+  @Test
+  public void testHeapWithoutLease() {
+    assertThat(DirectDoubleMatrix2D.pooled(3, 4)).isInstanceOf(DenseDoubleMatrix2D.class);
+  }
+
+  @Test
+  public void testBuffersReusedAcrossLeases() {
+    final DirectBufferPool pool = new DirectBufferPool(Long.MAX_VALUE);
+    final int rows = randomIntBetween(1, 20);
+    final int columns = randomIntBetween(1, 20);
+
+    try (DirectBufferPool.Lease lease = pool.open()) {
+      final DoubleMatrix2D matrix = DirectDoubleMatrix2D.pooled(rows, columns);
+      assertThat(matrix).isInstanceOf(DirectDoubleMatrix2D.class);
+      matrix.assign(1);
+      assertThat(matrix.like(rows, columns)).isInstanceOf(DirectDoubleMatrix2D.class);
+    }
+    final long allocated = pool.allocated();
+    assertThat(allocated).isEqualTo(2L * rows * columns * Double.BYTES);
+
+    try (DirectBufferPool.Lease lease = pool.open()) {
+      final DoubleMatrix2D matrix = DirectDoubleMatrix2D.pooled(rows, columns);
+      assertThat(matrix).isInstanceOf(DirectDoubleMatrix2D.class);
+      assertThat(matrix.zSum()).isEqualTo(0);
+    }
+    assertThat(pool.allocated()).isEqualTo(allocated);
+    assertThat(DirectDoubleMatrix2D.pooled(rows, columns)).isInstanceOf(DenseDoubleMatrix2D.class);
+  }
+
+  @Test
+  public void testLimit() {
+    final DirectBufferPool pool = new DirectBufferPool(100 * Double.BYTES);
+    try (DirectBufferPool.Lease lease = pool.open()) {
+      assertThat(DirectDoubleMatrix2D.pooled(10, 10)).isInstanceOf(DirectDoubleMatrix2D.class);
+      assertThat(DirectDoubleMatrix2D.pooled(1, 1)).isInstanceOf(DenseDoubleMatrix2D.class);
+    }
+    assertThat(pool.allocated()).isEqualTo(100 * Double.BYTES);
+
+    // A much smaller matrix does not take the large idle buffer.
+    try (DirectBufferPool.Lease lease = pool.open()) {
+      assertThat(DirectDoubleMatrix2D.pooled(1, 1)).isInstanceOf(DenseDoubleMatrix2D.class);
+      assertThat(DirectDoubleMatrix2D.pooled(10, 6)).isInstanceOf(DirectDoubleMatrix2D.class);
+    }
+  }
+
+  @Test
+  public void testNestedLeases() {
+    final DirectBufferPool outerPool = new DirectBufferPool(Long.MAX_VALUE);
+    final DirectBufferPool innerPool = new DirectBufferPool(Long.MAX_VALUE);
+    try (DirectBufferPool.Lease outer = outerPool.open()) {
+      try (DirectBufferPool.Lease inner = innerPool.open()) {
+        DirectDoubleMatrix2D.pooled(2, 2);
+      }
+      DirectDoubleMatrix2D.pooled(3, 3);
+    }
+    assertThat(innerPool.allocated()).isEqualTo(4 * Double.BYTES);
+    assertThat(outerPool.allocated()).isEqualTo(9 * Double.BYTES);
+  }
+}
@@ -0,0 +1,238 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.mahout.matrix.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.carrot2.TestBase;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link DoubleKernels}. Each test runs against the scalar kernels and, if the JVM
+ * runs with the Vector API module, against the SIMD kernels, which otherwise would replace the
+ * scalar ones in all other tests.
+ */
+public class DoubleKernelsTest extends TestBase {
+  private static final Offset<Double> DELTA = Offset.offset(1e-9);
+
+  @Test
+  public void testVectorKernelsAvailableWithModule() {
+    if (DoubleKernels.isVectorModulePresent()) {
+      Assertions.assertThat(DoubleKernels.vectorKernels()).isNotNull();
+      Assertions.assertThat(DoubleKernels.INSTANCE.getClass()).isNotEqualTo(DoubleKernels.class);
+    } else {
+      Assertions.assertThat(DoubleKernels.INSTANCE.getClass()).isEqualTo(DoubleKernels.class);
+    }
+  }
+
+  @Test
+  public void testGemv() {
+    for (DoubleKernels kernels : kernels()) {
+      for (boolean transposeA : new boolean[] {false, true}) {
+        gemv(kernels, transposeA);
+      }
+    }
+  }
+
+  private static void gemv(DoubleKernels kernels, boolean transposeA) {
+    final int m = randomIntBetween(1, 20);
+    final int n = randomIntBetween(1, 40);
+    final double alpha = randomDouble();
+    final double beta = randomBoolean() ? 0 : randomDouble();
+    final double[] a = randomValues(m * n);
+    final double[] y = randomValues(n);
+    final double[] z = randomValues(m);
+
+    final double[] expected = z.clone();
+    for (int i = 0; i < m; i++) {
+      double sum = 0;
+      for (int k = 0; k < n; k++) {
+        sum += a[transposeA ? k * m + i : i * n + k] * y[k];
+      }
+      expected[i] = alpha * sum + beta * expected[i];
+    }
+
+    kernels.gemv(m, n, alpha, a, 0, transposeA ? 1 : n, transposeA ? m : 1, y, 0, 1, beta, z, 0, 1);
+    assertClose(z, expected);
+  }
+
+  @Test
+  public void testGemm() {
+    for (DoubleKernels kernels : kernels()) {
+      // Transposed layouts select different loops of the SIMD kernels.
+      for (int layout = 0; layout < 8; layout++) {
+        gemm(kernels, (layout & 1) != 0, (layout & 2) != 0, (layout & 4) != 0);
+      }
+    }
+  }
+
+  private static void gemm(
+      DoubleKernels kernels, boolean transposeA, boolean transposeB, boolean transposeC) {
+    final int m = randomIntBetween(1, 20);
+    final int n = randomIntBetween(1, 40);
+    final int p = randomIntBetween(1, 20);
+    final double alpha = randomDouble();
+    final double beta = randomBoolean() ? 0 : randomDouble();
+    final double[] a = randomValues(m * n);
+    final double[] b = randomValues(n * p);
+    final double[] c = randomValues(m * p);
+
+    final double[] expected = c.clone();
+    for (int i = 0; i < m; i++) {
+      for (int j = 0; j < p; j++) {
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+          sum += a[transposeA ? k * m + i : i * n + k] * b[transposeB ? j * n + k : k * p + j];
+        }
+        final int cell = transposeC ? j * m + i : i * p + j;
+        expected[cell] = alpha * sum + beta * expected[cell];
+      }
+    }
+
+    kernels.gemm(
+        m,
+        n,
+        p,
+        alpha,
+        a,
+        0,
+        transposeA ? 1 : n,
+        transposeA ? m : 1,
+        b,
+        0,
+        transposeB ? 1 : p,
+        transposeB ? n : 1,
+        beta,
+        c,
+        0,
+        transposeC ? 1 : p,
+        transposeC ? m : 1);
+    assertClose(c, expected);
+  }
+
+  @Test
+  public void testElementwise() {
+    for (DoubleKernels kernels : kernels()) {
+      for (int stride = 1; stride <= 2; stride++) {
+        for (double multiplicator : new double[] {1, -1, randomDouble()}) {
+          elementwise(kernels, stride, multiplicator);
+        }
+      }
+    }
+  }
+
+  private static void elementwise(DoubleKernels kernels, int stride, double multiplicator) {
+    final int n = randomIntBetween(1, 40);
+    final double[] x = randomValues(n * stride);
+    final double[] y = randomValues(n * stride);
+    for (int i = 0; i < y.length; i++) {
+      y[i] += 0.5;
+    }
+
+    final double[] expected = x.clone();
+    for (int i = 0; i < n * stride; i += stride) {
+      expected[i] = (expected[i] * y[i]) / y[i];
+      expected[i] += multiplicator * y[i];
+    }
+
+    kernels.mult(n, x, 0, stride, y, 0, stride);
+    kernels.div(n, x, 0, stride, y, 0, stride);
+    kernels.plusMult(n, x, 0, stride, y, 0, stride, multiplicator);
+
+    // Element-wise kernels give the same results in all implementations.
+    Assertions.assertThat(x).containsExactly(expected);
+  }
+
+  @Test
+  public void testParallelMultiplicationIsDeterministic() {
+    for (DoubleKernels kernels : kernels()) {
+      // Large enough to be split among threads.
+      final int m = randomIntBetween(100, 200);
+      final int n = 150;
+      final int p = 150;
+      Assertions.assertThat((long) m * n * p).isGreaterThan(DoubleKernels.PARALLEL_THRESHOLD);
+
+      final double[] a = randomValues(m * n);
+      final double[] b = randomValues(n * p);
+      final double[] c = randomValues(m * p);
+      final boolean transposeB = randomBoolean();
+      final double beta = randomBoolean() ? 0 : randomDouble();
+
+      final double[] expected = c.clone();
+      multiply(kernels, 1, m, n, p, a, b, transposeB, beta, expected);
+      for (int threads = 2; threads <= 8; threads++) {
+        final double[] actual = c.clone();
+        multiply(kernels, threads, m, n, p, a, b, transposeB, beta, actual);
+        Assertions.assertThat(actual).containsExactly(expected);
+      }
+    }
+  }
+
+  /** Returns the scalar kernels and the SIMD kernels, if available. */
+  private static List<DoubleKernels> kernels() {
+    final List<DoubleKernels> kernels = new ArrayList<>();
+    kernels.add(new DoubleKernels());
+    final DoubleKernels vectorKernels = DoubleKernels.vectorKernels();
+    if (vectorKernels != null) {
+      kernels.add(vectorKernels);
+    }
+    return kernels;
+  }
+
+  private static void multiply(
+      DoubleKernels kernels,
+      int threads,
+      int m,
+      int n,
+      int p,
+      double[] a,
+      double[] b,
+      boolean transposeB,
+      double beta,
+      double[] c) {
+    kernels.parallelGemm(
+        threads,
+        m,
+        n,
+        p,
+        1,
+        a,
+        0,
+        n,
+        1,
+        b,
+        0,
+        transposeB ? 1 : p,
+        transposeB ? n : 1,
+        beta,
+        c,
+        0,
+        p,
+        1);
+  }
+
+  private static void assertClose(double[] actual, double[] expected) {
+    Assertions.assertThat(actual.length).isEqualTo(expected.length);
+    for (int i = 0; i < expected.length; i++) {
+      Assertions.assertThat(actual[i]).isEqualTo(expected[i], DELTA);
+    }
+  }
+
+  private static double[] randomValues(int size) {
+    final double[] values = new double[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = randomDouble();
+    }
+    return values;
+  }
+}
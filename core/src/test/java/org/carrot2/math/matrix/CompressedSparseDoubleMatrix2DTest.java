@@ -0,0 +1,118 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.matrix;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.assertj.core.data.Offset;
+import org.carrot2.math.mahout.function.Functions;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.CompressedSparseDoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix2D;
+import org.junit.Test;
+
+/** Test cases for {@link CompressedSparseDoubleMatrix2D}. */
+public class CompressedSparseDoubleMatrix2DTest extends DoubleMatrix2DTestBase {
+  @Override
+  protected DoubleMatrix2D matrix(double[][] values) {
+    return new CompressedSparseDoubleMatrix2D(values);
+  }
+
+  @Override
+  protected DoubleMatrix2D operand(double[][] values) {
+    return new DenseDoubleMatrix2D(values);
+  }
+
+  @Test
+  public void testEmptyRowsAndColumns() {
+    final double[][] values = randomValues(randomIntBetween(0, 20), randomIntBetween(0, 20));
+    final CompressedSparseDoubleMatrix2D sparse = new CompressedSparseDoubleMatrix2D(values);
+
+    MatrixAssertions.assertThat(sparse).isEquivalentTo(values);
+    assertThat(sparse.cardinality()).isEqualTo(new DenseDoubleMatrix2D(values).cardinality());
+    assertThat(sparse.zSum())
+        .isEqualTo(new DenseDoubleMatrix2D(values).zSum(), Offset.offset(delta()));
+  }
+
+  @Test
+  public void testUnsortedRows() {
+    final CompressedSparseDoubleMatrix2D sparse =
+        new CompressedSparseDoubleMatrix2D(
+            2, 3, new int[] {0, 2, 3}, new int[] {2, 0, 1}, new double[] {1, 2, 3});
+
+    MatrixAssertions.assertThat(sparse)
+        .isEquivalentTo(
+            new double[][] {
+              {2, 0, 1},
+              {0, 3, 0}
+            });
+    assertThat(sparse.columnIndex(sparse.rowStart(0))).isEqualTo(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDuplicateColumns() {
+    new CompressedSparseDoubleMatrix2D(
+        1, 3, new int[] {0, 2}, new int[] {1, 1}, new double[] {1, 2});
+  }
+
+  @Test
+  public void testDenseTimesSparse() {
+    final double[][] values = randomValues(randomIntBetween(1, 15), randomIntBetween(1, 15));
+    final DoubleMatrix2D sparse = new CompressedSparseDoubleMatrix2D(values);
+    final DoubleMatrix2D dense = new DenseDoubleMatrix2D(values);
+    final DoubleMatrix2D B =
+        new DenseDoubleMatrix2D(randomValues(values[0].length, randomIntBetween(1, 15)));
+
+    // Dense times sparse, dispatched to the sparse matrix.
+    MatrixAssertions.assertThat(B.viewDice().zMult(sparse.viewDice(), null, 1, 0, false, false))
+        .isEquivalentTo(dense.zMult(B, null, 1, 0, false, false).viewDice(), delta());
+  }
+
+  @Test
+  public void testStoredElementUpdates() {
+    final double[][] values = {
+      {0, 1, 0},
+      {2, 0, 3}
+    };
+    final CompressedSparseDoubleMatrix2D sparse = new CompressedSparseDoubleMatrix2D(values);
+    final DoubleMatrix2D copy = sparse.copy();
+
+    sparse.set(1, 2, 5);
+    sparse.set(0, 0, 0);
+    sparse.assign(Functions.mult(2));
+    MatrixAssertions.assertThat(sparse)
+        .isEquivalentTo(
+            new double[][] {
+              {0, 2, 0},
+              {4, 0, 10}
+            });
+    MatrixAssertions.assertThat(copy).isEquivalentTo(values);
+
+    sparse.assign(0);
+    assertThat(sparse.cardinality()).isEqualTo(0);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testMissingElementUpdate() {
+    new CompressedSparseDoubleMatrix2D(new double[][] {{0, 1}}).set(0, 0, 1);
+  }
+
+  @Test
+  public void testNormalizeColumnL2() {
+    final double[][] values = randomValues(randomIntBetween(1, 20), randomIntBetween(1, 20));
+    final DoubleMatrix2D sparse = new CompressedSparseDoubleMatrix2D(values);
+    final DoubleMatrix2D dense = new DenseDoubleMatrix2D(values);
+
+    MatrixUtils.normalizeColumnL2(sparse, null);
+    MatrixUtils.normalizeColumnL2(dense, null);
+    MatrixAssertions.assertThat(sparse).isEquivalentTo(dense);
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.matrix;
+
+import org.carrot2.math.mahout.function.DoubleDoubleFunction;
+import org.carrot2.math.mahout.function.Functions;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix1D;
+import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix2D;
+import org.junit.Test;
+
+/**
+ * Test cases for the dense matrix kernels of {@link DenseDoubleMatrix2D}, compared with naive loops
+ * for contiguous and strided matrices.
+ */
+public class DenseDoubleMatrix2DTest extends DoubleMatrix2DTestBase {
+  @Override
+  protected DoubleMatrix2D matrix(double[][] values) {
+    return randomLayout(new DenseDoubleMatrix2D(values));
+  }
+
+  @Test
+  public void testElementWiseFunctions() {
+    final int rows = randomIntBetween(1, 40);
+    final int columns = randomIntBetween(1, 40);
+    final double[][] x = randomValues(rows, columns);
+    final double[][] y = randomValues(rows, columns);
+    for (double[] row : y) {
+      for (int column = 0; column < columns; column++) {
+        row[column] += 1;
+      }
+    }
+
+    final double multiplicator = randomDouble();
+    final DoubleDoubleFunction[] functions = {
+      Functions.MULT,
+      Functions.DIV,
+      Functions.PLUS,
+      Functions.MINUS,
+      Functions.plusMult(multiplicator),
+      Functions.MAX
+    };
+    for (DoubleDoubleFunction function : functions) {
+      final double[][] expected = new double[rows][columns];
+      for (int row = 0; row < rows; row++) {
+        for (int column = 0; column < columns; column++) {
+          expected[row][column] = function.apply(x[row][column], y[row][column]);
+        }
+      }
+
+      final DoubleMatrix2D result = matrix(x);
+      MatrixAssertions.assertThat(result.assign(matrix(y), function)).isEquivalentTo(expected, 0);
+      MatrixAssertions.assertThat(
+              new DenseDoubleMatrix1D(x[0]).assign(new DenseDoubleMatrix1D(y[0]), function))
+          .isEquivalentTo(expected[0], 0);
+    }
+  }
+
+  /**
+   * Returns a matrix equal to the given one, but randomly stored transposed or as a part of a
+   * larger matrix, so that cells are not contiguous.
+   */
+  private static DoubleMatrix2D randomLayout(DoubleMatrix2D matrix) {
+    switch (randomIntBetween(0, 2)) {
+      case 0:
+        return matrix;
+      case 1:
+        return matrix.viewDice().copy().viewDice();
+      default:
+        final DoubleMatrix2D larger =
+            new DenseDoubleMatrix2D(matrix.rows() + 2, matrix.columns() + 3);
+        return larger.viewPart(1, 2, matrix.rows(), matrix.columns()).assign(matrix);
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.matrix;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.assertj.core.data.Offset;
+import org.carrot2.math.mahout.function.Functions;
+import org.carrot2.math.mahout.matrix.DoubleMatrix1D;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.CompressedSparseDoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix1D;
+import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.DenseFloatMatrix1D;
+import org.carrot2.math.mahout.matrix.impl.DenseFloatMatrix2D;
+import org.junit.Test;
+
+/** Test cases for {@link DenseFloatMatrix2D}. */
+public class DenseFloatMatrix2DTest extends DoubleMatrix2DTestBase {
+  private static final double DELTA = 1e-5;
+
+  @Override
+  protected DoubleMatrix2D matrix(double[][] values) {
+    return new DenseFloatMatrix2D(values);
+  }
+
+  @Override
+  protected DoubleMatrix1D vector(double[] values) {
+    return new DenseFloatMatrix1D(values);
+  }
+
+  @Override
+  protected double delta() {
+    return DELTA;
+  }
+
+  @Test
+  public void testRounding() {
+    final DoubleMatrix2D single = new DenseFloatMatrix2D(randomIntBetween(1, 20), 1);
+    single.set(0, 0, 1.0 / 3);
+    assertThat(single.get(0, 0)).isEqualTo((double) (float) (1.0 / 3));
+  }
+
+  @Test
+  public void testAssign() {
+    final int rows = randomIntBetween(1, 20);
+    final int columns = randomIntBetween(1, 20);
+    final double[][] values = randomValues(rows, columns);
+    final double[][] others = randomValues(rows, columns);
+    for (double[] row : others) {
+      for (int column = 0; column < columns; column++) {
+        row[column] += 1;
+      }
+    }
+
+    final DoubleMatrix2D single = new DenseFloatMatrix2D(values);
+    final DoubleMatrix2D dense = new DenseDoubleMatrix2D(values);
+    single.assign(new DenseFloatMatrix2D(others), Functions.MULT);
+    dense.assign(new DenseDoubleMatrix2D(others), Functions.MULT);
+    single.assign(new DenseFloatMatrix2D(others).viewDice().viewDice(), Functions.PLUS);
+    dense.assign(new DenseDoubleMatrix2D(others), Functions.PLUS);
+    single.assign(Functions.plus(1));
+    dense.assign(Functions.plus(1));
+    single.assign(new DenseFloatMatrix2D(others), Functions.DIV);
+    dense.assign(new DenseDoubleMatrix2D(others), Functions.DIV);
+    MatrixAssertions.assertThat(single).isEquivalentTo(dense.toArray(), 1e-3);
+
+    MatrixAssertions.assertThat(new DenseFloatMatrix2D(rows, columns).assign(dense))
+        .isEquivalentTo(new DenseFloatMatrix2D(dense.toArray()));
+    MatrixAssertions.assertThat(new DenseFloatMatrix2D(rows, columns).assign(0.5))
+        .isEquivalentTo(new DenseDoubleMatrix2D(rows, columns).assign(0.5));
+  }
+
+  @Test
+  public void testToSinglePrecision() {
+    final double[][] values = randomValues(randomIntBetween(1, 20), randomIntBetween(1, 20));
+    final DoubleMatrix2D single = MatrixUtils.toSinglePrecision(new DenseDoubleMatrix2D(values));
+
+    assertThat(single).isInstanceOf(DenseFloatMatrix2D.class);
+    MatrixAssertions.assertThat(single).isEquivalentTo(values, DELTA);
+    assertThat(MatrixUtils.toSinglePrecision(single)).isSameAs(single);
+
+    final DoubleMatrix2D sparse = new CompressedSparseDoubleMatrix2D(values);
+    assertThat(MatrixUtils.toSinglePrecision(sparse)).isSameAs(sparse);
+  }
+
+  @Test
+  public void testVector() {
+    final double[] values = randomValues(1, randomIntBetween(1, 20))[0];
+    final DoubleMatrix1D single = new DenseFloatMatrix1D(values);
+    final DoubleMatrix1D dense = new DenseDoubleMatrix1D(values);
+
+    MatrixAssertions.assertThat(single).isEquivalentTo(values, DELTA);
+    assertThat(single.zSum()).isEqualTo(dense.zSum(), Offset.offset(DELTA));
+    final int from = values.length / 2;
+    MatrixAssertions.assertThat(single.viewPart(from, values.length - from))
+        .isEquivalentTo(dense.viewPart(from, values.length - from), DELTA);
+
+    single.assign(Functions.mult(2));
+    dense.assign(Functions.mult(2));
+    MatrixAssertions.assertThat(single).isEquivalentTo(dense, DELTA);
+  }
+}
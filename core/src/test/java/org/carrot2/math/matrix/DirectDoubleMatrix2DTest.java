@@ -0,0 +1,114 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.matrix;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.carrot2.math.mahout.function.Functions;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.DirectBufferPool;
+import org.carrot2.math.mahout.matrix.impl.DirectDoubleMatrix2D;
+import org.junit.Test;
+
+/** Test cases for {@link DirectDoubleMatrix2D}. */
+public class DirectDoubleMatrix2DTest extends DoubleMatrix2DTestBase {
+  @Override
+  protected DoubleMatrix2D matrix(double[][] values) {
+    return new DirectDoubleMatrix2D(values);
+  }
+
+  @Test
+  public void testPooledCopy() {
+    final DoubleMatrix2D direct =
+        new DirectDoubleMatrix2D(randomValues(randomIntBetween(1, 20), randomIntBetween(1, 20)));
+
+    try (DirectBufferPool.Lease lease = DirectBufferPool.lease()) {
+      assertThat(direct.copy()).isInstanceOf(DirectDoubleMatrix2D.class);
+      MatrixAssertions.assertThat(direct.copy()).isEquivalentTo(direct);
+    }
+  }
+
+  @Test
+  public void testAssign() {
+    final double[][] values = randomValues(randomIntBetween(1, 20), randomIntBetween(1, 20));
+    final DoubleMatrix2D direct = new DirectDoubleMatrix2D(values);
+    final DoubleMatrix2D dense = new DenseDoubleMatrix2D(values);
+
+    MatrixAssertions.assertThat(new DirectDoubleMatrix2D(values.length, values.length).assign(0.5))
+        .isEquivalentTo(new DenseDoubleMatrix2D(values.length, values.length).assign(0.5));
+
+    final int row = randomIntBetween(0, values.length - 1);
+    direct.viewRow(row).assign(3);
+    dense.viewRow(row).assign(3);
+    direct.assign(Functions.mult(2));
+    dense.assign(Functions.mult(2));
+    MatrixAssertions.assertThat(direct).isEquivalentTo(dense, 0);
+  }
+
+  @Test
+  public void testMixedStorageMultiplication() {
+    // Large enough for products to be computed in several blocks.
+    final int m = randomIntBetween(1, 300);
+    final int n = randomIntBetween(1, 300);
+    final int k = randomIntBetween(1, 300);
+    final double[][] values = randomValues(m, n);
+    final DoubleMatrix2D dense = new DenseDoubleMatrix2D(values);
+
+    final double alpha = randomBoolean() ? 1 : randomDouble();
+    final double beta = randomBoolean() ? 0 : randomDouble();
+    final boolean transposeA = randomBoolean();
+    final boolean transposeB = randomBoolean();
+    final int rows = transposeA ? n : m;
+    final int columns = transposeA ? m : n;
+    final double[][] B = transposeB ? randomValues(k, columns) : randomValues(columns, k);
+    final double[][] C = randomValues(rows, k);
+
+    final DoubleMatrix2D expected =
+        dense.zMult(
+            new DenseDoubleMatrix2D(B),
+            new DenseDoubleMatrix2D(C),
+            alpha,
+            beta,
+            transposeA,
+            transposeB);
+
+    // Each combination of matrices stored on and off heap.
+    for (int offHeap = 1; offHeap < 8; offHeap++) {
+      final DoubleMatrix2D a = matrix(values, (offHeap & 1) != 0);
+      final DoubleMatrix2D b = matrix(B, (offHeap & 2) != 0);
+      final DoubleMatrix2D c = matrix(C, (offHeap & 4) != 0);
+      MatrixAssertions.assertThat(a.zMult(b, c, alpha, beta, transposeA, transposeB))
+          .isEquivalentTo(expected, delta());
+    }
+  }
+
+  @Test
+  public void testCreateDenseMatrix() {
+    final int rows = randomIntBetween(1, 20);
+    final int columns = randomIntBetween(1, 20);
+    final long bytes = (long) rows * columns * Double.BYTES;
+
+    try (DirectBufferPool.Lease lease = DirectBufferPool.lease()) {
+      assertThat(MatrixUtils.createDenseMatrix(rows, columns, bytes))
+          .isInstanceOf(DirectDoubleMatrix2D.class);
+      assertThat(MatrixUtils.createDenseMatrix(rows, columns, bytes + 1))
+          .isInstanceOf(DenseDoubleMatrix2D.class);
+    }
+    // Outside of a clustering call, matrices are always stored on the heap.
+    assertThat(MatrixUtils.createDenseMatrix(rows, columns, bytes))
+        .isInstanceOf(DenseDoubleMatrix2D.class);
+  }
+
+  private static DoubleMatrix2D matrix(double[][] values, boolean offHeap) {
+    return offHeap ? new DirectDoubleMatrix2D(values) : new DenseDoubleMatrix2D(values);
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.matrix;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.assertj.core.data.Offset;
+import org.carrot2.TestBase;
+import org.carrot2.math.mahout.function.Functions;
+import org.carrot2.math.mahout.matrix.DoubleMatrix1D;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.CompressedSparseDoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix1D;
+import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix2D;
+import org.junit.Test;
+
+/**
+ * Test cases shared by {@link DoubleMatrix2D} implementations, compared with {@link
+ * DenseDoubleMatrix2D} and naive loops. Subclasses create the matrices under test.
+ */
+public abstract class DoubleMatrix2DTestBase extends TestBase {
+  /** Returns a matrix under test with the given values. */
+  protected abstract DoubleMatrix2D matrix(double[][] values);
+
+  /** Returns a matrix the matrix under test is multiplied by or added to. */
+  protected DoubleMatrix2D operand(double[][] values) {
+    return matrix(values);
+  }
+
+  /** Returns a vector the matrix under test is multiplied by. */
+  protected DoubleMatrix1D vector(double[] values) {
+    return new DenseDoubleMatrix1D(values);
+  }
+
+  /** Returns the maximum difference from results computed in double precision. */
+  protected double delta() {
+    return 1e-9;
+  }
+
+  @Test
+  public void testElements() {
+    final double[][] values = randomValues(randomIntBetween(1, 20), randomIntBetween(1, 20));
+    final DoubleMatrix2D matrix = matrix(values);
+
+    MatrixAssertions.assertThat(matrix).isEquivalentTo(values, delta());
+    MatrixAssertions.assertThat(matrix.copy()).isEquivalentTo(matrix);
+    assertThat(matrix.cardinality()).isEqualTo(new DenseDoubleMatrix2D(values).cardinality());
+    assertThat(matrix.zSum())
+        .isEqualTo(new DenseDoubleMatrix2D(matrix.toArray()).zSum(), Offset.offset(1e-9));
+  }
+
+  @Test
+  public void testViews() {
+    final double[][] values = randomValues(randomIntBetween(2, 20), randomIntBetween(2, 20));
+    final DoubleMatrix2D matrix = matrix(values);
+    final DoubleMatrix2D dense = new DenseDoubleMatrix2D(values);
+    final double delta = delta();
+
+    MatrixAssertions.assertThat(matrix.viewDice()).isEquivalentTo(dense.viewDice(), delta);
+
+    final int row = randomIntBetween(0, values.length - 1);
+    final int column = randomIntBetween(0, values[0].length - 1);
+    MatrixAssertions.assertThat(matrix.viewPart(row, column, 1, 1))
+        .isEquivalentTo(dense.viewPart(row, column, 1, 1), delta);
+    MatrixAssertions.assertThat(matrix.viewRow(row)).isEquivalentTo(dense.viewRow(row), delta);
+    MatrixAssertions.assertThat(matrix.viewColumn(column))
+        .isEquivalentTo(dense.viewColumn(column), delta);
+    MatrixAssertions.assertThat(matrix.viewDice().viewRow(column))
+        .isEquivalentTo(dense.viewColumn(column), delta);
+
+    final int[] rows = {row, 0, row};
+    final int[] columns = {column, column, 0};
+    MatrixAssertions.assertThat(matrix.viewSelection(rows, columns))
+        .isEquivalentTo(dense.viewSelection(rows, columns), delta);
+    MatrixAssertions.assertThat(matrix.viewSelection(rows, columns).copy())
+        .isEquivalentTo(dense.viewSelection(rows, columns), delta);
+
+    // Views of views.
+    MatrixAssertions.assertThat(matrix.viewSelection(rows, columns).viewDice())
+        .isEquivalentTo(dense.viewSelection(rows, columns).viewDice(), delta);
+    MatrixAssertions.assertThat(matrix.viewSelection(rows, columns).viewRow(1))
+        .isEquivalentTo(dense.viewSelection(rows, columns).viewRow(1), delta);
+    MatrixAssertions.assertThat(matrix.viewRow(row).viewPart(1, 1))
+        .isEquivalentTo(dense.viewRow(row).viewPart(1, 1), delta);
+
+    matrix.viewColumn(column).assign(Functions.mult(2));
+    dense.viewColumn(column).assign(Functions.mult(2));
+    MatrixAssertions.assertThat(matrix).isEquivalentTo(dense, delta);
+  }
+
+  @Test
+  public void testMultiplication() {
+    final int m = randomIntBetween(1, 40);
+    final int n = randomIntBetween(1, 40);
+    final int p = randomIntBetween(1, 40);
+    final double[][] a = randomValues(m, n);
+    final double[][] b = randomValues(n, p);
+    final double[][] c = randomValues(m, p);
+    final double alpha = randomBoolean() ? 1 : randomDouble();
+    final double beta = randomBoolean() ? 0 : randomDouble();
+
+    final double[][] expected = new double[m][p];
+    for (int i = 0; i < m; i++) {
+      for (int j = 0; j < p; j++) {
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+          sum += a[i][k] * b[k][j];
+        }
+        expected[i][j] = alpha * sum + beta * c[i][j];
+      }
+    }
+
+    for (boolean transposeA : new boolean[] {false, true}) {
+      for (boolean transposeB : new boolean[] {false, true}) {
+        final double[][] A = transposeA ? transpose(a) : a;
+        final double[][] B = transposeB ? transpose(b) : b;
+        MatrixAssertions.assertThat(
+                matrix(A).zMult(operand(B), operand(c), alpha, beta, transposeA, transposeB))
+            .isEquivalentTo(expected, delta());
+        MatrixAssertions.assertThat(
+                new CompressedSparseDoubleMatrix2D(A)
+                    .zMult(operand(B), operand(c), alpha, beta, transposeA, transposeB))
+            .isEquivalentTo(expected, delta());
+      }
+    }
+  }
+
+  @Test
+  public void testVectorMultiplication() {
+    final int m = randomIntBetween(1, 40);
+    final int n = randomIntBetween(1, 40);
+    final double[][] a = randomValues(m, n);
+    final double[] y = randomValues(1, n)[0];
+    final double[] z = randomValues(1, m)[0];
+    final double alpha = randomBoolean() ? 1 : randomDouble();
+    final double beta = randomBoolean() ? 0 : randomDouble();
+
+    final double[] expected = new double[m];
+    for (int i = 0; i < m; i++) {
+      double sum = 0;
+      for (int k = 0; k < n; k++) {
+        sum += a[i][k] * y[k];
+      }
+      expected[i] = alpha * sum + beta * z[i];
+    }
+
+    MatrixAssertions.assertThat(matrix(a).zMult(vector(y), vector(z), alpha, beta, false))
+        .isEquivalentTo(expected, delta());
+    MatrixAssertions.assertThat(
+            matrix(transpose(a)).zMult(vector(y), vector(z), alpha, beta, true))
+        .isEquivalentTo(expected, delta());
+  }
+
+  /** Returns a random matrix with about a third of non-zero elements. */
+  protected static double[][] randomValues(int rows, int columns) {
+    final double[][] values = new double[rows][columns];
+    for (int row = 0; row < rows; row++) {
+      for (int column = 0; column < columns; column++) {
+        if (randomIntBetween(0, 2) == 0) {
+          values[row][column] = randomDouble();
+        }
+      }
+    }
+    return values;
+  }
+
+  private static double[][] transpose(double[][] values) {
+    final double[][] transposed = new double[values[0].length][values.length];
+    for (int row = 0; row < values.length; row++) {
+      for (int column = 0; column < values[row].length; column++) {
+        transposed[column][row] = values[row][column];
+      }
+    }
+    return transposed;
+  }
+}
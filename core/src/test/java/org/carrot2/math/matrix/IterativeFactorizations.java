@@ -0,0 +1,21 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.matrix;
+
+/** Access to iterative factorization internals, for benchmarks outside of this package. */
+public final class IterativeFactorizations {
+  private IterativeFactorizations() {}
+
+  /** @see IterativeMatrixFactorizationBase#getApproximationErrors() */
+  public static double[] approximationErrors(MatrixFactorization factorization) {
+    return ((IterativeMatrixFactorizationBase) factorization).getApproximationErrors();
+  }
+}
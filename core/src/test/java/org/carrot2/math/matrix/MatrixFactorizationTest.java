@@ -10,9 +10,18 @@
  */
 package org.carrot2.math.matrix;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
 import org.carrot2.TestBase;
+import org.carrot2.math.mahout.function.Functions;
 import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.CompressedSparseDoubleMatrix2D;
 import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.DenseFloatMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.DirectDoubleMatrix2D;
 import org.junit.Test;
 
 /** Test cases for matrix factorizations. */
@@ -74,6 +83,40 @@ public class MatrixFactorizationTest extends TestBase {
     org.junit.Assert.assertArrayEquals(expectedS, factorization.getSingularValues(), DELTA);
   }
 
+  @Test
+  public void testRandomizedSVD() {
+    // A low-rank matrix, whose range is found exactly by random projections.
+    final int rank = randomIntBetween(1, 10);
+    final DoubleMatrix2D X = new DenseDoubleMatrix2D(randomIntBetween(40, 60), rank);
+    final DoubleMatrix2D Y = new DenseDoubleMatrix2D(rank, randomIntBetween(30, 50));
+    X.assign(value -> randomDouble());
+    Y.assign(value -> randomDouble());
+    final DoubleMatrix2D input = X.zMult(Y, null, 1, 0, false, false);
+    final int k = randomIntBetween(1, rank);
+
+    final PartialSingularValueDecompositionFactory exactFactory =
+        new PartialSingularValueDecompositionFactory();
+    exactFactory.setK(k);
+    final PartialSingularValueDecomposition expected =
+        (PartialSingularValueDecomposition) exactFactory.factorize(input);
+
+    final RandomizedSingularValueDecompositionFactory factory =
+        new RandomizedSingularValueDecompositionFactory();
+    factory.setK(k);
+    final PartialSingularValueDecomposition factorization =
+        (PartialSingularValueDecomposition) factory.factorize(input);
+
+    org.junit.Assert.assertArrayEquals(
+        expected.getSingularValues(), factorization.getSingularValues(), DELTA);
+    // Singular vectors are equal up to their signs.
+    MatrixAssertions.assertThat(abs(factorization.getU()))
+        .as("U")
+        .isEquivalentTo(abs(expected.getU()), DELTA);
+    MatrixAssertions.assertThat(abs(factorization.getV()))
+        .as("V")
+        .isEquivalentTo(abs(expected.getV()), DELTA);
+  }
+
   @Test
   public void testUnorderedNMFED() {
     DoubleMatrix2D expectedU =
@@ -160,6 +203,29 @@ public class MatrixFactorizationTest extends TestBase {
     checkIterative(expectedU, expectedV, factory);
   }
 
+  @Test
+  public void testNMFHALS() {
+    final IterativeMatrixFactorizationFactory ed = new NonnegativeMatrixFactorizationEDFactory();
+    final IterativeMatrixFactorizationFactory hals =
+        new NonnegativeMatrixFactorizationHALSFactory();
+    final MatrixFactorization expected = factorize(A, ed);
+    final MatrixFactorization factorization = factorize(A, hals);
+
+    // The same approximation as NMF-ED, U and V may differ in the scale of base vectors.
+    MatrixAssertions.assertThat(product(factorization)).isEquivalentTo(product(expected), DELTA);
+    Assertions.assertThat(factorization.getU().aggregate(Functions.MIN, Functions.IDENTITY))
+        .isPositive();
+
+    // From a random seed, HALS converges faster than NMF-ED.
+    for (IterativeMatrixFactorizationFactory factory : Arrays.asList(ed, hals)) {
+      factory.setSeedingFactory(new RandomSeedingStrategyFactory(0));
+      factory.setMaxIterations(5);
+    }
+    Assertions.assertThat(
+            ((IterativeMatrixFactorization) hals.factorize(A)).getApproximationError())
+        .isLessThan(((IterativeMatrixFactorization) ed.factorize(A)).getApproximationError());
+  }
+
   @Test
   public void testNMFKL() {
     DoubleMatrix2D expectedU =
@@ -214,19 +280,170 @@ public class MatrixFactorizationTest extends TestBase {
     checkIterative(expectedU, expectedV, new LocalNonnegativeMatrixFactorizationFactory());
   }
 
+  @Test
+  public void testSparseInput() {
+    final DoubleMatrix2D sparseA = new CompressedSparseDoubleMatrix2D(A.toArray());
+    for (IterativeMatrixFactorizationFactory factory : iterativeFactories()) {
+      final MatrixFactorization expected = factorize(A, factory);
+      check(expected.getU(), expected.getV(), factorize(sparseA, factory));
+    }
+  }
+
+  @Test
+  public void testOffHeapInput() {
+    final DoubleMatrix2D directA = new DirectDoubleMatrix2D(A.toArray());
+    for (IterativeMatrixFactorizationFactory factory : iterativeFactories()) {
+      final MatrixFactorization expected = factorize(A, factory);
+      check(expected.getU(), expected.getV(), factorize(directA, factory));
+    }
+  }
+
+  @Test
+  public void testSinglePrecision() {
+    for (IterativeMatrixFactorizationFactory factory : iterativeFactories()) {
+      final MatrixFactorization expected = factorize(A, factory);
+      factory.singlePrecision.set(true);
+      check(expected.getU(), expected.getV(), factorize(A, factory));
+      check(
+          expected.getU(),
+          expected.getV(),
+          factorize(new CompressedSparseDoubleMatrix2D(A.toArray()), factory));
+    }
+  }
+
+  @Test
+  public void testApproximationError() {
+    for (IterativeMatrixFactorizationFactory factory : nmfFactories()) {
+      for (DoubleMatrix2D input :
+          new DoubleMatrix2D[] {A, new CompressedSparseDoubleMatrix2D(A.toArray())}) {
+        final IterativeMatrixFactorizationBase factorization =
+            (IterativeMatrixFactorizationBase) factorize(input, factory);
+
+        // ||A - UV'||, computed directly
+        final DoubleMatrix2D difference =
+            factorization.getU().zMult(factorization.getV(), null, 1, 0, false, true);
+        difference.assign(A, Functions.MINUS);
+        Assertions.assertThat(factorization.getApproximationError())
+            .isEqualTo(MatrixUtils.frobeniusNorm(difference), Offset.offset(1e-9));
+        Assertions.assertThat(factorization.getApproximationErrors()[0]).isPositive();
+      }
+    }
+  }
+
+  @Test
+  public void testEarlyStopping() {
+    for (IterativeMatrixFactorizationFactory factory : nmfFactories()) {
+      factory.earlyStopping.set(true);
+      factory.setK(K);
+      factory.setMaxIterations(1000);
+      factory.setSeedingFactory(ConstantSeedingStrategyFactory.INSTANCE);
+      final IterativeMatrixFactorizationBase factorization =
+          (IterativeMatrixFactorizationBase) factory.factorize(A);
+
+      final int iterations = factorization.getIterationsCompleted();
+      Assertions.assertThat(iterations).isBetween(1, 999);
+      final double[] errors = factorization.getApproximationErrors();
+      Assertions.assertThat(errors[iterations]).isEqualTo(factorization.getApproximationError());
+      // The decrease in the first iteration, from the seed, is not taken into account.
+      double maxDecrease = 0;
+      for (int i = 2; i < iterations; i++) {
+        maxDecrease = Math.max(maxDecrease, errors[i - 1] - errors[i]);
+      }
+      Assertions.assertThat(errors[iterations - 1] - errors[iterations])
+          .isLessThan(0.01 * maxDecrease);
+    }
+  }
+
+  @Test
+  public void testDeadline() {
+    for (IterativeMatrixFactorizationFactory factory : nmfFactories()) {
+      factory.setK(K);
+      factory.setMaxIterations(1000);
+      factory.setSeedingFactory(ConstantSeedingStrategyFactory.INSTANCE);
+      factory.setDeadline(System.nanoTime());
+      IterativeMatrixFactorization factorization =
+          (IterativeMatrixFactorization) factory.factorize(A);
+      Assertions.assertThat(factorization.getIterationsCompleted()).isEqualTo(1);
+      Assertions.assertThat(factorization.isStoppedAtDeadline()).isTrue();
+
+      factory.clearDeadline();
+      factory.setMaxIterations(5);
+      factorization = (IterativeMatrixFactorization) factory.factorize(A);
+      Assertions.assertThat(factorization.getIterationsCompleted()).isEqualTo(5);
+      Assertions.assertThat(factorization.isStoppedAtDeadline()).isFalse();
+    }
+  }
+
+  @Test
+  public void testNNDSVDSeeding() {
+    // A non-negative rank-one matrix is seeded exactly.
+    final DoubleMatrix2D x = new DenseDoubleMatrix2D(randomIntBetween(1, 20), 1);
+    final DoubleMatrix2D y = new DenseDoubleMatrix2D(randomIntBetween(1, 20), 1);
+    x.assign(value -> randomDouble());
+    y.assign(value -> randomDouble());
+    final DoubleMatrix2D rankOne = x.zMult(y, null, 1, 0, false, true);
+    final DoubleMatrix2D u = new DenseDoubleMatrix2D(x.rows(), 1);
+    final DoubleMatrix2D v = new DenseDoubleMatrix2D(y.rows(), 1);
+    new NNDSVDSeedingStrategy(false).seed(rankOne, u, v);
+    MatrixAssertions.assertThat(u.zMult(v, null, 1, 0, false, true)).isEquivalentTo(rankOne, DELTA);
+
+    for (boolean fillZeros : new boolean[] {false, true}) {
+      final NNDSVDSeedingStrategy seeding = new NNDSVDSeedingStrategy(fillZeros);
+      final DoubleMatrix2D U = new DenseDoubleMatrix2D(A.rows(), K);
+      final DoubleMatrix2D V = new DenseDoubleMatrix2D(A.columns(), K);
+      seeding.seed(A, U, V);
+      for (DoubleMatrix2D seeded : new DoubleMatrix2D[] {U, V}) {
+        Assertions.assertThat(seeded.aggregate(Functions.MIN, Functions.IDENTITY))
+            .isGreaterThanOrEqualTo(0.0);
+        if (fillZeros) {
+          Assertions.assertThat(seeded.aggregate(Functions.MIN, Functions.IDENTITY)).isPositive();
+        }
+      }
+
+      // Deterministic, also in single precision.
+      final DoubleMatrix2D singleU = new DenseFloatMatrix2D(A.rows(), K);
+      final DoubleMatrix2D singleV = new DenseFloatMatrix2D(A.columns(), K);
+      seeding.seed(new CompressedSparseDoubleMatrix2D(A.toArray()), singleU, singleV);
+      MatrixAssertions.assertThat(singleU).isEquivalentTo(U, DELTA);
+      MatrixAssertions.assertThat(singleV).isEquivalentTo(V, DELTA);
+    }
+  }
+
+  /** Returns new instances of all iterative factorization factories. */
+  private static List<IterativeMatrixFactorizationFactory> iterativeFactories() {
+    final List<IterativeMatrixFactorizationFactory> factories = nmfFactories();
+    factories.add(new KMeansMatrixFactorizationFactory());
+    return factories;
+  }
+
+  /** Returns new instances of the non-negative matrix factorization factories. */
+  private static List<IterativeMatrixFactorizationFactory> nmfFactories() {
+    return new ArrayList<>(
+        Arrays.asList(
+            new NonnegativeMatrixFactorizationEDFactory(),
+            new NonnegativeMatrixFactorizationHALSFactory(),
+            new NonnegativeMatrixFactorizationKLFactory(),
+            new LocalNonnegativeMatrixFactorizationFactory()));
+  }
+
   private MatrixFactorization checkIterative(
       DoubleMatrix2D expectedU,
       DoubleMatrix2D expectedV,
       IterativeMatrixFactorizationFactory factory) {
+    MatrixFactorization factorization = factorize(A, factory);
+    check(expectedU, expectedV, factorization);
+
+    return factorization;
+  }
+
+  private MatrixFactorization factorize(
+      DoubleMatrix2D input, IterativeMatrixFactorizationFactory factory) {
     factory.setK(K);
     factory.setMaxIterations(MAX_ITERATIONS);
     factory.setStopThreshold(STOP_THRESHOLD);
     factory.setSeedingFactory(ConstantSeedingStrategyFactory.INSTANCE);
 
-    MatrixFactorization factorization = factory.factorize(A);
-    check(expectedU, expectedV, factorization);
-
-    return factorization;
+    return factory.factorize(input);
   }
 
   private void check(
@@ -236,6 +453,16 @@ public class MatrixFactorizationTest extends TestBase {
     MatrixAssertions.assertThat(factorization.getV()).as("V").isEquivalentTo(expectedV, DELTA);
   }
 
+  private static DoubleMatrix2D product(MatrixFactorization factorization) {
+    return factorization.getU().zMult(factorization.getV(), null, 1, 0, false, true);
+  }
+
+  private static DoubleMatrix2D abs(DoubleMatrix2D matrix) {
+    final DoubleMatrix2D abs = matrix.copy();
+    abs.assign(Functions.ABS);
+    return abs;
+  }
+
   /** Returns constant matrices of fixed size */
   static class ConstantSeedingStrategyFactory implements SeedingStrategyFactory {
     static ConstantSeedingStrategyFactory INSTANCE = new ConstantSeedingStrategyFactory();
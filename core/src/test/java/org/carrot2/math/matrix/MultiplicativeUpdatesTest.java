@@ -0,0 +1,112 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.math.matrix;
+
+import org.carrot2.TestBase;
+import org.carrot2.math.mahout.function.Functions;
+import org.carrot2.math.mahout.matrix.DoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.CompressedSparseDoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix2D;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link MultiplicativeUpdates}, compared with the updates computed on whole
+ * matrices, for random block sizes.
+ */
+public class MultiplicativeUpdatesTest extends TestBase {
+  private static final double DELTA = 1e-9;
+  private static final double EPS = 1e-9;
+
+  @Test
+  public void testUpdateED() {
+    final int m = randomIntBetween(1, 30);
+    final int k = randomIntBetween(1, 5);
+    final DoubleMatrix2D X = randomMatrix(m, k);
+    final DoubleMatrix2D N = randomMatrix(m, k);
+    final DoubleMatrix2D T = positiveMatrix(k, k);
+
+    // X <- X .* (N + eps) ./ (X * T + eps)
+    final DoubleMatrix2D D = X.zMult(T, null, 1, 0, false, false);
+    D.assign(Functions.plus(EPS));
+    final DoubleMatrix2D expected = N.copy();
+    expected.assign(Functions.plus(EPS));
+    expected.assign(D, Functions.DIV).assign(X, Functions.MULT);
+
+    MultiplicativeUpdates.updateED(X, N, T, EPS, randomBlock(m, k));
+    MatrixAssertions.assertThat(X).isEquivalentTo(expected, DELTA);
+  }
+
+  @Test
+  public void testUpdateKL() {
+    final int m = randomIntBetween(1, 30);
+    final int n = randomIntBetween(1, 30);
+    final int k = randomIntBetween(1, 5);
+    final DoubleMatrix2D A = randomMatrix(m, n);
+    final DoubleMatrix2D U = positiveMatrix(m, k);
+    final DoubleMatrix2D V = positiveMatrix(n, k);
+
+    // V <- V .* (((A + eps) ./ (U * V' + eps))' * U)
+    final DoubleMatrix2D expectedV = ratio(A, U, V).zMult(U, null, 1, 0, true, false);
+    expectedV.assign(V, Functions.MULT);
+    // U <- U .* (((A + eps) ./ (U * V' + eps)) * V)
+    final DoubleMatrix2D expectedU =
+        ratio(A, U, expectedV).zMult(expectedV, null, 1, 0, false, false);
+    expectedU.assign(U, Functions.MULT);
+
+    for (boolean sparse : new boolean[] {false, true}) {
+      final DoubleMatrix2D input = sparse ? new CompressedSparseDoubleMatrix2D(A.toArray()) : A;
+      final DoubleMatrix2D block = randomBlock(m, n);
+      final DoubleMatrix2D u = U.copy();
+      final DoubleMatrix2D v = V.copy();
+      final CompressedSparseDoubleMatrix2D sparseA = MatrixUtils.asCompressedSparse(input);
+      MultiplicativeUpdates.updateKLV(input, sparseA, u, v, EPS, randomMatrix(n, k), block);
+      MultiplicativeUpdates.updateKLU(
+          input, sparseA, u, v, EPS, randomMatrix(block.rows(), k), block);
+
+      MatrixAssertions.assertThat(v).isEquivalentTo(expectedV, DELTA);
+      MatrixAssertions.assertThat(u).isEquivalentTo(expectedU, DELTA);
+    }
+  }
+
+  /** Returns (A + eps) ./ (U * V' + eps). */
+  private static DoubleMatrix2D ratio(DoubleMatrix2D A, DoubleMatrix2D U, DoubleMatrix2D V) {
+    final DoubleMatrix2D UV = U.zMult(V, null, 1, 0, false, true);
+    UV.assign(Functions.plus(EPS));
+    final DoubleMatrix2D ratio = A.copy();
+    ratio.assign(Functions.plus(EPS));
+    return ratio.assign(UV, Functions.DIV);
+  }
+
+  /** Returns a block scratch matrix with a random number of rows, not larger than needed. */
+  private static DoubleMatrix2D randomBlock(int rows, int columns) {
+    return randomMatrix(randomIntBetween(1, rows), columns);
+  }
+
+  /** Returns a random matrix with all elements positive. */
+  private static DoubleMatrix2D positiveMatrix(int rows, int columns) {
+    final DoubleMatrix2D matrix = randomMatrix(rows, columns);
+    matrix.assign(Functions.plus(0.1));
+    return matrix;
+  }
+
+  /** Returns a random matrix with about a third of zero elements. */
+  private static DoubleMatrix2D randomMatrix(int rows, int columns) {
+    final DoubleMatrix2D matrix = new DenseDoubleMatrix2D(rows, columns);
+    for (int row = 0; row < rows; row++) {
+      for (int column = 0; column < columns; column++) {
+        if (randomIntBetween(0, 2) > 0) {
+          matrix.setQuick(row, column, randomDouble());
+        }
+      }
+    }
+    return matrix;
+  }
+}
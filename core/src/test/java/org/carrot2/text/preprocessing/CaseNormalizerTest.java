@@ -12,9 +12,14 @@ package org.carrot2.text.preprocessing;
 
 import static org.carrot2.text.preprocessing.PreprocessingContextAssert.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import org.assertj.core.api.Assertions;
 import org.carrot2.TestBase;
 import org.carrot2.clustering.CachedLangComponents;
+import org.carrot2.clustering.Document;
+import org.carrot2.language.LanguageComponents;
 import org.carrot2.language.Tokenizer;
 import org.junit.Test;
 
@@ -245,4 +250,62 @@ public class CaseNormalizerTest extends TestBase {
         .withExactDocumentTfs(new int[][] {{1, 1}, {2, 2}});
     Assertions.assertThat(ctx.allWords.image.length).isEqualTo(3);
   }
+
+  @Test
+  public void testHashingEquivalentToSorting() {
+    final String[] vocabulary = {"abc", "bcd", "demo", "demos", "x", "IEEE", "12.2", "www.x.com"};
+    final String[] punctuation = {".", ",", "!", "?"};
+
+    final List<Document> documents = new ArrayList<>();
+    for (int d = randomIntBetween(0, 30); --d >= 0; ) {
+      final List<String> fields = new ArrayList<>();
+      for (int f = randomIntBetween(0, 3); --f >= 0; ) {
+        final StringBuilder b = new StringBuilder();
+        for (int t = randomIntBetween(0, 20); --t >= 0; ) {
+          b.append(randomCase(randomFrom(vocabulary)));
+          b.append(rarely() ? randomFrom(punctuation) : "").append(' ');
+        }
+        fields.add(b.toString());
+      }
+      documents.add(
+          fieldConsumer -> {
+            for (int f = 0; f < fields.size(); f++) {
+              fieldConsumer.accept("field" + f, fields.get(f));
+            }
+          });
+    }
+
+    final int dfThreshold = randomIntBetween(1, 3);
+    final LanguageComponents english = CachedLangComponents.loadCached("English");
+    final PreprocessingContext expected = new PreprocessingContext(english);
+    new InputTokenizer().tokenize(expected, documents.stream());
+    new CaseNormalizer(CaseNormalizer.Mode.SORTING).normalize(expected, dfThreshold);
+    final PreprocessingContext actual = new PreprocessingContext(english);
+    new InputTokenizer().tokenize(actual, documents.stream());
+    new CaseNormalizer(CaseNormalizer.Mode.HASHING).normalize(actual, dfThreshold);
+
+    Assertions.assertThat(actual.allTokens.wordIndex).containsExactly(expected.allTokens.wordIndex);
+    Assertions.assertThat(actual.allWords.image.length).isEqualTo(expected.allWords.image.length);
+    for (int i = 0; i < expected.allWords.image.length; i++) {
+      Assertions.assertThat(new String(actual.allWords.image[i]))
+          .isEqualTo(new String(expected.allWords.image[i]));
+      Assertions.assertThat(actual.allWords.tfByDocument.get(i))
+          .containsExactly(expected.allWords.tfByDocument.get(i));
+    }
+    Assertions.assertThat(actual.allWords.tf).containsExactly(expected.allWords.tf);
+    Assertions.assertThat(actual.allWords.type).containsExactly(expected.allWords.type);
+    Assertions.assertThat(actual.allWords.fieldIndices)
+        .containsExactly(expected.allWords.fieldIndices);
+  }
+
+  private static String randomCase(String word) {
+    switch (randomIntBetween(0, 3)) {
+      case 0:
+        return word.toUpperCase(Locale.ROOT);
+      case 1:
+        return word.substring(0, 1).toUpperCase(Locale.ROOT) + word.substring(1);
+      default:
+        return word;
+    }
+  }
 }
@@ -15,6 +15,9 @@ import static org.carrot2.text.preprocessing.PreprocessingContextAssert.assertTh
 
 import org.carrot2.TestBase;
 import org.carrot2.clustering.CachedLangComponents;
+import org.carrot2.clustering.SampleDocumentData;
+import org.carrot2.language.LanguageComponents;
+import org.carrot2.language.StemCache;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -75,4 +78,28 @@ public class EnglishStemmingPreprocessingTest extends TestBase {
         .containsExactly(
             "data", "mine", "data", "mine", null, "data", "mine", "data", "mine", null);
   }
+
+  @Test
+  public void testStemCacheResultsIdentical() {
+    final LanguageComponents english = CachedLangComponents.loadCached("English");
+    final BasicPreprocessingPipeline uncached = new BasicPreprocessingPipeline();
+    final BasicPreprocessingPipeline cached = new BasicPreprocessingPipeline();
+    cached.stemCacheSize.set(randomIntBetween(1, 5000));
+
+    final StemCache stemCache = english.stemCache(cached.stemCacheSize.get());
+    for (int i = 0; i < 3; i++) {
+      final PreprocessingContext expected =
+          uncached.preprocess(SampleDocumentData.DOCUMENTS_DATA_MINING.stream(), null, english);
+      final PreprocessingContext actual =
+          cached.preprocess(SampleDocumentData.DOCUMENTS_DATA_MINING.stream(), null, english);
+
+      assertThat(actual.allWords.stemIndex).containsExactly(expected.allWords.stemIndex);
+      assertThat(actual.allStems.tf).containsExactly(expected.allStems.tf);
+      for (int j = 0; j < expected.allStems.image.length; j++) {
+        assertThat(new String(actual.allStems.image[j]))
+            .isEqualTo(new String(expected.allStems.image[j]));
+      }
+    }
+    assertThat(stemCache.hits()).isGreaterThan(0);
+  }
 }
@@ -0,0 +1,71 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.text.preprocessing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.carrotsearch.hppc.sorting.IndirectSort;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.carrot2.TestBase;
+import org.carrot2.util.CharArrayComparators;
+import org.carrot2.util.MutableCharArray;
+import org.junit.Test;
+
+/** Test cases for {@link ImageIdSort}. */
+public class ImageIdSortTest extends TestBase {
+  @Test
+  public void testEquivalentToStableSortOfImages() {
+    final Comparator<char[]> comparator =
+        randomBoolean()
+            ? CharArrayComparators.NORMALIZING_CHAR_ARRAY_COMPARATOR
+            : CharArrayComparators.FAST_CHAR_ARRAY_COMPARATOR;
+
+    try (PreprocessingContext context = new PreprocessingContext(null)) {
+      final int[] ids = new int[randomIntBetween(0, 500)];
+      final char[][] images = new char[ids.length][];
+      for (int i = 0; i < ids.length; i++) {
+        if (rarely()) {
+          ids[i] = -1;
+        } else {
+          final String image = randomFrom(new String[] {"a", "A", "b", "ab", "aB", "Ab", "x", ""});
+          ids[i] = context.internId(new MutableCharArray(image));
+          images[i] = context.internedImages().get(ids[i]);
+        }
+      }
+
+      final int[] order =
+          ImageIdSort.order(ids, context.internedImages(), comparator, context.arena());
+      final int[] expected =
+          IndirectSort.mergesort(images, 0, images.length, Comparator.nullsLast(comparator));
+      assertThat(order).containsExactly(expected);
+    }
+  }
+
+  @Test
+  public void testInterningAssignsConsecutiveIds() {
+    try (PreprocessingContext context = new PreprocessingContext(null)) {
+      final List<String> unique = new ArrayList<>();
+      for (int i = randomIntBetween(0, 100); --i >= 0; ) {
+        final String image = randomAsciiLettersOfLengthBetween(0, 3);
+        final int id = context.internId(new MutableCharArray(image));
+        if (!unique.contains(image)) {
+          assertThat(id).isEqualTo(unique.size());
+          unique.add(image);
+        }
+        assertThat(unique.get(id)).isEqualTo(image);
+        assertThat(context.intern(new MutableCharArray(image)))
+            .isSameAs(context.internedImages().get(id));
+      }
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.text.preprocessing;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+import org.assertj.core.api.Assertions;
+import org.carrot2.clustering.CachedLangComponents;
+import org.carrot2.clustering.ClusteringListener;
+import org.carrot2.clustering.TestDocument;
+import org.carrot2.language.LanguageComponents;
+import org.carrot2.language.TestsLanguageComponentsFactoryVariant2;
+import org.junit.Test;
+
+/** Test cases for the label candidate limit of {@link LabelFilterProcessor}. */
+public class LabelCandidateBudgetTest extends LabelFilterTestBase {
+  private static final TestDocument[] DOCUMENTS = {
+    new TestDocument("aa bb cc . dd . dd"),
+    new TestDocument("aa bb . ee"),
+    new TestDocument("aa bb")
+  };
+
+  @Test
+  public void testNoLimit() {
+    Assertions.assertThat(preprocess(DOCUMENTS).labelImages())
+        .containsOnly("aa", "bb", "cc", "dd", "ee", "aa bb");
+  }
+
+  @Test
+  public void testLimitAboveCandidateCount() {
+    maxLabelCandidates = 6;
+    Assertions.assertThat(preprocess(DOCUMENTS).labelImages())
+        .containsOnly("aa", "bb", "cc", "dd", "ee", "aa bb");
+  }
+
+  @Test
+  public void testPhraseScoreIncludesLength() {
+    maxLabelCandidates = 1;
+    Assertions.assertThat(preprocess(DOCUMENTS).labelImages()).containsOnly("aa bb");
+  }
+
+  @Test
+  public void testTiesBrokenByTermFrequency() {
+    maxLabelCandidates = 4;
+    Assertions.assertThat(preprocess(DOCUMENTS).labelImages())
+        .containsOnly("aa", "bb", "dd", "aa bb");
+  }
+
+  @Test
+  public void testOriginalOrderPreserved() {
+    final LanguageComponents langComponents =
+        CachedLangComponents.loadCached(TestsLanguageComponentsFactoryVariant2.NAME);
+    final int[] all = runPreprocessing(Stream.of(DOCUMENTS), langComponents).allLabels.featureIndex;
+
+    maxLabelCandidates = 3;
+    final PreprocessingContext context = runPreprocessing(Stream.of(DOCUMENTS), langComponents);
+    final int[] selected = context.allLabels.featureIndex;
+    final int[] expected =
+        Arrays.stream(all).filter(f -> Arrays.stream(selected).anyMatch(s -> s == f)).toArray();
+    Assertions.assertThat(selected).hasSize(3).isEqualTo(expected);
+    Assertions.assertThat(context.allLabels.firstPhraseIndex).isEqualTo(2);
+  }
+
+  @Test
+  public void testLimitAppliedBeforeDocumentAssignment() {
+    final CompletePreprocessingPipeline pipeline = new CompletePreprocessingPipeline();
+    pipeline.labelFilters.minLengthLabelFilter = null;
+    final PreprocessingContext context =
+        pipeline.preprocess(
+            Stream.of(DOCUMENTS),
+            null,
+            CachedLangComponents.loadCached(TestsLanguageComponentsFactoryVariant2.NAME),
+            ClusteringListener.NO_OP,
+            (labelCandidates) -> 1);
+    Assertions.assertThat(context.allLabels.featureIndex).hasSize(1);
+    Assertions.assertThat(context.allLabels.documentIndices).hasSize(1);
+    Assertions.assertThat(PreprocessingContextAssert.assertThat(context).labelImages())
+        .containsOnly("aa bb");
+  }
+}
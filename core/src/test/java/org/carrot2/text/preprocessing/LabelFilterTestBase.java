@@ -35,6 +35,9 @@ public class LabelFilterTestBase extends TestBase {
   private PhraseExtractor phraseExtractor = new PhraseExtractor(1);
   private StopListMarker stopListMarker = new StopListMarker();
 
+  /** The maximum number of label candidates, zero for no limit. */
+  protected int maxLabelCandidates;
+
   @Before
   public void setUpPreprocessingComponents() {
     // Disable all filters by default. Tests will enable the filters they need.
@@ -85,7 +88,7 @@ public class LabelFilterTestBase extends TestBase {
     languageModelStemmer.stem(context, query);
     phraseExtractor.extractPhrases(context);
     stopListMarker.mark(context);
-    labelFilterProcessor.process(context);
+    labelFilterProcessor.process(context, maxLabelCandidates);
     return context;
   }
 
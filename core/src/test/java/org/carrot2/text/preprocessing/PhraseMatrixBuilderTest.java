@@ -79,6 +79,13 @@ public class PhraseMatrixBuilderTest extends TermDocumentMatrixBuilderTestBase {
     check(documents, expectedPhraseMatrixElements);
   }
 
+  @Test
+  public void testPhraseWithRepeatedStem() {
+    Stream<TestDocument> documents = createDocumentsWithTitles("aa bb aa", "aa bb aa", "aa bb aa");
+    double[][] expectedPhraseMatrixElements = {{0.894, 0.447}};
+    check(documents, expectedPhraseMatrixElements);
+  }
+
   private void check(
       Stream<? extends Document> documents, double[][] expectedPhraseMatrixElements) {
     buildTermDocumentMatrix(documents);
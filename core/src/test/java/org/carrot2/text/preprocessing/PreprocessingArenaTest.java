@@ -0,0 +1,176 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.text.preprocessing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.carrotsearch.hppc.IntArrayList;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import org.carrot2.TestBase;
+import org.carrot2.clustering.CachedLangComponents;
+import org.carrot2.clustering.Document;
+import org.carrot2.clustering.SampleDocumentData;
+import org.carrot2.language.LanguageComponents;
+import org.carrot2.util.SuppressForbidden;
+import org.junit.Assume;
+import org.junit.Test;
+
+/** Test cases for {@link PreprocessingArena}. */
+public class PreprocessingArenaTest extends TestBase {
+  @Test
+  public void testBuffersReusedAfterRelease() {
+    final PreprocessingArena arena = new PreprocessingArena();
+    final IntArrayList list = arena.intList();
+    list.add(1, 2, 3);
+    final int[] buffer = arena.intBuffer(10);
+    arena.release();
+
+    final IntArrayList reused = arena.intList();
+    assertThat(reused).isSameAs(list);
+    assertThat(reused.size()).isEqualTo(0);
+    assertThat(arena.intBuffer(5)).isSameAs(buffer);
+    assertThat(arena.intBuffer(20)).isNotSameAs(buffer);
+  }
+
+  @Test
+  public void testArenaPooledPerThread() {
+    final LanguageComponents languageComponents = CachedLangComponents.loadCached("English");
+    final Supplier<PreprocessingContext> contexts =
+        () -> new PreprocessingContext(languageComponents, PreprocessingArena.acquire(1000));
+    final PreprocessingArena arena;
+    try (PreprocessingContext context = contexts.get()) {
+      arena = context.arena();
+      arena.intList().add(1, 2, 3);
+    }
+
+    final PreprocessingArena nestedArena;
+    try (PreprocessingContext context = contexts.get()) {
+      assertThat(context.arena()).isSameAs(arena);
+
+      // Nested contexts must not share the arena.
+      try (PreprocessingContext nested = contexts.get()) {
+        nestedArena = nested.arena();
+        assertThat(nestedArena).isNotSameAs(arena);
+      }
+    }
+
+    // The thread keeps one arena, released first. Taking it leaves the thread without an arena.
+    assertThat(PreprocessingArena.acquire(1000)).isSameAs(nestedArena);
+  }
+
+  @Test
+  public void testArenaNotPooledByDefault() {
+    final PreprocessingArena arena = PreprocessingArena.acquire();
+    arena.release();
+    assertThat(PreprocessingArena.acquire()).isNotSameAs(arena);
+  }
+
+  @Test
+  public void testArenaOverLimitNotPooled() {
+    final PreprocessingArena arena = PreprocessingArena.acquire(10);
+    arena.intBuffer(11);
+    arena.release();
+    assertThat(PreprocessingArena.acquire(10)).isNotSameAs(arena);
+  }
+
+  @Test
+  public void testOnlyLastContextBuffersRetained() {
+    final PreprocessingArena arena = new PreprocessingArena();
+    final int[] large = arena.intBuffer(100);
+    arena.release();
+    final int[] small = arena.intBuffer(1);
+    assertThat(small).isSameAs(large);
+    arena.release();
+    arena.release();
+    assertThat(arena.intBuffer(1)).isNotSameAs(large);
+  }
+
+  @Test
+  public void testPooledResultsIdentical() {
+    final List<Document> documents = SampleDocumentData.DOCUMENTS_DATA_MINING;
+    final LanguageComponents languageComponents = CachedLangComponents.loadCached("English");
+    final PreprocessingArena arena = new PreprocessingArena();
+    for (int i = 0; i < 3; i++) {
+      final PreprocessingContext expected =
+          preprocess(
+              documents, new PreprocessingContext(languageComponents, new PreprocessingArena()));
+      final PreprocessingContext actual =
+          preprocess(documents, new PreprocessingContext(languageComponents, arena));
+
+      assertThat(actual.allTokens.wordIndex).containsExactly(expected.allTokens.wordIndex);
+      assertThat(actual.allTokens.suffixOrder).containsExactly(expected.allTokens.suffixOrder);
+      assertThat(actual.allTokens.lcp).containsExactly(expected.allTokens.lcp);
+      assertThat(actual.allWords.tf).containsExactly(expected.allWords.tf);
+      assertThat(actual.allWords.stemIndex).containsExactly(expected.allWords.stemIndex);
+      assertThat(actual.allStems.tf).containsExactly(expected.allStems.tf);
+      assertThat(actual.allPhrases.tf).containsExactly(expected.allPhrases.tf);
+      assertThat(Arrays.deepEquals(actual.allPhrases.wordIndices, expected.allPhrases.wordIndices))
+          .isTrue();
+    }
+  }
+
+  @Test
+  @SuppressForbidden("Per-thread allocation counters are only available in HotSpot-derived VMs.")
+  public void testAllocationPerRequestReduced() {
+    final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+    final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+    Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+    threadBean.setThreadAllocatedMemoryEnabled(true);
+
+    final List<Document> documents = SampleDocumentData.DOCUMENTS_DATA_MINING;
+    final LanguageComponents languageComponents = CachedLangComponents.loadCached("English");
+    final PreprocessingArena pooled = new PreprocessingArena();
+
+    final Supplier<PreprocessingContext> pooledContexts =
+        () -> new PreprocessingContext(languageComponents, pooled);
+    final Supplier<PreprocessingContext> freshContexts =
+        () -> new PreprocessingContext(languageComponents, new PreprocessingArena());
+
+    // Warm up both paths, grow the pooled buffers.
+    final int rounds = 10;
+    allocatedBytes(threadBean, documents, pooledContexts, rounds);
+    allocatedBytes(threadBean, documents, freshContexts, rounds);
+
+    final long pooledBytes = allocatedBytes(threadBean, documents, pooledContexts, rounds);
+    final long freshBytes = allocatedBytes(threadBean, documents, freshContexts, rounds);
+    assertThat(pooledBytes).isLessThan(freshBytes);
+  }
+
+  @SuppressForbidden("Per-thread allocation counters are only available in HotSpot-derived VMs.")
+  private static long allocatedBytes(
+      com.sun.management.ThreadMXBean threadBean,
+      List<Document> documents,
+      Supplier<PreprocessingContext> contexts,
+      int rounds) {
+    final long threadId = Thread.currentThread().getId();
+    final long before = threadBean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < rounds; i++) {
+      preprocess(documents, contexts.get());
+    }
+    return threadBean.getThreadAllocatedBytes(threadId) - before;
+  }
+
+  private static PreprocessingContext preprocess(
+      List<Document> documents, PreprocessingContext context) {
+    try (PreprocessingContext ctx = context) {
+      new InputTokenizer().tokenize(ctx, documents.stream());
+      new CaseNormalizer().normalize(ctx, 1);
+      new LanguageModelStemmer().stem(ctx, null);
+      new StopListMarker().mark(ctx);
+      new PhraseExtractor(1).extractPhrases(ctx);
+      return ctx;
+    }
+  }
+}
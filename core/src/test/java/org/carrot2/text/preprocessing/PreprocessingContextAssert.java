@@ -46,7 +46,7 @@ public class PreprocessingContextAssert {
     }
 
     public PreprocessingContextPhraseAssert withDocumentTf(int documentIndex, int expectedTf) {
-      int[] byDocTf = context.allPhrases.tfByDocument[phraseIndex];
+      int[] byDocTf = context.allPhrases.tfByDocument.get(phraseIndex);
       for (int i = 0; i < byDocTf.length; i += 2) {
         if (byDocTf[i] == documentIndex) {
           Assertions.assertThat(expectedTf).isEqualTo(byDocTf[i + 1]);
@@ -74,7 +74,7 @@ public class PreprocessingContextAssert {
         withDocumentTf(docTf[0], docTf[1]);
       }
 
-      Assertions.assertThat(context.allPhrases.tfByDocument[phraseIndex].length / 2)
+      Assertions.assertThat(context.allPhrases.tfByDocument.df(phraseIndex))
           .describedAs(
               "tfByDocument array size for phrase: '"
                   + context.allPhrases.getPhrase(phraseIndex)
@@ -246,7 +246,7 @@ public class PreprocessingContextAssert {
     }
 
     public StemAssert withDocumentTf(int documentIndex, int expectedTf) {
-      int[] byDocTf = context.allStems.tfByDocument[stemIndex];
+      int[] byDocTf = context.allStems.tfByDocument.get(stemIndex);
       for (int i = 0; i < byDocTf.length; i += 2) {
         if (byDocTf[i] == documentIndex) {
           Assertions.assertThat(expectedTf).isEqualTo(byDocTf[i + 1]);
@@ -270,7 +270,7 @@ public class PreprocessingContextAssert {
         withDocumentTf(docTf[0], docTf[1]);
       }
 
-      Assertions.assertThat(context.allStems.tfByDocument[stemIndex].length / 2)
+      Assertions.assertThat(context.allStems.tfByDocument.df(stemIndex))
           .describedAs("tfByDocument array size for stem: '" + stemImage + "'")
           .isEqualTo(docTfPairs.length);
 
@@ -327,7 +327,7 @@ public class PreprocessingContextAssert {
     }
 
     public WordAssert withDocumentTf(int documentIndex, int expectedTf) {
-      int[] byDocTf = context.allWords.tfByDocument[wordIndex];
+      int[] byDocTf = context.allWords.tfByDocument.get(wordIndex);
       for (int i = 0; i < byDocTf.length; i += 2) {
         if (byDocTf[i] == documentIndex) {
           Assertions.assertThat(expectedTf).isEqualTo(byDocTf[i + 1]);
@@ -351,7 +351,7 @@ public class PreprocessingContextAssert {
         withDocumentTf(docTf[0], docTf[1]);
       }
 
-      Assertions.assertThat(context.allWords.tfByDocument[wordIndex].length / 2)
+      Assertions.assertThat(context.allWords.tfByDocument.df(wordIndex))
           .describedAs("tfByDocument array size for word: '" + wordImage + "'")
           .isEqualTo(docTfPairs.length);
 
@@ -542,7 +542,7 @@ public class PreprocessingContextAssert {
       Assertions.assertThat(
               IntMapUtils.flattenSortedByKey(
                   IntMapUtils.addAllFromFlattened(
-                      new IntIntHashMap(), allPhrases.tfByDocument[index])))
+                      new IntIntHashMap(), allPhrases.tfByDocument.get(index))))
           .as("Phrase: " + allPhrases.getPhrase(index))
           .isEqualTo(IntMapUtils.flattenSortedByKey(realTfByDocuments));
     }
@@ -0,0 +1,86 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.text.preprocessing;
+
+import java.util.List;
+import org.carrot2.clustering.Document;
+import org.carrot2.language.LanguageComponents;
+
+/**
+ * Runs individual preprocessing stages of {@link CompletePreprocessingPipeline}, for benchmarks
+ * outside of this package.
+ */
+public final class PreprocessingStages {
+  /** Preprocessing stages, in the order of execution. */
+  public enum Stage {
+    TOKENIZATION,
+    CASE_NORMALIZATION,
+    STEMMING,
+    STOP_WORD_MARKING,
+    PHRASE_EXTRACTION,
+    LABEL_FILTERING
+  }
+
+  private PreprocessingStages() {}
+
+  /** Runs all stages preceding <code>stage</code> with the default pipeline settings. */
+  public static PreprocessingContext preprocessUpTo(
+      List<? extends Document> documents, LanguageComponents languageComponents, Stage stage) {
+    final CompletePreprocessingPipeline pipeline = new CompletePreprocessingPipeline();
+    final PreprocessingContext context = new PreprocessingContext(languageComponents);
+    for (Stage s : Stage.values()) {
+      if (s == stage) {
+        break;
+      }
+
+      switch (s) {
+        case TOKENIZATION:
+          pipeline.tokenizer.tokenize(context, documents.stream());
+          break;
+        case CASE_NORMALIZATION:
+          pipeline.caseNormalizer.normalize(context, pipeline.wordDfThreshold.get());
+          break;
+        case STEMMING:
+          pipeline.stemming.stem(context, null);
+          break;
+        case STOP_WORD_MARKING:
+          pipeline.stopListMarker.mark(context);
+          break;
+        case PHRASE_EXTRACTION:
+          extractPhrases(context, pipeline.phraseDfThreshold.get());
+          break;
+        case LABEL_FILTERING:
+          pipeline.labelFilters.process(context);
+          break;
+        default:
+          throw new RuntimeException("Unreachable.");
+      }
+    }
+    return context;
+  }
+
+  public static void tokenize(PreprocessingContext context, List<? extends Document> documents) {
+    new InputTokenizer().tokenize(context, documents.stream());
+  }
+
+  /** @param mode The name of a {@link CaseNormalizer.Mode} constant. */
+  public static void normalizeCase(PreprocessingContext context, String mode, int dfThreshold) {
+    new CaseNormalizer(CaseNormalizer.Mode.valueOf(mode)).normalize(context, dfThreshold);
+  }
+
+  public static void sortSuffixes(PreprocessingContext context) {
+    new SuffixSorter().suffixSort(context);
+  }
+
+  public static void extractPhrases(PreprocessingContext context, int dfThreshold) {
+    new PhraseExtractor(dfThreshold).extractPhrases(context);
+  }
+}
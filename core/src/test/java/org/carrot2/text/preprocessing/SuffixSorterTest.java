@@ -10,11 +10,15 @@
  */
 package org.carrot2.text.preprocessing;
 
+import com.carrotsearch.hppc.sorting.IndirectSort;
+import java.util.Arrays;
+import java.util.List;
 import java.util.stream.Stream;
 import org.assertj.core.api.Assertions;
 import org.carrot2.TestBase;
 import org.carrot2.clustering.CachedLangComponents;
 import org.carrot2.clustering.Document;
+import org.carrot2.clustering.SampleDocumentData;
 import org.carrot2.clustering.TestDocument;
 import org.carrot2.language.TestsLanguageComponentsFactoryVariant2;
 import org.junit.Before;
@@ -105,6 +109,58 @@ public class SuffixSorterTest extends TestBase {
         expectedLcpArray);
   }
 
+  @Test
+  public void testEquivalentToComparisonSortOnRandomCodes() {
+    for (int reps = 0; reps < 100; reps++) {
+      final int[] wordIndex = new int[scaledRandomIntBetween(1, 5000)];
+      final int words = randomIntBetween(1, 50);
+      for (int i = 0; i < wordIndex.length - 1; i++) {
+        wordIndex[i] = rarely() ? -1 : randomIntBetween(0, words - 1);
+      }
+      // Terminator.
+      wordIndex[wordIndex.length - 1] = -1;
+
+      final int[] intCodes = SuffixSorter.toIntCodes(wordIndex);
+      final int[] expectedSuffixOrder =
+          IndirectSort.mergesort(
+              0,
+              intCodes.length,
+              (a, b) -> {
+                if (a == b) return 0;
+                while (intCodes[a] == intCodes[b]) {
+                  a++;
+                  b++;
+                }
+                return intCodes[b] - intCodes[a];
+              });
+      final int[] suffixOrder = SuffixSorter.suffixOrder(intCodes);
+
+      Assertions.assertThat(suffixOrder).containsExactly(expectedSuffixOrder);
+      Assertions.assertThat(SuffixSorter.calculateLcp(intCodes, suffixOrder))
+          .containsExactly(SuffixSorter.calculateLcpNaive(intCodes, expectedSuffixOrder));
+    }
+  }
+
+  @Test
+  public void testEquivalentToComparisonSortOnSampleData() {
+    for (List<Document> documents :
+        Arrays.asList(
+            SampleDocumentData.DOCUMENTS_DATA_MINING, SampleDocumentData.DOCUMENTS_DAWID)) {
+      PreprocessingContext context =
+          new PreprocessingContext(CachedLangComponents.loadCached("English"));
+      tokenizer.tokenize(context, documents.stream());
+      caseNormalizer.normalize(context, 1);
+
+      suffixSorter.suffixSortByComparison(context);
+      final int[] expectedSuffixOrder = context.allTokens.suffixOrder;
+      final int[] expectedLcp = context.allTokens.lcp;
+
+      suffixSorter.suffixSort(context);
+      Assertions.assertThat(context.allTokens.suffixOrder).containsExactly(expectedSuffixOrder);
+      Assertions.assertThat(context.allTokens.lcp).containsExactly(expectedLcp);
+    }
+  }
+
   private void checkAsserts(
       Stream<? extends Document> documents, int[] expectedSuffixOrder, int[] expectedLcpArray) {
     PreprocessingContext context =
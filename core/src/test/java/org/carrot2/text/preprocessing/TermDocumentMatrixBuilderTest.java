@@ -18,6 +18,7 @@ import org.carrot2.clustering.CachedLangComponents;
 import org.carrot2.clustering.Document;
 import org.carrot2.clustering.TestDocument;
 import org.carrot2.language.TestsLanguageComponentsFactoryVariant2;
+import org.carrot2.math.mahout.matrix.impl.CompressedSparseDoubleMatrix2D;
 import org.carrot2.math.matrix.MatrixAssertions;
 import org.carrot2.text.vsm.TermDocumentMatrixBuilder;
 import org.carrot2.text.vsm.VectorSpaceModelContext;
@@ -151,7 +152,7 @@ public class TermDocumentMatrixBuilderTest extends TermDocumentMatrixBuilderTest
 
     // The preprocessing pipeline will produce increasing indices in tfByDocument,
     // so to reproduce the bug, we need to perturb them, e.g. reverse.
-    final int[][] tfByDocument = context.allStems.tfByDocument;
+    final int[][] tfByDocument = context.allStems.tfByDocument.toArrays();
     for (int s = 0; s < tfByDocument.length; s++) {
       final int[] stemTfByDocument = tfByDocument[s];
       for (int i = 0; i < stemTfByDocument.length / 4; i++) {
@@ -165,6 +166,7 @@ public class TermDocumentMatrixBuilderTest extends TermDocumentMatrixBuilderTest
         stemTfByDocument[(stemTfByDocument.length / 2 - i - 1) * 2 + 1] = t;
       }
     }
+    context.allStems.tfByDocument = TfByDocument.fromArrays(tfByDocument);
 
     vsmContext = new VectorSpaceModelContext(context);
     matrixBuilder.buildTermDocumentMatrix(vsmContext);
@@ -180,6 +182,33 @@ public class TermDocumentMatrixBuilderTest extends TermDocumentMatrixBuilderTest
     checkOnly(expectedTdMatrixElements, expectedTdMatrixStemIndices);
   }
 
+  @Test
+  public void testSparseMatrix() {
+    Stream<TestDocument> documents =
+        Stream.of(
+            new TestDocument("aa", "bb"),
+            new TestDocument("", "bb . cc"),
+            new TestDocument("", "aa . cc . cc"));
+
+    int[] expectedTdMatrixStemIndices = {0, 2, 1};
+    double[][] expectedTdMatrixElements = {
+      {2, 0, 2},
+      {0, 1, 2},
+      {1, 1, 0}
+    };
+
+    matrixBuilder.sparseMatrix.set(true);
+    check(documents, expectedTdMatrixElements, expectedTdMatrixStemIndices);
+    Assertions.assertThat(vsmContext.termDocumentMatrix)
+        .isInstanceOf(CompressedSparseDoubleMatrix2D.class);
+  }
+
+  @Test
+  public void testCarrot905SparseMatrix() {
+    matrixBuilder.sparseMatrix.set(true);
+    testCarrot905();
+  }
+
   private void check(
       Stream<? extends Document> documents,
       double[][] expectedTdMatrixElements,
@@ -0,0 +1,42 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.text.preprocessing;
+
+import org.assertj.core.api.Assertions;
+import org.carrot2.math.mahout.matrix.impl.DenseDoubleMatrix2D;
+import org.carrot2.math.mahout.matrix.impl.DenseFloatMatrix2D;
+import org.carrot2.math.matrix.NonnegativeMatrixFactorizationEDFactory;
+import org.carrot2.text.vsm.TermDocumentMatrixReducer;
+import org.junit.Test;
+
+/** Test cases for {@link TermDocumentMatrixReducer}. */
+public class TermDocumentMatrixReducerTest extends ReducedTermDocumentMatrixBuilderTestBase {
+  @Test
+  public void testSinglePrecisionReplacesTermDocumentMatrix() {
+    final NonnegativeMatrixFactorizationEDFactory factory =
+        new NonnegativeMatrixFactorizationEDFactory();
+    factory.singlePrecision.set(true);
+    reducer.factorizationFactory = factory;
+    buildReducedTermDocumentMatrix(
+        createDocumentsWithTitles("aa bb", "bb cc", "aa cc dd", "dd ee", "ee aa"));
+
+    // The factorization's single-precision copy is the only one kept.
+    Assertions.assertThat(vsmContext.termDocumentMatrix).isInstanceOf(DenseFloatMatrix2D.class);
+    Assertions.assertThat(reducedVsmContext.baseMatrix).isInstanceOf(DenseDoubleMatrix2D.class);
+    Assertions.assertThat(reducedVsmContext.coefficientMatrix)
+        .isInstanceOf(DenseDoubleMatrix2D.class);
+  }
+
+  @Override
+  protected int getDimensions(PreprocessingContext ctx) {
+    return 2;
+  }
+}
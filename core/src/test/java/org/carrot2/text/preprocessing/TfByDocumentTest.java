@@ -0,0 +1,71 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.text.preprocessing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.carrotsearch.hppc.IntIntHashMap;
+import java.util.Arrays;
+import org.carrot2.TestBase;
+import org.junit.Test;
+
+/** Test cases for {@link TfByDocument}. */
+public class TfByDocumentTest extends TestBase {
+  @Test
+  public void testEmpty() {
+    assertThat(TfByDocument.EMPTY.size()).isEqualTo(0);
+    assertThat(TfByDocument.fromArrays(new int[0][]).size()).isEqualTo(0);
+  }
+
+  @Test
+  public void testArraysRoundTrip() {
+    final int[][] arrays = new int[randomIntBetween(0, 50)][];
+    for (int i = 0; i < arrays.length; i++) {
+      arrays[i] = new int[randomIntBetween(0, 10) * 2];
+      for (int j = 0; j < arrays[i].length; j++) {
+        arrays[i][j] = randomIntBetween(0, 1000);
+      }
+    }
+
+    final TfByDocument tfByDocument = TfByDocument.fromArrays(arrays);
+    assertThat(tfByDocument.size()).isEqualTo(arrays.length);
+    for (int i = 0; i < arrays.length; i++) {
+      assertThat(tfByDocument.df(i)).isEqualTo(arrays[i].length / 2);
+      assertThat(tfByDocument.get(i)).containsExactly(arrays[i]);
+
+      for (int j = tfByDocument.start(i), k = 0; j < tfByDocument.end(i); j += 2, k += 2) {
+        assertThat(tfByDocument.document(j)).isEqualTo(arrays[i][k]);
+        assertThat(tfByDocument.tf(j)).isEqualTo(arrays[i][k + 1]);
+      }
+    }
+    assertThat(Arrays.deepEquals(tfByDocument.toArrays(), arrays)).isTrue();
+  }
+
+  @Test
+  public void testBuilder() {
+    final TfByDocument source = TfByDocument.fromArrays(new int[][] {{1, 2}, {3, 4, 5, 6}});
+
+    final IntIntHashMap map = new IntIntHashMap();
+    map.put(7, 8);
+    final TfByDocument tfByDocument =
+        TfByDocument.builder(new PreprocessingArena())
+            .add(source, 1)
+            .add(map)
+            .add(new int[0])
+            .build();
+
+    assertThat(tfByDocument.size()).isEqualTo(3);
+    assertThat(tfByDocument.get(0)).containsExactly(3, 4, 5, 6);
+    assertThat(tfByDocument.get(1)).containsExactly(7, 8);
+    assertThat(tfByDocument.df(2)).isEqualTo(0);
+    assertThat(tfByDocument.toString(0)).isEqualTo("3=>4,5=>6,");
+  }
+}
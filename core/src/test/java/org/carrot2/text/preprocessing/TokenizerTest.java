@@ -15,8 +15,20 @@ import static org.carrot2.text.preprocessing.PreprocessingContextAssert.assertTh
 import static org.carrot2.text.preprocessing.PreprocessingContextAssert.tokens;
 import static org.carrot2.text.preprocessing.PreprocessingContextBuilder.FieldValue.fv;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
 import org.carrot2.TestBase;
+import org.carrot2.clustering.CachedLangComponents;
+import org.carrot2.clustering.Document;
+import org.carrot2.clustering.SampleDocumentData;
+import org.carrot2.language.LanguageComponents;
 import org.carrot2.language.Tokenizer;
+import org.carrot2.util.MutableCharArray;
 import org.junit.Test;
 
 /** Test cases for {@link Tokenizer}. */
@@ -263,4 +275,97 @@ public class TokenizerTest extends TestBase {
         .containsExactly(
             new short[] {Tokenizer.TT_TERM, Tokenizer.TT_TERM, Tokenizer.TF_TERMINATOR});
   }
+
+  @Test
+  public void testChunkedTokenizationEquivalentToSequential() {
+    final List<Document> documents = new ArrayList<>(SampleDocumentData.DOCUMENTS_DATA_MINING);
+    if (randomBoolean()) {
+      documents.addAll(SampleDocumentData.DOCUMENTS_DAWID);
+    }
+    final int chunks = randomIntBetween(2, 16);
+
+    final LanguageComponents languageComponents = CachedLangComponents.loadCached("English");
+    final PreprocessingContext sequential = new PreprocessingContext(languageComponents);
+    new InputTokenizer().tokenize(sequential, documents.stream(), 1);
+    final PreprocessingContext parallel = new PreprocessingContext(languageComponents);
+    new InputTokenizer().tokenize(parallel, documents.stream(), chunks);
+
+    assertSameTokens(parallel, sequential);
+  }
+
+  @Test
+  public void testCharSequenceFieldsEquivalentToStrings() {
+    final List<Document> documents = SampleDocumentData.DOCUMENTS_DATA_MINING;
+
+    // Hand over field values as views of a shared, reused buffer.
+    final List<Document> views = new ArrayList<>();
+    for (Document document : documents) {
+      views.add(
+          new Document() {
+            private final MutableCharArray view = new MutableCharArray();
+
+            @Override
+            public void visitFields(BiConsumer<String, String> fieldConsumer) {
+              throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void visitFieldSequences(BiConsumer<String, CharSequence> fieldConsumer) {
+              document.visitFields(
+                  (name, value) -> {
+                    final char[] buffer = ("  " + value + "  ").toCharArray();
+                    view.reset(buffer, 2, value.length());
+                    fieldConsumer.accept(name, view);
+                    Arrays.fill(buffer, 'x');
+                  });
+            }
+          });
+    }
+
+    final int chunks = randomBoolean() ? 1 : randomIntBetween(2, 8);
+    final LanguageComponents languageComponents = CachedLangComponents.loadCached("English");
+    final PreprocessingContext expected = new PreprocessingContext(languageComponents);
+    new InputTokenizer().tokenize(expected, documents.stream(), 1);
+    final PreprocessingContext actual = new PreprocessingContext(languageComponents);
+    new InputTokenizer().tokenize(actual, views.stream(), chunks);
+
+    assertSameTokens(actual, expected);
+  }
+
+  private static void assertSameTokens(PreprocessingContext actual, PreprocessingContext expected) {
+    assertThat(actual.documentCount).isEqualTo(expected.documentCount);
+    assertThat(actual.allFields.name).containsExactly(expected.allFields.name);
+    assertThat(actual.allTokens.type).containsExactly(expected.allTokens.type);
+    assertThat(actual.allTokens.fieldIndex).containsExactly(expected.allTokens.fieldIndex);
+    assertThat(actual.allTokens.documentIndex).containsExactly(expected.allTokens.documentIndex);
+    assertThat(actual.allTokens.image.length).isEqualTo(expected.allTokens.image.length);
+    for (int i = 0; i < expected.allTokens.image.length; i++) {
+      final char[] expectedImage = expected.allTokens.image[i];
+      final char[] actualImage = actual.allTokens.image[i];
+      if (expectedImage == null) {
+        assertThat(actualImage).isNull();
+      } else {
+        assertThat(new String(actualImage)).isEqualTo(new String(expectedImage));
+      }
+    }
+
+    assertThat(actual.allTokens.imageId).containsExactly(expected.allTokens.imageId);
+    assertConsistentImageIds(actual);
+    assertConsistentImageIds(expected);
+  }
+
+  private static void assertConsistentImageIds(PreprocessingContext context) {
+    final Map<Integer, char[]> imagesById = new HashMap<>();
+    for (int i = 0; i < context.allTokens.image.length; i++) {
+      final char[] image = context.allTokens.image[i];
+      final int id = context.allTokens.imageId[i];
+      if (image == null) {
+        assertThat(id).isEqualTo(-1);
+      } else {
+        // Equal images are interned, so all tokens with the same id share one array.
+        assertThat(imagesById.computeIfAbsent(id, (k) -> image)).isSameAs(image);
+      }
+    }
+    assertThat(new HashSet<char[]>(imagesById.values())).hasSize(imagesById.size());
+  }
 }
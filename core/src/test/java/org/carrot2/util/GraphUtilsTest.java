@@ -0,0 +1,68 @@
+/*
+ * Carrot2 project.
+ *
+ * Copyright (C) 2002-2023, Dawid Weiss, Stanisław Osiński.
+ * All rights reserved.
+ *
+ * Refer to the full license file "carrot2.LICENSE"
+ * in the root folder of the repository checkout or at:
+ * https://www.carrot2.org/carrot2.LICENSE
+ */
+package org.carrot2.util;
+
+import com.carrotsearch.hppc.IntArrayList;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.carrot2.TestBase;
+import org.junit.Test;
+
+/** Test cases for {@link GraphUtils}. */
+public class GraphUtilsTest extends TestBase {
+  @Test
+  public void testCoherentSubgraphs() {
+    final boolean[][] arcs = {
+      {false, false, true, false, false},
+      {false, false, false, false, false},
+      {true, false, false, true, false},
+      {false, false, true, false, false},
+      {false, false, false, false, false}
+    };
+
+    Assertions.assertThat(
+            GraphUtils.findCoherentSubgraphs(arcs.length, (a, b) -> arcs[a][b], true))
+        .containsExactly(IntArrayList.from(0, 2, 3));
+    Assertions.assertThat(
+            GraphUtils.findCoherentSubgraphs(arcs.length, (a, b) -> arcs[a][b], false))
+        .containsExactly(IntArrayList.from(0, 2, 3), IntArrayList.from(1), IntArrayList.from(4));
+  }
+
+  @Test
+  public void testNeighborsSameAsArcs() {
+    final int vertexCount = randomIntBetween(0, 40);
+    final int arcCount = randomIntBetween(0, vertexCount * 2);
+    final boolean[][] arcs = new boolean[vertexCount][vertexCount];
+    for (int i = 0; i < arcCount; i++) {
+      final int a = randomIntBetween(0, vertexCount - 1);
+      final int b = randomIntBetween(0, vertexCount - 1);
+      arcs[a][b] = arcs[b][a] = true;
+    }
+
+    final boolean prune = randomBoolean();
+    final List<IntArrayList> expected =
+        GraphUtils.findCoherentSubgraphs(vertexCount, (a, b) -> arcs[a][b], prune);
+    final List<IntArrayList> actual =
+        GraphUtils.findCoherentSubgraphsByNeighbors(
+            vertexCount,
+            (vertex, neighbors) -> {
+              // Enumerate neighbors in reverse order and with duplicates.
+              for (int i = vertexCount - 1; i >= 0; i--) {
+                if (arcs[vertex][i]) {
+                  neighbors.add(i, i);
+                }
+              }
+            },
+            prune);
+
+    Assertions.assertThat(actual).isEqualTo(expected);
+  }
+}
@@ -17,7 +17,10 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -27,6 +30,7 @@ import org.carrot2.attrs.Attrs;
 import org.carrot2.clustering.Cluster;
 import org.carrot2.clustering.ClusteringAlgorithm;
 import org.carrot2.clustering.ClusteringAlgorithmProvider;
+import org.carrot2.clustering.ClusteringListener;
 import org.carrot2.clustering.Document;
 import org.carrot2.dcs.model.ClusterRequest;
 import org.carrot2.dcs.model.ClusterResponse;
@@ -85,9 +89,17 @@ public class ClusterServlet extends RestEndpoint {
       // Get language components for the designated language.
       LanguageComponents language = getLanguage(template, clusteringRequest);
 
+      // Collect per-stage metrics only if service info has been requested.
+      ClusteringListener listener = ClusteringListener.NO_OP;
+      if (isEnabled(request, PARAM_SERVICE_INFO)) {
+        serviceInfo.stages = new ArrayList<>();
+        listener = stageCollector(serviceInfo.stages);
+      }
+
       // Run the clustering.
       Stopwatch swClustering = new Stopwatch();
-      List<Cluster<DocumentRef>> clusters = runClustering(clusteringRequest, algorithm, language);
+      List<Cluster<DocumentRef>> clusters =
+          runClustering(clusteringRequest, algorithm, language, listener);
       serviceInfo.clusteringTimeMillis = swClustering.elapsedMillis();
 
       ClusterResponse clusterResponse = new ClusterResponse(adapt(clusters));
@@ -195,14 +207,30 @@ public class ClusterServlet extends RestEndpoint {
   private List<Cluster<DocumentRef>> runClustering(
       ClusterRequest clusteringRequest,
       ClusteringAlgorithm algorithm,
-      LanguageComponents language) {
+      LanguageComponents language,
+      ClusteringListener listener) {
     IntCursor c = new IntCursor();
     Stream<DocumentRef> stream =
         clusteringRequest.documents.stream()
             .sequential()
             .map(doc -> new DocumentRef(doc, c.value++));
 
-    return algorithm.cluster(stream, language);
+    return algorithm.cluster(stream, language, listener);
+  }
+
+  private static ClusteringListener stageCollector(List<ServiceInfo.Stage> stages) {
+    return new ClusteringListener() {
+      @Override
+      public void stageCompleted(
+          String stage, long elapsedNanos, long allocatedBytes, Map<String, Long> cardinalities) {
+        ServiceInfo.Stage info = new ServiceInfo.Stage();
+        info.name = stage;
+        info.timeMillis = elapsedNanos / 1_000_000d;
+        info.allocatedBytes = allocatedBytes >= 0 ? allocatedBytes : null;
+        info.cardinalities = cardinalities.isEmpty() ? null : new LinkedHashMap<>(cardinalities);
+        stages.add(info);
+      }
+    };
   }
 
   private ClusterRequest parseRequest(HttpServletRequest request) throws TerminateRequestException {
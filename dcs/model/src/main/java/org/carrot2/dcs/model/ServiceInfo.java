@@ -12,6 +12,9 @@ package org.carrot2.dcs.model;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import java.util.List;
+import java.util.Map;
 
 /** Request processing and service state information (for debugging and diagnostics). */
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -19,4 +22,21 @@ public class ServiceInfo {
   @JsonProperty public Long clusteringTimeMillis;
 
   @JsonProperty public Long requestHandlingTimeMillis;
+
+  /** Subsequent stages of the clustering algorithm, if the algorithm reports them. */
+  @JsonProperty public List<Stage> stages;
+
+  /** Timing, memory allocation and data size information for a single clustering stage. */
+  @JsonPropertyOrder({"name", "timeMillis", "allocatedBytes", "cardinalities"})
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public static class Stage {
+    @JsonProperty public String name;
+
+    @JsonProperty public Double timeMillis;
+
+    /** Bytes allocated by the clustering thread, {@code null} if not supported by the JVM. */
+    @JsonProperty public Long allocatedBytes;
+
+    @JsonProperty public Map<String, Long> cardinalities;
+  }
 }